@@ -1,8 +1,8 @@
 package edu.ntnu.idatt2001.paths.controller;
 
-import edu.ntnu.idatt2001.paths.model.game.GameInstance;
 import edu.ntnu.idatt2001.paths.model.player.Player;
 import edu.ntnu.idatt2001.paths.model.player.PlayerBuilder;
+import edu.ntnu.idatt2001.paths.view.FxImages;
 import java.util.ArrayList;
 import java.util.function.Consumer;
 import javafx.scene.image.Image;
@@ -26,7 +26,7 @@ public class CreatePlayerController {
     Player player = new PlayerBuilder()
         .setName(name)
         .setInventory(new ArrayList<>())
-        .setImage(playerImage)
+        .setImage(FxImages.reference(playerImage))
         .build();
     GameInstance.getInstance().setPlayer(player);
 
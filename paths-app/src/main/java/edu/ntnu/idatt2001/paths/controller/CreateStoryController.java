@@ -15,6 +15,7 @@ import edu.ntnu.idatt2001.paths.model.exceptions.LinkValidationException;
 import edu.ntnu.idatt2001.paths.model.exceptions.StoryValidationException;
 import edu.ntnu.idatt2001.paths.model.validations.LinkValidator;
 import edu.ntnu.idatt2001.paths.model.validations.StoryValidator;
+import edu.ntnu.idatt2001.paths.view.FxImages;
 import java.io.File;
 import java.io.IOException;
 import java.nio.file.Files;
@@ -73,12 +74,13 @@ public class CreateStoryController {
     Passage newPassage;
 
     if (backgroundImage != null && contentImage != null) {
-      newPassage = new Passage(title, content, backgroundImage, contentImage);
+      newPassage = new Passage(title, content, FxImages.reference(backgroundImage),
+          FxImages.reference(contentImage));
     } else if (backgroundImage != null) {
-      newPassage = new Passage(title, content, backgroundImage);
+      newPassage = new Passage(title, content, FxImages.reference(backgroundImage));
     } else if (contentImage != null) {
       newPassage = new Passage(title, content);
-      newPassage.setContentImage(contentImage);
+      newPassage.setContentImage(FxImages.reference(contentImage));
     } else {
       newPassage = new Passage(title, content);
     }
@@ -11,6 +11,8 @@ import edu.ntnu.idatt2001.paths.model.actions.HealthAction;
 import edu.ntnu.idatt2001.paths.model.actions.ScoreAction;
 import edu.ntnu.idatt2001.paths.model.actions.inventory.InventoryAction;
 import edu.ntnu.idatt2001.paths.model.actions.inventory.InventoryItemEnum;
+import edu.ntnu.idatt2001.paths.model.graph.ReachabilityAnalyzer;
+import edu.ntnu.idatt2001.paths.model.graph.StoryAnalysis;
 import edu.ntnu.idatt2001.paths.model.validations.LinkValidator;
 import edu.ntnu.idatt2001.paths.model.validations.PassageValidator;
 import edu.ntnu.idatt2001.paths.model.validations.StoryValidator;
@@ -52,10 +54,14 @@ import javafx.util.converter.DefaultStringConverter;
  */
 public class EditStoryController {
 
+  private static final ReachabilityAnalyzer REACHABILITY_ANALYZER = new ReachabilityAnalyzer();
+
   private final Story story;
 
   private final StoryFileManager fileManager;
 
+  private StoryAnalysis storyAnalysis;
+
   /**
    * Constructor for EditStoryController.
    *
@@ -279,11 +285,7 @@ public class EditStoryController {
     if (passage == null) {
       return;
     }
-    // Remove all links that reference the passage to be removed
-    for (Passage p : story.getPassages()) {
-      p.getLinks().removeIf(link -> link.getReference().equals(passage.getTitle()));
-    }
-    // Remove the passage from the story
+    // Remove the passage and the links that reference it from the story
     story.removePassageUsingPassage(passage);
     // Remove the passage from the table view
     tableView.getItems().remove(passage);
@@ -393,18 +395,19 @@ public class EditStoryController {
   }
 
   /**
-   * Save edited story to file.
+   * Save edited story to file, and analyze which passages of the saved story can be played.
    *
    * @param editedStory the edited story
+   * @return the analysis of the saved story, or null if it was not saved
    */
-  public void saveEditedStoryToFile(Story editedStory) {
+  public StoryAnalysis saveEditedStoryToFile(Story editedStory) {
     try {
       Path directoryPath = Paths.get("userStories");
       Path filePath = directoryPath.resolve(story.getTitle() + ".paths");
 
       if (!checkFileExists(filePath.toString())) {
         // File exists and user chose not to replace it, return without saving
-        return;
+        return null;
       }
       Files.createDirectories(filePath.getParent()); // Ensure the directory exists
       if (editedStory.getOpeningPassage() == null) {
@@ -427,10 +430,30 @@ public class EditStoryController {
               link.getActions());
         }
       }
+      return getStoryAnalysis(editedStory);
 
     } catch (IOException e) {
       e.printStackTrace();
+      return null;
+    }
+  }
+
+  /**
+   * Gets the analysis of a story: the passages that can not be reached from the opening passage,
+   * the dead ends and the loops a player can get stuck in. The analysis of the edited story is
+   * kept, and only redone when its passages or links have changed.
+   *
+   * @param story the story
+   * @return the analysis
+   */
+  public StoryAnalysis getStoryAnalysis(Story story) {
+    if (story != this.story) {
+      return new StoryAnalysis(story, REACHABILITY_ANALYZER);
+    }
+    if (storyAnalysis == null) {
+      storyAnalysis = new StoryAnalysis(story, REACHABILITY_ANALYZER);
     }
+    return storyAnalysis;
   }
 
   private boolean checkFileExists(String filePath) {
@@ -5,17 +5,13 @@ import edu.ntnu.idatt2001.paths.model.Link;
 import edu.ntnu.idatt2001.paths.model.Passage;
 import edu.ntnu.idatt2001.paths.model.Story;
 import edu.ntnu.idatt2001.paths.model.game.Game;
-import edu.ntnu.idatt2001.paths.model.game.GameInstance;
 import edu.ntnu.idatt2001.paths.model.goals.Goal;
 import edu.ntnu.idatt2001.paths.model.goals.GoalsEnum;
-import edu.ntnu.idatt2001.paths.model.goals.HealthGoal;
-import edu.ntnu.idatt2001.paths.model.goals.InventoryGoal;
-import edu.ntnu.idatt2001.paths.model.goals.ScoreGoal;
 import edu.ntnu.idatt2001.paths.model.player.Player;
 import edu.ntnu.idatt2001.paths.view.DeathView;
+import edu.ntnu.idatt2001.paths.view.FxImages;
 import edu.ntnu.idatt2001.paths.view.InventoryView;
 import edu.ntnu.idatt2001.paths.view.VictoryView;
-import java.util.ArrayList;
 import java.util.List;
 import java.util.Objects;
 import javafx.geometry.Insets;
@@ -69,16 +65,8 @@ public class GameController {
    * @param story The story to be initialized.
    */
   public void initialize(Story story) {
-    // Initialize goals list
-    List<Goal<?>> goals = new ArrayList<>();
-    Goal<Integer> goldGoal = GoalsEnum.GOLD.getGoal();// target gold is 100
-    ScoreGoal scoreGoal = (ScoreGoal) GoalsEnum.SCORE.getGoal(); //target score is 100
-    HealthGoal healthGoal = (HealthGoal) GoalsEnum.HEALTH.getGoal(); // target health is 1
-    InventoryGoal inventoryGoal = new InventoryGoal("gem");
-    goals.add(goldGoal);
-    goals.add(scoreGoal);
-    goals.add(healthGoal);
-    goals.add(inventoryGoal);
+    // Gold, score and health goals, and finding a gem
+    List<Goal<?>> goals = GoalsEnum.getDefaultGoals();
 
     // Use the passed story and goals list
     game = new Game(player, story, goals); // Initialize the game
@@ -102,15 +90,15 @@ public class GameController {
     MusicController.getInstance().getPageFlip().play();
     titleLabel.setText(passage.getTitle());
     contentLabel.setText(passage.getContent());
-    if (passage.getBackgroundImage() != null) {
-      backgroundImageView.setImage(passage.getBackgroundImage());
+    if (passage.getBackgroundImageReference() != null) {
+      backgroundImageView.setImage(FxImages.of(passage.getBackgroundImageReference()));
     } else {
       backgroundImageView.setImage(new Image(
           Objects.requireNonNull(getClass().getResourceAsStream(
               "/images/passageImages/passageBackgroundImages/mainMenu.png"))));
     }
-    if (passage.getContentImage() != null) {
-      contentImageView.setImage(passage.getContentImage());
+    if (passage.getContentImageReference() != null) {
+      contentImageView.setImage(FxImages.of(passage.getContentImageReference()));
     } else {
       contentImageView.setImage(null);
     }
@@ -130,7 +118,7 @@ public class GameController {
 
       linkButton.setOnAction(event -> {
         try {
-          if (!passage.hasPerformedAction(link)) {
+          if (!game.getPlaythroughState().hasPerformedAction(passage, link)) {
 
             // If inventory is full, switch to the inventory scene
             if (player.isInventoryFull()) {
@@ -155,7 +143,7 @@ public class GameController {
               showInformationBox(actionSummary);
             }
 
-            passage.markActionAsPerformed(link);
+            game.getPlaythroughState().markActionAsPerformed(passage, link);
             if (!player.isAlive()) {
               DeathView deathView = new DeathView();
               Main.switchScene(deathView);
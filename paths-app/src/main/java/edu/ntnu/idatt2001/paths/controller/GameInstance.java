@@ -1,6 +1,7 @@
-package edu.ntnu.idatt2001.paths.model.game;
+package edu.ntnu.idatt2001.paths.controller;
 
 import edu.ntnu.idatt2001.paths.model.Story;
+import edu.ntnu.idatt2001.paths.model.game.GameDifficultyEnum;
 import edu.ntnu.idatt2001.paths.model.player.Player;
 
 /**
@@ -1,7 +1,6 @@
 package edu.ntnu.idatt2001.paths.controller;
 
 import edu.ntnu.idatt2001.paths.model.actions.inventory.InventoryItemEnum;
-import edu.ntnu.idatt2001.paths.model.game.GameInstance;
 import edu.ntnu.idatt2001.paths.model.player.Player;
 import edu.ntnu.idatt2001.paths.view.InventoryView;
 import java.util.ArrayList;
@@ -1,7 +1,6 @@
 package edu.ntnu.idatt2001.paths.controller;
 
 import edu.ntnu.idatt2001.paths.model.game.GameDifficultyEnum;
-import edu.ntnu.idatt2001.paths.model.game.GameInstance;
 import java.util.function.Consumer;
 
 /**
@@ -0,0 +1,293 @@
+package edu.ntnu.idatt2001.paths.controller;
+
+import edu.ntnu.idatt2001.paths.model.PagedStory;
+import edu.ntnu.idatt2001.paths.model.Story;
+import edu.ntnu.idatt2001.paths.model.StoryCache;
+import edu.ntnu.idatt2001.paths.model.StoryFileManager;
+import edu.ntnu.idatt2001.paths.model.exceptions.ActionValidationException;
+import edu.ntnu.idatt2001.paths.model.exceptions.ImageValidationException;
+import edu.ntnu.idatt2001.paths.model.exceptions.LinkValidationException;
+import edu.ntnu.idatt2001.paths.model.exceptions.PassageValidationException;
+import edu.ntnu.idatt2001.paths.model.exceptions.StoryValidationException;
+import edu.ntnu.idatt2001.paths.model.file.StoryCatalog;
+import edu.ntnu.idatt2001.paths.view.SelectStoryView;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+import javafx.scene.control.Alert;
+import javafx.scene.control.ButtonType;
+
+/**
+ * Controller for SelectStory.
+ */
+public class SelectStoryController {
+
+  /**
+   * The number of passages a paged story keeps in memory.
+   */
+  private static final int PAGED_STORY_CACHE_SIZE = 64;
+
+  /**
+   * The thread stories are loaded on, one at a time, so the JavaFX application thread is not
+   * blocked by a large story.
+   */
+  private static final ExecutorService STORY_LOADER = Executors.newSingleThreadExecutor(
+      runnable -> {
+        Thread thread = new Thread(runnable, "story-loader");
+        thread.setDaemon(true);
+        return thread;
+      });
+
+  private final SelectStoryView selectStoryView;
+  private Story story;
+  private Map<String, String> storyTitleToFileMap;
+  private StoryCatalog storyCatalog;
+  private Consumer<Story> gameStarter;
+  private StoryLoadTask loadTask;
+
+  /**
+   * Constructor for SelectStoryController.
+   *
+   * @param selectStoryView The view class of SelectStory.
+   */
+  public SelectStoryController(SelectStoryView selectStoryView) {
+    this.selectStoryView = selectStoryView;
+    initialize(); // Add this line to call the initialize method
+  }
+
+  /**
+   * Initialize method for SelectStoryController. The stories are listed from the story catalog of
+   * the userStories directory, which only reads the story files that have changed since the last
+   * time.
+   */
+  public void initialize() {
+    storyTitleToFileMap = new HashMap<>();
+    try {
+      if (storyCatalog == null) {
+        storyCatalog = StoryCatalog.open(Paths.get("userStories"));
+      } else {
+        storyCatalog.refresh();
+      }
+      for (StoryCatalog.Entry entry : storyCatalog.getEntries()) {
+        String storyTitle = entry.title();
+        // Two files may hold stories with the same title
+        if (storyTitleToFileMap.containsKey(storyTitle)) {
+          storyTitle = storyTitle + " (" + entry.fileName() + ")";
+        }
+        String storyPath = storyCatalog.resolve(entry).toAbsolutePath().toString();
+        storyTitleToFileMap.put(storyTitle, storyPath);
+      }
+    } catch (IOException e) {
+      e.printStackTrace();
+    }
+    selectStoryView.setChoiceBoxItems(storyTitleToFileMap.keySet());
+  }
+
+  /**
+   * Gets the story catalog of the userStories directory.
+   *
+   * @return the story catalog, or null if the directory could not be listed
+   */
+  public StoryCatalog getStoryCatalog() {
+    return storyCatalog;
+  }
+
+  /**
+   * Gets story title to file map.
+   *
+   * @return storyTitleToFileMap. story title to file map
+   */
+  public Map<String, String> getStoryTitleToFileMap() {
+    return this.storyTitleToFileMap;
+  }
+
+  /**
+   * Saves story file to resources.
+   *
+   * @param file File to be saved to resources.
+   */
+  public void saveStoryToFolder(File file) {
+    if (storyTitleToFileMap.size() >= 8) {
+      // Show an error message or disable the upload button
+      return;
+    }
+
+    try {
+      Path destinationPath = Paths.get("userStories", file.getName());
+      if (!checkFileExists(destinationPath.toString())) {
+        // File exists and user chose not to replace it, return without saving
+        return;
+      }
+      Files.createDirectories(destinationPath.getParent()); // Ensure the directory exists
+      Files.copy(file.toPath(), destinationPath, StandardCopyOption.REPLACE_EXISTING);
+    } catch (IOException e) {
+      e.printStackTrace();
+    }
+  }
+
+  /**
+   * Starts loading the selected story in the background. The story may be paged in from disk.
+   * When it is loaded it becomes the story of the game and the game starter is called on the
+   * JavaFX application thread.
+   *
+   * @param storyTitle title of selected story.
+   * @return The task loading the story.
+   */
+  public StoryLoadTask storySelected(String storyTitle) {
+    return loadStory(storyTitle, PAGED_STORY_CACHE_SIZE, loadedStory -> {
+      if (gameStarter != null) {
+        gameStarter.accept(loadedStory);
+      }
+    });
+  }
+
+  /**
+   * Starts loading the whole selected story in the background, so it can be edited. The story is
+   * handed to the consumer on the JavaFX application thread.
+   *
+   * @param storyTitle title of selected story.
+   * @param onLoaded   Receives the loaded story.
+   * @return The task loading the story.
+   */
+  public StoryLoadTask storySelectedForEditing(String storyTitle, Consumer<Story> onLoaded) {
+    return loadStory(storyTitle, 0, onLoaded);
+  }
+
+  /**
+   * Starts loading a story on the story loader thread. A load that is still running is cancelled.
+   * Validation errors are shown in an alert.
+   *
+   * @param storyTitle     title of the story.
+   * @param pagedCacheSize the cache size to page the story in with, or 0 to load all of it.
+   * @param onLoaded       Receives the loaded story on the JavaFX application thread.
+   * @return The task loading the story.
+   */
+  private StoryLoadTask loadStory(String storyTitle, int pagedCacheSize,
+      Consumer<Story> onLoaded) {
+    if (loadTask != null) {
+      loadTask.cancel();
+    }
+    if (story instanceof PagedStory pagedStory) {
+      story = null;
+      try {
+        pagedStory.close();
+      } catch (IOException e) {
+        e.printStackTrace();
+      }
+    }
+    Path storyPath = Paths.get(storyTitleToFileMap.get(storyTitle));
+    StoryCatalog.Entry entry = storyCatalog != null
+        ? storyCatalog.getEntry(storyPath.getFileName().toString()) : null;
+    // A story that is played is shared through the cache, one that is edited is loaded on its own
+    StoryLoadTask task = new StoryLoadTask(new StoryFileManager(), storyPath,
+        entry != null ? entry.passageCount() : 0, pagedCacheSize,
+        pagedCacheSize > 0 ? StoryCache.getInstance() : null);
+    task.setOnSucceeded(event -> {
+      story = task.getValue();
+      GameInstance.getInstance().setStory(story);
+      onLoaded.accept(story);
+    });
+    task.setOnFailed(event -> {
+      Throwable e = task.getException();
+      if (e instanceof IOException || e instanceof StoryValidationException
+          || e instanceof PassageValidationException || e instanceof LinkValidationException
+          || e instanceof ActionValidationException || e instanceof ImageValidationException) {
+        handleException((Exception) e);
+      } else {
+        e.printStackTrace();
+      }
+    });
+    loadTask = task;
+    STORY_LOADER.execute(task);
+    return task;
+  }
+
+  /**
+   * Cancels the story load that is running, if any.
+   */
+  public void cancelLoading() {
+    if (loadTask != null) {
+      loadTask.cancel();
+    }
+  }
+
+  /**
+   * Checks if the file exists.
+   *
+   * @param filePath Filepath to check
+   * @return Whether the file exists.
+   */
+  private boolean checkFileExists(String filePath) {
+    File file = new File(filePath);
+    if (file.exists()) {
+      Alert alert = new Alert(Alert.AlertType.CONFIRMATION);
+      alert.setTitle("File Exists");
+      alert.setHeaderText("A file with the same name already exists.");
+      alert.setContentText("Do you want to replace the existing file?");
+
+      Optional<ButtonType> result = alert.showAndWait();
+      // User chose not to replace the file, return false
+      if (result.isPresent()) {
+        return result.get() == ButtonType.OK;
+      }
+    }
+    // File does not exist or user chose to replace it, return true
+    return true;
+  }
+
+  /**
+   * Remove story from file map.
+   *
+   * @param storyTitle the story title
+   */
+  public void removeStory(String storyTitle) {
+    String storyPath = storyTitleToFileMap.get(storyTitle);
+    File file = new File(storyPath);
+    if (file.delete()) {
+      storyTitleToFileMap.remove(storyTitle);
+    }
+  }
+
+
+  /**
+   * Method to handle exceptions and display alerts with error information.
+   *
+   * @param e The exception that occurred.
+   */
+  private void handleException(Exception e) {
+    Alert alert = new Alert(Alert.AlertType.ERROR);
+    alert.setTitle("Invalid input");
+    alert.setHeaderText("Validation Error:");
+    alert.setContentText(e.getMessage());
+    alert.showAndWait();
+  }
+
+  /**
+   * Sets the game starter.
+   *
+   * @param gameStarter Consumer<Story>
+   */
+  public void setGameStarter(Consumer<Story> gameStarter) {
+    this.gameStarter = gameStarter;
+  }
+
+  /**
+   * Gets story.
+   *
+   * @return story. story
+   */
+  public Story getStory() {
+    return story;
+  }
+}
+
+
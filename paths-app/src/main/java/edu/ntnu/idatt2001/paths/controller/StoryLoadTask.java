@@ -0,0 +1,67 @@
+package edu.ntnu.idatt2001.paths.controller;
+
+import edu.ntnu.idatt2001.paths.model.Story;
+import edu.ntnu.idatt2001.paths.model.StoryCache;
+import edu.ntnu.idatt2001.paths.model.StoryFileManager;
+import edu.ntnu.idatt2001.paths.model.file.PassageIndex;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import javafx.concurrent.Task;
+
+/**
+ * Background task that loads a story file, so the JavaFX application thread is not blocked while
+ * a large story is parsed and validated. The progress is the number of passages loaded out of the
+ * number of passages in the file, and the task can be cancelled while the passages are read. A
+ * story that is loaded whole can be taken from a {@link StoryCache}, which gives a frozen snapshot
+ * that can be played but not edited.
+ */
+public class StoryLoadTask extends Task<Story> {
+
+  private final StoryFileManager storyFileManager;
+  private final Path storyPath;
+  private final int passageCount;
+  private final int pagedCacheSize;
+  private final StoryCache storyCache;
+
+  /**
+   * Instantiates a new Story load task.
+   *
+   * @param storyFileManager the file manager to load the story with
+   * @param storyPath        the path of the story file
+   * @param passageCount     the number of passages in the file, or 0 if it is not known
+   * @param pagedCacheSize   the cache size to page the story in with if the file has a passage
+   *                         index, or 0 to always load the whole story
+   * @param storyCache       the cache to take the story from, or null to always load it
+   */
+  public StoryLoadTask(StoryFileManager storyFileManager, Path storyPath, int passageCount,
+      int pagedCacheSize, StoryCache storyCache) {
+    this.storyFileManager = storyFileManager;
+    this.storyPath = storyPath;
+    this.passageCount = passageCount;
+    this.pagedCacheSize = pagedCacheSize;
+    this.storyCache = storyCache;
+  }
+
+  @Override
+  protected Story call() throws Exception {
+    updateMessage("Loading " + storyPath.getFileName());
+    // Stories that have been given a passage index are paged in from disk
+    if (pagedCacheSize > 0 && Files.exists(PassageIndex.indexFileOf(storyPath))) {
+      return storyFileManager.loadPagedStory(storyPath, pagedCacheSize);
+    }
+    if (storyCache == null) {
+      return load(storyPath);
+    }
+    return storyCache.get(storyPath, this::load);
+  }
+
+  private Story load(Path path) throws IOException {
+    return storyFileManager.loadStoryFromFile(path, passagesLoaded -> {
+      if (passageCount > 0) {
+        updateProgress(passagesLoaded, passageCount);
+      }
+      updateMessage("Loaded " + passagesLoaded + " passages");
+    });
+  }
+}
@@ -9,6 +9,8 @@ import edu.ntnu.idatt2001.paths.model.exceptions.ActionValidationException;
 import edu.ntnu.idatt2001.paths.model.exceptions.LinkValidationException;
 import edu.ntnu.idatt2001.paths.model.exceptions.PassageValidationException;
 import edu.ntnu.idatt2001.paths.model.exceptions.StoryValidationException;
+import edu.ntnu.idatt2001.paths.model.graph.StoryAnalysis;
+import java.util.List;
 import java.util.Objects;
 import javafx.geometry.HPos;
 import javafx.geometry.Insets;
@@ -79,7 +81,10 @@ public class EditStoryView extends VBox {
     SelectStoryView selectStoryView = new SelectStoryView(primaryStage);
     confirmButton.setOnAction(e -> {
       try {
-        controller.saveEditedStoryToFile(controller.getStory());
+        StoryAnalysis analysis = controller.saveEditedStoryToFile(controller.getStory());
+        if (analysis != null) {
+          showPlayabilityWarning(analysis);
+        }
       } catch (StoryValidationException | PassageValidationException |
                ActionValidationException | LinkValidationException ex) {
         handleException(ex);
@@ -199,6 +204,38 @@ public class EditStoryView extends VBox {
     tableView.setContextMenu(contextMenu);
   }
 
+  private void showPlayabilityWarning(StoryAnalysis analysis) {
+    List<String> unreachable = analysis.getReachability().getUnreachablePassages();
+    List<String> deadEnds = analysis.getReachability().getDeadEnds();
+    List<List<String>> trapLoops = analysis.getComponents().getTrapLoops();
+    if (unreachable.isEmpty() && deadEnds.isEmpty() && trapLoops.isEmpty()) {
+      return;
+    }
+    StringBuilder content = new StringBuilder();
+    if (!unreachable.isEmpty()) {
+      content.append("Passages that can not be reached: ").append(summarize(unreachable))
+          .append('\n');
+    }
+    if (!deadEnds.isEmpty()) {
+      content.append("Dead ends: ").append(summarize(deadEnds)).append('\n');
+    }
+    for (List<String> loop : trapLoops) {
+      content.append("Loop without a way out: ").append(summarize(loop)).append('\n');
+    }
+    Alert alert = new Alert(Alert.AlertType.WARNING);
+    alert.setTitle("Story saved");
+    alert.setHeaderText("The story was saved, but not every passage can be played:");
+    alert.setContentText(content.toString());
+    alert.showAndWait();
+  }
+
+  private static String summarize(List<String> titles) {
+    int shown = Math.min(titles.size(), 10);
+    String summary = String.join(", ", titles.subList(0, shown));
+    return titles.size() > shown ? summary + " and " + (titles.size() - shown) + " more"
+        : summary;
+  }
+
   private void handleException(Exception e) {
     Alert alert = new Alert(Alert.AlertType.ERROR);
     alert.setTitle("Invalid input");
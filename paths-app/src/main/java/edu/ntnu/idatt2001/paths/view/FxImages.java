@@ -0,0 +1,53 @@
+package edu.ntnu.idatt2001.paths.view;
+
+import edu.ntnu.idatt2001.paths.model.PassageImage;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import javafx.scene.image.Image;
+
+/**
+ * Turns the image references of the engine into JavaFX images and back. An image is decoded the
+ * first time it is shown, and kept in its reference for later use.
+ */
+public final class FxImages {
+
+  private static final Logger logger = Logger.getLogger(FxImages.class.getName());
+
+  private FxImages() {
+  }
+
+  /**
+   * Gets the JavaFX image of a reference, decoding it the first time it is asked for.
+   *
+   * @param reference the image reference, may be null
+   * @return the image, or null if the reference is null
+   */
+  public static Image of(PassageImage reference) {
+    return reference != null ? reference.getImage(FxImages::decode) : null;
+  }
+
+  /**
+   * Makes a reference to a JavaFX image, which keeps the URL the image was read from.
+   *
+   * @param image the image, may be null
+   * @return the reference, or null if the image is null
+   */
+  public static PassageImage reference(Image image) {
+    return image != null ? PassageImage.of(image, image.getUrl()) : null;
+  }
+
+  private static Image decode(PassageImage reference) {
+    try (InputStream imageStream = reference.openStream()) {
+      Image decoded = new Image(imageStream);
+      if (decoded.isError()) {
+        logger.log(Level.WARNING, "Image could not be decoded: " + reference.getPath());
+      }
+      return decoded;
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+}
@@ -1,7 +1,7 @@
 package edu.ntnu.idatt2001.paths.view;
 
 import edu.ntnu.idatt2001.paths.controller.GameController;
-import edu.ntnu.idatt2001.paths.model.game.GameInstance;
+import edu.ntnu.idatt2001.paths.controller.GameInstance;
 import edu.ntnu.idatt2001.paths.model.player.Player;
 import java.util.Objects;
 import javafx.geometry.HPos;
@@ -78,8 +78,8 @@ public class GameView extends VBox {
     passageContentImageView.setPreserveRatio(true);
 
     if (player.getImage() != null) {
-      playerImageView.setImage(player.getImage());
-      System.out.println(player.getImage().getUrl());
+      playerImageView.setImage(FxImages.of(player.getImage()));
+      System.out.println(player.getImage().getPath());
     } else {
       System.out.println("Player image is null");
     }
@@ -2,7 +2,7 @@ package edu.ntnu.idatt2001.paths.view;
 
 import edu.ntnu.idatt2001.paths.Main;
 import edu.ntnu.idatt2001.paths.controller.GameController;
-import edu.ntnu.idatt2001.paths.model.game.GameInstance;
+import edu.ntnu.idatt2001.paths.controller.GameInstance;
 import java.util.Objects;
 import javafx.geometry.HPos;
 import javafx.geometry.Insets;
@@ -113,7 +113,7 @@ public class InventoryView extends VBox {
     GridPane.setMargin(closeButton, new Insets(0, 0, 50, 0));
     closeButton.setOnAction(e -> Main.switchToPreviousScene());
 
-    Image playerImage = GameInstance.getInstance().getPlayer().getImage();
+    Image playerImage = FxImages.of(GameInstance.getInstance().getPlayer().getImage());
     ImageView playerImageView = new ImageView();
     playerImageView.setImage(playerImage);
     playerImageView.setPreserveRatio(true);
@@ -4,7 +4,6 @@ import edu.ntnu.idatt2001.paths.Main;
 import edu.ntnu.idatt2001.paths.controller.CreateStoryController;
 import edu.ntnu.idatt2001.paths.controller.EditStoryController;
 import edu.ntnu.idatt2001.paths.controller.SelectStoryController;
-import edu.ntnu.idatt2001.paths.model.Story;
 import edu.ntnu.idatt2001.paths.model.StoryFileManager;
 import edu.ntnu.idatt2001.paths.model.exceptions.PathsValidationException;
 import edu.ntnu.idatt2001.paths.model.validations.PathsValidator;
@@ -12,7 +11,9 @@ import java.io.File;
 import java.util.Collection;
 import java.util.Objects;
 import javafx.geometry.HPos;
+import javafx.concurrent.Task;
 import javafx.geometry.Insets;
+import javafx.geometry.Pos;
 import javafx.geometry.VPos;
 import javafx.scene.control.Alert;
 import javafx.scene.control.Alert.AlertType;
@@ -21,6 +22,7 @@ import javafx.scene.control.ChoiceBox;
 import javafx.scene.control.ContextMenu;
 import javafx.scene.control.Label;
 import javafx.scene.control.MenuItem;
+import javafx.scene.control.ProgressBar;
 import javafx.scene.layout.ColumnConstraints;
 import javafx.scene.layout.GridPane;
 import javafx.scene.layout.Priority;
@@ -40,6 +42,10 @@ public class SelectStoryView extends VBox {
   private final FileChooser fileChooser;
   private final Button confirmButton;
   private final Button editStoryButton;
+  private final Button cancelLoadingButton;
+  private final ProgressBar loadProgressBar;
+  private final Label loadProgressLabel;
+  private final VBox loadProgressBox;
   private String story;
 
 
@@ -151,6 +157,27 @@ public class SelectStoryView extends VBox {
 
     gridPane.add(chooseStory, 0, 1);
 
+    loadProgressBar = new ProgressBar();
+    loadProgressBar.setPrefWidth(600);
+    loadProgressLabel = new Label();
+    loadProgressLabel.getStyleClass().add("continueText");
+    loadProgressLabel.getStylesheets().add(
+        Objects.requireNonNull(getClass().getResource("/styles/text.css")).toExternalForm());
+    cancelLoadingButton = new Button("Cancel");
+    cancelLoadingButton.getStyleClass().addAll("transparentButton", "continueText");
+    cancelLoadingButton.getStylesheets().addAll(
+        Objects.requireNonNull(getClass().getResource("/styles/buttons.css")).toExternalForm(),
+        Objects.requireNonNull(
+            getClass().getResource("/styles/text.css")).toExternalForm());
+    loadProgressBox = new VBox(10, loadProgressBar, loadProgressLabel, cancelLoadingButton);
+    loadProgressBox.setAlignment(Pos.CENTER);
+    loadProgressBox.setMaxWidth(600);
+    GridPane.setHalignment(loadProgressBox, HPos.CENTER);
+    GridPane.setValignment(loadProgressBox, VPos.CENTER);
+    GridPane.setMargin(loadProgressBox, new Insets(150, 0, 0, 0));
+    gridPane.add(loadProgressBox, 0, 1);
+    loadProgressBox.setVisible(false);
+
     getChildren().add(gridPane);
     setupUIBindings();
 
@@ -201,18 +228,21 @@ public class SelectStoryView extends VBox {
       Main.switchScene(createStoryView);
     });
 
-    editStoryButton.setOnAction(e -> {
-      StoryFileManager fileManager = new StoryFileManager();
-      Story fullStory = selectStoryController.storySelected(story);
-      EditStoryController editStoryController = new EditStoryController(fullStory, fileManager);
-      EditStoryView editStoryView = new EditStoryView(primaryStage, editStoryController);
-      Main.switchScene(editStoryView);
-    });
+    editStoryButton.setOnAction(e -> showLoadProgress(
+        selectStoryController.storySelectedForEditing(story, fullStory -> {
+          StoryFileManager fileManager = new StoryFileManager();
+          EditStoryController editStoryController = new EditStoryController(fullStory,
+              fileManager);
+          EditStoryView editStoryView = new EditStoryView(primaryStage, editStoryController);
+          Main.switchScene(editStoryView);
+        })));
 
     confirmButton.setOnAction(e -> {
       chooseStory.getSelectionModel().selectedItemProperty();
-      selectStoryController.storySelected(story);
+      showLoadProgress(selectStoryController.storySelected(story));
     });
+
+    cancelLoadingButton.setOnAction(e -> selectStoryController.cancelLoading());
   }
 
   /**
@@ -241,6 +271,20 @@ public class SelectStoryView extends VBox {
         });
   }
 
+  /**
+   * Shows the progress of a story load until it has finished. The buttons that start a load are
+   * disabled while it runs.
+   *
+   * @param task the task loading the story
+   */
+  private void showLoadProgress(Task<?> task) {
+    loadProgressBar.progressProperty().bind(task.progressProperty());
+    loadProgressLabel.textProperty().bind(task.messageProperty());
+    loadProgressBox.visibleProperty().bind(task.runningProperty());
+    confirmButton.disableProperty().bind(task.runningProperty());
+    editStoryButton.disableProperty().bind(task.runningProperty());
+  }
+
   /**
    * Sets items in the choice box based on the provided collection.
    *
@@ -2,8 +2,8 @@ package edu.ntnu.idatt2001.paths.view;
 
 import edu.ntnu.idatt2001.paths.Main;
 import edu.ntnu.idatt2001.paths.controller.GameController;
+import edu.ntnu.idatt2001.paths.controller.GameInstance;
 import edu.ntnu.idatt2001.paths.controller.MusicController;
-import edu.ntnu.idatt2001.paths.model.game.GameInstance;
 import java.awt.Desktop;
 import java.net.URI;
 import java.util.Objects;
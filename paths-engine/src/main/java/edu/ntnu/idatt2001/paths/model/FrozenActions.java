@@ -0,0 +1,119 @@
+package edu.ntnu.idatt2001.paths.model;
+
+import edu.ntnu.idatt2001.paths.model.actions.Action;
+import edu.ntnu.idatt2001.paths.model.actions.GoldAction;
+import edu.ntnu.idatt2001.paths.model.actions.HealthAction;
+import edu.ntnu.idatt2001.paths.model.actions.ScoreAction;
+import edu.ntnu.idatt2001.paths.model.actions.inventory.InventoryAction;
+import java.util.List;
+
+/**
+ * Copies of actions whose value can not be changed, for the links of a frozen story. A copy is of
+ * the same kind as the action it was made from, does the same to a player and has the same
+ * description.
+ */
+final class FrozenActions {
+
+  private FrozenActions() {
+  }
+
+  /**
+   * Copies a list of actions.
+   *
+   * @param actions the actions
+   * @return the copies, in a list that can not be changed
+   */
+  static List<Action<?>> copyOf(List<Action<?>> actions) {
+    Action<?>[] copies = new Action<?>[actions.size()];
+    for (int i = 0; i < copies.length; i++) {
+      copies[i] = copyOf(actions.get(i));
+    }
+    return List.of(copies);
+  }
+
+  /**
+   * Copies an action.
+   *
+   * @param action the action
+   * @return the copy
+   * @throws IllegalArgumentException if the action is of an unknown kind
+   */
+  static Action<?> copyOf(Action<?> action) {
+    return switch (action.getType()) {
+      case GOLDACTION -> new FrozenGoldAction((Integer) action.getValue());
+      case HEALTHACTION -> new FrozenHealthAction((Integer) action.getValue());
+      case SCOREACTION -> new FrozenScoreAction((Integer) action.getValue());
+      case INVENTORYACTION -> new FrozenInventoryAction(((InventoryAction) action).getItem());
+    };
+  }
+
+  /**
+   * Copies the required item of a link.
+   *
+   * @param requiredItem the required item, may be null
+   * @return the copy, or null if there is no required item
+   */
+  static InventoryAction copyOf(InventoryAction requiredItem) {
+    return requiredItem != null ? new FrozenInventoryAction(requiredItem.getItem()) : null;
+  }
+
+  private static UnsupportedOperationException frozen() {
+    return new UnsupportedOperationException("Action of a frozen story can not be changed");
+  }
+
+  private static final class FrozenGoldAction extends GoldAction {
+
+    FrozenGoldAction(int gold) {
+      super(gold);
+    }
+
+    @Override
+    public void setValue(String newValue) {
+      throw frozen();
+    }
+  }
+
+  private static final class FrozenHealthAction extends HealthAction {
+
+    FrozenHealthAction(int health) {
+      super(health);
+    }
+
+    @Override
+    public void setValue(String newValue) {
+      throw frozen();
+    }
+  }
+
+  private static final class FrozenScoreAction extends ScoreAction {
+
+    FrozenScoreAction(int points) {
+      super(points);
+    }
+
+    @Override
+    public void setValue(String newValue) {
+      throw frozen();
+    }
+  }
+
+  private static final class FrozenInventoryAction extends InventoryAction {
+
+    private final String item;
+
+    FrozenInventoryAction(String item) {
+      super(item.toLowerCase());
+      this.item = item;
+    }
+
+    @Override
+    public String getItem() {
+      return item;
+    }
+
+    @Override
+    public void setValue(String newValue) {
+      throw frozen();
+    }
+  }
+}
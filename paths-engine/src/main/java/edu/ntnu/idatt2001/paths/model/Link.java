@@ -0,0 +1,492 @@
+package edu.ntnu.idatt2001.paths.model;
+
+import edu.ntnu.idatt2001.paths.model.actions.Action;
+import edu.ntnu.idatt2001.paths.model.actions.ActionValueListener;
+import edu.ntnu.idatt2001.paths.model.actions.LinkEffect;
+import edu.ntnu.idatt2001.paths.model.actions.inventory.InventoryAction;
+import edu.ntnu.idatt2001.paths.model.exceptions.LinkValidationException;
+import edu.ntnu.idatt2001.paths.model.validations.LinkValidator;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.Predicate;
+import java.util.function.UnaryOperator;
+import java.util.logging.Logger;
+
+/**
+ * A link makes it possible to go from one passage to another. Links bind the various parts together
+ * of a story.
+ *
+ * <p>The links of a story made by {@link Story#freeze()} are frozen: they can not be changed, and
+ * neither can their actions. Other threads may read a frozen link once its story has been handed
+ * to them safely, see {@link Story}.
+ */
+public class Link {
+
+  private static final Logger logger = Logger.getLogger(Link.class.getName());
+  /**
+   * A list of special objects that make it possible to influence the properties of a player.
+   */
+  private final List<Action<?>> actions;
+  /**
+   * A descriptive text that indicates a choice or an action in a story. The text is the part of the
+   * link that will be visible to the player.
+   */
+  private String text;
+  /**
+   * A string that uniquely identifies a passage (part of a story). In practice this will be the
+   * title of the passage you wish to refer to.
+   */
+  private String reference;
+  private InventoryAction requiredItem;
+  /**
+   * The passages the link has been added to, which are told when the reference changes.
+   */
+  private List<Passage> passages;
+  private final boolean frozen;
+  /**
+   * The hash code of a frozen link, which is worked out when it is frozen.
+   */
+  private final int hash;
+  /**
+   * The actions of a frozen link fused into one effect, which is worked out when it is frozen.
+   */
+  private final LinkEffect effect;
+  /**
+   * The number of a frozen link among the links of its story, or -1 if the link is not frozen.
+   */
+  private final int id;
+
+  /**
+   * Listens to the actions and the required item of a link that is not frozen, so values set on
+   * them count as changes to the link. Null for a frozen link, whose actions can not be changed.
+   */
+  private final ActionValueListener actionListener;
+
+  /**
+   * The actions of a link. Changes to the list, also through an iterator, are reported to the
+   * passages the link is in, and the link listens to the actions in the list. Changes made through
+   * a sub list may not be.
+   */
+  private final class ActionList extends ArrayList<Action<?>> {
+
+    private static final long serialVersionUID = 1L;
+
+    @Override
+    public Action<?> set(int index, Action<?> action) {
+      Action<?> replaced = super.set(index, action);
+      replaced.removeValueListener(actionListener);
+      action.addValueListener(actionListener);
+      changed();
+      return replaced;
+    }
+
+    @Override
+    public boolean add(Action<?> action) {
+      super.add(action);
+      action.addValueListener(actionListener);
+      changed();
+      return true;
+    }
+
+    @Override
+    public void add(int index, Action<?> action) {
+      super.add(index, action);
+      action.addValueListener(actionListener);
+      changed();
+    }
+
+    @Override
+    public boolean addAll(Collection<? extends Action<?>> actions) {
+      return addAll(size(), actions);
+    }
+
+    @Override
+    public boolean addAll(int index, Collection<? extends Action<?>> actions) {
+      boolean added = super.addAll(index, actions);
+      for (Action<?> action : actions) {
+        action.addValueListener(actionListener);
+      }
+      return changedIf(added);
+    }
+
+    @Override
+    public Action<?> remove(int index) {
+      Action<?> removed = super.remove(index);
+      removed.removeValueListener(actionListener);
+      changed();
+      return removed;
+    }
+
+    @Override
+    public boolean remove(Object action) {
+      int index = indexOf(action);
+      if (index < 0) {
+        return false;
+      }
+      remove(index);
+      return true;
+    }
+
+    @Override
+    public boolean removeAll(Collection<?> actions) {
+      return removeIf(actions::contains);
+    }
+
+    @Override
+    public boolean retainAll(Collection<?> actions) {
+      return removeIf(action -> !actions.contains(action));
+    }
+
+    @Override
+    public boolean removeIf(Predicate<? super Action<?>> filter) {
+      return changedIf(super.removeIf(action -> {
+        if (!filter.test(action)) {
+          return false;
+        }
+        action.removeValueListener(actionListener);
+        return true;
+      }));
+    }
+
+    @Override
+    public void replaceAll(UnaryOperator<Action<?>> operator) {
+      forEach(action -> action.removeValueListener(actionListener));
+      super.replaceAll(operator);
+      forEach(action -> action.addValueListener(actionListener));
+      changed();
+    }
+
+    @Override
+    public void sort(Comparator<? super Action<?>> comparator) {
+      super.sort(comparator);
+      changed();
+    }
+
+    @Override
+    public void clear() {
+      forEach(action -> action.removeValueListener(actionListener));
+      super.clear();
+      changed();
+    }
+
+    @Override
+    protected void removeRange(int fromIndex, int toIndex) {
+      for (int i = fromIndex; i < toIndex; i++) {
+        get(i).removeValueListener(actionListener);
+      }
+      super.removeRange(fromIndex, toIndex);
+      changed();
+    }
+
+    private boolean changedIf(boolean changed) {
+      if (changed) {
+        changed();
+      }
+      return changed;
+    }
+  }
+
+  /**
+   * Instantiates a new Link.
+   *
+   * @param text         the text
+   * @param reference    the reference
+   * @param actions      the actions
+   * @param requiredItem the required item
+   */
+  public Link(String text, String reference, final List<Action<?>> actions,
+      InventoryAction requiredItem) {
+    LinkValidator.validateLink(text, reference, actions);
+    this.text = text;
+    this.reference = reference;
+    this.actionListener = action -> changed();
+    this.actions = new ActionList();
+    this.requiredItem = requiredItem;
+    if (requiredItem != null) {
+      requiredItem.addValueListener(actionListener);
+    }
+    this.frozen = false;
+    this.hash = 0;
+    this.effect = null;
+    this.id = -1;
+    logger.info("Link created with required item");
+  }
+
+
+  /**
+   * Creates a new link with the specified text and reference.
+   *
+   * @param text      The descriptive text of the link
+   * @param reference The reference string of the link
+   * @throws LinkValidationException the link validation exception
+   */
+  public Link(final String text, final String reference) {
+    LinkValidator.validateLink(text, reference, new ArrayList<>());
+    this.text = text;
+    this.reference = reference;
+    this.actionListener = action -> changed();
+    this.actions = new ActionList();
+    this.requiredItem = null;
+    this.frozen = false;
+    this.hash = 0;
+    this.effect = null;
+    this.id = -1;
+    logger.info("Link created without required item");
+  }
+
+  private Link(Link link, int id) {
+    this.text = link.text;
+    this.reference = link.reference;
+    this.actionListener = null;
+    this.actions = FrozenActions.copyOf(link.actions);
+    this.requiredItem = FrozenActions.copyOf(link.requiredItem);
+    this.frozen = true;
+    this.hash = Objects.hash(reference);
+    this.effect = LinkEffect.compile(actions);
+    this.id = id;
+  }
+
+  /**
+   * Makes a frozen copy of the link, or returns the link if it is frozen with the same number.
+   *
+   * @param id the number of the copy among the links of its story
+   * @return the frozen link
+   */
+  Link frozenCopy(int id) {
+    return frozen && this.id == id ? this : new Link(this, id);
+  }
+
+  /**
+   * Checks if the link is part of a frozen story and can not be changed.
+   *
+   * @return true if the link is frozen
+   */
+  public boolean isFrozen() {
+    return frozen;
+  }
+
+  private void checkNotFrozen() {
+    if (frozen) {
+      throw new UnsupportedOperationException("Link of a frozen story can not be changed");
+    }
+  }
+
+  /**
+   * Returns the descriptive text of the link.
+   *
+   * @return The text of the link
+   */
+  public String getText() {
+    return text;
+  }
+
+  /**
+   * Sets text.
+   *
+   * @param linkText the link text
+   * @throws UnsupportedOperationException if the link is frozen
+   */
+  public void setText(String linkText) {
+    checkNotFrozen();
+    this.text = linkText;
+    changed();
+  }
+
+  /**
+   * Returns the reference string of the link.
+   *
+   * @return The reference string of the link
+   */
+  public String getReference() {
+    return reference;
+  }
+
+  /**
+   * Sets reference.
+   *
+   * @param newValue the new value
+   * @throws UnsupportedOperationException if the link is frozen
+   */
+  public void setReference(String newValue) {
+    checkNotFrozen();
+    String oldValue = this.reference;
+    this.reference = newValue;
+    if (passages != null) {
+      for (Passage passage : passages) {
+        passage.referenceChanged(this, oldValue);
+      }
+    }
+    changed();
+  }
+
+  private void changed() {
+    if (passages != null) {
+      for (Passage passage : passages) {
+        passage.linkChanged();
+      }
+    }
+  }
+
+  List<Passage> getPassages() {
+    return passages != null ? List.copyOf(passages) : List.of();
+  }
+
+  void addedTo(Passage passage) {
+    // A frozen link keeps its reference, so the passages need not be told of it
+    if (frozen) {
+      return;
+    }
+    if (passages == null) {
+      passages = new ArrayList<>(1);
+    }
+    passages.add(passage);
+  }
+
+  void removedFrom(Passage passage) {
+    if (!frozen && passages != null) {
+      passages.removeIf(added -> added == passage);
+    }
+  }
+
+  /**
+   * Adds the specified action to the list of actions associated with the link.
+   *
+   * @param action The action to add
+   * @throws UnsupportedOperationException if the link is frozen
+   */
+  public void addAction(final Action<?> action) {
+    checkNotFrozen();
+    LinkValidator.validateAddAction(action);
+    actions.add(action);
+    logger.info("Action added to the link");
+  }
+
+  /**
+   * Returns the list of actions associated with the link. Actions added to or removed from the
+   * list, and values set on the actions in it, count as changes to the link. The list of a frozen
+   * link can not be changed.
+   *
+   * @return The list of actions associated with the link
+   */
+  public List<Action<?>> getActions() {
+    return actions;
+  }
+
+  /**
+   * Gets the actions of a frozen link fused into one effect. The actions of a link that is not
+   * frozen can still change, so they are not fused.
+   *
+   * @return the effect, or null if the link is not frozen
+   */
+  public LinkEffect getEffect() {
+    return effect;
+  }
+
+  /**
+   * Gets the number of a frozen link among the links of its story. The links of a story are
+   * numbered from zero when it is frozen, and a link shared by several passages has one number.
+   *
+   * @return the number, or -1 if the link is not frozen
+   */
+  public int getId() {
+    return id;
+  }
+
+  /**
+   * Gets required item.
+   *
+   * @return the required item
+   */
+  public InventoryAction getRequiredItem() {
+    return requiredItem;
+  }
+
+  /**
+   * Sets required item.
+   *
+   * @param requiredItemAction the required item action
+   * @throws UnsupportedOperationException if the link is frozen
+   */
+  public void setRequiredItem(InventoryAction requiredItemAction) {
+    checkNotFrozen();
+    if (requiredItem != null) {
+      requiredItem.removeValueListener(actionListener);
+    }
+    this.requiredItem = requiredItemAction;
+    if (requiredItemAction != null) {
+      requiredItemAction.addValueListener(actionListener);
+    }
+    changed();
+  }
+
+  /**
+   * Returns a string summary of all the actions associated with the link.
+   *
+   * @return A summary of the actions
+   */
+  public String getActionSummary() {
+    StringBuilder sb = new StringBuilder();
+    for (Action<?> action : actions) {
+      sb.append(action.getDescription()).append("\n");
+    }
+    return sb.toString();
+  }
+
+  /**
+   * Link has item requirement boolean.
+   *
+   * @return the boolean
+   */
+  public boolean linkHasItemRequirement() {
+    return getRequiredItem() != null;
+  }
+
+  /**
+   * Returns a string representation of the link, which is just the descriptive text.
+   *
+   * @return The descriptive text of the link
+   */
+  @Override
+  public String toString() {
+    return text;
+  }
+
+  /**
+   * Two links are equal if they have the same reference This is to make the required map of links
+   * to passages point links with different text and actions to the same passage
+   *
+   * @param o Object - Any object equality checked with this link
+   * @return boolean - true if the links are equal, false if not
+   */
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) {
+      logger.info("Link is compared to itself");
+      return true;
+    }
+    if (!(o instanceof Link link)) {
+      logger.info("Object compared to link is not of type Link");
+      return false;
+    }
+    boolean result = Objects.equals(getReference(), link.getReference());
+    logger.info(result ? "Links are equal" : "Links are not equal");
+    return result;
+  }
+
+  /**
+   * Returns a hashcode for the link based on the reference
+   *
+   * @return int - hashcode for the link
+   */
+  @Override
+  public int hashCode() {
+    if (frozen) {
+      return hash;
+    }
+    logger.info("Hashcode method called");
+    return Objects.hash(getReference());
+  }
+}
\ No newline at end of file
@@ -0,0 +1,281 @@
+package edu.ntnu.idatt2001.paths.model;
+
+import edu.ntnu.idatt2001.paths.model.file.PassageIndex;
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.AbstractCollection;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Logger;
+
+/**
+ * A story that is not held in memory. The passages are read from the story file through a
+ * {@link PassageIndex} when they are asked for, and at most a fixed number of them are kept in a
+ * least recently used cache. Only the passages a player walks through are parsed, and the memory
+ * used does not grow with the size of the story.
+ *
+ * <p>A paged story is read-only. The passages are frozen as they are read, and their links are
+ * numbered in the order of the file as recorded in the index, so a passage read again has links
+ * with the same numbers. A passage that has dropped out of the cache is read again the next time
+ * it is visited, so the state of a playthrough is kept in the
+ * {@link edu.ntnu.idatt2001.paths.model.game.PlaythroughState} of the game, not in the passage.
+ */
+public class PagedStory extends Story implements Closeable {
+
+  private static final Logger logger = Logger.getLogger(PagedStory.class.getName());
+
+  private final FileChannel channel;
+  private final PassageIndex index;
+  private final StoryFileManager fileManager;
+  private final Map<String, Passage> cache;
+  private final Map<String, PassageImage> images = new ConcurrentHashMap<>();
+  private long passageReads;
+
+  /**
+   * Instantiates a new Paged story.
+   *
+   * @param storyFile   the .paths file
+   * @param index       the passage index of the file
+   * @param cacheSize   the number of passages to keep in memory
+   * @param fileManager the file manager that parses the passages
+   * @throws IOException if the file can not be opened
+   */
+  public PagedStory(Path storyFile, PassageIndex index, int cacheSize,
+      StoryFileManager fileManager) throws IOException {
+    super(index.getStoryTitle());
+    if (cacheSize <= 0) {
+      throw new IllegalArgumentException("Cache size must be positive");
+    }
+    this.index = index;
+    this.fileManager = fileManager;
+    this.cache = new LinkedHashMap<>(cacheSize * 2, 0.75f, true) {
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<String, Passage> eldest) {
+        return size() > cacheSize;
+      }
+    };
+    this.channel = FileChannel.open(storyFile, StandardOpenOption.READ);
+    logger.info("Paged story opened with " + index.size() + " passages");
+  }
+
+  /**
+   * Gets the opening passage, which is the first passage of the file.
+   *
+   * @return the opening passage
+   */
+  @Override
+  public Passage getOpeningPassage() {
+    return getPassage(index.getTitles().get(0));
+  }
+
+  /**
+   * Gets the passage with the given title, reading it from the file if it is not in the cache.
+   *
+   * @param title the title of the passage
+   * @return the passage, or null if no such passage exists
+   */
+  @Override
+  public synchronized Passage getPassage(String title) {
+    if (!index.contains(title)) {
+      return null;
+    }
+    Passage passage = cache.get(title);
+    if (passage == null) {
+      passage = readPassage(title);
+      cache.put(title, passage);
+    }
+    return passage;
+  }
+
+  @Override
+  public boolean hasPassage(String title) {
+    return index.contains(title);
+  }
+
+  /**
+   * Gets the number of links in the story file.
+   *
+   * @return the number of links
+   */
+  @Override
+  public int getLinkCount() {
+    return index.getLinkCount();
+  }
+
+  /**
+   * Finds the passage a link is in through the index, reading only that passage.
+   *
+   * @param id the number of the link
+   * @return the passage, or null if the story has no link with the number
+   */
+  @Override
+  public Passage getPassageOfLink(int id) {
+    if (id < 0 || id >= index.getLinkCount()) {
+      return null;
+    }
+    return getPassage(index.getTitles().get(index.getLinkPosition(id).passage()));
+  }
+
+  @Override
+  public Passage getFirstPassage() {
+    return getOpeningPassage();
+  }
+
+  /**
+   * Gets all passages. The passages are read one at a time while the collection is iterated, and
+   * are not kept beyond the cache.
+   *
+   * @return a view of all passages
+   */
+  @Override
+  public Collection<Passage> getPassages() {
+    return new AbstractCollection<>() {
+      @Override
+      public Iterator<Passage> iterator() {
+        Iterator<String> titles = index.getTitles().iterator();
+        return new Iterator<>() {
+          @Override
+          public boolean hasNext() {
+            return titles.hasNext();
+          }
+
+          @Override
+          public Passage next() {
+            return getPassage(titles.next());
+          }
+        };
+      }
+
+      @Override
+      public int size() {
+        return index.size();
+      }
+    };
+  }
+
+  /**
+   * Gets the broken links. The index records where every link leads, so only the passages with
+   * broken links are read.
+   *
+   * @return the broken links
+   */
+  @Override
+  public List<Link> getBrokenLinks() {
+    return links(index.getBrokenLinks());
+  }
+
+  /**
+   * Gets the links that lead to a passage. Only the passages the links are in are read.
+   *
+   * @param title the title of the passage
+   * @return the links
+   */
+  @Override
+  public List<Link> getIncomingLinks(String title) {
+    return links(index.getIncomingLinks(title));
+  }
+
+  /**
+   * Not supported, a paged story is read-only.
+   *
+   * @param passage the passage
+   * @throws UnsupportedOperationException always
+   */
+  @Override
+  public void addPassage(Passage passage) {
+    throw new UnsupportedOperationException("Passages can not be added to a paged story");
+  }
+
+  /**
+   * Not supported, a paged story is read-only.
+   *
+   * @param passage the passage
+   * @return never
+   * @throws UnsupportedOperationException always
+   */
+  @Override
+  public boolean removePassageUsingPassage(Passage passage) {
+    throw new UnsupportedOperationException("Passages can not be removed from a paged story");
+  }
+
+  /**
+   * Not supported, a paged story does not hold its passages in a map.
+   *
+   * @return never
+   * @throws UnsupportedOperationException always
+   */
+  @Override
+  public Map<Link, Passage> getPassagesMap() {
+    throw new UnsupportedOperationException("A paged story has no passage map");
+  }
+
+  /**
+   * Gets the number of passages that are in memory.
+   *
+   * @return the number of cached passages
+   */
+  public synchronized int getCachedPassageCount() {
+    return cache.size();
+  }
+
+  /**
+   * Gets the number of times a passage has been read from the file.
+   *
+   * @return the number of passage reads
+   */
+  public synchronized long getPassageReads() {
+    return passageReads;
+  }
+
+  @Override
+  public void close() throws IOException {
+    channel.close();
+  }
+
+  private List<Link> links(List<PassageIndex.LinkPosition> positions) {
+    List<Link> links = new ArrayList<>(positions.size());
+    List<String> titles = index.getTitles();
+    for (PassageIndex.LinkPosition position : positions) {
+      links.add(getPassage(titles.get(position.passage())).getLinks().get(position.link()));
+    }
+    return links;
+  }
+
+  private Passage readPassage(String title) {
+    PassageIndex.Entry entry = index.getEntry(title);
+    ByteBuffer bytes = ByteBuffer.allocate(entry.length());
+    try {
+      while (bytes.hasRemaining()) {
+        if (channel.read(bytes, entry.offset() + bytes.position()) < 0) {
+          throw new EOFException("Story file ends inside passage " + title);
+        }
+      }
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    bytes.flip();
+    passageReads++;
+    return fileManager.readIndexedPassage(bytes, title, images).frozenCopy(entry.firstLink());
+  }
+
+  @Override
+  public boolean equals(Object obj) {
+    return this == obj;
+  }
+
+  @Override
+  public int hashCode() {
+    return System.identityHashCode(this);
+  }
+}
@@ -0,0 +1,490 @@
+package edu.ntnu.idatt2001.paths.model;
+
+import edu.ntnu.idatt2001.paths.model.exceptions.PassageValidationException;
+import edu.ntnu.idatt2001.paths.model.validations.PassageValidator;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.RandomAccess;
+import java.util.logging.Logger;
+
+/**
+ * The type Passage. Describes a scene in the Story
+ *
+ * <p>The passages of a story made by {@link Story#freeze()} are frozen: they can not be changed,
+ * their content is decoded and their hash code worked out once, and their links are kept in a list
+ * that can not be changed. Other threads may read a frozen passage once its story has been handed
+ * to them safely, see {@link Story}.
+ */
+public class Passage {
+
+
+  private static final Logger logger = Logger.getLogger(Passage.class.getName());
+  private final PassageImage backgroundImage;
+  private final List<Link> links;
+  private String title;
+  /**
+   * The content of the passage. Passages loaded from a memory-mapped file hold a sequence that is
+   * decoded first when the content is used.
+   */
+  private CharSequence content;
+  private PassageImage contentImage;
+  /**
+   * The stories the passage has been added to, which are told when its title or links change.
+   */
+  private List<Story> stories;
+  /**
+   * Counts the changes to the passage and its links, so a save can tell which passages to write
+   * again without looking at their content.
+   */
+  private int version;
+  private final boolean frozen;
+  /**
+   * The hash code of a frozen passage, which is worked out when it is frozen.
+   */
+  private final int hash;
+
+  /**
+   * The links of a passage. Links that are added or removed, also through an iterator or
+   * {@code removeIf}, are reported to the stories the passage is in.
+   */
+  private final class LinkList extends AbstractList<Link> implements RandomAccess {
+
+    private final ArrayList<Link> elements;
+
+    LinkList(List<Link> links) {
+      elements = new ArrayList<>(links);
+      for (Link link : elements) {
+        link.addedTo(Passage.this);
+      }
+    }
+
+    @Override
+    public Link get(int index) {
+      return elements.get(index);
+    }
+
+    @Override
+    public int size() {
+      return elements.size();
+    }
+
+    @Override
+    public Link set(int index, Link link) {
+      Link removed = elements.set(index, link);
+      linkRemoved(removed);
+      linkAdded(link);
+      return removed;
+    }
+
+    @Override
+    public void add(int index, Link link) {
+      elements.add(index, link);
+      modCount++;
+      linkAdded(link);
+    }
+
+    @Override
+    public Link remove(int index) {
+      Link removed = elements.remove(index);
+      modCount++;
+      linkRemoved(removed);
+      return removed;
+    }
+  }
+
+
+  /**
+   * Main constructor of Passage class Creates a passage with @see param
+   *
+   * @param title           the title
+   * @param content         the content
+   * @param backgroundImage the background image
+   * @param contentImage    the content image
+   * @param links           the links
+   */
+  public Passage(final String title, final CharSequence content, PassageImage backgroundImage,
+      PassageImage contentImage, final List<Link> links) {
+    this(title, content, links, backgroundImage, contentImage);
+  }
+
+  /**
+   * Instantiates a new Passage with image references that are decoded first when they are used.
+   *
+   * @param title           the title
+   * @param content         the content
+   * @param backgroundImage the background image reference
+   * @param contentImage    the content image reference
+   */
+  public Passage(String title, CharSequence content, PassageImage backgroundImage,
+      PassageImage contentImage) {
+    this(title, content, new ArrayList<>(), backgroundImage, contentImage);
+  }
+
+  private Passage(final String title, final CharSequence content, final List<Link> links,
+      PassageImage backgroundImage, PassageImage contentImage) {
+    this.title = title;
+    this.content = content;
+    this.backgroundImage = backgroundImage;
+    this.contentImage = contentImage;
+    this.links = new LinkList(links);
+    this.frozen = false;
+    this.hash = 0;
+    logger.info("Passage created with background and content images and links");
+  }
+
+  private Passage(Passage passage, Link[] links) {
+    this.title = passage.title;
+    this.content = passage.getContent();
+    this.backgroundImage = passage.backgroundImage;
+    this.contentImage = passage.contentImage;
+    this.links = List.of(links);
+    this.frozen = true;
+    this.hash = Objects.hash(title, content);
+  }
+
+  /**
+   * Makes a frozen copy of the passage. Links that have no copy yet are numbered in the order they
+   * are copied. A frozen passage is returned as it is if its links already have those numbers.
+   *
+   * @param frozenLinks the frozen copies of links by the very link they were made from, which
+   *                    copies of links shared with other passages are taken from and added to
+   * @return the frozen passage
+   */
+  Passage frozenCopy(Map<Link, Link> frozenLinks) {
+    Link[] copies = new Link[links.size()];
+    for (int i = 0; i < copies.length; i++) {
+      copies[i] = frozenLinks.computeIfAbsent(links.get(i),
+          link -> link.frozenCopy(frozenLinks.size()));
+    }
+    return sameLinks(copies) ? this : new Passage(this, copies);
+  }
+
+  /**
+   * Makes a frozen copy of the passage with links numbered one after another. A frozen passage is
+   * returned as it is if its links already have those numbers.
+   *
+   * @param firstLinkId the number of the first link
+   * @return the frozen passage
+   */
+  Passage frozenCopy(int firstLinkId) {
+    Link[] copies = new Link[links.size()];
+    for (int i = 0; i < copies.length; i++) {
+      copies[i] = links.get(i).frozenCopy(firstLinkId + i);
+    }
+    return sameLinks(copies) ? this : new Passage(this, copies);
+  }
+
+  private boolean sameLinks(Link[] copies) {
+    if (!frozen) {
+      return false;
+    }
+    for (int i = 0; i < copies.length; i++) {
+      if (copies[i] != links.get(i)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Checks if the passage is part of a frozen story and can not be changed.
+   *
+   * @return true if the passage is frozen
+   */
+  public boolean isFrozen() {
+    return frozen;
+  }
+
+  private void checkNotFrozen() {
+    if (frozen) {
+      throw new UnsupportedOperationException("Passage of a frozen story can not be changed");
+    }
+  }
+
+  /**
+   * Instantiates a new Passage.
+   *
+   * @param title   the title
+   * @param content the content
+   */
+  public Passage(String title, String content) {
+    this(title, content, null, null, new ArrayList<>());
+    logger.info("Passage created with just title and content");
+  }
+
+  /**
+   * Instantiates a new Passage.
+   *
+   * @param title           the title
+   * @param content         the content
+   * @param backgroundImage the background image
+   */
+  public Passage(String title, String content, PassageImage backgroundImage) {
+    this(title, content, backgroundImage, null, new ArrayList<>());
+    logger.info("Passage created with background image only");
+  }
+
+  /**
+   * Validate passage {@code @USE} to validate passage in loadStory from file.
+   */
+  public void validatePassage() {
+    PassageValidator.validatePassage(this.title, this.content, this.links);
+  }
+
+  public void validatePassageWithOutLinks() {
+    PassageValidator.validatePassageWithOutLinks(this.title, this.content);
+  }
+
+  /**
+   * Gets title.
+   *
+   * @return the title
+   */
+  public String getTitle() {
+    return title;
+  }
+
+  /**
+   * Set title.
+   *
+   * @param newValue the new value
+   * @throws UnsupportedOperationException if the passage is frozen
+   */
+  public void setTitle(String newValue) {
+    checkNotFrozen();
+    if (stories != null) {
+      for (Story story : stories) {
+        story.validateTitleChange(this, newValue);
+      }
+    }
+    String oldValue = this.title;
+    this.title = newValue;
+    if (stories != null) {
+      for (Story story : stories) {
+        story.titleChanged(this, oldValue);
+      }
+    }
+    version++;
+  }
+
+  /**
+   * Gets content.
+   *
+   * @return the content
+   */
+  public String getContent() {
+    return content != null ? content.toString() : null;
+  }
+
+  /**
+   * Sets content.
+   *
+   * @param newValue the new value
+   * @throws UnsupportedOperationException if the passage is frozen
+   */
+  public void setContent(String newValue) {
+    checkNotFrozen();
+    this.content = newValue;
+    version++;
+  }
+
+  /**
+   * Gets the reference to the background image, without decoding it. The image is decoded the
+   * first time {@link PassageImage#getImage} is called.
+   *
+   * @return the background image reference, or null if the passage has no background image
+   */
+  public PassageImage getBackgroundImageReference() {
+    return backgroundImage;
+  }
+
+  /**
+   * Gets the reference to the content image, without decoding it. The image is decoded the first
+   * time {@link PassageImage#getImage} is called.
+   *
+   * @return the content image reference, or null if the passage has no content image
+   */
+  public PassageImage getContentImageReference() {
+    return contentImage;
+  }
+
+  /**
+   * Sets contente image.
+   *
+   * @param contentImage the content image
+   * @throws UnsupportedOperationException if the passage is frozen
+   */
+  public void setContentImage(PassageImage contentImage) {
+    checkNotFrozen();
+    this.contentImage = contentImage;
+    version++;
+  }
+
+  /**
+   * Adds a link to another passage to this passage.
+   *
+   * @param link the link to add
+   * @return true if the link was successfully added, false otherwise
+   * @throws PassageValidationException if link reference is the same as passage title
+   * @throws UnsupportedOperationException if the passage is frozen
+   */
+  public boolean addLink(Link link) {
+    checkNotFrozen();
+    PassageValidator.validateAddLink(link, title);
+    return links.add(link);
+  }
+
+  /**
+   * Remove link.
+   *
+   * @param link the link
+   * @throws UnsupportedOperationException if the passage is frozen
+   */
+  public void removeLink(Link link) {
+    checkNotFrozen();
+    this.links.remove(link);
+  }
+
+  /**
+   * Gets a list of all the links from this passage to other passages. The list of a frozen
+   * passage can not be changed.
+   *
+   * @return a list of all the links from this passage to other passages
+   */
+  public List<Link> getLinks() {
+    return links;
+  }
+
+  /**
+   * Gets true if this passage has any links to other passages, false otherwise.
+   *
+   * @return true if this passage has any links to other passages, false otherwise
+   */
+  public boolean hasLinks() {
+    return !links.isEmpty();
+  }
+
+  /**
+   * Gets the last link of a passage object.
+   *
+   * @return the last link
+   */
+  public Link getLastLink() {
+    if (links.isEmpty()) {
+      return null;
+    }
+    return links.get(links.size() - 1);
+  }
+
+  void addedTo(Story story) {
+    // A frozen passage keeps its title and links, so the stories need not be told of it
+    if (frozen) {
+      return;
+    }
+    if (stories == null) {
+      stories = new ArrayList<>(1);
+    }
+    stories.add(story);
+  }
+
+  void removedFrom(Story story) {
+    if (!frozen && stories != null) {
+      stories.removeIf(added -> added == story);
+    }
+  }
+
+  /**
+   * Gets a number that changes whenever the passage is changed, one of its links is added or
+   * removed, or the text, reference, actions or required item of one of its links is replaced or
+   * has its value set.
+   *
+   * @return the version
+   */
+  int getVersion() {
+    return version;
+  }
+
+  void linkChanged() {
+    version++;
+  }
+
+  void referenceChanged(Link link, String oldReference) {
+    if (stories != null) {
+      for (Story story : stories) {
+        story.referenceChanged(link, oldReference);
+      }
+    }
+  }
+
+  private void linkAdded(Link link) {
+    link.addedTo(this);
+    version++;
+    if (stories != null) {
+      for (Story story : stories) {
+        story.linkAdded(link);
+      }
+    }
+  }
+
+  private void linkRemoved(Link link) {
+    link.removedFrom(this);
+    version++;
+    if (stories != null) {
+      for (Story story : stories) {
+        story.linkRemoved(link);
+      }
+    }
+  }
+
+  /**
+   * Gets a textual representation of the passage, consisting of its title and content.
+   *
+   * @return a textual representation of the passage, consisting of its title and content
+   */
+  @Override
+  public String toString() {
+    return "Passage{" +
+        "title='" + title + '\'' +
+        ", content='" + content + '\'' +
+        '}';
+  }
+
+  /**
+   * Compares this passage to another object for equality.
+   *
+   * @param o the object to compare to
+   * @return true if the object is equal to this passage, false otherwise
+   */
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) {
+      logger.info("Passage is compared to itself");
+      return true;
+    }
+    if (!(o instanceof Passage passage)) {
+      logger.info("Object compared to passage is not of type Passage");
+      return false;
+    }
+    boolean result =
+        getTitle().equals(passage.getTitle()) && getContent().equals(passage.getContent());
+    logger.info(result ? "Passages are equal" : "Passages are not equal");
+    return result;
+  }
+
+  /**
+   * Returns a hash code for this passage, based on its title and content.
+   *
+   * @return a hash code for this passage, based on its title and content
+   */
+  @Override
+  public int hashCode() {
+    if (frozen) {
+      return hash;
+    }
+    logger.info("Hashcode method called");
+    return Objects.hash(getTitle(), getContent());
+  }
+}
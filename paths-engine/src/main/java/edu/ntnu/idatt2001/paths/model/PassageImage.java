@@ -0,0 +1,236 @@
+package edu.ntnu.idatt2001.paths.model;
+
+import edu.ntnu.idatt2001.paths.model.exceptions.ImageValidationException;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.function.Function;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * A reference to the image of a passage or a player. Images read from a story file are kept as
+ * their path and are decoded first when they are shown, so loading a story does not decode the
+ * images of passages that are never visited. The decoded image is kept for later use.
+ *
+ * <p>The engine does not know how images are shown, so a decoded image is an opaque handle made by
+ * the decoder of the client, e.g. a JavaFX image. A reference is decoded by one kind of decoder.
+ */
+public final class PassageImage {
+
+  private static final Logger logger = Logger.getLogger(PassageImage.class.getName());
+  private static final String UPLOADED_IMAGES_PREFIX = "uploadedImages/";
+
+  /**
+   * The classpath folder of the default background images.
+   */
+  public static final String BACKGROUND_IMAGES_FOLDER =
+      "/images/passageImages/passageBackgroundImages/";
+  /**
+   * The classpath folder of the default content images.
+   */
+  public static final String CONTENT_IMAGES_FOLDER = "/images/passageImages/passageContentImages/";
+
+  /**
+   * Where the image is read from.
+   */
+  public enum Source {
+    /**
+     * A resource on the classpath, e.g. the default passage images.
+     */
+    CLASSPATH,
+    /**
+     * A file in the uploadedImages directory next to the application.
+     */
+    UPLOADED_IMAGES,
+    /**
+     * An image that was already decoded when the reference was created.
+     */
+    IN_MEMORY
+  }
+
+  private final String path;
+  private final Source source;
+  private final String url;
+  private volatile Object image;
+
+  private PassageImage(String path, Source source, String url, Object image) {
+    this.path = path;
+    this.source = source;
+    this.url = url;
+    this.image = image;
+  }
+
+  /**
+   * Creates a reference to an image path as written in a story file. Paths starting with
+   * "uploadedImages/" are read from the uploadedImages directory, all other paths from the
+   * classpath. The image is not read.
+   *
+   * @param path the path of the image
+   * @return the image reference
+   * @throws ImageValidationException if the path is null or blank
+   */
+  public static PassageImage fromPath(String path) {
+    if (path == null || path.isBlank()) {
+      throw new ImageValidationException("Image path cannot be null or blank");
+    }
+    Source source = path.startsWith(UPLOADED_IMAGES_PREFIX) ? Source.UPLOADED_IMAGES
+        : Source.CLASSPATH;
+    return new PassageImage(path, source, null, null);
+  }
+
+  /**
+   * Creates a reference to an image that has already been decoded.
+   *
+   * @param image the handle of the decoded image, may be null
+   * @param url   the URL the image was decoded from, or null if it is not known
+   * @return the image reference, or null if the image is null
+   */
+  public static PassageImage of(Object image, String url) {
+    if (image == null) {
+      return null;
+    }
+    return new PassageImage(null, Source.IN_MEMORY, url, image);
+  }
+
+  /**
+   * Gets the path of the image as written in a story file.
+   *
+   * @return the path, or null if the image was not read from a path
+   */
+  public String getPath() {
+    return path;
+  }
+
+  /**
+   * Gets the path the image is written with in a story file. Images read from a story file keep
+   * the path they were read with. For images that were decoded from a file, the path is found from
+   * the URL of the image.
+   *
+   * @param defaultFolder the folder of the default images of this kind
+   * @return the path of the image, or null if it can not be found
+   */
+  public String resolvePath(String defaultFolder) {
+    if (path != null) {
+      return path;
+    }
+    if (url == null) {
+      logger.log(Level.WARNING, "Could not find the path of an image without a URL");
+      return null;
+    }
+    try {
+      // Create a Path from the URL of the image
+      Path file = Paths.get(new URI(url));
+
+      // Check if the image is from uploadedImages or defaultImages
+      if (Files.exists(Paths.get("./uploadedImages/", file.getFileName().toString()))) {
+        return UPLOADED_IMAGES_PREFIX + file.getFileName();
+      }
+      return defaultFolder + file.getFileName();
+    } catch (URISyntaxException | IllegalArgumentException e) {
+      logger.log(Level.WARNING, "Could not find the path of an image", e);
+      return null;
+    }
+  }
+
+  /**
+   * Gets the source of the image.
+   *
+   * @return the source
+   */
+  public Source getSource() {
+    return source;
+  }
+
+  /**
+   * Checks if the image has been decoded.
+   *
+   * @return true if the image has been decoded
+   */
+  public boolean isLoaded() {
+    return image != null;
+  }
+
+  /**
+   * Gets the image, decoding it the first time it is called.
+   *
+   * @param decoder makes the handle of the image from the reference, usually by reading
+   *                {@link #openStream()}
+   * @param <T>     the type of the handles the decoder makes
+   * @return the handle of the image
+   * @throws ImageValidationException if the image can not be found
+   */
+  @SuppressWarnings("unchecked")
+  public <T> T getImage(Function<? super PassageImage, ? extends T> decoder) {
+    Object loaded = image;
+    if (loaded == null) {
+      synchronized (this) {
+        loaded = image;
+        if (loaded == null) {
+          loaded = decoder.apply(this);
+          image = loaded;
+        }
+      }
+    }
+    return (T) loaded;
+  }
+
+  /**
+   * Opens the file or resource the image is read from.
+   *
+   * @return the stream of the image file, which the caller must close
+   * @throws ImageValidationException if the image can not be found
+   * @throws UncheckedIOException     if the image can not be read
+   */
+  public InputStream openStream() {
+    try {
+      if (source == Source.UPLOADED_IMAGES) {
+        File file = new File("./" + path);
+        if (!file.isFile()) {
+          throw new ImageValidationException("Image not found: " + path);
+        }
+        return Files.newInputStream(file.toPath());
+      }
+      if (source == Source.IN_MEMORY) {
+        if (url == null) {
+          throw new ImageValidationException("Image has no file to read from");
+        }
+        return openUrl();
+      }
+      InputStream imageStream = PassageImage.class.getResourceAsStream(path);
+      if (imageStream == null) {
+        throw new ImageValidationException("Image not found: " + path);
+      }
+      return imageStream;
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  private InputStream openUrl() throws IOException {
+    URI uri;
+    try {
+      uri = new URI(url);
+    } catch (URISyntaxException e) {
+      throw new ImageValidationException("Image has an invalid URL: " + url);
+    }
+    if (!uri.isAbsolute()) {
+      throw new ImageValidationException("Image has an invalid URL: " + url);
+    }
+    return uri.toURL().openStream();
+  }
+
+  @Override
+  public String toString() {
+    return "PassageImage{" +
+        "path='" + path + '\'' +
+        ", source=" + source +
+        '}';
+  }
+}
@@ -0,0 +1,106 @@
+package edu.ntnu.idatt2001.paths.model;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Reverse index of the links in a story, from the title a link refers to, to the links that refer
+ * to it. The titles that are referred to but have no passage are kept as well, so the broken links
+ * of a story are found without looking at the links that are not broken.
+ *
+ * <p>The index is kept up to date by the story as passages and links are added, removed and
+ * changed.
+ */
+final class ReferenceIndex {
+
+  private final Map<String, Passage> passagesByTitle;
+  private final Map<String, List<Link>> incoming = new HashMap<>();
+  private final Set<String> missingTitles = new LinkedHashSet<>();
+
+  /**
+   * Instantiates a new Reference index.
+   *
+   * @param passagesByTitle the passages of the story by title
+   */
+  ReferenceIndex(Map<String, Passage> passagesByTitle) {
+    this.passagesByTitle = passagesByTitle;
+  }
+
+  void passageAdded(Passage passage) {
+    missingTitles.remove(passage.getTitle());
+    for (Link link : passage.getLinks()) {
+      linkAdded(link);
+    }
+  }
+
+  void passageRemoved(Passage passage) {
+    for (Link link : passage.getLinks()) {
+      linkRemoved(link, link.getReference());
+    }
+    if (incoming.containsKey(passage.getTitle())) {
+      missingTitles.add(passage.getTitle());
+    }
+  }
+
+  void titleChanged(String oldTitle, String newTitle) {
+    if (incoming.containsKey(oldTitle)) {
+      missingTitles.add(oldTitle);
+    }
+    missingTitles.remove(newTitle);
+  }
+
+  void linkAdded(Link link) {
+    String reference = link.getReference();
+    incoming.computeIfAbsent(reference, title -> new ArrayList<>(1)).add(link);
+    if (!passagesByTitle.containsKey(reference)) {
+      missingTitles.add(reference);
+    }
+  }
+
+  void linkRemoved(Link link, String reference) {
+    List<Link> links = incoming.get(reference);
+    if (links == null) {
+      return;
+    }
+    // Links are equal when they have the same reference, so the very link is looked for
+    for (int i = links.size() - 1; i >= 0; i--) {
+      if (links.get(i) == link) {
+        links.remove(i);
+        break;
+      }
+    }
+    if (links.isEmpty()) {
+      incoming.remove(reference);
+      missingTitles.remove(reference);
+    }
+  }
+
+  /**
+   * Gets the links that refer to a title.
+   *
+   * @param title the title
+   * @return the links, which can not be changed
+   */
+  List<Link> getIncomingLinks(String title) {
+    List<Link> links = incoming.get(title);
+    return links != null ? Collections.unmodifiableList(links) : List.of();
+  }
+
+  /**
+   * Gets the links that refer to a title that has no passage.
+   *
+   * @return the broken links
+   */
+  List<Link> getBrokenLinks() {
+    List<Link> brokenLinks = new ArrayList<>();
+    for (String title : missingTitles) {
+      brokenLinks.addAll(incoming.get(title));
+    }
+    return brokenLinks;
+  }
+}
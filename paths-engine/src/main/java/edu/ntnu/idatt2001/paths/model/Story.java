@@ -0,0 +1,490 @@
+package edu.ntnu.idatt2001.paths.model;
+
+import edu.ntnu.idatt2001.paths.model.exceptions.StoryValidationException;
+import edu.ntnu.idatt2001.paths.model.validations.StoryValidator;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.logging.Logger;
+
+/**
+ * A story is an interactive, non-linear narrative consisting of a collection of passages.
+ *
+ * <p>A story is changed by the editor as it goes, and must not be read by other threads meanwhile.
+ * {@link #freeze()} makes a snapshot of the story that can not be changed, which any number of
+ * threads can read at the same time without locks while the editor goes on with the story.
+ *
+ * <p>The opening passage of a snapshot, and the title, content and content image of its passages
+ * and the text, reference and required item of its links, are not final fields, since they are
+ * the same fields that the editor changes on a story that is not frozen. They are all set before
+ * {@link #freeze()} returns, so a snapshot can be read by other threads once it has been handed to
+ * them safely: through a volatile field, a concurrent collection, a lock or an executor. The
+ * {@link edu.ntnu.idatt2001.paths.model.game.SessionManager} keeps its snapshots in a concurrent
+ * map, and the {@link StoryCache} and {@link PagedStory} hand theirs out under a lock.
+ */
+public class Story {
+
+  private static final Logger logger = Logger.getLogger(Story.class.getName());
+  private static final Passage[] NO_LINK_PASSAGES = new Passage[0];
+
+  /**
+   * The title of the story.
+   */
+  private final String title;
+
+  /**
+   * The story's passages by title, in the order they were added. This is the map passages are
+   * looked up in.
+   */
+  private final Map<String, Passage> passagesByTitle = new LinkedHashMap<>();
+
+  /**
+   * A Map containing the story's passages. The key to each passage is a link. Kept in step with
+   * passagesByTitle for the callers that use links as keys.
+   */
+  private final Map<Link, Passage> passages = new LinkedHashMap<>();
+
+  /**
+   * The links of the story by the title they refer to.
+   */
+  private final ReferenceIndex referenceIndex = new ReferenceIndex(passagesByTitle);
+
+  /**
+   * Counts the changes to the passages and links, so analyses of the story know when to redo.
+   */
+  private int structureVersion;
+
+  /**
+   * The first passage in the story. The object must also be added in passages.
+   */
+  private Passage openingPassage;
+
+  /**
+   * Where the passages were written by the last save, so the next save only writes what changed.
+   */
+  private StoryFileLayout fileLayout;
+
+  private final boolean frozen;
+
+  /**
+   * The hash code of a frozen story, which is worked out when it is frozen.
+   */
+  private final int hash;
+
+  /**
+   * The passages of a frozen story by the number of their links, which are numbered when it is
+   * frozen. A link found in more than one passage is kept at the first.
+   */
+  private final Passage[] linkPassages;
+
+  /**
+   * Main Constructs a new Story object with the given title and opening passage.
+   *
+   * @param title          the title of the story
+   * @param passages       the passages
+   * @param openingPassage the first passage in the story
+   */
+  public Story(final String title, final Map<Link, Passage> passages,
+      final Passage openingPassage) {
+    StoryValidator.validateStory(title, passages, openingPassage);
+    this.title = title;
+    this.frozen = false;
+    this.hash = 0;
+    this.linkPassages = NO_LINK_PASSAGES;
+    this.openingPassage = openingPassage;
+    for (Map.Entry<Link, Passage> entry : passages.entrySet()) {
+      this.passages.put(entry.getKey(), entry.getValue());
+      passagesByTitle.put(entry.getValue().getTitle(), entry.getValue());
+    }
+    for (Passage passage : passagesByTitle.values()) {
+      passage.addedTo(this);
+      referenceIndex.passageAdded(passage);
+    }
+
+    // Check if the opening passage is already in the passages map (use: editStory controller)
+    if (!openingPassage.equals(passagesByTitle.get(openingPassage.getTitle()))) {
+      // Add the opening passage to the passages map only if it's not already present
+      addPassage(openingPassage);
+    }
+    logger.info("New story created with opening passage and additional passages");
+  }
+
+  /**
+   * Constructs a new Story object with the given title and opening passage.
+   *
+   * @param title          the title of the story
+   * @param openingPassage the first passage in the story
+   */
+  public Story(String title, Passage openingPassage) {
+    this.title = title;
+    this.frozen = false;
+    this.hash = 0;
+    this.linkPassages = NO_LINK_PASSAGES;
+    this.openingPassage = openingPassage;
+
+    // Add the opening passage to the passages map
+    addPassage(openingPassage);
+    logger.info("New story created with opening passage");
+  }
+
+
+  /**
+   * Instantiates a new Story. with title and empty HashMap
+   *
+   * @param title the title
+   */
+  public Story(String title) {
+    this.title = title;
+    this.frozen = false;
+    this.hash = 0;
+    this.linkPassages = NO_LINK_PASSAGES;
+    logger.info("New story created with no opening passage");
+  }
+
+  private Story(Story story) {
+    this.title = story.title;
+    // Links and passages found more than once are copied once, so they stay shared in the copy
+    Map<Link, Link> frozenLinks = new IdentityHashMap<>();
+    Map<Passage, Passage> frozenPassages = new IdentityHashMap<>();
+    for (Passage passage : story.passagesByTitle.values()) {
+      Passage copy = passage.frozenCopy(frozenLinks);
+      frozenPassages.put(passage, copy);
+      passagesByTitle.put(copy.getTitle(), copy);
+      referenceIndex.passageAdded(copy);
+    }
+    for (Map.Entry<Link, Passage> entry : story.passages.entrySet()) {
+      passages.put(entry.getKey().frozenCopy(-1), frozenPassages.computeIfAbsent(entry.getValue(),
+          passage -> passage.frozenCopy(frozenLinks)));
+    }
+    if (story.openingPassage != null) {
+      openingPassage = frozenPassages.computeIfAbsent(story.openingPassage,
+          passage -> passage.frozenCopy(frozenLinks));
+    }
+    this.frozen = true;
+    this.hash = Objects.hash(title, passages);
+    this.linkPassages = new Passage[frozenLinks.size()];
+    putLinkPassages(passagesByTitle.values());
+    putLinkPassages(frozenPassages.values());
+  }
+
+  private void putLinkPassages(Collection<Passage> frozenPassages) {
+    for (Passage passage : frozenPassages) {
+      for (Link link : passage.getLinks()) {
+        if (linkPassages[link.getId()] == null) {
+          linkPassages[link.getId()] = passage;
+        }
+      }
+    }
+  }
+
+  /**
+   * Makes a snapshot of the story that can not be changed. The passages, links and actions of
+   * the snapshot are copies that can not be changed either, so later changes to this story do not
+   * show in the snapshot. The snapshot can be read by any number of threads at the same time.
+   * The links of the snapshot are numbered from zero, see {@link Link#getId()}.
+   *
+   * @return the snapshot, or this story if it is frozen
+   */
+  public Story freeze() {
+    if (frozen) {
+      return this;
+    }
+    Story snapshot = new Story(this);
+    logger.info("Story " + title + " frozen");
+    return snapshot;
+  }
+
+  /**
+   * Checks if the story is a snapshot made by {@link #freeze()} that can not be changed.
+   *
+   * @return true if the story is frozen
+   */
+  public boolean isFrozen() {
+    return frozen;
+  }
+
+  /**
+   * Gets the number of links of a frozen story. The links are numbered from zero up to the count,
+   * so state can be kept per link in an array or a bit set.
+   *
+   * @return the number of links, or 0 if the story is not frozen
+   */
+  public int getLinkCount() {
+    return linkPassages.length;
+  }
+
+  /**
+   * Finds the passage a link of a frozen story is in by the number of the link, so state kept by
+   * number can be turned back into passages and links.
+   *
+   * @param id the number of the link, see {@link Link#getId()}
+   * @return the passage, or null if the story has no link with the number
+   */
+  public Passage getPassageOfLink(int id) {
+    return id >= 0 && id < linkPassages.length ? linkPassages[id] : null;
+  }
+
+  private void checkNotFrozen() {
+    if (frozen) {
+      throw new UnsupportedOperationException("Frozen story can not be changed");
+    }
+  }
+
+  /**
+   * Returns the title of the story.
+   *
+   * @return the title of the story
+   */
+  public String getTitle() {
+    return title;
+  }
+
+  /**
+   * Returns the opening passage of the story.
+   *
+   * @return the opening passage of the story
+   */
+  public Passage getOpeningPassage() {
+    return openingPassage;
+  }
+
+  /**
+   * Adds a passage to the story Validates that there are no duplicate passages
+   *
+   * @param passage The passage to add
+   * @throws UnsupportedOperationException if the story is frozen
+   */
+  public void addPassage(Passage passage) {
+    checkNotFrozen();
+    StoryValidator.validateAddPassage(passage, passages);
+    passagesByTitle.put(passage.getTitle(), passage);
+    passages.put(new Link(passage.getTitle(), passage.getTitle()), passage);
+    passage.addedTo(this);
+    referenceIndex.passageAdded(passage);
+    structureVersion++;
+    logger.info("Passage " + passage.getTitle() + " added to the story");
+  }
+
+
+  /**
+   * Returns a collection of all the passages in the story.
+   *
+   * @return a collection of all the passages in the story
+   */
+  public Collection<Passage> getPassages() {
+    return Collections.unmodifiableCollection(passagesByTitle.values());
+  }
+
+  /**
+   * Returns the passage with the given link.
+   *
+   * @param link the link to the desired passage
+   * @return the passage with the given link
+   * @throws StoryValidationException if no such passage exists
+   */
+  public Passage getPassage(Link link) {
+    Passage passage = getPassage(link.getReference());
+    if (passage == null) {
+      throw new StoryValidationException(
+          "No passage exists for the given link: " + link.getReference());
+    }
+    return passage;
+  }
+
+  /**
+   * Returns the passage with the given title.
+   *
+   * @param title the title of the passage
+   * @return the passage, or null if no such passage exists
+   */
+  public Passage getPassage(String title) {
+    return passagesByTitle.get(title);
+  }
+
+  /**
+   * Checks if the story has a passage with the given title.
+   *
+   * @param title the title of the passage
+   * @return true if the passage exists
+   */
+  public boolean hasPassage(String title) {
+    return passagesByTitle.containsKey(title);
+  }
+
+  /**
+   * Gets first passage of passage collection.
+   *
+   * @return the first passage
+   */
+  public Passage getFirstPassage() {
+    Iterator<Passage> passages = this.getPassages().iterator();
+    return passages.hasNext() ? passages.next() : null;
+  }
+
+  /**
+   * Removes a passage from the story and any links pointing to this passage. If opening passage is
+   * moved it will set the first passage to opening passage {@code @USE} EditStoryController
+   *
+   * @param passage the passage to remove
+   * @return true if removed false else
+   * @throws UnsupportedOperationException if the story is frozen
+   */
+  public boolean removePassageUsingPassage(Passage passage) {
+    checkNotFrozen();
+    if (passage == null) {
+      return false;
+    }
+
+    if (!passage.equals(passagesByTitle.get(passage.getTitle()))) {
+      return false;
+    }
+
+    // Remove all links that reference the passage to be removed
+    for (Link link : List.copyOf(referenceIndex.getIncomingLinks(passage.getTitle()))) {
+      for (Passage source : link.getPassages()) {
+        if (source == passagesByTitle.get(source.getTitle())) {
+          source.getLinks().removeIf(added -> added == link);
+        }
+      }
+    }
+    // If the passage to remove is the opening passage, also set openingPassage to null
+    if (openingPassage.equals(passage)) {
+      openingPassage = null;
+    }
+
+    // Remove the passage itself
+    passagesByTitle.remove(passage.getTitle());
+    passages.remove(new Link(passage.getTitle(), passage.getTitle()));
+    passage.removedFrom(this);
+    referenceIndex.passageRemoved(passage);
+    structureVersion++;
+
+    return true;
+  }
+
+
+  /**
+   * Gets broken links.
+   *
+   * @return the broken links
+   */
+  public List<Link> getBrokenLinks() {
+    return referenceIndex.getBrokenLinks();
+  }
+
+  /**
+   * Gets the links in the story that lead to the passage with the given title.
+   *
+   * @param title the title of the passage
+   * @return the links, which can not be changed
+   */
+  public List<Link> getIncomingLinks(String title) {
+    return referenceIndex.getIncomingLinks(title);
+  }
+
+  /**
+   * Gets passages map, keyed by links to the passages. The map can not be changed, passages are
+   * added and removed through the story.
+   *
+   * @return the passages map
+   */
+  public Map<Link, Passage> getPassagesMap() {
+    return Collections.unmodifiableMap(this.passages);
+  }
+
+  /**
+   * Checks that a passage of the story can be given a new title.
+   *
+   * @param passage  the passage
+   * @param newTitle the new title
+   * @throws StoryValidationException if another passage has the title
+   */
+  void validateTitleChange(Passage passage, String newTitle) {
+    Passage existing = passagesByTitle.get(newTitle);
+    if (existing != null && existing != passage) {
+      throw new StoryValidationException("Story contains duplicate passage");
+    }
+  }
+
+  void titleChanged(Passage passage, String oldTitle) {
+    if (passagesByTitle.get(oldTitle) != passage) {
+      return;
+    }
+    passagesByTitle.remove(oldTitle);
+    passagesByTitle.put(passage.getTitle(), passage);
+    passages.remove(new Link(oldTitle, oldTitle));
+    passages.put(new Link(passage.getTitle(), passage.getTitle()), passage);
+    referenceIndex.titleChanged(oldTitle, passage.getTitle());
+    structureVersion++;
+  }
+
+  void linkAdded(Link link) {
+    referenceIndex.linkAdded(link);
+    structureVersion++;
+  }
+
+  void linkRemoved(Link link) {
+    referenceIndex.linkRemoved(link, link.getReference());
+    structureVersion++;
+  }
+
+  void referenceChanged(Link link, String oldReference) {
+    referenceIndex.linkRemoved(link, oldReference);
+    referenceIndex.linkAdded(link);
+    structureVersion++;
+  }
+
+  /**
+   * Gets a number that changes whenever a passage or link is added or removed, a passage gets a
+   * new title or a link a new reference. Changes to text and actions are not counted.
+   *
+   * @return the structure version
+   */
+  public int getStructureVersion() {
+    return structureVersion;
+  }
+
+  StoryFileLayout getFileLayout() {
+    return fileLayout;
+  }
+
+  void setFileLayout(StoryFileLayout fileLayout) {
+    // Several threads may save a frozen story, so it does not keep where it was written
+    if (frozen) {
+      return;
+    }
+    this.fileLayout = fileLayout;
+  }
+
+  @Override
+  public boolean equals(Object obj) {
+    if (this == obj) {
+      logger.info("Story is compared to itself");
+      return true;
+    }
+    if (obj == null || getClass() != obj.getClass()) {
+      logger.info("Object compared to story is not of type Story");
+      return false;
+    }
+    Story other = (Story) obj;
+    boolean result =
+        Objects.equals(this.title, other.title) && Objects.equals(this.passages, other.passages);
+    logger.info(result ? "Stories are equal" : "Stories are not equal");
+    return result;
+  }
+
+  @Override
+  public int hashCode() {
+    if (frozen) {
+      return hash;
+    }
+    logger.info("Hashcode method called");
+    return Objects.hash(title, passages);
+  }
+
+}
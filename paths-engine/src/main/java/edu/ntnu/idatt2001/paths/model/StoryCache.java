@@ -0,0 +1,279 @@
+package edu.ntnu.idatt2001.paths.model;
+
+import edu.ntnu.idatt2001.paths.model.file.SourceStamp;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.logging.Logger;
+
+/**
+ * Process-wide cache of loaded stories, so a story that is played again is not parsed again. A
+ * story is cached under the absolute path of its file, stamped with the modification time and size
+ * of the file and of the compiled .pathsc file next to it, which the story may have been loaded
+ * from. A story whose files have changed since it was cached is dropped and loaded again. The
+ * stories are kept within a memory budget, and the least recently used stories are evicted first.
+ *
+ * <p>An edit that keeps the size of a file and is made within the time granularity of the file
+ * system does not change the stamp. A file that was modified within {@link #RACY_MILLIS} of when
+ * it was stamped is therefore also stamped with the checksum of its content, which is compared
+ * on every lookup until the file is older than that, as the modification time then tells any
+ * later edit apart.
+ *
+ * <p>The cache holds the snapshots made by {@link Story#freeze()}, which are shared by everyone
+ * who asks for them and can not be changed. State of a playthrough belongs in the
+ * {@link edu.ntnu.idatt2001.paths.model.game.PlaythroughState} of the game, and a story that is
+ * edited is loaded without the cache.
+ */
+public final class StoryCache {
+
+  /**
+   * The memory budget of the shared cache, in bytes.
+   */
+  public static final long DEFAULT_MEMORY_BUDGET = 64L * 1024 * 1024;
+
+  /**
+   * How long after a file was modified an edit of it may keep the same modification time, in
+   * milliseconds. This is the granularity of the coarsest common file system, FAT.
+   */
+  static final long RACY_MILLIS = 2000;
+
+  private static final Logger logger = Logger.getLogger(StoryCache.class.getName());
+  private static final StoryCache instance = new StoryCache(DEFAULT_MEMORY_BUDGET);
+
+  /**
+   * Loads a story that is not in the cache.
+   */
+  @FunctionalInterface
+  public interface StoryLoader {
+
+    /**
+     * Loads the story in a file.
+     *
+     * @param path the story file
+     * @return the story
+     * @throws IOException if the file can not be read
+     */
+    Story load(Path path) throws IOException;
+  }
+
+  /**
+   * The counters of a cache.
+   *
+   * @param hits      the number of stories found in the cache
+   * @param misses    the number of stories that had to be loaded
+   * @param evictions the number of stories evicted to stay within the budget
+   * @param stories   the number of stories in the cache
+   * @param weight    the estimated memory used by the cached stories, in bytes
+   */
+  public record Statistics(long hits, long misses, long evictions, int stories, long weight) {
+
+  }
+
+  /**
+   * The modification times and sizes of a story file and of its compiled file, which are -1 if
+   * there is no compiled file.
+   */
+  private record Stamp(long modified, long size, long compiledModified, long compiledSize) {
+
+    private boolean isRacy(long now) {
+      return now - modified < RACY_MILLIS
+          || compiledSize >= 0 && now - compiledModified < RACY_MILLIS;
+    }
+  }
+
+  /**
+   * The checksums of the content of a story file and of its compiled file, which is null if
+   * there is no compiled file.
+   */
+  private record Contents(SourceStamp story, SourceStamp compiled) {
+
+  }
+
+  /**
+   * A cached story, with the checksums of its files if they were modified too recently for the
+   * stamp alone to tell an edit apart, or null otherwise.
+   */
+  private record Entry(Stamp stamp, Contents contents, Story story, long weight) {
+
+    private boolean matches(Stamp current, Contents currentContents) {
+      return stamp.equals(current) && (contents == null || contents.equals(currentContents));
+    }
+  }
+
+  private final long memoryBudget;
+  private final Map<Path, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+  private long weight;
+  private long hits;
+  private long misses;
+  private long evictions;
+
+  /**
+   * Instantiates a new Story cache.
+   *
+   * @param memoryBudget the estimated memory the cached stories may use, in bytes
+   */
+  public StoryCache(long memoryBudget) {
+    if (memoryBudget <= 0) {
+      throw new IllegalArgumentException("Memory budget must be positive");
+    }
+    this.memoryBudget = memoryBudget;
+  }
+
+  /**
+   * Gets the cache shared by the whole application.
+   *
+   * @return the shared cache
+   */
+  public static StoryCache getInstance() {
+    return instance;
+  }
+
+  /**
+   * Gets the snapshot of the story in a file from the cache, or loads the story, freezes it and
+   * caches the snapshot. Only the attributes of the files are read to tell if the cached story is
+   * current, unless the files were modified so recently that their content has to be compared as
+   * well. A story that is larger than the whole budget is loaded but not cached.
+   *
+   * @param path   the story file
+   * @param loader loads the story if it is not in the cache
+   * @return the frozen story
+   * @throws IOException if the file can not be read
+   */
+  public Story get(Path path, StoryLoader loader) throws IOException {
+    Path absolutePath = path.toAbsolutePath().normalize();
+    // The time is taken before the attributes, so a file that is not racy now was not when stamped
+    long now = System.currentTimeMillis();
+    Stamp stamp = stampOf(absolutePath);
+    boolean racy = stamp.isRacy(now);
+    Contents contents = racy || hasContents(absolutePath) ? contentsOf(absolutePath, stamp) : null;
+    synchronized (this) {
+      Entry entry = entries.get(absolutePath);
+      if (entry != null && entry.matches(stamp, contents)) {
+        hits++;
+        if (entry.contents() != null && !racy) {
+          entries.put(absolutePath, new Entry(stamp, null, entry.story(), entry.weight()));
+        }
+        return entry.story();
+      }
+      if (entry != null) {
+        remove(absolutePath);
+      }
+      misses++;
+    }
+    // Loading runs outside the lock, so a slow load does not hold up hits on other stories
+    Story story = loader.load(path).freeze();
+    long storyWeight = estimateWeight(story, stamp.size());
+    synchronized (this) {
+      if (storyWeight > memoryBudget) {
+        logger.info("Story " + path + " is larger than the cache budget and is not cached");
+        return story;
+      }
+      Entry existing = entries.get(absolutePath);
+      if (existing != null && existing.matches(stamp, contents)) {
+        return existing.story();
+      }
+      if (existing != null) {
+        remove(absolutePath);
+      }
+      entries.put(absolutePath, new Entry(stamp, racy ? contents : null, story, storyWeight));
+      weight += storyWeight;
+      evictToBudget();
+    }
+    return story;
+  }
+
+  /**
+   * Removes all stories from the cache. The counters are kept.
+   */
+  public synchronized void clear() {
+    entries.clear();
+    weight = 0;
+  }
+
+  /**
+   * Gets the counters of the cache.
+   *
+   * @return the statistics
+   */
+  public synchronized Statistics getStatistics() {
+    return new Statistics(hits, misses, evictions, entries.size(), weight);
+  }
+
+  /**
+   * Estimates the memory used by a story from the size of its file and the number of passages,
+   * links and actions. The text of the file is counted twice, as Java strings take two bytes a
+   * character, and the content of the passages is not decoded to be measured.
+   *
+   * @param story    the story
+   * @param fileSize the size of the story file in bytes
+   * @return the estimated size in bytes
+   */
+  static long estimateWeight(Story story, long fileSize) {
+    long estimate = 256 + 2 * fileSize;
+    for (Passage passage : story.getPassages()) {
+      estimate += 256;
+      for (Link link : passage.getLinks()) {
+        estimate += 128 + 32L * link.getActions().size();
+      }
+    }
+    return estimate;
+  }
+
+  private void remove(Path absolutePath) {
+    Entry removed = entries.remove(absolutePath);
+    if (removed != null) {
+      weight -= removed.weight();
+    }
+  }
+
+  private synchronized boolean hasContents(Path absolutePath) {
+    Entry entry = entries.get(absolutePath);
+    return entry != null && entry.contents() != null;
+  }
+
+  private void evictToBudget() {
+    Iterator<Entry> leastRecentlyUsed = entries.values().iterator();
+    while (weight > memoryBudget && leastRecentlyUsed.hasNext()) {
+      weight -= leastRecentlyUsed.next().weight();
+      leastRecentlyUsed.remove();
+      evictions++;
+    }
+  }
+
+  private static Contents contentsOf(Path absolutePath, Stamp stamp) throws IOException {
+    SourceStamp compiled = null;
+    if (stamp.compiledSize() >= 0) {
+      String fileName = absolutePath.getFileName().toString();
+      compiled = checksumOf(absolutePath.resolveSibling(fileName + "c"));
+    }
+    return new Contents(checksumOf(absolutePath), compiled);
+  }
+
+  private static SourceStamp checksumOf(Path path) throws IOException {
+    return SourceStamp.of(ByteBuffer.wrap(Files.readAllBytes(path)));
+  }
+
+  private static Stamp stampOf(Path absolutePath) throws IOException {
+    BasicFileAttributes attributes = Files.readAttributes(absolutePath,
+        BasicFileAttributes.class);
+    long compiledModified = -1;
+    long compiledSize = -1;
+    String fileName = absolutePath.getFileName().toString();
+    if (fileName.endsWith(StoryFileManager.TEXT_EXTENSION)) {
+      Path compiled = absolutePath.resolveSibling(fileName + "c");
+      if (Files.exists(compiled)) {
+        BasicFileAttributes compiledAttributes = Files.readAttributes(compiled,
+            BasicFileAttributes.class);
+        compiledModified = compiledAttributes.lastModifiedTime().toMillis();
+        compiledSize = compiledAttributes.size();
+      }
+    }
+    return new Stamp(attributes.lastModifiedTime().toMillis(), attributes.size(),
+        compiledModified, compiledSize);
+  }
+}
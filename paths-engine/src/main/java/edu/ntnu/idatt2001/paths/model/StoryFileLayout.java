@@ -0,0 +1,115 @@
+package edu.ntnu.idatt2001.paths.model;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+/**
+ * Where the passages of a story were written in its .paths file by the last save, and which
+ * version of each passage was written. A passage counts its own changes and those of its links as
+ * they are made, so the next save compares one number per passage and only writes the passages
+ * whose number has moved. Nothing is decoded to find out what has changed. Values set on actions
+ * are counted too, since a link listens to its actions, so a change to one story never makes the
+ * save of another compare anything.
+ */
+final class StoryFileLayout {
+
+  /**
+   * The bytes of the file held by one passage. The passage uses the first {@code used} bytes, the
+   * rest of the range is blank lines left over from an earlier, longer version of the passage.
+   */
+  static final class Range {
+
+    private final long offset;
+    private final int capacity;
+    private final int used;
+    private final int version;
+
+    Range(long offset, int capacity, int used, Passage passage) {
+      this.offset = offset;
+      this.capacity = capacity;
+      this.used = used;
+      this.version = passage.getVersion();
+    }
+
+    long getOffset() {
+      return offset;
+    }
+
+    int getCapacity() {
+      return capacity;
+    }
+
+    int getUsed() {
+      return used;
+    }
+
+    /**
+     * Checks if the passage is the same as when the range was written.
+     *
+     * @param passage the passage
+     * @return true if nothing in the passage has changed
+     */
+    boolean matches(Passage passage) {
+      return passage.getVersion() == version;
+    }
+  }
+
+  private final Path file;
+  private final String title;
+  private final Passage openingPassage;
+  private final Map<Passage, Range> ranges;
+  private final long size;
+  private final long modified;
+  private final long blankBytes;
+
+  StoryFileLayout(Path file, String title, Passage openingPassage, Map<Passage, Range> ranges,
+      long blankBytes) throws IOException {
+    this.file = file.toAbsolutePath().normalize();
+    this.title = title;
+    this.openingPassage = openingPassage;
+    this.ranges = new IdentityHashMap<>(ranges);
+    this.blankBytes = blankBytes;
+    BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+    this.size = attributes.size();
+    this.modified = attributes.lastModifiedTime().toMillis();
+  }
+
+  /**
+   * Checks if the layout describes the given file of the story as it is on disk now, so the file
+   * can be updated in place. The title and the opening passage can not change, since they are
+   * written at the start of the file.
+   *
+   * @param story the story to save
+   * @param path  the file the story is saved to
+   * @return true if the file can be updated from the layout
+   * @throws IOException if the file attributes can not be read
+   */
+  boolean isCurrentFor(Story story, Path path) throws IOException {
+    if (!file.equals(path.toAbsolutePath().normalize()) || !title.equals(story.getTitle())
+        || openingPassage != story.getOpeningPassage() || !Files.exists(path)) {
+      return false;
+    }
+    BasicFileAttributes attributes = Files.readAttributes(path, BasicFileAttributes.class);
+    return attributes.size() == size && attributes.lastModifiedTime().toMillis() == modified;
+  }
+
+  Range getRange(Passage passage) {
+    return ranges.get(passage);
+  }
+
+  Map<Passage, Range> getRanges() {
+    return ranges;
+  }
+
+  long getSize() {
+    return size;
+  }
+
+  long getBlankBytes() {
+    return blankBytes;
+  }
+}
@@ -0,0 +1,920 @@
+package edu.ntnu.idatt2001.paths.model;
+
+
+import edu.ntnu.idatt2001.paths.model.actions.Action;
+import edu.ntnu.idatt2001.paths.model.actions.GoldAction;
+import edu.ntnu.idatt2001.paths.model.actions.HealthAction;
+import edu.ntnu.idatt2001.paths.model.actions.ScoreAction;
+import edu.ntnu.idatt2001.paths.model.actions.inventory.InventoryAction;
+import edu.ntnu.idatt2001.paths.model.exceptions.ActionValidationException;
+import edu.ntnu.idatt2001.paths.model.exceptions.ImageValidationException;
+import edu.ntnu.idatt2001.paths.model.exceptions.LinkValidationException;
+import edu.ntnu.idatt2001.paths.model.exceptions.PassageValidationException;
+import edu.ntnu.idatt2001.paths.model.exceptions.StoryValidationException;
+import edu.ntnu.idatt2001.paths.model.file.AbstractPathsTokenizer;
+import edu.ntnu.idatt2001.paths.model.file.CompiledStoryReader;
+import edu.ntnu.idatt2001.paths.model.file.CompiledStoryWriter;
+import edu.ntnu.idatt2001.paths.model.file.MappedPathsTokenizer;
+import edu.ntnu.idatt2001.paths.model.file.PassageIndex;
+import edu.ntnu.idatt2001.paths.model.file.PathsTokenType;
+import edu.ntnu.idatt2001.paths.model.file.PathsTokenizer;
+import edu.ntnu.idatt2001.paths.model.file.SourceStamp;
+import edu.ntnu.idatt2001.paths.model.validations.ActionValidator;
+import edu.ntnu.idatt2001.paths.model.validations.ImageValidator;
+import edu.ntnu.idatt2001.paths.model.validations.LinkValidator;
+import edu.ntnu.idatt2001.paths.model.validations.StoryValidator;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.Consumer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Manages the loading and saving of Story objects from and to files. The story text files follow a
+ * specific format for representing the story's structure.
+ */
+public class StoryFileManager {
+
+  private static final Logger logger = Logger.getLogger(StoryFileManager.class.getName());
+
+  /**
+   * Files of at least this size are memory-mapped by {@link #loadStoryFromFile(Path)}. Smaller
+   * files are cheaper to stream, and are not kept mapped while the story is in use.
+   */
+  public static final long MAPPED_LOAD_THRESHOLD = 1024 * 1024;
+
+  /**
+   * The file extension of stories in the text format.
+   */
+  public static final String TEXT_EXTENSION = ".paths";
+  /**
+   * The file extension of stories in the compiled binary format.
+   */
+  public static final String COMPILED_EXTENSION = ".pathsc";
+
+  /**
+   * The smallest part of a file that is parsed as its own task in {@link StoryLoadMode#PARALLEL}.
+   */
+  private static final int MIN_PARALLEL_PART_SIZE = 64 * 1024;
+
+  private final StoryLoadMode loadMode;
+  private final ForkJoinPool pool;
+
+  /**
+   * Instantiates a new Story file manager that loads stories sequentially.
+   */
+  public StoryFileManager() {
+    this(StoryLoadMode.SEQUENTIAL);
+  }
+
+  /**
+   * Instantiates a new Story file manager that loads .paths files in the given mode, using the
+   * common pool for parallel loading.
+   *
+   * @param loadMode the load mode
+   */
+  public StoryFileManager(StoryLoadMode loadMode) {
+    this(loadMode, ForkJoinPool.commonPool());
+  }
+
+  /**
+   * Instantiates a new Story file manager that loads .paths files in the given mode.
+   *
+   * @param loadMode the load mode
+   * @param pool     the pool parallel loading runs on
+   */
+  public StoryFileManager(StoryLoadMode loadMode, ForkJoinPool pool) {
+    if (loadMode == null || pool == null) {
+      throw new IllegalArgumentException("Load mode and pool can not be null");
+    }
+    this.loadMode = loadMode;
+    this.pool = pool;
+  }
+
+  /**
+   * Gets the mode .paths files are loaded in.
+   *
+   * @return the load mode
+   */
+  public StoryLoadMode getLoadMode() {
+    return loadMode;
+  }
+
+  /**
+   * Loads a Story object from an input stream. The stream is decoded as UTF-8.
+   *
+   * @param inputStream The input stream containing the text representation of a story.
+   * @return A new Story object built from the input stream data.
+   */
+  public Story loadStoryFromFile(InputStream inputStream) {
+    return loadStoryFromFile(new InputStreamReader(inputStream, StandardCharsets.UTF_8));
+  }
+
+  /**
+   * Loads a Story object from a reader. The reader is consumed in a single pass by a
+   * {@link PathsTokenizer}.
+   *
+   * @param reader The reader containing the text representation of a story.
+   * @return A new Story object built from the reader data.
+   * @throws UncheckedIOException If the reader fails.
+   */
+  public Story loadStoryFromFile(Reader reader) {
+    try (PathsTokenizer tokenizer = new PathsTokenizer(reader)) {
+      return processTokens(tokenizer, StoryLoadListener.NONE);
+    } catch (IOException e) {
+      logger.log(Level.SEVERE, "Could not read story", e);
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  /**
+   * Loads a Story object from a file. Compiled .pathsc files are loaded through
+   * {@link #loadCompiledStory(Path)}, and so is a .paths file that has a compiled file next to it
+   * which was compiled from the text as it is now, see {@link #compileStoryFile(Path)}. In
+   * {@link StoryLoadMode#PARALLEL} other files are loaded through
+   * {@link #loadStoryFromFileInParallel(Path)}. Otherwise files of a megabyte or more are
+   * memory-mapped and loaded through {@link #loadStoryFromMappedFile(Path)}, smaller files are
+   * streamed.
+   *
+   * @param path The path of the .paths or .pathsc file.
+   * @return A new Story object built from the file.
+   * @throws IOException If the file can not be read.
+   */
+  public Story loadStoryFromFile(Path path) throws IOException {
+    return loadStoryFromFile(path, StoryLoadListener.NONE);
+  }
+
+  /**
+   * Loads a Story object from a file like {@link #loadStoryFromFile(Path)}, telling a listener
+   * about every passage that is loaded. The load is cancelled when the loading thread is
+   * interrupted. A compiled story is read in one go, and the listener is only told when all its
+   * passages are loaded.
+   *
+   * @param path     The path of the .paths or .pathsc file.
+   * @param listener The listener to tell about the progress.
+   * @return A new Story object built from the file.
+   * @throws IOException           If the file can not be read.
+   * @throws CancellationException If the loading thread was interrupted.
+   */
+  public Story loadStoryFromFile(Path path, StoryLoadListener listener) throws IOException {
+    String fileName = path.getFileName().toString();
+    if (fileName.endsWith(COMPILED_EXTENSION)) {
+      return loadCompiledStory(path, listener);
+    }
+    if (fileName.endsWith(TEXT_EXTENSION)) {
+      Path compiled = path.resolveSibling(fileName + "c");
+      if (Files.exists(compiled) && isCompiledFrom(compiled, path)) {
+        return loadCompiledStory(compiled, listener);
+      }
+    }
+    if (loadMode == StoryLoadMode.PARALLEL) {
+      return loadStoryFromFileInParallel(path, listener);
+    }
+    if (Files.size(path) >= MAPPED_LOAD_THRESHOLD) {
+      return loadStoryFromMappedFile(path, listener);
+    }
+    try (PathsTokenizer tokenizer = new PathsTokenizer(new InputStreamReader(
+        Files.newInputStream(path), StandardCharsets.UTF_8))) {
+      return processTokens(tokenizer, listener);
+    }
+  }
+
+  /**
+   * Loads a Story object from a memory-mapped file. The file is tokenized as UTF-8 bytes without
+   * copying it into strings line by line, and the content of every passage is only decoded when it
+   * is first used. The passages keep the mapping alive until they have all been decoded, so the
+   * file should not be changed while the story is in use.
+   *
+   * @param path The path of the .paths file.
+   * @return A new Story object built from the file.
+   * @throws IOException If the file can not be mapped.
+   */
+  public Story loadStoryFromMappedFile(Path path) throws IOException {
+    return loadStoryFromMappedFile(path, StoryLoadListener.NONE);
+  }
+
+  private Story loadStoryFromMappedFile(Path path, StoryLoadListener listener)
+      throws IOException {
+    try (MappedPathsTokenizer tokenizer = new MappedPathsTokenizer(
+        MappedPathsTokenizer.map(path))) {
+      return processTokens(tokenizer, listener);
+    }
+  }
+
+  /**
+   * Loads a Story object from a .paths file by parsing parts of it in parallel. The file is
+   * memory-mapped and split at passage headers, the passages of every part are read and validated
+   * on the pool, and the parts are then put together in file order on the calling thread, where
+   * duplicate passages and links to passages that do not exist are found. The story and any
+   * validation error are the same as when the file is loaded sequentially.
+   *
+   * @param path The path of the .paths file.
+   * @return A new Story object built from the file.
+   * @throws IOException If the file can not be mapped.
+   */
+  public Story loadStoryFromFileInParallel(Path path) throws IOException {
+    return loadStoryFromFileInParallel(path, StoryLoadListener.NONE);
+  }
+
+  private Story loadStoryFromFileInParallel(Path path, StoryLoadListener listener)
+      throws IOException {
+    MappedByteBuffer buffer = MappedPathsTokenizer.map(path);
+    StoryAssembler assembler = new StoryAssembler(listener);
+    int passagesStart;
+    try (MappedPathsTokenizer titleTokenizer = new MappedPathsTokenizer(buffer)) {
+      if (titleTokenizer.next() == PathsTokenType.TITLE) {
+        String title = titleTokenizer.getText();
+        logger.log(Level.INFO, "Reading title: " + title);
+        assembler.setTitle(title);
+      }
+      passagesStart = titleTokenizer.getPosition();
+    }
+
+    int parts = (int) Math.max(1, Math.min((long) pool.getParallelism() * 4,
+        (buffer.limit() - passagesStart) / MIN_PARALLEL_PART_SIZE));
+    int[] boundaries = MappedPathsTokenizer.splitAtPassages(buffer, passagesStart,
+        buffer.limit(), parts);
+    Map<String, PassageImage> images = new ConcurrentHashMap<>();
+    List<ForkJoinTask<PartResult>> tasks = new ArrayList<>();
+    for (int i = 0; i + 1 < boundaries.length; i++) {
+      int start = boundaries[i];
+      int end = boundaries[i + 1];
+      tasks.add(pool.submit(() -> readPart(buffer, start, end, images)));
+    }
+    try {
+      for (ForkJoinTask<PartResult> task : tasks) {
+        PartResult part = task.join();
+        part.passages().forEach(assembler::addPassage);
+        if (part.error() != null) {
+          throw part.error();
+        }
+      }
+    } catch (RuntimeException e) {
+      tasks.forEach(remaining -> remaining.cancel(false));
+      throw e;
+    }
+    return assembler.finish();
+  }
+
+  /**
+   * The passages read from a part of a file, and the error that stopped the reading, if any. The
+   * error is kept so it can be thrown once the passages in front of it have been added to the
+   * story, like in a sequential load.
+   */
+  private record PartResult(List<Passage> passages, RuntimeException error) {
+
+  }
+
+  private PartResult readPart(ByteBuffer buffer, int start, int end,
+      Map<String, PassageImage> images) {
+    List<Passage> passages = new ArrayList<>();
+    try (MappedPathsTokenizer tokenizer = new MappedPathsTokenizer(buffer, start, end)) {
+      tokenizer.startAtPassages();
+      readPassages(tokenizer, images, title -> {
+      }, passages::add);
+      return new PartResult(passages, null);
+    } catch (RuntimeException e) {
+      return new PartResult(passages, e);
+    } catch (IOException e) {
+      return new PartResult(passages, new UncheckedIOException(e));
+    }
+  }
+
+  /**
+   * Opens a .paths file as a {@link PagedStory}, which reads passages from the file when they are
+   * asked for and keeps at most {@code cacheSize} of them in memory. The passage index is read
+   * from the sidecar file next to the story, and built and written there if it is missing or
+   * stale. The story should be closed when it is no longer used.
+   *
+   * @param path      The path of the .paths file.
+   * @param cacheSize The number of passages to keep in memory.
+   * @return The paged story.
+   * @throws IOException              If the file or its index can not be read.
+   * @throws StoryValidationException If the file has no passages or duplicate passages.
+   */
+  public PagedStory loadPagedStory(Path path, int cacheSize) throws IOException {
+    return new PagedStory(path, PassageIndex.loadOrBuild(path), cacheSize, this);
+  }
+
+  /**
+   * Reads the single passage held by a buffer, as cut out of a story file by a
+   * {@link PassageIndex}.
+   *
+   * @param bytes         The UTF-8 encoded bytes of the passage.
+   * @param expectedTitle The title the passage must have.
+   * @param images        The image references created so far, shared by all passages of the
+   *                      story.
+   * @return The validated passage.
+   * @throws PassageValidationException If the passage is invalid.
+   * @throws StoryValidationException   If the bytes do not hold the expected passage.
+   */
+  Passage readIndexedPassage(ByteBuffer bytes, String expectedTitle,
+      Map<String, PassageImage> images) {
+    List<Passage> passages = new ArrayList<>(1);
+    try (MappedPathsTokenizer tokenizer = new MappedPathsTokenizer(bytes)) {
+      tokenizer.startAtPassages();
+      readPassages(tokenizer, images, title -> {
+      }, passages::add);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    if (passages.size() != 1 || !passages.get(0).getTitle().equals(expectedTitle)) {
+      throw new StoryValidationException(
+          "Passage index does not match the story file at passage " + expectedTitle);
+    }
+    Passage passage = passages.get(0);
+    StoryValidator.validateAddPassage(passage, Map.of());
+    return passage;
+  }
+
+  /**
+   * Loads a Story object from a compiled .pathsc file. Large files are memory-mapped, and the
+   * content of the passages is decoded first when it is used.
+   *
+   * @param path The path of the .pathsc file.
+   * @return A new Story object built from the file.
+   * @throws IOException              If the file can not be read.
+   * @throws StoryValidationException If the file is not a valid compiled story.
+   */
+  public Story loadCompiledStory(Path path) throws IOException {
+    return loadCompiledStory(path, StoryLoadListener.NONE);
+  }
+
+  private Story loadCompiledStory(Path path, StoryLoadListener listener) throws IOException {
+    ByteBuffer compiled = readFile(path);
+    Story story = new CompiledStoryReader().read(compiled);
+    listener.passageLoaded(story.getPassages().size());
+    return story;
+  }
+
+  private static ByteBuffer readFile(Path path) throws IOException {
+    return Files.size(path) >= MAPPED_LOAD_THRESHOLD
+        ? MappedPathsTokenizer.map(path) : ByteBuffer.wrap(Files.readAllBytes(path));
+  }
+
+  /**
+   * Checks if a compiled file was compiled from a .paths file as it is now. The size in the
+   * header of the compiled file is compared first, and the text is only read to compare the
+   * checksum when the size matches.
+   */
+  private static boolean isCompiledFrom(Path compiled, Path source) throws IOException {
+    SourceStamp stamp = CompiledStoryReader.readSourceStamp(compiled);
+    return stamp != null && stamp.size() == Files.size(source)
+        && stamp.equals(SourceStamp.of(readFile(source)));
+  }
+
+  /**
+   * Loads a Story object from an input stream holding a compiled story.
+   *
+   * @param inputStream The input stream containing the compiled story.
+   * @return A new Story object built from the input stream data.
+   * @throws IOException              If the stream can not be read.
+   * @throws StoryValidationException If the stream does not hold a valid compiled story.
+   */
+  public Story loadCompiledStory(InputStream inputStream) throws IOException {
+    return new CompiledStoryReader().read(ByteBuffer.wrap(inputStream.readAllBytes()));
+  }
+
+  /**
+   * Builds a story from the tokens of a .paths file, validating every passage as soon as it is
+   * closed and every link reference once all passages are known.
+   *
+   * @param tokenizer The tokenizer to read from.
+   * @param listener  The listener to tell about every passage added to the story.
+   * @return The Story object built up with its passages.
+   * @throws IOException              If the tokenizer fails to read.
+   * @throws StoryValidationException If the validation of a story fails.
+   */
+  private Story processTokens(AbstractPathsTokenizer tokenizer, StoryLoadListener listener)
+      throws IOException {
+    StoryAssembler assembler = new StoryAssembler(listener);
+    // Passages that show the same image share the reference, so it is validated and decoded once
+    readPassages(tokenizer, new HashMap<>(), assembler::setTitle, assembler::addPassage);
+    return assembler.finish();
+  }
+
+  /**
+   * Reads the passages of a .paths file from a tokenizer. Every passage is validated on its own
+   * when it is closed and then handed on, checks that need the other passages of the story are
+   * left to the receiver.
+   *
+   * @param tokenizer The tokenizer to read from.
+   * @param images    The image references created so far, shared by all passages of the story.
+   * @param titles    Receives the title of the story.
+   * @param passages  Receives every passage, in the order of the file.
+   * @throws IOException                If the tokenizer fails to read.
+   * @throws PassageValidationException If a passage is invalid.
+   */
+  private void readPassages(AbstractPathsTokenizer tokenizer, Map<String, PassageImage> images,
+      Consumer<String> titles, Consumer<Passage> passages) throws IOException {
+    String passageTitle = null;
+    CharSequence content = null;
+    PassageImage backgroundImage = null;
+    PassageImage contentImage = null;
+    Passage passage = null;
+
+    PathsTokenType type;
+    while ((type = tokenizer.next()) != PathsTokenType.END_OF_FILE) {
+      switch (type) {
+        case TITLE -> {
+          String title = tokenizer.getText();
+          logger.log(Level.INFO, "Reading title: " + title);
+          titles.accept(title);
+        }
+        case PASSAGE_HEADER -> {
+          passageTitle = tokenizer.getText();
+          content = null;
+          backgroundImage = null;
+          contentImage = null;
+          passage = null;
+        }
+        case CONTENT -> content = tokenizer.getTextSlice();
+        case BACKGROUND_IMAGE -> backgroundImage = getImage(tokenizer.getText(), images);
+        case CONTENT_IMAGE -> contentImage = getImage(tokenizer.getText(), images);
+        case LINK, ACTION, REQUIRED_ITEM -> {
+          if (passage == null) {
+            passage = new Passage(passageTitle, content, backgroundImage, contentImage);
+          }
+          if (type == PathsTokenType.LINK) {
+            processLink(tokenizer.getText(), tokenizer.getValue(), passage);
+          } else if (type == PathsTokenType.ACTION) {
+            processActionForLastLink(tokenizer.getText(), tokenizer.getValue(), passage);
+          } else {
+            processRequiredItemForLink(tokenizer.getText(), passage);
+          }
+        }
+        case END_OF_PASSAGE -> {
+          if (passage == null) {
+            passage = new Passage(passageTitle, content, backgroundImage, contentImage);
+          }
+          validateReadPassage(passage);
+          passages.accept(passage);
+          passage = null;
+        }
+        default -> throw new StoryValidationException("Unexpected token " + type);
+      }
+    }
+  }
+
+  /**
+   * Validates a passage that has been read completely.
+   *
+   * @param passage The passage to validate.
+   * @throws PassageValidationException If the passage is invalid.
+   */
+  private void validateReadPassage(Passage passage) {
+    passage.validatePassage();
+    try {
+      if (passage.getLinks().isEmpty()) {
+        throw new PassageValidationException("Links cannot be empty");
+      }
+    } catch (PassageValidationException ex) {
+      logger.log(Level.SEVERE, "PassageValidationException: ", ex);
+      throw ex;
+    }
+  }
+
+  /**
+   * Puts the validated passages of a file together into a story, in the order of the file. The
+   * first passage becomes the opening passage of a new story.
+   */
+  private static final class StoryAssembler {
+
+    private final StoryLoadListener listener;
+    private String title;
+    private Story story;
+    private int passagesLoaded;
+
+    StoryAssembler(StoryLoadListener listener) {
+      this.listener = listener;
+    }
+
+    void setTitle(String title) {
+      this.title = title;
+    }
+
+    /**
+     * Adds a passage to the story.
+     *
+     * @param passage The passage to add.
+     * @throws StoryValidationException If the passage can not be added to the story.
+     * @throws CancellationException    If the loading thread has been interrupted.
+     */
+    void addPassage(Passage passage) {
+      if (Thread.currentThread().isInterrupted()) {
+        throw new CancellationException("Story loading was cancelled");
+      }
+      if (story == null) {
+        story = new Story(title, passage);
+        StoryValidator.validateStory(story.getTitle(), story.getPassagesMap(),
+            story.getOpeningPassage());
+      } else {
+        story.addPassage(passage);
+      }
+      listener.passageLoaded(++passagesLoaded);
+    }
+
+    /**
+     * Checks that the story has passages and that every link leads to one of them.
+     *
+     * @return The story.
+     * @throws StoryValidationException If the story is empty or a link leads nowhere.
+     */
+    Story finish() {
+      if (story == null) {
+        throw new StoryValidationException("Story must contain at least one passage");
+      }
+      for (Passage passageInStory : story.getPassages()) {
+        for (Link linkLinkInPassage : passageInStory.getLinks()) {
+          story.getPassage(linkLinkInPassage);
+        }
+      }
+      return story;
+    }
+  }
+
+  /**
+   * Gets a reference to the image at the given path. The header of the image is validated, but
+   * the image is not decoded before the passage is shown.
+   *
+   * @param imagePath The path of the image as written in the story file.
+   * @param images    The image references created so far while loading the story.
+   * @return The image reference.
+   * @throws ImageValidationException If the image can not be found or is not a supported image.
+   */
+  private PassageImage getImage(String imagePath, Map<String, PassageImage> images) {
+    return images.computeIfAbsent(imagePath, path -> {
+      PassageImage image = PassageImage.fromPath(path);
+      if (image.getSource() == PassageImage.Source.UPLOADED_IMAGES) {
+        ImageValidator.validateImage(new File("./" + path));
+      } else {
+        ImageValidator.validateImage(path);
+      }
+      return image;
+    });
+  }
+
+  private void processRequiredItemForLink(String item, Passage passage) {
+    // Get the last link in the passage
+    Link lastLink = getLastLink(passage);
+
+    // Create a new InventoryAction for the required item
+    InventoryAction requiredItemAction = new InventoryAction(item);
+    ActionValidator.validateAction("InventoryAction", item);
+
+    // Assign the required item action to the link
+    lastLink.setRequiredItem(requiredItemAction);
+  }
+
+
+  private void processLink(String linkText, String linkReference, Passage passage)
+      throws LinkValidationException {
+    Link passageLink = new Link(linkText, linkReference);
+    passage.addLink(passageLink);
+    LinkValidator.validateLink(passageLink.getText(), passageLink.getReference(),
+        passageLink.getActions());
+  }
+
+
+  private void processActionForLastLink(String actionType, String actionValue, Passage passage)
+      throws ActionValidationException, LinkValidationException {
+    Link lastLink = getLastLink(passage);
+
+    ActionValidator.validateAction(actionType, actionValue);
+
+    Action<?> action = switch (actionType) {
+      case "HealthAction" -> new HealthAction(Integer.parseInt(actionValue));
+      case "GoldAction" -> new GoldAction(Integer.parseInt(actionValue));
+      case "InventoryAction" -> new InventoryAction(actionValue);
+      case "ScoreAction" -> new ScoreAction(Integer.parseInt(actionValue));
+      default -> throw new ActionValidationException("Cannot recognize action type");
+    };
+    lastLink.addAction(action);
+    ActionValidator.validateAction(action);
+  }
+
+  private Link getLastLink(Passage passage) {
+    Link lastLink = passage.getLastLink();
+    if (lastLink == null) {
+      throw new PassageValidationException(
+          "Actions and required items must follow a link in passage " + passage.getTitle());
+    }
+    return lastLink;
+  }
+
+  /**
+   * Saves a Story object to a file. The file is written in UTF-8 with the opening passage first.
+   *
+   * <p>When the story was saved to the same file before and the file has not been changed since,
+   * only the passages that have changed are written. A changed passage that fits in the bytes it
+   * had is written over its old text and the rest is filled with blank lines, which the loader
+   * skips. A passage that has grown, and a new passage, are appended, and the bytes of a removed
+   * passage are blanked. The file is written again in full when the opening passage no longer
+   * fits, or when more than a quarter of it has become blank. A file written in full is written
+   * to a temporary file beside it first, which then replaces it, so a story that was loaded from
+   * a memory map of the file can be saved over it.
+   *
+   * @param story         The Story object to save.
+   * @param directoryPath The directory path where to save the file.
+   * @throws IOException If an IO error occurs while saving the story.
+   */
+  public void saveStoryToFile(Story story, String directoryPath) throws IOException {
+    if (story == null || directoryPath == null) {
+      throw new IllegalArgumentException("Invalid story or directory path.");
+    }
+    // Create the directory if it doesn't exist
+    Path directory = Paths.get(directoryPath);
+    if (!Files.exists(directory)) {
+      Files.createDirectories(directory);
+    }
+
+    Path filePath = directory.resolve(getFileName(story, TEXT_EXTENSION));
+    // Images shared by several passages have their path resolved once
+    Map<PassageImage, String> imagePaths = new IdentityHashMap<>();
+    StoryFileLayout layout = story.getFileLayout();
+    if (layout != null && layout.isCurrentFor(story, filePath)) {
+      try {
+        if (updateStoryFile(story, filePath, layout, imagePaths)) {
+          return;
+        }
+      } catch (IOException e) {
+        story.setFileLayout(null);
+        throw e;
+      }
+    }
+    writeStoryFile(story, filePath, imagePaths);
+  }
+
+  private void writeStoryFile(Story story, Path filePath, Map<PassageImage, String> imagePaths)
+      throws IOException {
+    story.setFileLayout(null);
+    List<Passage> passages = new ArrayList<>();
+    if (story.getOpeningPassage() != null) {
+      passages.add(story.getOpeningPassage());
+    }
+    for (Passage passage : story.getPassages()) {
+      if (passage != story.getOpeningPassage()) {
+        passages.add(passage);
+      }
+    }
+
+    // The passages may still be read from a memory map of the file, so it is not truncated. The
+    // story is written next to it and moved in place, and the map keeps the old file alive
+    Map<Passage, StoryFileLayout.Range> ranges = new IdentityHashMap<>();
+    Path directory = filePath.toAbsolutePath().getParent();
+    Path temporary = Files.createTempFile(directory, filePath.getFileName().toString(), ".tmp");
+    try {
+      try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(temporary))) {
+        byte[] title = (story.getTitle() + "\n\n").getBytes(StandardCharsets.UTF_8);
+        out.write(title);
+        long offset = title.length;
+        for (Passage passage : passages) {
+          byte[] bytes = formatPassage(passage, imagePaths);
+          out.write(bytes);
+          ranges.put(passage, new StoryFileLayout.Range(offset, bytes.length, bytes.length,
+              passage));
+          offset += bytes.length;
+        }
+      }
+      try {
+        Files.move(temporary, filePath, StandardCopyOption.ATOMIC_MOVE);
+      } catch (AtomicMoveNotSupportedException e) {
+        Files.move(temporary, filePath, StandardCopyOption.REPLACE_EXISTING);
+      }
+    } finally {
+      Files.deleteIfExists(temporary);
+    }
+    story.setFileLayout(new StoryFileLayout(filePath, story.getTitle(),
+        story.getOpeningPassage(), ranges, 0));
+  }
+
+  /**
+   * Writes the passages that have changed since the last save into the file.
+   *
+   * @return false if the file must be written in full instead, before anything was written
+   */
+  private boolean updateStoryFile(Story story, Path filePath, StoryFileLayout layout,
+      Map<PassageImage, String> imagePaths) throws IOException {
+    Map<Passage, StoryFileLayout.Range> ranges = new IdentityHashMap<>(layout.getRanges());
+    Set<Passage> passages = Collections.newSetFromMap(new IdentityHashMap<>());
+    Map<Long, byte[]> writes = new LinkedHashMap<>();
+    long end = layout.getSize();
+    long blankBytes = layout.getBlankBytes();
+
+    for (Passage passage : story.getPassages()) {
+      passages.add(passage);
+      StoryFileLayout.Range range = ranges.get(passage);
+      if (range != null && range.matches(passage)) {
+        continue;
+      }
+      byte[] bytes = formatPassage(passage, imagePaths);
+      if (range != null && bytes.length <= range.getCapacity()) {
+        writes.put(range.getOffset(), padded(bytes, range.getCapacity()));
+        ranges.put(passage, new StoryFileLayout.Range(range.getOffset(), range.getCapacity(),
+            bytes.length, passage));
+        blankBytes += range.getUsed() - bytes.length;
+        continue;
+      }
+      if (range != null) {
+        if (passage == story.getOpeningPassage()) {
+          return false;
+        }
+        writes.put(range.getOffset(), padded(new byte[0], range.getCapacity()));
+        blankBytes += range.getUsed();
+      }
+      writes.put(end, bytes);
+      ranges.put(passage, new StoryFileLayout.Range(end, bytes.length, bytes.length, passage));
+      end += bytes.length;
+    }
+    for (Map.Entry<Passage, StoryFileLayout.Range> removed : layout.getRanges().entrySet()) {
+      if (!passages.contains(removed.getKey())) {
+        StoryFileLayout.Range range = removed.getValue();
+        writes.put(range.getOffset(), padded(new byte[0], range.getCapacity()));
+        ranges.remove(removed.getKey());
+        blankBytes += range.getUsed();
+      }
+    }
+
+    if (writes.isEmpty()) {
+      return true;
+    }
+    if (blankBytes * 4 > end) {
+      logger.info("Story file " + filePath + " is compacted");
+      return false;
+    }
+    try (FileChannel channel = FileChannel.open(filePath, StandardOpenOption.WRITE)) {
+      for (Map.Entry<Long, byte[]> write : writes.entrySet()) {
+        ByteBuffer bytes = ByteBuffer.wrap(write.getValue());
+        long position = write.getKey();
+        while (bytes.hasRemaining()) {
+          position += channel.write(bytes, position);
+        }
+      }
+    }
+    logger.info("Story file " + filePath + " updated with " + writes.size() + " writes");
+    story.setFileLayout(new StoryFileLayout(filePath, story.getTitle(),
+        story.getOpeningPassage(), ranges, blankBytes));
+    return true;
+  }
+
+  private static byte[] padded(byte[] bytes, int length) {
+    byte[] result = Arrays.copyOf(bytes, length);
+    Arrays.fill(result, bytes.length, length, (byte) '\n');
+    return result;
+  }
+
+  /**
+   * Formats a passage in the .paths format, ending with the blank line that closes it.
+   *
+   * @param passage    The passage.
+   * @param imagePaths The paths of the images resolved so far in this save.
+   * @return The UTF-8 encoded passage.
+   */
+  private byte[] formatPassage(Passage passage, Map<PassageImage, String> imagePaths) {
+    StringBuilder text = new StringBuilder();
+    text.append("::").append(passage.getTitle()).append('\n');
+    text.append(passage.getContent()).append('\n');
+    String backgroundImage = imagePath(passage.getBackgroundImageReference(),
+        PassageImage.BACKGROUND_IMAGES_FOLDER, imagePaths);
+    if (backgroundImage != null) {
+      text.append('^').append(backgroundImage).append("^\n");
+    }
+    String contentImage = imagePath(passage.getContentImageReference(),
+        PassageImage.CONTENT_IMAGES_FOLDER, imagePaths);
+    if (contentImage != null) {
+      text.append('|').append(contentImage).append("|\n");
+    }
+
+    for (Link link : passage.getLinks()) {
+      text.append('[').append(link.getText()).append("](").append(link.getReference())
+          .append(")\n");
+      if (link.getActions() != null) {
+        for (Action<?> action : link.getActions()) {
+          text.append('{').append(actionName(action)).append(':')
+              .append(action.getValue()).append("}\n");
+        }
+      }
+      if (link.getRequiredItem() != null) {
+        text.append('[').append(link.getRequiredItem().getValue()).append("}\n");
+      }
+    }
+    text.append('\n');
+    return text.toString().getBytes(StandardCharsets.UTF_8);
+  }
+
+  private static String imagePath(PassageImage image, String defaultFolder,
+      Map<PassageImage, String> imagePaths) {
+    if (image == null) {
+      return null;
+    }
+    return imagePaths.computeIfAbsent(image, key -> key.resolvePath(defaultFolder));
+  }
+
+  /**
+   * Gets the name an action is written with, which is the name of its kind of action, also for
+   * the actions of a frozen story.
+   */
+  private static String actionName(Action<?> action) {
+    return switch (action.getType()) {
+      case GOLDACTION -> "GoldAction";
+      case HEALTHACTION -> "HealthAction";
+      case SCOREACTION -> "ScoreAction";
+      case INVENTORYACTION -> "InventoryAction";
+    };
+  }
+
+  /**
+   * Compiles a Story object to a .pathsc file in the binary format, which can be loaded without
+   * parsing any text. The file is named after the story like the text file written by
+   * {@link #saveStoryToFile(Story, String)}, but is not tied to a text file, so it is only loaded
+   * in place of one when it is compiled from it through {@link #compileStoryFile(Path)}.
+   *
+   * @param story         The Story object to compile.
+   * @param directoryPath The directory path where to save the file.
+   * @throws IOException              If an IO error occurs while saving the story.
+   * @throws StoryValidationException If a link leads to a passage that is not in the story.
+   */
+  public void compileStoryToFile(Story story, String directoryPath) throws IOException {
+    if (story == null || directoryPath == null) {
+      throw new IllegalArgumentException("Invalid story or directory path.");
+    }
+    Path directory = Paths.get(directoryPath);
+    if (!Files.exists(directory)) {
+      Files.createDirectories(directory);
+    }
+
+    Path filePath = directory.resolve(getFileName(story, COMPILED_EXTENSION));
+    try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(filePath))) {
+      new CompiledStoryWriter().write(story, out);
+    }
+  }
+
+  /**
+   * Compiles a .paths file to a .pathsc file next to it, which {@link #loadStoryFromFile(Path)}
+   * then loads in place of the text for as long as the text is not changed. The size and checksum
+   * of the text are kept in the compiled file, and the story is parsed from the same bytes they
+   * are taken from. The compiled file is written next to it and moved in place.
+   *
+   * @param source The path of the .paths file.
+   * @return The path of the compiled file.
+   * @throws IOException              If the text can not be read or the compiled file written.
+   * @throws StoryValidationException If the text is not a valid story.
+   */
+  public Path compileStoryFile(Path source) throws IOException {
+    ByteBuffer text = readFile(source);
+    SourceStamp stamp = SourceStamp.of(text);
+    Story story;
+    try (MappedPathsTokenizer tokenizer = new MappedPathsTokenizer(text.duplicate())) {
+      story = processTokens(tokenizer, StoryLoadListener.NONE);
+    }
+    Path compiled = source.resolveSibling(source.getFileName() + "c");
+    Path temporary = Files.createTempFile(compiled.toAbsolutePath().getParent(),
+        compiled.getFileName().toString(), ".tmp");
+    try {
+      try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(temporary))) {
+        new CompiledStoryWriter().write(story, out, stamp);
+      }
+      try {
+        Files.move(temporary, compiled, StandardCopyOption.ATOMIC_MOVE);
+      } catch (AtomicMoveNotSupportedException e) {
+        Files.move(temporary, compiled, StandardCopyOption.REPLACE_EXISTING);
+      }
+    } finally {
+      Files.deleteIfExists(temporary);
+    }
+    return compiled;
+  }
+
+  private String getFileName(Story story, String extension) {
+    return story.getTitle().replaceAll("[^a-zA-Z0-9-_.]", "_") + extension;
+  }
+}
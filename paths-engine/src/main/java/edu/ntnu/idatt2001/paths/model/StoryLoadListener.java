@@ -0,0 +1,22 @@
+package edu.ntnu.idatt2001.paths.model;
+
+/**
+ * Listens to the progress of a story being loaded by a {@link StoryFileManager}. The listener is
+ * called on the thread that loads the story.
+ */
+@FunctionalInterface
+public interface StoryLoadListener {
+
+  /**
+   * A listener that does nothing.
+   */
+  StoryLoadListener NONE = passagesLoaded -> {
+  };
+
+  /**
+   * Called when a passage has been read, validated and added to the story.
+   *
+   * @param passagesLoaded the number of passages loaded so far
+   */
+  void passageLoaded(int passagesLoaded);
+}
@@ -0,0 +1,18 @@
+package edu.ntnu.idatt2001.paths.model;
+
+/**
+ * The ways {@link StoryFileManager} can load a .paths file. Both modes give the same story, or
+ * fail with the same exception.
+ */
+public enum StoryLoadMode {
+  /**
+   * The file is read in a single pass on the calling thread.
+   */
+  SEQUENTIAL,
+  /**
+   * The file is split at passage headers and the parts are parsed and validated on a
+   * {@link java.util.concurrent.ForkJoinPool}, before the passages are put together into the
+   * story on the calling thread.
+   */
+  PARALLEL
+}
@@ -31,6 +31,21 @@ public interface Action<T> {
    */
   void setValue(String newValue);
 
+  /**
+   * Adds a listener that is told whenever the value of the action is set.
+   *
+   * @param listener the listener
+   */
+  void addValueListener(ActionValueListener listener);
+
+  /**
+   * Removes a listener added by {@link #addValueListener(ActionValueListener)}. A listener added
+   * more than once is removed once.
+   *
+   * @param listener the listener
+   */
+  void removeValueListener(ActionValueListener listener);
+
   /**
    * Get a human-readable description of the action.
    *
@@ -0,0 +1,16 @@
+package edu.ntnu.idatt2001.paths.model.actions;
+
+/**
+ * Told when the value of an action is set. A link listens to its actions, so a value set on an
+ * action directly counts as a change to the link and the passages it is in.
+ */
+@FunctionalInterface
+public interface ActionValueListener {
+
+  /**
+   * Called after the value of an action has been set.
+   *
+   * @param action the action
+   */
+  void valueSet(Action<?> action);
+}
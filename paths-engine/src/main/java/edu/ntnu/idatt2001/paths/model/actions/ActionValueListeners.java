@@ -0,0 +1,68 @@
+package edu.ntnu.idatt2001.paths.model.actions;
+
+import java.util.Arrays;
+
+/**
+ * The listeners of an action, kept in an array that is replaced when a listener is added or
+ * removed. Most actions are in one link, or in none, so an action without listeners shares the
+ * empty array and holds no list of its own.
+ */
+public final class ActionValueListeners {
+
+  /**
+   * The listeners of an action that has none.
+   */
+  public static final ActionValueListener[] NONE = new ActionValueListener[0];
+
+  private ActionValueListeners() {
+  }
+
+  /**
+   * Adds a listener.
+   *
+   * @param listeners the listeners of the action
+   * @param listener  the listener to add
+   * @return the listeners with the listener added
+   */
+  public static ActionValueListener[] add(ActionValueListener[] listeners,
+      ActionValueListener listener) {
+    ActionValueListener[] added = Arrays.copyOf(listeners, listeners.length + 1);
+    added[listeners.length] = listener;
+    return added;
+  }
+
+  /**
+   * Removes a listener once. The listener is compared by identity.
+   *
+   * @param listeners the listeners of the action
+   * @param listener  the listener to remove
+   * @return the listeners with the listener removed, or the same listeners if it was not there
+   */
+  public static ActionValueListener[] remove(ActionValueListener[] listeners,
+      ActionValueListener listener) {
+    for (int i = 0; i < listeners.length; i++) {
+      if (listeners[i] == listener) {
+        if (listeners.length == 1) {
+          return NONE;
+        }
+        ActionValueListener[] removed = new ActionValueListener[listeners.length - 1];
+        System.arraycopy(listeners, 0, removed, 0, i);
+        System.arraycopy(listeners, i + 1, removed, i, listeners.length - i - 1);
+        return removed;
+      }
+    }
+    return listeners;
+  }
+
+  /**
+   * Tells the listeners that the value of an action has been set.
+   *
+   * @param listeners the listeners of the action
+   * @param action    the action
+   */
+  public static void valueSet(ActionValueListener[] listeners, Action<?> action) {
+    for (ActionValueListener listener : listeners) {
+      listener.valueSet(action);
+    }
+  }
+}
@@ -11,6 +11,7 @@ public class GoldAction implements Action<Integer> {
 
   private static final Logger LOGGER = Logger.getLogger(GoldAction.class.getName());
   private int gold;
+  private ActionValueListener[] listeners = ActionValueListeners.NONE;
 
   /**
    * Instantiates a new Gold action.
@@ -36,6 +37,17 @@ public class GoldAction implements Action<Integer> {
   @Override
   public void setValue(String newValue) {
     this.gold = Integer.parseInt(newValue);
+    ActionValueListeners.valueSet(listeners, this);
+  }
+
+  @Override
+  public void addValueListener(ActionValueListener listener) {
+    listeners = ActionValueListeners.add(listeners, listener);
+  }
+
+  @Override
+  public void removeValueListener(ActionValueListener listener) {
+    listeners = ActionValueListeners.remove(listeners, listener);
   }
 
   @Override
@@ -11,6 +11,7 @@ public class HealthAction implements Action<Integer> {
 
   private static final Logger LOGGER = Logger.getLogger(HealthAction.class.getName());
   private int health;
+  private ActionValueListener[] listeners = ActionValueListeners.NONE;
 
   /**
    * Instantiates a new Health action.
@@ -36,6 +37,17 @@ public class HealthAction implements Action<Integer> {
   @Override
   public void setValue(String newValue) {
     this.health = Integer.parseInt(newValue);
+    ActionValueListeners.valueSet(listeners, this);
+  }
+
+  @Override
+  public void addValueListener(ActionValueListener listener) {
+    listeners = ActionValueListeners.add(listeners, listener);
+  }
+
+  @Override
+  public void removeValueListener(ActionValueListener listener) {
+    listeners = ActionValueListeners.remove(listeners, listener);
   }
 
   @Override
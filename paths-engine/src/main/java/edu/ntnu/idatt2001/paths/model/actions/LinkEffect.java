@@ -0,0 +1,187 @@
+package edu.ntnu.idatt2001.paths.model.actions;
+
+import edu.ntnu.idatt2001.paths.model.player.Player;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The actions of a link fused into one effect, which does to a player what executing the actions
+ * one after another does.
+ *
+ * <p>Score is simply the sum of the changes. Health and gold are set to zero whenever they drop
+ * below it, so a loss followed by a gain can leave more than the sum would. The effect keeps the
+ * sum of the changes together with a floor: the most the changes after the first can add up to
+ * counting from zero, which is what is left if the value was set to zero on the way. The value
+ * after the actions is then the larger of the two.
+ */
+public final class LinkEffect {
+
+  private static final String[] NO_ITEMS = new String[0];
+
+  private final int health;
+  private final int healthFloor;
+  private final int gold;
+  private final int goldFloor;
+  private final int score;
+  private final boolean clamps;
+  private final String[] items;
+
+  private LinkEffect(int health, int healthFloor, int gold, int goldFloor, int score,
+      boolean clamps, String[] items) {
+    this.health = health;
+    this.healthFloor = healthFloor;
+    this.gold = gold;
+    this.goldFloor = goldFloor;
+    this.score = score;
+    this.clamps = clamps;
+    this.items = items;
+  }
+
+  /**
+   * Fuses a list of actions into one effect.
+   *
+   * @param actions the actions, in the order they are executed
+   * @return the effect
+   */
+  public static LinkEffect compile(List<Action<?>> actions) {
+    List<Integer> healthChanges = new ArrayList<>();
+    List<Integer> goldChanges = new ArrayList<>();
+    List<String> items = new ArrayList<>();
+    int score = 0;
+    for (Action<?> action : actions) {
+      switch (action.getType()) {
+        case HEALTHACTION -> healthChanges.add((Integer) action.getValue());
+        case GOLDACTION -> goldChanges.add((Integer) action.getValue());
+        case SCOREACTION -> score += (Integer) action.getValue();
+        case INVENTORYACTION -> items.add(((String) action.getValue()).trim().toLowerCase());
+      }
+    }
+    boolean clamps = healthChanges.stream().anyMatch(change -> change < 0)
+        || goldChanges.stream().anyMatch(change -> change < 0);
+    return new LinkEffect(sum(healthChanges), floor(healthChanges), sum(goldChanges),
+        floor(goldChanges), score, clamps,
+        items.isEmpty() ? NO_ITEMS : items.toArray(String[]::new));
+  }
+
+  private static int sum(List<Integer> changes) {
+    int sum = 0;
+    for (int change : changes) {
+      sum += change;
+    }
+    return sum;
+  }
+
+  private static int floor(List<Integer> changes) {
+    int floor = 0;
+    int suffix = 0;
+    for (int i = changes.size() - 1; i > 0; i--) {
+      suffix += changes.get(i);
+      floor = Math.max(floor, suffix);
+    }
+    return floor;
+  }
+
+  /**
+   * Applies the effect to a player.
+   *
+   * @param player the player
+   */
+  public void applyTo(Player player) {
+    player.apply(this);
+  }
+
+  /**
+   * Works out the health of a player after the effect.
+   *
+   * @param current the health before the effect, zero or more
+   * @return the health after the effect
+   */
+  public int health(int current) {
+    return clamps ? Math.max(current + health, healthFloor) : current + health;
+  }
+
+  /**
+   * Works out the gold of a player after the effect.
+   *
+   * @param current the gold before the effect, zero or more
+   * @return the gold after the effect
+   */
+  public int gold(int current) {
+    return clamps ? Math.max(current + gold, goldFloor) : current + gold;
+  }
+
+  /**
+   * Gets the sum of the score changes.
+   *
+   * @return the score change
+   */
+  public int getScore() {
+    return score;
+  }
+
+  /**
+   * Gets the sum of the health changes.
+   *
+   * @return the health change
+   */
+  public int getHealth() {
+    return health;
+  }
+
+  /**
+   * Gets the sum of the gold changes.
+   *
+   * @return the gold change
+   */
+  public int getGold() {
+    return gold;
+  }
+
+  /**
+   * Gets the least health a player has after the effect, which is more than zero when the health
+   * can drop to zero and be raised again.
+   *
+   * @return the health floor
+   */
+  public int getHealthFloor() {
+    return healthFloor;
+  }
+
+  /**
+   * Gets the least gold a player has after the effect, which is more than zero when the gold can
+   * drop to zero and be raised again.
+   *
+   * @return the gold floor
+   */
+  public int getGoldFloor() {
+    return goldFloor;
+  }
+
+  /**
+   * Checks if health or gold can drop below zero and be set to zero on the way.
+   *
+   * @return true if the effect loses health or gold
+   */
+  public boolean clamps() {
+    return clamps;
+  }
+
+  /**
+   * Gets the number of items the effect adds.
+   *
+   * @return the number of items
+   */
+  public int getItemCount() {
+    return items.length;
+  }
+
+  /**
+   * Gets an item the effect adds, trimmed and in lowercase like in the inventory.
+   *
+   * @param index the position of the item, in the order the actions add them
+   * @return the item
+   */
+  public String getItem(int index) {
+    return items[index];
+  }
+}
@@ -12,6 +12,7 @@ public class ScoreAction implements Action<Integer> {
 
   private static final Logger LOGGER = Logger.getLogger(ScoreAction.class.getName());
   private int points;
+  private ActionValueListener[] listeners = ActionValueListeners.NONE;
 
   /**
    * Instantiates a new Score action.
@@ -38,6 +39,17 @@ public class ScoreAction implements Action<Integer> {
   @Override
   public void setValue(String newValue) {
     this.points = Integer.parseInt(newValue);
+    ActionValueListeners.valueSet(listeners, this);
+  }
+
+  @Override
+  public void addValueListener(ActionValueListener listener) {
+    listeners = ActionValueListeners.add(listeners, listener);
+  }
+
+  @Override
+  public void removeValueListener(ActionValueListener listener) {
+    listeners = ActionValueListeners.remove(listeners, listener);
   }
 
   @Override
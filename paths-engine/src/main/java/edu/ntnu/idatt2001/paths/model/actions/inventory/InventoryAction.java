@@ -2,6 +2,8 @@ package edu.ntnu.idatt2001.paths.model.actions.inventory;
 
 import edu.ntnu.idatt2001.paths.model.actions.Action;
 import edu.ntnu.idatt2001.paths.model.actions.ActionType;
+import edu.ntnu.idatt2001.paths.model.actions.ActionValueListener;
+import edu.ntnu.idatt2001.paths.model.actions.ActionValueListeners;
 import edu.ntnu.idatt2001.paths.model.player.Player;
 import edu.ntnu.idatt2001.paths.model.validations.ActionValidator;
 import java.util.logging.Logger;
@@ -13,6 +15,7 @@ public class InventoryAction implements Action<String> {
 
   private static final Logger LOGGER = Logger.getLogger(InventoryAction.class.getName());
   private String item;
+  private ActionValueListener[] listeners = ActionValueListeners.NONE;
 
   /**
    * Instantiates a new Inventory action.
@@ -36,14 +39,35 @@ public class InventoryAction implements Action<String> {
     return item.toLowerCase();
   }
 
+  /**
+   * Gets the item as it was given, which is shown in the description. Unlike
+   * {@link #getValue()} it is not put in lowercase.
+   *
+   * @return the item
+   */
+  public String getItem() {
+    return item;
+  }
+
   @Override
   public void setValue(String newValue) {
     this.item = newValue;
+    ActionValueListeners.valueSet(listeners, this);
+  }
+
+  @Override
+  public void addValueListener(ActionValueListener listener) {
+    listeners = ActionValueListeners.add(listeners, listener);
+  }
+
+  @Override
+  public void removeValueListener(ActionValueListener listener) {
+    listeners = ActionValueListeners.remove(listeners, listener);
   }
 
   @Override
   public String getDescription() {
-    return "You obtained " + item + " item";
+    return "You obtained " + getItem() + " item";
   }
 
   @Override
@@ -0,0 +1,387 @@
+package edu.ntnu.idatt2001.paths.model.file;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+/**
+ * Base class of the single-pass .paths tokenizers. The class holds the line grammar of the format
+ * and classifies every line by looking at its characters directly, so no intermediate line strings
+ * or regex matchers are created. Subclasses supply the lines and turn ranges of a line into text.
+ *
+ * <p>The tokenizer is used as a cursor: {@link #next()} advances to the next token and returns
+ * its type, while {@link #getText()} and {@link #getValue()} return the data of that token. The
+ * text of a token is only created when it is asked for, and must be asked for before the next call
+ * to {@link #next()}.
+ */
+public abstract class AbstractPathsTokenizer implements Closeable {
+
+  /**
+   * The states of the line grammar. A passage is a header, one content line, any number of image
+   * lines and then links, actions and required items until a blank line.
+   */
+  private enum State {
+    TITLE,
+    OUTSIDE_PASSAGE,
+    CONTENT,
+    IMAGES,
+    LINKS
+  }
+
+  /**
+   * Start of the current line, inclusive. Set by {@link #readLine()}.
+   */
+  protected int lineStart;
+  /**
+   * End of the current line, exclusive. Set by {@link #readLine()}.
+   */
+  protected int lineEnd;
+  /**
+   * Number of the current line, starting at 1. Set by {@link #readLine()}.
+   */
+  protected int lineNumber;
+
+  /**
+   * Position in the current line where the next action search starts, or -1 if the current line
+   * has been consumed.
+   */
+  private int actionCursor = -1;
+
+  private State state = State.TITLE;
+  private PathsTokenType type;
+  private int textStart = -1;
+  private int textEnd;
+  private int valueStart = -1;
+  private int valueEnd;
+  private String text;
+  private String value;
+
+  /**
+   * Reads the next line and sets {@link #lineStart}, {@link #lineEnd} and {@link #lineNumber}.
+   *
+   * @return false if there are no more lines
+   * @throws IOException if the input can not be read
+   */
+  protected abstract boolean readLine() throws IOException;
+
+  /**
+   * Makes the next call to {@link #readLine()} return the current line again.
+   */
+  protected abstract void pushBackLine();
+
+  /**
+   * Gets the character at the given position of the current line. Characters outside of the ASCII
+   * range may be returned as any value above 0x7F, the grammar only looks at ASCII characters.
+   *
+   * @param index the position in the input
+   * @return the character at the position
+   */
+  protected abstract int charAt(int index);
+
+  /**
+   * Creates a string of the characters in the given range of the current line.
+   *
+   * @param start start of the range, inclusive
+   * @param end   end of the range, exclusive
+   * @return the text in the range
+   */
+  protected abstract String decode(int start, int end);
+
+  /**
+   * Creates a character sequence of the given range of the current line. Subclasses that can keep
+   * the range valid after the tokenizer has moved on may return a sequence that is decoded first
+   * when it is used.
+   *
+   * @param start start of the range, inclusive
+   * @param end   end of the range, exclusive
+   * @return the text in the range
+   */
+  protected CharSequence slice(int start, int end) {
+    return decode(start, end);
+  }
+
+  /**
+   * Makes the tokenizer read the input as a run of passages without a title line in front, e.g. a
+   * part of a file that starts at a passage header. Must be called before the first call to
+   * {@link #next()}.
+   */
+  public void startAtPassages() {
+    if (type != null) {
+      throw new IllegalStateException("Tokenizer has already started");
+    }
+    state = State.OUTSIDE_PASSAGE;
+  }
+
+  /**
+   * Advances to the next token.
+   *
+   * @return the type of the token, {@link PathsTokenType#END_OF_FILE} when the input is exhausted
+   * @throws IOException if the input can not be read
+   */
+  public PathsTokenType next() throws IOException {
+    text = null;
+    value = null;
+    textStart = -1;
+    valueStart = -1;
+    if (actionCursor >= 0 && nextAction()) {
+      return type = PathsTokenType.ACTION;
+    }
+    while (true) {
+      actionCursor = -1;
+      if (!readLine()) {
+        if (state == State.IMAGES || state == State.LINKS || state == State.CONTENT) {
+          state = State.OUTSIDE_PASSAGE;
+          return type = PathsTokenType.END_OF_PASSAGE;
+        }
+        return type = PathsTokenType.END_OF_FILE;
+      }
+      switch (state) {
+        case TITLE -> {
+          setText(lineStart, lineEnd);
+          state = State.OUTSIDE_PASSAGE;
+          return type = PathsTokenType.TITLE;
+        }
+        case OUTSIDE_PASSAGE -> {
+          if (isPassageHeader()) {
+            return header();
+          }
+        }
+        case CONTENT -> {
+          setText(lineStart, lineEnd);
+          state = State.IMAGES;
+          return type = PathsTokenType.CONTENT;
+        }
+        case IMAGES -> {
+          if (isEnclosedIn('|')) {
+            setTrimmedText(lineStart + 1, lineEnd - 1);
+            return type = PathsTokenType.CONTENT_IMAGE;
+          }
+          if (isEnclosedIn('^')) {
+            setTrimmedText(lineStart + 1, lineEnd - 1);
+            return type = PathsTokenType.BACKGROUND_IMAGE;
+          }
+          state = State.LINKS;
+          PathsTokenType linkToken = linkSectionToken();
+          if (linkToken != null) {
+            return linkToken;
+          }
+        }
+        case LINKS -> {
+          PathsTokenType linkToken = linkSectionToken();
+          if (linkToken != null) {
+            return linkToken;
+          }
+        }
+        default -> throw new IllegalStateException("Unknown tokenizer state " + state);
+      }
+    }
+  }
+
+  /**
+   * Gets the type of the current token.
+   *
+   * @return the type of the current token
+   */
+  public PathsTokenType getType() {
+    return type;
+  }
+
+  /**
+   * Gets the main text of the current token. This is the story title, passage title, content,
+   * image path, link text, action type or required item, depending on the token type.
+   *
+   * @return the text of the current token, or null if the token has no text
+   */
+  public String getText() {
+    if (text == null && textStart >= 0) {
+      text = decode(textStart, textEnd);
+    }
+    return text;
+  }
+
+  /**
+   * Gets the main text of the current token as a character sequence that may be decoded first
+   * when it is used.
+   *
+   * @return the text of the current token, or null if the token has no text
+   */
+  public CharSequence getTextSlice() {
+    if (text != null || textStart < 0) {
+      return text;
+    }
+    return slice(textStart, textEnd);
+  }
+
+  /**
+   * Gets the secondary value of the current token. This is the reference of a link or the value
+   * of an action, and null for all other tokens.
+   *
+   * @return the value of the current token
+   */
+  public String getValue() {
+    if (value == null && valueStart >= 0) {
+      value = decode(valueStart, valueEnd);
+    }
+    return value;
+  }
+
+  /**
+   * Gets the number of the line the current token was read from, starting at 1.
+   *
+   * @return the line number
+   */
+  public int getLineNumber() {
+    return lineNumber;
+  }
+
+  private PathsTokenType header() {
+    setTrimmedText(lineStart + 2, lineEnd);
+    state = State.CONTENT;
+    return type = PathsTokenType.PASSAGE_HEADER;
+  }
+
+  /**
+   * Classifies the current line inside the link section of a passage. Blank lines end the passage
+   * and a passage header without a blank line in front of it ends the passage as well.
+   *
+   * @return the token type, or null if the line carries no token
+   */
+  private PathsTokenType linkSectionToken() {
+    if (isBlankLine()) {
+      state = State.OUTSIDE_PASSAGE;
+      return type = PathsTokenType.END_OF_PASSAGE;
+    }
+    if (isPassageHeader()) {
+      // Treat the header as the start of the next passage once this one has been closed
+      state = State.OUTSIDE_PASSAGE;
+      pushBackLine();
+      return type = PathsTokenType.END_OF_PASSAGE;
+    }
+    if (findLink()) {
+      return type = PathsTokenType.LINK;
+    }
+    actionCursor = lineStart;
+    if (nextAction()) {
+      return type = PathsTokenType.ACTION;
+    }
+    if (lineEnd - lineStart >= 3 && charAt(lineStart) == '['
+        && charAt(lineEnd - 1) == '}') {
+      setText(lineStart + 1, lineEnd - 1);
+      return type = PathsTokenType.REQUIRED_ITEM;
+    }
+    return null;
+  }
+
+  /**
+   * Finds a {@code [text](reference)} pair in the current line. The search mirrors the greedy
+   * pattern {@code \[(.+)]\((.+)\)}: the reference ends at the last ')' and the text ends at the
+   * last "](" in front of it.
+   *
+   * @return true if a link was found
+   */
+  private boolean findLink() {
+    int open = -1;
+    for (int i = lineStart; i < lineEnd; i++) {
+      if (charAt(i) == '[') {
+        open = i;
+        break;
+      }
+    }
+    if (open < 0) {
+      return false;
+    }
+    int close = -1;
+    for (int i = lineEnd - 1; i > open; i--) {
+      if (charAt(i) == ')') {
+        close = i;
+        break;
+      }
+    }
+    for (int i = close - 3; i >= open + 2; i--) {
+      if (charAt(i) == ']' && charAt(i + 1) == '(') {
+        setText(open + 1, i);
+        setTrimmedValue(i + 2, close);
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Finds the next {@code {Type:value}} entry of the current line, starting at the action cursor.
+   *
+   * @return true if an action was found
+   */
+  private boolean nextAction() {
+    for (int open = actionCursor; open < lineEnd; open++) {
+      if (charAt(open) != '{') {
+        continue;
+      }
+      int colon = open + 1;
+      while (colon < lineEnd && isWordCharacter(charAt(colon))) {
+        colon++;
+      }
+      if (colon == open + 1 || colon >= lineEnd || charAt(colon) != ':') {
+        continue;
+      }
+      for (int close = colon + 2; close < lineEnd; close++) {
+        if (charAt(close) == '}') {
+          setText(open + 1, colon);
+          valueStart = colon + 1;
+          valueEnd = close;
+          actionCursor = close + 1;
+          return true;
+        }
+      }
+    }
+    actionCursor = -1;
+    return false;
+  }
+
+  private static boolean isWordCharacter(int c) {
+    return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9') || c == '_';
+  }
+
+  private boolean isPassageHeader() {
+    return lineEnd - lineStart >= 2 && charAt(lineStart) == ':' && charAt(lineStart + 1) == ':';
+  }
+
+  private boolean isEnclosedIn(char delimiter) {
+    return lineEnd - lineStart >= 3 && charAt(lineStart) == delimiter
+        && charAt(lineEnd - 1) == delimiter;
+  }
+
+  private boolean isBlankLine() {
+    for (int i = lineStart; i < lineEnd; i++) {
+      if (!Character.isWhitespace(charAt(i))) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private void setText(int start, int end) {
+    textStart = start;
+    textEnd = end;
+  }
+
+  private void setTrimmedText(int start, int end) {
+    while (start < end && charAt(start) <= ' ') {
+      start++;
+    }
+    while (end > start && charAt(end - 1) <= ' ') {
+      end--;
+    }
+    setText(start, end);
+  }
+
+  private void setTrimmedValue(int start, int end) {
+    while (start < end && charAt(start) <= ' ') {
+      start++;
+    }
+    while (end > start && charAt(end - 1) <= ' ') {
+      end--;
+    }
+    valueStart = start;
+    valueEnd = end;
+  }
+}
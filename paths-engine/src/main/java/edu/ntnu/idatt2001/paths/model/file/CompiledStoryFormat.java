@@ -0,0 +1,38 @@
+package edu.ntnu.idatt2001.paths.model.file;
+
+/**
+ * Constants of the compiled .pathsc story format. All numbers are big-endian.
+ *
+ * <pre>
+ * header   magic "PTHC" (int), version (short), reserved (short),
+ *          source size (long, -1 if none), CRC32C of the source (int),
+ *          body length (int), CRC32 of the body (int)
+ * body     string count (int), then per string: byte length (int) and UTF-8 bytes
+ *          story title (string index), passage count (int), then per passage:
+ *            title, content, background image, content image (string indices, -1 if none)
+ *            link count (int), then per link:
+ *              text (string index), target passage (passage index),
+ *              required item (string index, -1 if none), action count (int),
+ *              then per action: opcode (byte) and operand (int)
+ * </pre>
+ *
+ * <p>The first passage is the opening passage. The operand of an inventory action is a string
+ * index, the operand of all other actions is their value. The source is the .paths file the story
+ * was compiled from, see {@link SourceStamp}.
+ */
+final class CompiledStoryFormat {
+
+  static final int MAGIC = 0x50544843;
+  static final short VERSION = 2;
+  static final int HEADER_LENGTH = 28;
+  static final long NO_SOURCE = -1;
+  static final int NONE = -1;
+
+  static final byte OPCODE_GOLD = 1;
+  static final byte OPCODE_HEALTH = 2;
+  static final byte OPCODE_SCORE = 3;
+  static final byte OPCODE_INVENTORY = 4;
+
+  private CompiledStoryFormat() {
+  }
+}
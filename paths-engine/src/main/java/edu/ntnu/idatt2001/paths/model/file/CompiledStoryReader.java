@@ -0,0 +1,262 @@
+package edu.ntnu.idatt2001.paths.model.file;
+
+import edu.ntnu.idatt2001.paths.model.Link;
+import edu.ntnu.idatt2001.paths.model.Passage;
+import edu.ntnu.idatt2001.paths.model.PassageImage;
+import edu.ntnu.idatt2001.paths.model.Story;
+import edu.ntnu.idatt2001.paths.model.actions.Action;
+import edu.ntnu.idatt2001.paths.model.actions.GoldAction;
+import edu.ntnu.idatt2001.paths.model.actions.HealthAction;
+import edu.ntnu.idatt2001.paths.model.actions.ScoreAction;
+import edu.ntnu.idatt2001.paths.model.actions.inventory.InventoryAction;
+import edu.ntnu.idatt2001.paths.model.exceptions.ImageValidationException;
+import edu.ntnu.idatt2001.paths.model.exceptions.StoryValidationException;
+import edu.ntnu.idatt2001.paths.model.validations.ImageValidator;
+import java.io.File;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32;
+
+/**
+ * Reads a story in the compiled .pathsc format described in {@link CompiledStoryFormat}. The
+ * checksum is verified before anything else is read, and links are resolved through the passage
+ * indices stored in the file, so no text is parsed and no passage is searched for by title.
+ * Passage content is decoded first when it is used.
+ */
+public final class CompiledStoryReader {
+
+  /**
+   * The least number of bytes a passage, a link and an action take up after their count.
+   */
+  private static final int PASSAGE_LENGTH = 5 * Integer.BYTES;
+  private static final int LINK_LENGTH = 4 * Integer.BYTES;
+  private static final int ACTION_LENGTH = Byte.BYTES + Integer.BYTES;
+
+  private ByteBuffer buffer;
+  private int[] stringOffsets;
+  private int[] stringLengths;
+  private String[] strings;
+  private PassageImage[] images;
+
+  /**
+   * Reads a story from the remaining bytes of a buffer. The buffer must not be changed while the
+   * story is in use, since passage content is decoded from it lazily.
+   *
+   * @param compiled the compiled story
+   * @return the story
+   * @throws StoryValidationException if the bytes are not a valid compiled story
+   * @throws ImageValidationException if an image of a passage can not be found or is not a
+   *                                  supported image
+   */
+  public Story read(ByteBuffer compiled) {
+    buffer = compiled.slice();
+    try {
+      readHeader();
+      readStringTable();
+      return readStory();
+    } catch (BufferUnderflowException | IndexOutOfBoundsException e) {
+      throw new StoryValidationException("Compiled story is truncated or corrupt");
+    } finally {
+      strings = null;
+      images = null;
+    }
+  }
+
+  /**
+   * Reads the stamp of the .paths file a compiled story was compiled from, reading only the
+   * header of the compiled file.
+   *
+   * @param path the compiled file
+   * @return the stamp, or null if the file is not a compiled story of this version or was not
+   *         compiled from a .paths file
+   * @throws IOException if the file can not be read
+   */
+  public static SourceStamp readSourceStamp(Path path) throws IOException {
+    ByteBuffer header = ByteBuffer.allocate(CompiledStoryFormat.HEADER_LENGTH);
+    try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+      while (header.hasRemaining() && channel.read(header) >= 0) {
+        // Read until the header is full or the file ends
+      }
+    }
+    header.flip();
+    if (header.remaining() < CompiledStoryFormat.HEADER_LENGTH
+        || header.getInt() != CompiledStoryFormat.MAGIC
+        || header.getShort() != CompiledStoryFormat.VERSION) {
+      return null;
+    }
+    header.getShort();
+    long size = header.getLong();
+    int checksum = header.getInt();
+    return size == CompiledStoryFormat.NO_SOURCE ? null : new SourceStamp(size, checksum);
+  }
+
+  private void readHeader() {
+    if (buffer.remaining() < CompiledStoryFormat.HEADER_LENGTH
+        || buffer.getInt() != CompiledStoryFormat.MAGIC) {
+      throw new StoryValidationException("File is not a compiled story");
+    }
+    short version = buffer.getShort();
+    if (version != CompiledStoryFormat.VERSION) {
+      throw new StoryValidationException("Unsupported compiled story version " + version);
+    }
+    buffer.getShort();
+    buffer.getLong();
+    buffer.getInt();
+    int bodyLength = buffer.getInt();
+    int expectedChecksum = buffer.getInt();
+    if (bodyLength != buffer.remaining()) {
+      throw new StoryValidationException("Compiled story is truncated or corrupt");
+    }
+    CRC32 checksum = new CRC32();
+    checksum.update(buffer.duplicate());
+    if ((int) checksum.getValue() != expectedChecksum) {
+      throw new StoryValidationException("Compiled story checksum does not match");
+    }
+  }
+
+  private void readStringTable() {
+    int count = buffer.getInt();
+    if (count < 0 || count > buffer.remaining() / Integer.BYTES) {
+      throw new StoryValidationException("Compiled story is truncated or corrupt");
+    }
+    stringOffsets = new int[count];
+    stringLengths = new int[count];
+    strings = new String[count];
+    images = new PassageImage[count];
+    for (int i = 0; i < count; i++) {
+      int length = buffer.getInt();
+      if (length < 0 || length > buffer.remaining()) {
+        throw new StoryValidationException("Compiled story is truncated or corrupt");
+      }
+      stringOffsets[i] = buffer.position();
+      stringLengths[i] = length;
+      buffer.position(buffer.position() + length);
+    }
+  }
+
+  private Story readStory() {
+    String title = string(buffer.getInt());
+    int passageCount = readCount(PASSAGE_LENGTH);
+    if (passageCount == 0) {
+      throw new StoryValidationException("Story must contain at least one passage");
+    }
+    // Titles are read up front so links can be given the title of a passage that comes later
+    int passagesStart = buffer.position();
+    int[] titleIndices = new int[passageCount];
+    for (int i = 0; i < passageCount; i++) {
+      titleIndices[i] = buffer.getInt();
+      skipPassageAfterTitle();
+    }
+    buffer.position(passagesStart);
+
+    Story story = null;
+    for (int i = 0; i < passageCount; i++) {
+      Passage passage = readPassage(titleIndices);
+      if (story == null) {
+        story = new Story(title, passage);
+      } else {
+        story.addPassage(passage);
+      }
+    }
+    return story;
+  }
+
+  private void skipPassageAfterTitle() {
+    skip(3 * Integer.BYTES);
+    int links = readCount(LINK_LENGTH);
+    for (int i = 0; i < links; i++) {
+      skip(3 * Integer.BYTES);
+      skip(readCount(ACTION_LENGTH) * ACTION_LENGTH);
+    }
+  }
+
+  private void skip(int bytes) {
+    if (bytes > buffer.remaining()) {
+      throw new StoryValidationException("Compiled story is truncated or corrupt");
+    }
+    buffer.position(buffer.position() + bytes);
+  }
+
+  /**
+   * Reads the number of elements that follow, which can not be negative or more than the
+   * remaining bytes hold.
+   */
+  private int readCount(int elementLength) {
+    int count = buffer.getInt();
+    if (count < 0 || count > buffer.remaining() / elementLength) {
+      throw new StoryValidationException("Compiled story is truncated or corrupt");
+    }
+    return count;
+  }
+
+  private Passage readPassage(int[] titleIndices) {
+    String title = string(buffer.getInt());
+    int contentIndex = buffer.getInt();
+    CharSequence content = new Utf8Slice(buffer, stringOffsets[contentIndex],
+        stringLengths[contentIndex]);
+    PassageImage backgroundImage = image(buffer.getInt());
+    PassageImage contentImage = image(buffer.getInt());
+    Passage passage = new Passage(title, content, backgroundImage, contentImage);
+
+    int linkCount = readCount(LINK_LENGTH);
+    for (int i = 0; i < linkCount; i++) {
+      String text = string(buffer.getInt());
+      String reference = string(titleIndices[buffer.getInt()]);
+      int requiredItem = buffer.getInt();
+      Link link = new Link(text, reference);
+      if (requiredItem != CompiledStoryFormat.NONE) {
+        link.setRequiredItem(new InventoryAction(string(requiredItem)));
+      }
+      int actionCount = readCount(ACTION_LENGTH);
+      for (int j = 0; j < actionCount; j++) {
+        link.addAction(readAction());
+      }
+      passage.addLink(link);
+    }
+    return passage;
+  }
+
+  private Action<?> readAction() {
+    byte opcode = buffer.get();
+    int operand = buffer.getInt();
+    return switch (opcode) {
+      case CompiledStoryFormat.OPCODE_GOLD -> new GoldAction(operand);
+      case CompiledStoryFormat.OPCODE_HEALTH -> new HealthAction(operand);
+      case CompiledStoryFormat.OPCODE_SCORE -> new ScoreAction(operand);
+      case CompiledStoryFormat.OPCODE_INVENTORY -> new InventoryAction(string(operand));
+      default -> throw new StoryValidationException("Unknown action opcode " + opcode);
+    };
+  }
+
+  private PassageImage image(int index) {
+    if (index == CompiledStoryFormat.NONE) {
+      return null;
+    }
+    if (images[index] == null) {
+      // Validated like the images of a .paths file, so a story loads the same from either file
+      String path = string(index);
+      PassageImage image = PassageImage.fromPath(path);
+      if (image.getSource() == PassageImage.Source.UPLOADED_IMAGES) {
+        ImageValidator.validateImage(new File("./" + path));
+      } else {
+        ImageValidator.validateImage(path);
+      }
+      images[index] = image;
+    }
+    return images[index];
+  }
+
+  private String string(int index) {
+    if (strings[index] == null) {
+      byte[] bytes = new byte[stringLengths[index]];
+      buffer.get(stringOffsets[index], bytes);
+      strings[index] = new String(bytes, StandardCharsets.UTF_8);
+    }
+    return strings[index];
+  }
+}
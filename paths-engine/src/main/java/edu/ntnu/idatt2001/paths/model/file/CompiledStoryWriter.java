@@ -0,0 +1,166 @@
+package edu.ntnu.idatt2001.paths.model.file;
+
+import edu.ntnu.idatt2001.paths.model.Link;
+import edu.ntnu.idatt2001.paths.model.Passage;
+import edu.ntnu.idatt2001.paths.model.PassageImage;
+import edu.ntnu.idatt2001.paths.model.Story;
+import edu.ntnu.idatt2001.paths.model.actions.Action;
+import edu.ntnu.idatt2001.paths.model.exceptions.StoryValidationException;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+/**
+ * Writes a story in the compiled .pathsc format described in {@link CompiledStoryFormat}. Every
+ * distinct string is stored once, and links point to the index of the passage they lead to.
+ */
+public final class CompiledStoryWriter {
+
+  private final Map<String, Integer> strings = new LinkedHashMap<>();
+
+  /**
+   * Writes a story to a stream. The stream is not closed.
+   *
+   * @param story the story to write
+   * @param out   the stream to write to
+   * @throws IOException              if the stream fails
+   * @throws StoryValidationException if the story has no opening passage or a link leads to a
+   *                                  passage that is not in the story
+   */
+  public void write(Story story, OutputStream out) throws IOException {
+    write(story, out, null);
+  }
+
+  /**
+   * Writes a story compiled from a .paths file to a stream, with the stamp of the file in the
+   * header. The stream is not closed.
+   *
+   * @param story  the story to write
+   * @param out    the stream to write to
+   * @param source the stamp of the .paths file, or null if the story has no file
+   * @throws IOException              if the stream fails
+   * @throws StoryValidationException if the story has no opening passage or a link leads to a
+   *                                  passage that is not in the story
+   */
+  public void write(Story story, OutputStream out, SourceStamp source) throws IOException {
+    if (story.getOpeningPassage() == null) {
+      throw new StoryValidationException("Story must have an opening passage to be compiled");
+    }
+    strings.clear();
+    List<Passage> passages = new ArrayList<>();
+    passages.add(story.getOpeningPassage());
+    for (Passage passage : story.getPassages()) {
+      if (passage != story.getOpeningPassage()) {
+        passages.add(passage);
+      }
+    }
+    Map<String, Integer> passageIndices = new HashMap<>();
+    for (int i = 0; i < passages.size(); i++) {
+      passageIndices.put(passages.get(i).getTitle(), i);
+    }
+
+    // The passages are written first so the string table is complete when it is written
+    ByteArrayOutputStream passageBytes = new ByteArrayOutputStream();
+    DataOutputStream passageData = new DataOutputStream(passageBytes);
+    passageData.writeInt(stringIndex(story.getTitle()));
+    passageData.writeInt(passages.size());
+    for (Passage passage : passages) {
+      writePassage(passage, passageIndices, passageData);
+    }
+    passageData.flush();
+
+    ByteArrayOutputStream body = new ByteArrayOutputStream(passageBytes.size() + 1024);
+    DataOutputStream bodyData = new DataOutputStream(body);
+    bodyData.writeInt(strings.size());
+    for (String string : strings.keySet()) {
+      byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+      bodyData.writeInt(bytes.length);
+      bodyData.write(bytes);
+    }
+    passageBytes.writeTo(bodyData);
+    bodyData.flush();
+
+    CRC32 checksum = new CRC32();
+    byte[] bodyBytes = body.toByteArray();
+    checksum.update(bodyBytes);
+
+    DataOutputStream header = new DataOutputStream(out);
+    header.writeInt(CompiledStoryFormat.MAGIC);
+    header.writeShort(CompiledStoryFormat.VERSION);
+    header.writeShort(0);
+    header.writeLong(source != null ? source.size() : CompiledStoryFormat.NO_SOURCE);
+    header.writeInt(source != null ? source.checksum() : 0);
+    header.writeInt(bodyBytes.length);
+    header.writeInt((int) checksum.getValue());
+    header.write(bodyBytes);
+    header.flush();
+  }
+
+  private void writePassage(Passage passage, Map<String, Integer> passageIndices,
+      DataOutputStream data) throws IOException {
+    data.writeInt(stringIndex(passage.getTitle()));
+    data.writeInt(stringIndex(passage.getContent()));
+    data.writeInt(imageIndex(passage.getBackgroundImageReference(),
+        PassageImage.BACKGROUND_IMAGES_FOLDER));
+    data.writeInt(imageIndex(passage.getContentImageReference(),
+        PassageImage.CONTENT_IMAGES_FOLDER));
+    data.writeInt(passage.getLinks().size());
+    for (Link link : passage.getLinks()) {
+      Integer target = passageIndices.get(link.getReference());
+      if (target == null) {
+        throw new StoryValidationException(
+            "No passage exists for the given link: " + link.getReference());
+      }
+      data.writeInt(stringIndex(link.getText()));
+      data.writeInt(target);
+      data.writeInt(link.getRequiredItem() != null
+          ? stringIndex(link.getRequiredItem().getValue()) : CompiledStoryFormat.NONE);
+      data.writeInt(link.getActions().size());
+      for (Action<?> action : link.getActions()) {
+        writeAction(action, data);
+      }
+    }
+  }
+
+  private void writeAction(Action<?> action, DataOutputStream data) throws IOException {
+    switch (action.getType()) {
+      case GOLDACTION -> {
+        data.writeByte(CompiledStoryFormat.OPCODE_GOLD);
+        data.writeInt((Integer) action.getValue());
+      }
+      case HEALTHACTION -> {
+        data.writeByte(CompiledStoryFormat.OPCODE_HEALTH);
+        data.writeInt((Integer) action.getValue());
+      }
+      case SCOREACTION -> {
+        data.writeByte(CompiledStoryFormat.OPCODE_SCORE);
+        data.writeInt((Integer) action.getValue());
+      }
+      case INVENTORYACTION -> {
+        data.writeByte(CompiledStoryFormat.OPCODE_INVENTORY);
+        data.writeInt(stringIndex((String) action.getValue()));
+      }
+      default -> throw new IllegalStateException("Unknown action type " + action.getType());
+    }
+  }
+
+  private int imageIndex(PassageImage image, String defaultFolder) {
+    if (image == null) {
+      return CompiledStoryFormat.NONE;
+    }
+    String path = image.resolvePath(defaultFolder);
+    return path != null ? stringIndex(path) : CompiledStoryFormat.NONE;
+  }
+
+  private int stringIndex(String string) {
+    return strings.computeIfAbsent(string, key -> strings.size());
+  }
+}
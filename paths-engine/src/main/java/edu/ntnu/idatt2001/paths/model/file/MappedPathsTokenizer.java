@@ -0,0 +1,222 @@
+package edu.ntnu.idatt2001.paths.model.file;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Single-pass tokenizer for the .paths format that works directly on UTF-8 encoded bytes, usually
+ * a memory-mapped file. All characters of the grammar are ASCII and UTF-8 never uses ASCII byte
+ * values inside multi-byte characters, so lines can be classified without decoding them. Text is
+ * only decoded for the tokens that are asked for, and {@link #getTextSlice()} hands out
+ * {@link Utf8Slice}s that are not decoded before they are used.
+ */
+public class MappedPathsTokenizer extends AbstractPathsTokenizer {
+
+  private final ByteBuffer buffer;
+  private final int limit;
+  private int position;
+  /**
+   * Reused for copying the bytes of a token out of the buffer before they are decoded.
+   */
+  private byte[] scratch = new byte[256];
+
+  /**
+   * Instantiates a new Mapped paths tokenizer over the remaining bytes of a buffer. The buffer must
+   * not be changed while the tokenizer or any of its slices are in use.
+   *
+   * @param buffer the UTF-8 encoded bytes to tokenize
+   */
+  public MappedPathsTokenizer(ByteBuffer buffer) {
+    this(buffer, buffer.position(), buffer.limit());
+  }
+
+  /**
+   * Instantiates a new Mapped paths tokenizer over a range of a buffer.
+   *
+   * @param buffer the UTF-8 encoded bytes to tokenize
+   * @param start  the absolute position of the first byte, inclusive
+   * @param end    the absolute position of the last byte, exclusive
+   */
+  public MappedPathsTokenizer(ByteBuffer buffer, int start, int end) {
+    if (buffer == null) {
+      throw new IllegalArgumentException("Buffer can not be null");
+    }
+    if (start < 0 || start > end || end > buffer.limit()) {
+      throw new IndexOutOfBoundsException("Range is outside of the buffer");
+    }
+    this.buffer = buffer;
+    this.position = start;
+    this.limit = end;
+  }
+
+  /**
+   * Memory-maps a file read-only. The mapping stays valid after the channel is closed and is
+   * released when the buffer is garbage collected.
+   *
+   * @param path the file to map
+   * @return the mapped file
+   * @throws IOException if the file can not be mapped
+   */
+  public static MappedByteBuffer map(Path path) throws IOException {
+    try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+      long size = channel.size();
+      if (size > Integer.MAX_VALUE) {
+        throw new IOException("File is too large to be mapped: " + path);
+      }
+      return channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+    }
+  }
+
+  /**
+   * Splits a range of a buffer holding passages into parts that can be tokenized on their own,
+   * each with a tokenizer that {@link #startAtPassages() starts at passages}. A part only starts
+   * at a passage header that follows a blank line, since such a header always starts a new
+   * passage. The parts are about the same size, and fewer parts are returned when the range has
+   * too few such headers.
+   *
+   * @param buffer the UTF-8 encoded bytes
+   * @param start  the absolute position of the first byte, inclusive
+   * @param end    the absolute position of the last byte, exclusive
+   * @param parts  the wanted number of parts
+   * @return the boundaries of the parts, starting with {@code start} and ending with {@code end}
+   */
+  public static int[] splitAtPassages(ByteBuffer buffer, int start, int end, int parts) {
+    int[] boundaries = new int[parts + 1];
+    boundaries[0] = start;
+    int count = 1;
+    for (int i = 1; i < parts; i++) {
+      long target = start + (long) (end - start) * i / parts;
+      int from = Math.max((int) target, boundaries[count - 1] + 1);
+      int boundary = nextPassageBoundary(buffer, from, start, end);
+      if (boundary >= end) {
+        break;
+      }
+      boundaries[count++] = boundary;
+    }
+    boundaries[count++] = end;
+    return Arrays.copyOf(boundaries, count);
+  }
+
+  /**
+   * Finds the first line at or after a position that is a passage header following a blank line.
+   *
+   * @return the start of the header line, or {@code end} if there is none
+   */
+  private static int nextPassageBoundary(ByteBuffer buffer, int from, int start, int end) {
+    for (int position = from; position + 1 < end; position++) {
+      if (buffer.get(position) == ':' && buffer.get(position + 1) == ':'
+          && isLineStart(buffer, position, start) && isAfterBlankLine(buffer, position, start)) {
+        return position;
+      }
+    }
+    return end;
+  }
+
+  private static boolean isLineStart(ByteBuffer buffer, int position, int start) {
+    if (position == start) {
+      return false;
+    }
+    byte previous = buffer.get(position - 1);
+    return previous == '\n' || previous == '\r';
+  }
+
+  private static boolean isAfterBlankLine(ByteBuffer buffer, int lineStart, int start) {
+    int position = lineStart - 1;
+    if (buffer.get(position) == '\n' && position > start && buffer.get(position - 1) == '\r') {
+      position--;
+    }
+    // position is at the line break of the previous line, walk back over its characters
+    for (position--; position >= start; position--) {
+      int b = buffer.get(position) & 0xFF;
+      if (b == '\n' || b == '\r') {
+        return true;
+      }
+      if (b >= 0x80 || !Character.isWhitespace(b)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Gets the absolute position of the line the current token was read from.
+   *
+   * @return the position of the first byte of the line
+   */
+  public int getLineStart() {
+    return lineStart;
+  }
+
+  /**
+   * Gets the absolute position of the next byte that has not been read.
+   *
+   * @return the position
+   */
+  public int getPosition() {
+    return position;
+  }
+
+  @Override
+  public void close() {
+    // The buffer is owned by the caller
+  }
+
+  @Override
+  protected int charAt(int index) {
+    return buffer.get(index) & 0xFF;
+  }
+
+  @Override
+  protected String decode(int start, int end) {
+    int length = end - start;
+    if (length > scratch.length) {
+      scratch = new byte[Math.max(length, scratch.length * 2)];
+    }
+    buffer.get(start, scratch, 0, length);
+    return new String(scratch, 0, length, StandardCharsets.UTF_8);
+  }
+
+  @Override
+  protected CharSequence slice(int start, int end) {
+    return new Utf8Slice(buffer, start, end - start);
+  }
+
+  @Override
+  protected void pushBackLine() {
+    position = lineStart;
+    lineNumber--;
+  }
+
+  @Override
+  protected boolean readLine() {
+    if (position >= limit) {
+      return false;
+    }
+    int scan = position;
+    while (scan < limit) {
+      byte b = buffer.get(scan);
+      if (b == '\n' || b == '\r') {
+        lineStart = position;
+        lineEnd = scan;
+        position = scan + 1;
+        if (b == '\r' && position < limit && buffer.get(position) == '\n') {
+          position++;
+        }
+        lineNumber++;
+        return true;
+      }
+      scan++;
+    }
+    lineStart = position;
+    lineEnd = limit;
+    position = limit;
+    lineNumber++;
+    return true;
+  }
+}
@@ -0,0 +1,534 @@
+package edu.ntnu.idatt2001.paths.model.file;
+
+import edu.ntnu.idatt2001.paths.model.exceptions.StoryValidationException;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Index of the passages of a .paths file: the byte offset and length of every passage, by title.
+ * With the index a single passage can be read from the file without reading the passages in front
+ * of it. The index is kept in a sidecar file next to the story, and records the size and
+ * modification time of the story file so a stale index is noticed.
+ *
+ * <p>The index is a hash table laid out in a buffer, normally the memory-mapped sidecar file, so
+ * looking up a passage does not need any of the titles on the heap and the memory used does not
+ * grow with the number of passages.
+ *
+ * <p>The index also records where every link leads, so the links to a passage and the broken
+ * links are found without reading the passages. The links are grouped by the passage they lead
+ * to, and the broken links come last. The links of the story are numbered from zero in the order
+ * of the file, and every passage records the number of its first link.
+ *
+ * <pre>
+ * header   magic "PTHI" (int), version (short), reserved (short), story file size (long),
+ *          story file modification time (long), passage count (int), slot count (int),
+ *          story title length (int), titles start (int), link count (int),
+ *          first broken link (int)
+ *          story title (UTF-8)
+ * entries  per passage in file order: offset (long), length (int), title hash (int),
+ *          title position (int), title length (int), first link to the passage (int),
+ *          number of the first link in the passage (int)
+ * slots    slot count ints, each the entry number plus one, or 0 for an empty slot
+ * links    per link: the entry number of the passage it is in (int), its number among the
+ *          links of that passage (int)
+ * titles   the UTF-8 encoded passage titles
+ * </pre>
+ */
+public final class PassageIndex {
+
+  /**
+   * The file extension added to the name of a story file to get the name of its index file.
+   */
+  public static final String EXTENSION = ".index";
+
+  private static final Logger logger = Logger.getLogger(PassageIndex.class.getName());
+  private static final int MAGIC = 0x50544849;
+  private static final short VERSION = 2;
+  private static final int HEADER_LENGTH = 48;
+  private static final int ENTRY_LENGTH = 32;
+  private static final int LINK_LENGTH = 8;
+
+  /**
+   * The position of a passage in the story file.
+   *
+   * @param offset    the byte offset of the passage header
+   * @param length    the number of bytes of the passage, including the blank line that ends it
+   * @param firstLink the number of the first link of the passage among the links of the story
+   */
+  public record Entry(long offset, int length, int firstLink) {
+
+  }
+
+  /**
+   * A link in the story file.
+   *
+   * @param passage the number of the passage the link is in, in the order of the file
+   * @param link    the number of the link among the links of the passage
+   */
+  public record LinkPosition(int passage, int link) {
+
+  }
+
+  private final ByteBuffer buffer;
+  private final long sourceSize;
+  private final long sourceModified;
+  private final int passageCount;
+  private final int slotCount;
+  private final String storyTitle;
+  private final int entriesStart;
+  private final int slotsStart;
+  private final int linksStart;
+  private final int titlesStart;
+  private final int linkCount;
+
+  private PassageIndex(ByteBuffer buffer) throws IOException {
+    if (buffer.limit() < HEADER_LENGTH || buffer.getInt(0) != MAGIC
+        || buffer.getShort(4) != VERSION) {
+      throw new IOException("Not a passage index");
+    }
+    this.buffer = buffer;
+    this.sourceSize = buffer.getLong(8);
+    this.sourceModified = buffer.getLong(16);
+    this.passageCount = buffer.getInt(24);
+    this.slotCount = buffer.getInt(28);
+    int storyTitleLength = buffer.getInt(32);
+    this.titlesStart = buffer.getInt(36);
+    this.linkCount = buffer.getInt(40);
+    int brokenStart = buffer.getInt(44);
+    this.entriesStart = HEADER_LENGTH + storyTitleLength;
+    this.slotsStart = entriesStart + passageCount * ENTRY_LENGTH;
+    this.linksStart = slotsStart + slotCount * Integer.BYTES;
+    if (passageCount <= 0 || Integer.bitCount(slotCount) != 1 || linkCount < 0
+        || brokenStart < 0 || brokenStart > linkCount
+        || titlesStart != linksStart + linkCount * LINK_LENGTH
+        || titlesStart > buffer.limit()) {
+      throw new IOException("Passage index is corrupt");
+    }
+    this.storyTitle = decode(HEADER_LENGTH, storyTitleLength);
+  }
+
+  /**
+   * Builds the index of a story file by tokenizing it. Only the titles of the passages and the
+   * references of the links are decoded, no passages are created. The index is held on the heap
+   * until it is written.
+   *
+   * @param storyFile the .paths file
+   * @return the index
+   * @throws IOException              if the file can not be read
+   * @throws StoryValidationException if the file has no passages or two passages with the same
+   *                                  title
+   */
+  public static PassageIndex build(Path storyFile) throws IOException {
+    long size = Files.size(storyFile);
+    long modified = Files.getLastModifiedTime(storyFile).toMillis();
+    String storyTitle = "";
+    long[] offsets = new long[64];
+    int[] lengths = new int[64];
+    int[] hashes = new int[64];
+    int[] titlePositions = new int[64];
+    int[] titleLengths = new int[64];
+    int[] firstLinks = new int[64];
+    ByteArrayOutputStream titles = new ByteArrayOutputStream();
+    int count = 0;
+    int[] linkSources = new int[64];
+    int[] linkNumbers = new int[64];
+    List<String> references = new ArrayList<>();
+    try (MappedPathsTokenizer tokenizer = new MappedPathsTokenizer(
+        MappedPathsTokenizer.map(storyFile))) {
+      String passageTitle = null;
+      int passageStart = 0;
+      int passageLinks = 0;
+      PathsTokenType type;
+      while ((type = tokenizer.next()) != PathsTokenType.END_OF_FILE) {
+        if (type == PathsTokenType.TITLE) {
+          storyTitle = tokenizer.getText();
+        } else if (type == PathsTokenType.PASSAGE_HEADER) {
+          passageTitle = tokenizer.getText();
+          passageStart = tokenizer.getLineStart();
+          passageLinks = 0;
+        } else if (type == PathsTokenType.LINK && passageTitle != null) {
+          int link = references.size();
+          if (link == linkSources.length) {
+            linkSources = Arrays.copyOf(linkSources, link * 2);
+            linkNumbers = Arrays.copyOf(linkNumbers, link * 2);
+          }
+          linkSources[link] = count;
+          linkNumbers[link] = passageLinks++;
+          references.add(tokenizer.getValue());
+        } else if (type == PathsTokenType.END_OF_PASSAGE) {
+          if (count == offsets.length) {
+            int capacity = count * 2;
+            offsets = Arrays.copyOf(offsets, capacity);
+            lengths = Arrays.copyOf(lengths, capacity);
+            hashes = Arrays.copyOf(hashes, capacity);
+            titlePositions = Arrays.copyOf(titlePositions, capacity);
+            titleLengths = Arrays.copyOf(titleLengths, capacity);
+            firstLinks = Arrays.copyOf(firstLinks, capacity);
+          }
+          byte[] title = passageTitle.getBytes(StandardCharsets.UTF_8);
+          offsets[count] = passageStart;
+          lengths[count] = tokenizer.getPosition() - passageStart;
+          hashes[count] = passageTitle.hashCode();
+          titlePositions[count] = titles.size();
+          titleLengths[count] = title.length;
+          firstLinks[count] = references.size() - passageLinks;
+          titles.write(title);
+          count++;
+        }
+      }
+    }
+    if (count == 0) {
+      throw new StoryValidationException("Story must contain at least one passage");
+    }
+
+    byte[] storyTitleBytes = storyTitle.getBytes(StandardCharsets.UTF_8);
+    int slotCount = Integer.highestOneBit(count) * 4;
+    int entriesStart = HEADER_LENGTH + storyTitleBytes.length;
+    int slotsStart = entriesStart + count * ENTRY_LENGTH;
+    int linkCount = references.size();
+    int linksStart = slotsStart + slotCount * Integer.BYTES;
+    int titlesStart = linksStart + linkCount * LINK_LENGTH;
+    ByteBuffer buffer = ByteBuffer.allocate(titlesStart + titles.size());
+    buffer.putInt(MAGIC).putShort(VERSION).putShort((short) 0).putLong(size).putLong(modified)
+        .putInt(count).putInt(slotCount).putInt(storyTitleBytes.length).putInt(titlesStart)
+        .putInt(linkCount).putInt(0).put(storyTitleBytes);
+    for (int i = 0; i < count; i++) {
+      buffer.putLong(offsets[i]).putInt(lengths[i]).putInt(hashes[i])
+          .putInt(titlesStart + titlePositions[i]).putInt(titleLengths[i]).putInt(0)
+          .putInt(firstLinks[i]);
+    }
+    buffer.position(titlesStart);
+    buffer.put(titles.toByteArray());
+    buffer.clear();
+
+    PassageIndex index = new PassageIndex(buffer);
+    for (int i = 0; i < count; i++) {
+      index.insert(i);
+    }
+    index.putLinks(linkSources, linkNumbers, references);
+    return index;
+  }
+
+  /**
+   * Gets the index of a story file from its sidecar file, or builds it and writes the sidecar
+   * file if there is none or it is stale. A sidecar file that can not be written is only logged,
+   * and the index is then kept on the heap.
+   *
+   * @param storyFile the .paths file
+   * @return the index
+   * @throws IOException if the story file can not be read
+   */
+  public static PassageIndex loadOrBuild(Path storyFile) throws IOException {
+    Path indexFile = indexFileOf(storyFile);
+    if (Files.exists(indexFile)) {
+      try {
+        PassageIndex index = read(indexFile);
+        if (index.isCurrentFor(storyFile)) {
+          return index;
+        }
+      } catch (IOException e) {
+        logger.log(Level.WARNING, "Could not read passage index " + indexFile, e);
+      }
+    }
+    PassageIndex index = build(storyFile);
+    try {
+      index.write(indexFile);
+      return read(indexFile);
+    } catch (IOException e) {
+      logger.log(Level.WARNING, "Could not write passage index " + indexFile, e);
+      return index;
+    }
+  }
+
+  /**
+   * Gets the path of the sidecar index file of a story file.
+   *
+   * @param storyFile the .paths file
+   * @return the path of the index file
+   */
+  public static Path indexFileOf(Path storyFile) {
+    return storyFile.resolveSibling(storyFile.getFileName() + EXTENSION);
+  }
+
+  /**
+   * Memory-maps an index file written by {@link #write(Path)}.
+   *
+   * @param indexFile the index file
+   * @return the index
+   * @throws IOException if the file can not be read or is not an index file
+   */
+  public static PassageIndex read(Path indexFile) throws IOException {
+    return new PassageIndex(MappedPathsTokenizer.map(indexFile));
+  }
+
+  /**
+   * Writes the index to a file.
+   *
+   * @param indexFile the index file
+   * @throws IOException if the file can not be written
+   */
+  public void write(Path indexFile) throws IOException {
+    try (OutputStream out = Files.newOutputStream(indexFile)) {
+      byte[] bytes = new byte[buffer.limit()];
+      buffer.get(0, bytes);
+      out.write(bytes);
+    }
+  }
+
+  /**
+   * Checks if the index was built from the current version of a story file.
+   *
+   * @param storyFile the .paths file
+   * @return true if the size and modification time of the file match the index
+   * @throws IOException if the file attributes can not be read
+   */
+  public boolean isCurrentFor(Path storyFile) throws IOException {
+    return Files.size(storyFile) == sourceSize
+        && Files.getLastModifiedTime(storyFile).toMillis() == sourceModified;
+  }
+
+  /**
+   * Gets the title of the story.
+   *
+   * @return the story title
+   */
+  public String getStoryTitle() {
+    return storyTitle;
+  }
+
+  /**
+   * Gets the titles of all passages in the order of the file. The first is the opening passage.
+   * The titles are decoded from the index when they are read from the list.
+   *
+   * @return the passage titles
+   */
+  public List<String> getTitles() {
+    return new AbstractList<>() {
+      @Override
+      public String get(int index) {
+        if (index < 0 || index >= passageCount) {
+          throw new IndexOutOfBoundsException(index);
+        }
+        int entry = entriesStart + index * ENTRY_LENGTH;
+        return decode(buffer.getInt(entry + 16), buffer.getInt(entry + 20));
+      }
+
+      @Override
+      public int size() {
+        return passageCount;
+      }
+    };
+  }
+
+  /**
+   * Gets the position of a passage.
+   *
+   * @param title the title of the passage
+   * @return the entry, or null if there is no passage with the title
+   */
+  public Entry getEntry(String title) {
+    int entry = find(title);
+    if (entry < 0) {
+      return null;
+    }
+    int position = entriesStart + entry * ENTRY_LENGTH;
+    return new Entry(buffer.getLong(position), buffer.getInt(position + 8),
+        buffer.getInt(position + 28));
+  }
+
+  /**
+   * Checks if the story has a passage with the given title.
+   *
+   * @param title the title of the passage
+   * @return true if the passage exists
+   */
+  public boolean contains(String title) {
+    return find(title) >= 0;
+  }
+
+  /**
+   * Gets the links that lead to a passage, in the order of the file.
+   *
+   * @param title the title of the passage
+   * @return the positions of the links, none if there is no passage with the title
+   */
+  public List<LinkPosition> getIncomingLinks(String title) {
+    int entry = find(title);
+    if (entry < 0) {
+      return List.of();
+    }
+    int end = entry + 1 < passageCount
+        ? buffer.getInt(entriesStart + (entry + 1) * ENTRY_LENGTH + 24) : buffer.getInt(44);
+    return links(buffer.getInt(entriesStart + entry * ENTRY_LENGTH + 24), end);
+  }
+
+  /**
+   * Gets the links that lead to no passage of the story, in the order of the file.
+   *
+   * @return the positions of the links
+   */
+  public List<LinkPosition> getBrokenLinks() {
+    return links(buffer.getInt(44), linkCount);
+  }
+
+  private List<LinkPosition> links(int start, int end) {
+    List<LinkPosition> links = new ArrayList<>(end - start);
+    for (int link = start; link < end; link++) {
+      int position = linksStart + link * LINK_LENGTH;
+      links.add(new LinkPosition(buffer.getInt(position), buffer.getInt(position + 4)));
+    }
+    return links;
+  }
+
+  /**
+   * Finds a link by its number among the links of the story. The passages record the number of
+   * their first link in the order of the file, so the passage is found by a binary search.
+   *
+   * @param link the number of the link
+   * @return the position of the link
+   * @throws IndexOutOfBoundsException if the story has no link with the number
+   */
+  public LinkPosition getLinkPosition(int link) {
+    if (link < 0 || link >= linkCount) {
+      throw new IndexOutOfBoundsException(link);
+    }
+    // The last passage whose first link is not after the link, which skips passages without links
+    int low = 0;
+    int high = passageCount - 1;
+    while (low < high) {
+      int middle = (low + high + 1) >>> 1;
+      if (buffer.getInt(entriesStart + middle * ENTRY_LENGTH + 28) <= link) {
+        low = middle;
+      } else {
+        high = middle - 1;
+      }
+    }
+    return new LinkPosition(low, link - buffer.getInt(entriesStart + low * ENTRY_LENGTH + 28));
+  }
+
+  /**
+   * Gets the number of links in the story.
+   *
+   * @return the number of links
+   */
+  public int getLinkCount() {
+    return linkCount;
+  }
+
+  /**
+   * Gets the number of passages.
+   *
+   * @return the number of passages
+   */
+  public int size() {
+    return passageCount;
+  }
+
+  private int find(String title) {
+    if (title == null) {
+      return -1;
+    }
+    int hash = title.hashCode();
+    byte[] bytes = null;
+    int mask = slotCount - 1;
+    for (int slot = mix(hash) & mask; ; slot = (slot + 1) & mask) {
+      int value = buffer.getInt(slotsStart + slot * Integer.BYTES);
+      if (value == 0) {
+        return -1;
+      }
+      int entry = value - 1;
+      int position = entriesStart + entry * ENTRY_LENGTH;
+      if (buffer.getInt(position + 12) == hash) {
+        if (bytes == null) {
+          bytes = title.getBytes(StandardCharsets.UTF_8);
+        }
+        if (titleEquals(buffer.getInt(position + 16), buffer.getInt(position + 20), bytes)) {
+          return entry;
+        }
+      }
+    }
+  }
+
+  /**
+   * Writes the links into the index grouped by the passage they lead to, with the broken links
+   * last, and records where the links to each passage start.
+   */
+  private void putLinks(int[] sources, int[] numbers, List<String> references) {
+    int[] targets = new int[references.size()];
+    int[] starts = new int[passageCount + 1];
+    for (int i = 0; i < targets.length; i++) {
+      int target = find(references.get(i));
+      targets[i] = target >= 0 ? target : passageCount;
+      starts[targets[i]]++;
+    }
+    int start = 0;
+    for (int target = 0; target <= passageCount; target++) {
+      int links = starts[target];
+      starts[target] = start;
+      start += links;
+    }
+    for (int target = 0; target < passageCount; target++) {
+      buffer.putInt(entriesStart + target * ENTRY_LENGTH + 24, starts[target]);
+    }
+    buffer.putInt(44, starts[passageCount]);
+    for (int i = 0; i < targets.length; i++) {
+      int position = linksStart + starts[targets[i]]++ * LINK_LENGTH;
+      buffer.putInt(position, sources[i]).putInt(position + 4, numbers[i]);
+    }
+  }
+
+  private void insert(int entry) {
+    int position = entriesStart + entry * ENTRY_LENGTH;
+    int hash = buffer.getInt(position + 12);
+    int titlePosition = buffer.getInt(position + 16);
+    int titleLength = buffer.getInt(position + 20);
+    int mask = slotCount - 1;
+    for (int slot = mix(hash) & mask; ; slot = (slot + 1) & mask) {
+      int slotPosition = slotsStart + slot * Integer.BYTES;
+      int value = buffer.getInt(slotPosition);
+      if (value == 0) {
+        buffer.putInt(slotPosition, entry + 1);
+        return;
+      }
+      int other = entriesStart + (value - 1) * ENTRY_LENGTH;
+      if (buffer.getInt(other + 12) == hash && buffer.getInt(other + 20) == titleLength
+          && buffer.slice(titlePosition, titleLength).equals(
+          buffer.slice(buffer.getInt(other + 16), titleLength))) {
+        throw new StoryValidationException("Story contains duplicate passage");
+      }
+    }
+  }
+
+  private boolean titleEquals(int position, int length, byte[] title) {
+    if (length != title.length) {
+      return false;
+    }
+    for (int i = 0; i < length; i++) {
+      if (buffer.get(position + i) != title[i]) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private String decode(int position, int length) {
+    byte[] bytes = new byte[length];
+    buffer.get(position, bytes);
+    return new String(bytes, StandardCharsets.UTF_8);
+  }
+
+  private static int mix(int hash) {
+    return hash ^ (hash >>> 16);
+  }
+}
@@ -0,0 +1,47 @@
+package edu.ntnu.idatt2001.paths.model.file;
+
+/**
+ * The enum Paths token type. Describes the different tokens a .paths file is made of.
+ */
+public enum PathsTokenType {
+  /**
+   * The first line of the file, the title of the story.
+   */
+  TITLE,
+  /**
+   * A {@code ::title} line that starts a new passage.
+   */
+  PASSAGE_HEADER,
+  /**
+   * The line following a passage header.
+   */
+  CONTENT,
+  /**
+   * A {@code ^path^} line.
+   */
+  BACKGROUND_IMAGE,
+  /**
+   * A {@code |path|} line.
+   */
+  CONTENT_IMAGE,
+  /**
+   * A {@code [text](reference)} line.
+   */
+  LINK,
+  /**
+   * A {@code {Type:value}} entry belonging to the last link.
+   */
+  ACTION,
+  /**
+   * A {@code [item}} line belonging to the last link.
+   */
+  REQUIRED_ITEM,
+  /**
+   * The blank line (or end of file) that closes a passage.
+   */
+  END_OF_PASSAGE,
+  /**
+   * The end of the file.
+   */
+  END_OF_FILE
+}
@@ -0,0 +1,140 @@
+package edu.ntnu.idatt2001.paths.model.file;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.Arrays;
+
+/**
+ * Single-pass tokenizer for the .paths format that reads from a {@link Reader} through its own
+ * large character buffer.
+ */
+public class PathsTokenizer extends AbstractPathsTokenizer {
+
+  private static final int DEFAULT_BUFFER_SIZE = 1 << 16;
+
+  private final Reader reader;
+  private char[] buffer;
+  private int position;
+  private int limit;
+  private boolean endOfInput;
+  private boolean skipLineFeed;
+
+  /**
+   * Instantiates a new Paths tokenizer with the default buffer size.
+   *
+   * @param reader the reader to tokenize
+   */
+  public PathsTokenizer(Reader reader) {
+    this(reader, DEFAULT_BUFFER_SIZE);
+  }
+
+  /**
+   * Instantiates a new Paths tokenizer.
+   *
+   * @param reader     the reader to tokenize
+   * @param bufferSize the initial size of the character buffer
+   */
+  public PathsTokenizer(Reader reader, int bufferSize) {
+    if (reader == null) {
+      throw new IllegalArgumentException("Reader can not be null");
+    }
+    if (bufferSize <= 0) {
+      throw new IllegalArgumentException("Buffer size must be positive");
+    }
+    this.reader = reader;
+    this.buffer = new char[bufferSize];
+  }
+
+  @Override
+  public void close() throws IOException {
+    reader.close();
+  }
+
+  @Override
+  protected int charAt(int index) {
+    return buffer[index];
+  }
+
+  @Override
+  protected String decode(int start, int end) {
+    return new String(buffer, start, end - start);
+  }
+
+  @Override
+  protected void pushBackLine() {
+    position = lineStart;
+    skipLineFeed = false;
+    lineNumber--;
+  }
+
+  /**
+   * Reads the next line into the window {@code [lineStart, lineEnd)} of the buffer. Lines may end
+   * with "\n", "\r\n" or "\r".
+   *
+   * @return false if there are no more lines
+   * @throws IOException if the underlying reader fails
+   */
+  @Override
+  protected boolean readLine() throws IOException {
+    if (skipLineFeed) {
+      if (position == limit) {
+        fill();
+      }
+      if (position < limit && buffer[position] == '\n') {
+        position++;
+      }
+      skipLineFeed = false;
+    }
+    int scan = position;
+    while (true) {
+      while (scan < limit) {
+        char c = buffer[scan];
+        if (c == '\n' || c == '\r') {
+          lineStart = position;
+          lineEnd = scan;
+          position = scan + 1;
+          skipLineFeed = c == '\r';
+          lineNumber++;
+          return true;
+        }
+        scan++;
+      }
+      if (endOfInput) {
+        if (position == limit) {
+          return false;
+        }
+        lineStart = position;
+        lineEnd = limit;
+        position = limit;
+        lineNumber++;
+        return true;
+      }
+      int scanned = scan - position;
+      fill();
+      scan = position + scanned;
+    }
+  }
+
+  /**
+   * Moves the unread part of the buffer to the front, grows the buffer if it is full and reads more
+   * characters from the reader.
+   *
+   * @throws IOException if the underlying reader fails
+   */
+  private void fill() throws IOException {
+    if (position > 0) {
+      System.arraycopy(buffer, position, buffer, 0, limit - position);
+      limit -= position;
+      position = 0;
+    }
+    if (limit == buffer.length) {
+      buffer = Arrays.copyOf(buffer, buffer.length * 2);
+    }
+    int read = reader.read(buffer, limit, buffer.length - limit);
+    if (read < 0) {
+      endOfInput = true;
+    } else {
+      limit += read;
+    }
+  }
+}
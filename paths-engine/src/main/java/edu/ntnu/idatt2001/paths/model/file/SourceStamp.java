@@ -0,0 +1,27 @@
+package edu.ntnu.idatt2001.paths.model.file;
+
+import java.nio.ByteBuffer;
+import java.util.zip.CRC32C;
+
+/**
+ * The size and CRC32C checksum of the .paths file a compiled story was compiled from. A compiled
+ * file is only loaded in place of the text when the stamp in its header matches the text, which
+ * unlike the modification times does not depend on how the files were copied or touched.
+ *
+ * @param size     the size of the text in bytes
+ * @param checksum the CRC32C checksum of the text
+ */
+public record SourceStamp(long size, int checksum) {
+
+  /**
+   * Stamps the remaining bytes of a buffer, without moving its position.
+   *
+   * @param source the text of the story
+   * @return the stamp
+   */
+  public static SourceStamp of(ByteBuffer source) {
+    CRC32C checksum = new CRC32C();
+    checksum.update(source.duplicate());
+    return new SourceStamp(source.remaining(), (int) checksum.getValue());
+  }
+}
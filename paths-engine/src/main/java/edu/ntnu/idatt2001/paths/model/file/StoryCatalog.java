@@ -0,0 +1,298 @@
+package edu.ntnu.idatt2001.paths.model.file;
+
+import edu.ntnu.idatt2001.paths.model.Passage;
+import edu.ntnu.idatt2001.paths.model.Story;
+import edu.ntnu.idatt2001.paths.model.StoryFileManager;
+import edu.ntnu.idatt2001.paths.model.exceptions.StoryValidationException;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.zip.CRC32C;
+
+/**
+ * Catalog of the stories in a directory, kept in a file in the directory. For every story it holds
+ * the title, the number of passages and links, and the size, modification time and a checksum of
+ * the file, so the stories can be listed and searched without reading them. When the catalog is
+ * refreshed only the stories whose file size or modification time has changed are read again.
+ *
+ * <p>The catalog covers .paths and .pathsc files. A compiled file with a .paths file next to it is
+ * left out, since that story is already in the catalog under the text file.
+ */
+public final class StoryCatalog {
+
+  /**
+   * The name of the catalog file in the story directory.
+   */
+  public static final String FILE_NAME = "stories.catalog";
+
+  private static final Logger logger = Logger.getLogger(StoryCatalog.class.getName());
+  private static final int MAGIC = 0x5054484C;
+  private static final short VERSION = 1;
+
+  /**
+   * The catalog entry of one story file.
+   *
+   * @param fileName     the name of the story file in the directory
+   * @param title        the title of the story, or the file name without extension if the file is
+   *                     not a valid story
+   * @param passageCount the number of passages
+   * @param linkCount    the number of links in all passages
+   * @param size         the size of the file in bytes
+   * @param modified     the modification time of the file in milliseconds
+   * @param checksum     the CRC-32C checksum of the file
+   */
+  public record Entry(String fileName, String title, int passageCount, int linkCount, long size,
+                      long modified, long checksum) {
+
+  }
+
+  private final Path directory;
+  private final Map<String, Entry> entries = new TreeMap<>();
+
+  private StoryCatalog(Path directory) {
+    this.directory = directory;
+  }
+
+  /**
+   * Opens the catalog of a directory and brings it up to date with the files in it.
+   *
+   * @param directory the story directory
+   * @return the catalog
+   * @throws IOException if the directory can not be listed
+   */
+  public static StoryCatalog open(Path directory) throws IOException {
+    StoryCatalog catalog = new StoryCatalog(directory);
+    catalog.readCatalogFile();
+    catalog.refresh();
+    return catalog;
+  }
+
+  /**
+   * Brings the catalog up to date with the files in the directory. New files and files whose size
+   * or modification time has changed are read, entries of files that are gone are removed, and
+   * the catalog file is written if anything changed.
+   *
+   * @return the number of story files that were read
+   * @throws IOException if the directory can not be listed
+   */
+  public int refresh() throws IOException {
+    Map<String, BasicFileAttributes> files = listStoryFiles();
+    boolean changed = entries.keySet().retainAll(files.keySet());
+    int read = 0;
+    for (Map.Entry<String, BasicFileAttributes> file : files.entrySet()) {
+      Path path = directory.resolve(file.getKey());
+      long size = file.getValue().size();
+      long modified = file.getValue().lastModifiedTime().toMillis();
+      Entry entry = entries.get(file.getKey());
+      if (entry == null || entry.size() != size || entry.modified() != modified) {
+        entries.put(file.getKey(), readEntry(path, size, modified));
+        read++;
+        changed = true;
+      }
+    }
+    if (changed) {
+      writeCatalogFile();
+    }
+    logger.info("Story catalog refreshed, " + read + " of " + entries.size() + " stories read");
+    return read;
+  }
+
+  /**
+   * Gets the story directory.
+   *
+   * @return the directory
+   */
+  public Path getDirectory() {
+    return directory;
+  }
+
+  /**
+   * Gets all entries, ordered by file name.
+   *
+   * @return the entries
+   */
+  public List<Entry> getEntries() {
+    return List.copyOf(entries.values());
+  }
+
+  /**
+   * Gets the entry of a story file.
+   *
+   * @param fileName the name of the file in the directory
+   * @return the entry, or null if the file is not in the catalog
+   */
+  public Entry getEntry(String fileName) {
+    return entries.get(fileName);
+  }
+
+  /**
+   * Finds the entries whose story title contains the given text, ignoring case.
+   *
+   * @param text the text to search for
+   * @return the matching entries, ordered by file name
+   */
+  public List<Entry> findByTitle(String text) {
+    String wanted = text.toLowerCase(Locale.ROOT);
+    List<Entry> found = new ArrayList<>();
+    for (Entry entry : entries.values()) {
+      if (entry.title().toLowerCase(Locale.ROOT).contains(wanted)) {
+        found.add(entry);
+      }
+    }
+    return Collections.unmodifiableList(found);
+  }
+
+  /**
+   * Gets the path of the story file of an entry.
+   *
+   * @param entry the entry
+   * @return the path of the story file
+   */
+  public Path resolve(Entry entry) {
+    return directory.resolve(entry.fileName());
+  }
+
+  private Map<String, BasicFileAttributes> listStoryFiles() throws IOException {
+    Map<String, BasicFileAttributes> files = new TreeMap<>();
+    if (!Files.isDirectory(directory)) {
+      return files;
+    }
+    try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory)) {
+      for (Path path : stream) {
+        String name = path.getFileName().toString();
+        boolean text = name.endsWith(StoryFileManager.TEXT_EXTENSION);
+        boolean compiled = name.endsWith(StoryFileManager.COMPILED_EXTENSION);
+        if (text || compiled
+            && !Files.exists(path.resolveSibling(name.substring(0, name.length() - 1)))) {
+          // One call for the type, size and modification time of the file
+          BasicFileAttributes attributes = Files.readAttributes(path, BasicFileAttributes.class);
+          if (attributes.isRegularFile()) {
+            files.put(name, attributes);
+          }
+        }
+      }
+    }
+    return files;
+  }
+
+  private Entry readEntry(Path path, long size, long modified) throws IOException {
+    String fileName = path.getFileName().toString();
+    ByteBuffer bytes = size >= StoryFileManager.MAPPED_LOAD_THRESHOLD
+        ? MappedPathsTokenizer.map(path) : ByteBuffer.wrap(Files.readAllBytes(path));
+    CRC32C checksum = new CRC32C();
+    checksum.update(bytes.duplicate());
+    String title = "";
+    int passages = 0;
+    int links = 0;
+    try {
+      if (fileName.endsWith(StoryFileManager.COMPILED_EXTENSION)) {
+        Story story = new CompiledStoryReader().read(bytes);
+        title = story.getTitle();
+        passages = story.getPassages().size();
+        for (Passage passage : story.getPassages()) {
+          links += passage.getLinks().size();
+        }
+      } else {
+        // Counting tokens is enough, the passages themselves are not built
+        try (MappedPathsTokenizer tokenizer = new MappedPathsTokenizer(bytes)) {
+          PathsTokenType type;
+          while ((type = tokenizer.next()) != PathsTokenType.END_OF_FILE) {
+            if (type == PathsTokenType.TITLE) {
+              title = tokenizer.getText();
+            } else if (type == PathsTokenType.PASSAGE_HEADER) {
+              passages++;
+            } else if (type == PathsTokenType.LINK) {
+              links++;
+            }
+          }
+        }
+      }
+    } catch (StoryValidationException e) {
+      logger.log(Level.WARNING, "Story file " + path + " could not be read", e);
+    }
+    if (title.isBlank()) {
+      title = fileName.substring(0, fileName.lastIndexOf('.'));
+    }
+    return new Entry(fileName, title, passages, links, size, modified, checksum.getValue());
+  }
+
+  private void readCatalogFile() {
+    Path file = directory.resolve(FILE_NAME);
+    if (!Files.exists(file)) {
+      return;
+    }
+    try (DataInputStream in = new DataInputStream(
+        new BufferedInputStream(Files.newInputStream(file)))) {
+      if (in.readInt() != MAGIC || in.readShort() != VERSION) {
+        throw new IOException("Not a story catalog");
+      }
+      int count = in.readInt();
+      for (int i = 0; i < count; i++) {
+        Entry entry = new Entry(readString(in), readString(in), in.readInt(), in.readInt(),
+            in.readLong(), in.readLong(), in.readLong());
+        entries.put(entry.fileName(), entry);
+      }
+    } catch (IOException e) {
+      // The catalog is rebuilt from the story files
+      logger.log(Level.WARNING, "Could not read story catalog " + file, e);
+      entries.clear();
+    }
+  }
+
+  private void writeCatalogFile() {
+    Path file = directory.resolve(FILE_NAME);
+    Path temporary = directory.resolve(FILE_NAME + ".tmp");
+    try {
+      try (DataOutputStream out = new DataOutputStream(
+          new BufferedOutputStream(Files.newOutputStream(temporary)))) {
+        out.writeInt(MAGIC);
+        out.writeShort(VERSION);
+        out.writeInt(entries.size());
+        for (Entry entry : entries.values()) {
+          writeString(out, entry.fileName());
+          writeString(out, entry.title());
+          out.writeInt(entry.passageCount());
+          out.writeInt(entry.linkCount());
+          out.writeLong(entry.size());
+          out.writeLong(entry.modified());
+          out.writeLong(entry.checksum());
+        }
+      }
+      Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING,
+          StandardCopyOption.ATOMIC_MOVE);
+    } catch (IOException e) {
+      logger.log(Level.WARNING, "Could not write story catalog " + file, e);
+    }
+  }
+
+  private static String readString(DataInputStream in) throws IOException {
+    int length = in.readInt();
+    if (length < 0) {
+      throw new IOException("Story catalog is corrupt");
+    }
+    return new String(in.readNBytes(length), StandardCharsets.UTF_8);
+  }
+
+  private static void writeString(DataOutputStream out, String value) throws IOException {
+    byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+    out.writeInt(bytes.length);
+    out.write(bytes);
+  }
+}
@@ -0,0 +1,131 @@
+package edu.ntnu.idatt2001.paths.model.file;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * A range of UTF-8 encoded bytes that is decoded into a string first when its characters are
+ * used. The decoded string is kept, and the reference to the underlying buffer is dropped once the
+ * slice has been decoded.
+ *
+ * <p>{@link #isBlank()} and {@link #startsWith(String)} work on the bytes directly, so a slice can
+ * be validated without being decoded.
+ */
+public final class Utf8Slice implements CharSequence {
+
+  private volatile ByteBuffer buffer;
+  private final int offset;
+  private final int byteLength;
+  private volatile String decoded;
+
+  /**
+   * Instantiates a new Utf 8 slice.
+   *
+   * @param buffer     the buffer holding the bytes, it must not be changed afterwards
+   * @param offset     the absolute position of the first byte in the buffer
+   * @param byteLength the number of bytes in the slice
+   */
+  public Utf8Slice(ByteBuffer buffer, int offset, int byteLength) {
+    if (buffer == null) {
+      throw new IllegalArgumentException("Buffer can not be null");
+    }
+    if (offset < 0 || byteLength < 0 || offset + byteLength > buffer.limit()) {
+      throw new IndexOutOfBoundsException("Slice is outside of the buffer");
+    }
+    this.buffer = buffer;
+    this.offset = offset;
+    this.byteLength = byteLength;
+  }
+
+  /**
+   * Checks if the slice is empty or only contains whitespace, without decoding it.
+   *
+   * @return true if the slice is blank
+   */
+  public boolean isBlank() {
+    ByteBuffer bytes = buffer;
+    if (bytes == null) {
+      return toString().isBlank();
+    }
+    for (int i = offset; i < offset + byteLength; i++) {
+      int b = bytes.get(i) & 0xFF;
+      if (b >= 0x80) {
+        // Multi-byte characters are decoded to get the same answer as String.isBlank()
+        return toString().isBlank();
+      }
+      if (!Character.isWhitespace(b)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Checks if the slice starts with the given ASCII prefix, without decoding it.
+   *
+   * @param prefix the prefix, which must only contain ASCII characters
+   * @return true if the slice starts with the prefix
+   */
+  public boolean startsWith(String prefix) {
+    ByteBuffer bytes = buffer;
+    if (bytes == null) {
+      return toString().startsWith(prefix);
+    }
+    if (prefix.length() > byteLength) {
+      return false;
+    }
+    for (int i = 0; i < prefix.length(); i++) {
+      if (bytes.get(offset + i) != prefix.charAt(i)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Checks if the slice has been decoded.
+   *
+   * @return true if the slice has been decoded
+   */
+  public boolean isDecoded() {
+    return decoded != null;
+  }
+
+  @Override
+  public int length() {
+    return toString().length();
+  }
+
+  @Override
+  public char charAt(int index) {
+    return toString().charAt(index);
+  }
+
+  @Override
+  public CharSequence subSequence(int start, int end) {
+    return toString().subSequence(start, end);
+  }
+
+  /**
+   * Decodes the slice the first time it is called.
+   *
+   * @return the decoded text
+   */
+  @Override
+  public String toString() {
+    String text = decoded;
+    if (text == null) {
+      synchronized (this) {
+        text = decoded;
+        if (text == null) {
+          byte[] bytes = new byte[byteLength];
+          buffer.get(offset, bytes);
+          text = new String(bytes, StandardCharsets.UTF_8);
+          decoded = text;
+          buffer = null;
+        }
+      }
+    }
+    return text;
+  }
+}
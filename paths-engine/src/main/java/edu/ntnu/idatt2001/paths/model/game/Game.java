@@ -4,11 +4,13 @@ import edu.ntnu.idatt2001.paths.model.Link;
 import edu.ntnu.idatt2001.paths.model.Passage;
 import edu.ntnu.idatt2001.paths.model.Story;
 import edu.ntnu.idatt2001.paths.model.actions.Action;
+import edu.ntnu.idatt2001.paths.model.actions.LinkEffect;
 import edu.ntnu.idatt2001.paths.model.actions.inventory.InventoryAction;
 import edu.ntnu.idatt2001.paths.model.goals.Goal;
 import edu.ntnu.idatt2001.paths.model.player.Player;
 import edu.ntnu.idatt2001.paths.model.validations.GameValidator;
 import java.util.List;
+import java.util.logging.Level;
 import java.util.logging.Logger;
 
 /**
@@ -21,6 +23,7 @@ public class Game {
   private final Player player;
   private final Story story;
   private final List<Goal<?>> goals;
+  private final PlaythroughState playthroughState;
 
   /**
    * Constructs a new Game with the specified player, story, and goals.
@@ -34,6 +37,7 @@ public class Game {
     this.player = player;
     this.story = story;
     this.goals = goals;
+    this.playthroughState = new PlaythroughState(story);
   }
 
   /**
@@ -63,6 +67,16 @@ public class Game {
     return goals;
   }
 
+  /**
+   * Returns the state of this playthrough, which is kept out of the story so the story can be
+   * shared.
+   *
+   * @return the playthrough state
+   */
+  public PlaythroughState getPlaythroughState() {
+    return playthroughState;
+  }
+
   /**
    * Checks if all goals have been reached.
    *
@@ -79,15 +93,23 @@ public class Game {
   }
 
   /**
-   * Executes all actions associated with a given link.
+   * Executes all actions associated with a given link. The actions of a frozen link are applied
+   * all at once through its fused effect.
    *
    * @param link the link whose actions are to be executed
    */
   public void executeAction(Link link) {
-    for (Action<?> action : link.getActions()) {
-      action.execute(player);
+    LinkEffect effect = link.getEffect();
+    if (effect != null) {
+      player.apply(effect);
+    } else {
+      for (Action<?> action : link.getActions()) {
+        action.execute(player);
+      }
+    }
+    if (LOGGER.isLoggable(Level.FINE)) {
+      LOGGER.fine("Actions executed from link: " + link);
     }
-    LOGGER.info("Actions executed from link: " + link);
   }
 
   /**
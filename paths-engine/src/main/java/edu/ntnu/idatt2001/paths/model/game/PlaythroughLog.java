@@ -0,0 +1,407 @@
+package edu.ntnu.idatt2001.paths.model.game;
+
+import edu.ntnu.idatt2001.paths.model.Story;
+import edu.ntnu.idatt2001.paths.model.goals.Goal;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+import java.util.logging.Logger;
+import java.util.zip.CRC32;
+
+/**
+ * An append-only log of the steps of a {@link Session}, from which the session can be resumed or
+ * its game played again. Every link that is followed is appended as its position in the passage,
+ * and now and then a snapshot of the player, the passage and the performed actions is written to a
+ * file next to the log. A session is resumed from the latest snapshot by following only the steps
+ * after it, and a game is played again from the start to reproduce a run.
+ *
+ * <p>The log starts with a header holding the title of the story, followed by the steps as
+ * unsigned LEB128 numbers, so a step is one byte for the first 128 links of a passage. The
+ * snapshots are kept in a file named as the log with {@code .snapshots} added, as records of a
+ * length, the snapshot and a CRC-32 of the snapshot. A step or snapshot that was cut short when
+ * written is left out when the log is read, and written over when the session is resumed.
+ *
+ * <p>A log is used by one session, and is written with the session locked.
+ */
+public final class PlaythroughLog implements Closeable {
+
+  /**
+   * The number of steps between the snapshots of a log made without an interval.
+   */
+  public static final int DEFAULT_SNAPSHOT_INTERVAL = 64;
+
+  private static final Logger logger = Logger.getLogger(PlaythroughLog.class.getName());
+  private static final int MAGIC = 0x50544C47;
+  private static final int VERSION = 1;
+  private static final String SNAPSHOT_SUFFIX = ".snapshots";
+
+  private final FileChannel steps;
+  private final FileChannel snapshots;
+  private final int snapshotInterval;
+  private final ByteBuffer stepBuffer = ByteBuffer.allocate(5);
+  private long stepCount;
+
+  /**
+   * A snapshot of a session after a number of steps, with the position in the log after them.
+   */
+  private record Snapshot(long step, long offset, byte[] state) {
+  }
+
+  /**
+   * The snapshots of a log, and the length of the snapshot file that holds whole records.
+   */
+  private record Snapshots(List<Snapshot> list, long validLength) {
+  }
+
+  private PlaythroughLog(FileChannel steps, FileChannel snapshots, int snapshotInterval,
+      long stepCount) {
+    this.steps = steps;
+    this.snapshots = snapshots;
+    this.snapshotInterval = snapshotInterval;
+    this.stepCount = stepCount;
+  }
+
+  /**
+   * Creates a log for a session, snapshotting the session every
+   * {@value #DEFAULT_SNAPSHOT_INTERVAL} steps.
+   *
+   * @param file    the log file, which must not exist
+   * @param session the session, whose steps are appended to the log from now on
+   * @return the log
+   * @throws IOException if the log can not be created
+   */
+  public static PlaythroughLog create(Path file, Session session) throws IOException {
+    return create(file, session, DEFAULT_SNAPSHOT_INTERVAL);
+  }
+
+  /**
+   * Creates a log for a session. The session is snapshotted at once, so it can be resumed and
+   * played again from where it is now.
+   *
+   * @param file             the log file, which must not exist
+   * @param session          the session, whose steps are appended to the log from now on
+   * @param snapshotInterval the number of steps between snapshots
+   * @return the log
+   * @throws IOException if the log can not be created
+   */
+  public static PlaythroughLog create(Path file, Session session, int snapshotInterval)
+      throws IOException {
+    if (snapshotInterval <= 0) {
+      throw new IllegalArgumentException("Snapshot interval must be positive");
+    }
+    ByteArrayOutputStream header = new ByteArrayOutputStream();
+    DataOutputStream out = new DataOutputStream(header);
+    out.writeInt(MAGIC);
+    out.writeShort(VERSION);
+    out.writeInt(snapshotInterval);
+    out.writeUTF(session.getGame().getStory().getTitle());
+    FileChannel steps = FileChannel.open(file, StandardOpenOption.CREATE_NEW,
+        StandardOpenOption.WRITE);
+    FileChannel snapshots = null;
+    try {
+      writeFully(steps, ByteBuffer.wrap(header.toByteArray()));
+      snapshots = FileChannel.open(snapshotFile(file), StandardOpenOption.CREATE,
+          StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+      PlaythroughLog log = new PlaythroughLog(steps, snapshots, snapshotInterval, 0);
+      synchronized (session) {
+        log.writeSnapshot(session);
+        session.setLog(log);
+      }
+      return log;
+    } catch (IOException | RuntimeException e) {
+      steps.close();
+      if (snapshots != null) {
+        snapshots.close();
+      }
+      throw e;
+    }
+  }
+
+  /**
+   * Gets the title of the story a log was made for.
+   *
+   * @param file the log file
+   * @return the title of the story
+   * @throws IOException if the file can not be read or is not a log
+   */
+  public static String readStoryTitle(Path file) throws IOException {
+    try (DataInputStream in = new DataInputStream(Files.newInputStream(file))) {
+      readHeader(in, file);
+      return in.readUTF();
+    }
+  }
+
+  /**
+   * Resumes the session of a log from its latest snapshot, following the steps after it. The
+   * steps of the session are appended to the log from then on.
+   *
+   * @param file  the log file
+   * @param story the story the log was made for
+   * @param goals the goals of the game
+   * @return the session, with a new id
+   * @throws IOException if the log can not be read or has no snapshot
+   */
+  public static Session resume(Path file, Story story, List<Goal<?>> goals) throws IOException {
+    return resume(file, story, goals, UUID.randomUUID().toString());
+  }
+
+  static Session resume(Path file, Story story, List<Goal<?>> goals, String id)
+      throws IOException {
+    int snapshotInterval = checkHeader(file, story);
+    Snapshots snapshots = readSnapshots(file);
+    if (snapshots.list().isEmpty()) {
+      throw new IOException(file + " has no snapshot");
+    }
+    Snapshot latest = snapshots.list().get(snapshots.list().size() - 1);
+    Session session = SessionState.decode(id, story, goals, latest.state());
+    FileChannel stepChannel = FileChannel.open(file, StandardOpenOption.READ,
+        StandardOpenOption.WRITE);
+    FileChannel snapshotChannel = null;
+    try {
+      ByteBuffer tail = ByteBuffer.allocate((int) (stepChannel.size() - latest.offset()));
+      stepChannel.read(tail, latest.offset());
+      tail.flip();
+      long step = latest.step();
+      int end = 0;
+      for (int linkIndex = readStep(tail); linkIndex >= 0; linkIndex = readStep(tail)) {
+        session.follow(linkIndex);
+        step++;
+        end = tail.position();
+      }
+      stepChannel.truncate(latest.offset() + end);
+      stepChannel.position(latest.offset() + end);
+      snapshotChannel = FileChannel.open(snapshotFile(file), StandardOpenOption.WRITE);
+      snapshotChannel.truncate(snapshots.validLength());
+      snapshotChannel.position(snapshots.validLength());
+      PlaythroughLog log = new PlaythroughLog(stepChannel, snapshotChannel, snapshotInterval,
+          step);
+      session.setLog(log);
+      logger.info("Session resumed from step " + latest.step() + " and followed to step " + step);
+      return session;
+    } catch (IOException | RuntimeException e) {
+      stepChannel.close();
+      if (snapshotChannel != null) {
+        snapshotChannel.close();
+      }
+      throw e;
+    }
+  }
+
+  /**
+   * Plays the game of a log again from the start, following every step.
+   *
+   * @param file  the log file
+   * @param story the story the log was made for
+   * @param goals the goals of the game
+   * @return a session at the end of the log, which does not append to it
+   * @throws IOException           if the log can not be read
+   * @throws IllegalStateException if the game does not play out as it did
+   */
+  public static Session replay(Path file, Story story, List<Goal<?>> goals) throws IOException {
+    return replay(file, story, goals, Long.MAX_VALUE);
+  }
+
+  /**
+   * Plays the game of a log again from the start, following a number of steps. The game is
+   * checked against every snapshot on the way, so a run that plays out differently, as when the
+   * story has changed, is found at the first snapshot where it differs.
+   *
+   * @param file     the log file
+   * @param story    the story the log was made for
+   * @param goals    the goals of the game
+   * @param maxSteps the most steps to follow
+   * @return a session after the steps, which does not append to the log
+   * @throws IOException           if the log can not be read
+   * @throws IllegalStateException if the game does not play out as it did
+   */
+  public static Session replay(Path file, Story story, List<Goal<?>> goals, long maxSteps)
+      throws IOException {
+    checkHeader(file, story);
+    List<Snapshot> snapshots = readSnapshots(file).list();
+    if (snapshots.isEmpty() || snapshots.get(0).step() != 0) {
+      throw new IOException(file + " has no snapshot of its start");
+    }
+    Session session = SessionState.decode(UUID.randomUUID().toString(), story, goals,
+        snapshots.get(0).state());
+    ByteBuffer stepBuffer;
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+      stepBuffer = ByteBuffer.allocate((int) (channel.size() - snapshots.get(0).offset()));
+      channel.read(stepBuffer, snapshots.get(0).offset());
+      stepBuffer.flip();
+    }
+    long step = 0;
+    int next = 1;
+    for (int linkIndex = readStep(stepBuffer); linkIndex >= 0 && step < maxSteps;
+        linkIndex = readStep(stepBuffer)) {
+      session.follow(linkIndex);
+      step++;
+      while (next < snapshots.size() && snapshots.get(next).step() < step) {
+        next++;
+      }
+      if (next < snapshots.size() && snapshots.get(next).step() == step
+          && !Arrays.equals(snapshots.get(next).state(), SessionState.encode(session))) {
+        throw new IllegalStateException("Replay differs from the snapshot at step " + step);
+      }
+    }
+    return session;
+  }
+
+  /**
+   * Gets the number of steps in the log.
+   *
+   * @return the number of steps
+   */
+  public long getStepCount() {
+    return stepCount;
+  }
+
+  /**
+   * Closes the files of the log.
+   *
+   * @throws IOException if a file can not be closed
+   */
+  @Override
+  public void close() throws IOException {
+    try {
+      steps.close();
+    } finally {
+      snapshots.close();
+    }
+  }
+
+  /**
+   * Appends a step of a session, and snapshots the session if it is time to, or its game is over.
+   *
+   * @param linkIndex the position of the link followed in the passage
+   * @param session   the session after the step
+   */
+  void append(int linkIndex, Session session) {
+    try {
+      stepBuffer.clear();
+      int value = linkIndex;
+      while ((value & ~0x7F) != 0) {
+        stepBuffer.put((byte) ((value & 0x7F) | 0x80));
+        value >>>= 7;
+      }
+      stepBuffer.put((byte) value);
+      stepBuffer.flip();
+      writeFully(steps, stepBuffer);
+      stepCount++;
+      if (stepCount % snapshotInterval == 0 || session.getStatus() != Session.Status.PLAYING) {
+        writeSnapshot(session);
+      }
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  private void writeSnapshot(Session session) throws IOException {
+    byte[] state = SessionState.encode(session);
+    ByteBuffer record = ByteBuffer.allocate(4 + 16 + state.length + 4);
+    record.putInt(16 + state.length);
+    record.putLong(stepCount);
+    record.putLong(steps.position());
+    record.put(state);
+    CRC32 crc = new CRC32();
+    crc.update(record.array(), 4, 16 + state.length);
+    record.putInt((int) crc.getValue());
+    record.flip();
+    writeFully(snapshots, record);
+  }
+
+  private static int checkHeader(Path file, Story story) throws IOException {
+    try (DataInputStream in = new DataInputStream(Files.newInputStream(file))) {
+      int snapshotInterval = readHeader(in, file);
+      String title = in.readUTF();
+      if (!title.equals(story.getTitle())) {
+        throw new IllegalArgumentException(
+            file + " is a log of " + title + ", not of " + story.getTitle());
+      }
+      return snapshotInterval;
+    }
+  }
+
+  private static int readHeader(DataInputStream in, Path file) throws IOException {
+    if (in.readInt() != MAGIC) {
+      throw new IOException(file + " is not a playthrough log");
+    }
+    int version = in.readShort();
+    if (version != VERSION) {
+      throw new IOException(file + " has unknown version " + version);
+    }
+    return in.readInt();
+  }
+
+  private static Snapshots readSnapshots(Path file) throws IOException {
+    byte[] bytes;
+    try (InputStream in = Files.newInputStream(snapshotFile(file))) {
+      bytes = in.readAllBytes();
+    } catch (NoSuchFileException e) {
+      return new Snapshots(List.of(), 0);
+    }
+    ByteBuffer buffer = ByteBuffer.wrap(bytes);
+    List<Snapshot> snapshots = new ArrayList<>();
+    CRC32 crc = new CRC32();
+    while (buffer.remaining() >= 4) {
+      int start = buffer.position();
+      int length = buffer.getInt();
+      if (length < 16 || buffer.remaining() < length + 4) {
+        buffer.position(start);
+        break;
+      }
+      crc.reset();
+      crc.update(bytes, buffer.position(), length);
+      long step = buffer.getLong();
+      long offset = buffer.getLong();
+      byte[] state = new byte[length - 16];
+      buffer.get(state);
+      if (buffer.getInt() != (int) crc.getValue()) {
+        buffer.position(start);
+        break;
+      }
+      snapshots.add(new Snapshot(step, offset, state));
+    }
+    return new Snapshots(snapshots, buffer.position());
+  }
+
+  /**
+   * Reads the next step, or returns -1 if there is no whole step left.
+   */
+  private static int readStep(ByteBuffer buffer) {
+    int start = buffer.position();
+    int value = 0;
+    for (int shift = 0; shift < 35 && buffer.hasRemaining(); shift += 7) {
+      byte b = buffer.get();
+      value |= (b & 0x7F) << shift;
+      if (b >= 0) {
+        return value;
+      }
+    }
+    buffer.position(start);
+    return -1;
+  }
+
+  private static void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+    while (buffer.hasRemaining()) {
+      channel.write(buffer);
+    }
+  }
+
+  private static Path snapshotFile(Path file) {
+    return file.resolveSibling(file.getFileName() + SNAPSHOT_SUFFIX);
+  }
+}
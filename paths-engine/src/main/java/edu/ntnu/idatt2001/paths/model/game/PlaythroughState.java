@@ -0,0 +1,155 @@
+package edu.ntnu.idatt2001.paths.model.game;
+
+import edu.ntnu.idatt2001.paths.model.Link;
+import edu.ntnu.idatt2001.paths.model.Passage;
+import edu.ntnu.idatt2001.paths.model.Story;
+import java.util.BitSet;
+import java.util.List;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+/**
+ * The state of one playthrough of a story that is not part of the story itself: which links have
+ * had their actions performed. A story can then be shared by several games, and a new game starts
+ * with a clean state without the story being loaded again.
+ *
+ * <p>The links of a frozen story, and of a paged story, are numbered by the story (see
+ * {@link Link#getId()}), and a performed link is one bit at its number, which is all that is kept
+ * for it. A passage of a paged story that is read again has links with the same numbers. Saves
+ * keep the links by the title of their passage and their position in it instead, since the
+ * numbers change when the story is edited and frozen again, and {@link #getPerformedLinks()}
+ * finds the passages of the set bits through {@link Story#getPassageOfLink(int)}.
+ *
+ * <p>The links of a story that is not frozen are not numbered, and are kept by the title of their
+ * passage and their position in it. The state of such a story is only right as long as no link
+ * is removed from a passage or moved within it, since a performed link is then found at a
+ * position that holds another link. Stories are frozen before they are played for that reason.
+ */
+public class PlaythroughState {
+
+  private final Story story;
+  private final boolean numbered;
+  private final BitSet performedIds;
+  private final SortedMap<String, BitSet> performedLinks = new TreeMap<>();
+
+  /**
+   * Instantiates the state of a new playthrough of a story.
+   *
+   * @param story the story
+   */
+  public PlaythroughState(Story story) {
+    this.story = story;
+    this.numbered = story.getLinkCount() > 0;
+    this.performedIds = new BitSet(story.getLinkCount());
+  }
+
+  /**
+   * Checks if the actions of a link have been performed in this playthrough.
+   *
+   * @param passage the passage the link is in
+   * @param link    the link
+   * @return true if the actions have been performed
+   */
+  public boolean hasPerformedAction(Passage passage, Link link) {
+    if (isNumbered(link)) {
+      return performedIds.get(link.getId());
+    }
+    BitSet positions = performedLinks.get(passage.getTitle());
+    int index = indexOf(passage, link);
+    return positions != null && index >= 0 && positions.get(index);
+  }
+
+  /**
+   * Records that the actions of a link have been performed in this playthrough.
+   *
+   * @param passage the passage the link is in
+   * @param link    the link
+   * @throws IllegalArgumentException if the link is not numbered and not in the passage
+   */
+  public void markActionAsPerformed(Passage passage, Link link) {
+    if (isNumbered(link)) {
+      performedIds.set(link.getId());
+      return;
+    }
+    int index = indexOf(passage, link);
+    if (index < 0) {
+      throw new IllegalArgumentException("Link is not in passage " + passage.getTitle());
+    }
+    performedLinks.computeIfAbsent(passage.getTitle(), title -> new BitSet()).set(index);
+  }
+
+  /**
+   * Forgets all performed actions.
+   */
+  public void reset() {
+    performedIds.clear();
+    performedLinks.clear();
+  }
+
+  /**
+   * Gets the links that have had their actions performed, by the title of their passage and as
+   * bits at the positions of the links in the passage. Passages without performed actions are
+   * left out, and the titles are sorted, so equal states give equal maps in the same order.
+   *
+   * @return the positions of the performed links by the title of their passage
+   */
+  SortedMap<String, BitSet> getPerformedLinks() {
+    SortedMap<String, BitSet> copy = new TreeMap<>();
+    performedLinks.forEach((title, positions) -> copy.put(title, (BitSet) positions.clone()));
+    for (int id = performedIds.nextSetBit(0); id >= 0; id = performedIds.nextSetBit(id + 1)) {
+      Passage passage = story.getPassageOfLink(id);
+      if (passage == null) {
+        continue;
+      }
+      List<Link> links = passage.getLinks();
+      for (int i = 0; i < links.size(); i++) {
+        if (links.get(i).getId() == id) {
+          copy.computeIfAbsent(passage.getTitle(), title -> new BitSet()).set(i);
+          break;
+        }
+      }
+    }
+    return copy;
+  }
+
+  /**
+   * Records that the actions of links of a passage have been performed, as given by
+   * {@link #getPerformedLinks()}.
+   *
+   * @param title     the title of the passage
+   * @param positions the positions of the links in the passage
+   */
+  void restorePerformedLinks(String title, BitSet positions) {
+    if (positions.isEmpty()) {
+      return;
+    }
+    Passage passage = numbered ? story.getPassage(title) : null;
+    if (passage == null) {
+      performedLinks.computeIfAbsent(title, added -> new BitSet()).or(positions);
+      return;
+    }
+    List<Link> links = passage.getLinks();
+    for (int position = positions.nextSetBit(0); position >= 0;
+        position = positions.nextSetBit(position + 1)) {
+      if (position < links.size() && isNumbered(links.get(position))) {
+        performedIds.set(links.get(position).getId());
+      } else {
+        performedLinks.computeIfAbsent(title, added -> new BitSet()).set(position);
+      }
+    }
+  }
+
+  private boolean isNumbered(Link link) {
+    return numbered && link.getId() >= 0;
+  }
+
+  private static int indexOf(Passage passage, Link link) {
+    // Links are equal when they lead to the same passage, so they are compared by identity
+    for (int i = 0; i < passage.getLinks().size(); i++) {
+      if (passage.getLinks().get(i) == link) {
+        return i;
+      }
+    }
+    return -1;
+  }
+}
@@ -0,0 +1,448 @@
+package edu.ntnu.idatt2001.paths.model.game;
+
+import edu.ntnu.idatt2001.paths.model.Story;
+import edu.ntnu.idatt2001.paths.model.goals.Goal;
+import edu.ntnu.idatt2001.paths.model.player.Player;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.regex.Pattern;
+import java.util.zip.CRC32;
+
+/**
+ * Save slots of games in a directory, one .save file per slot. A save holds the player, the
+ * passage the player is at and the links whose actions are performed, so a {@link Session} can be
+ * loaded from it and go on where it was saved.
+ *
+ * <p>Every save starts with a header of {@value #HEADER_LENGTH} bytes holding what a load screen
+ * shows: the name of the player, the titles of the story and passage, the stats and when the game
+ * was saved. The slots are listed by reading only the headers. All numbers are big-endian.
+ *
+ * <pre>
+ * header   magic "PTHS" (int), version (short), status (byte), reserved (byte),
+ *          saved at in milliseconds (long), body length (int), CRC32 of the body (int),
+ *          health, gold, score (int), inventory size (short), reserved (short),
+ *          player name (32 bytes), story title (64 bytes), passage title (64 bytes),
+ *          reserved up to the CRC32 of the header (int) in the last 4 bytes
+ * body     story title (UTF), then the state of the session
+ * </pre>
+ *
+ * <p>A text in the header is a byte length followed by UTF-8 bytes, cut to fit its field; the body
+ * holds the whole texts. A save is written to a temporary file that is then moved over the slot,
+ * so a slot always holds a whole save. Saves can be written in the background with
+ * {@link #saveLater(String, Session)}, where only the latest save of a slot is written when saves
+ * come faster than the disk takes them.
+ */
+public final class SaveSlots implements Closeable {
+
+  /**
+   * The extension of save files.
+   */
+  public static final String EXTENSION = ".save";
+
+  /**
+   * The length of the header of a save.
+   */
+  public static final int HEADER_LENGTH = 256;
+
+  private static final Logger logger = Logger.getLogger(SaveSlots.class.getName());
+  private static final int MAGIC = 0x50544853;
+  private static final short VERSION = 1;
+  private static final int NAME_FIELD = 32;
+  private static final int TITLE_FIELD = 64;
+  private static final int NAME_OFFSET = 40;
+  private static final int STORY_OFFSET = NAME_OFFSET + NAME_FIELD;
+  private static final int PASSAGE_OFFSET = STORY_OFFSET + TITLE_FIELD;
+  private static final Pattern SLOT_NAME = Pattern.compile("[A-Za-z0-9_-]{1,64}");
+
+  /**
+   * What the header of a save tells of it.
+   *
+   * @param slot         the name of the slot
+   * @param playerName   the name of the player
+   * @param storyTitle   the title of the story, cut to fit the header
+   * @param passageTitle the title of the passage the player is at, cut to fit the header
+   * @param health       the health of the player
+   * @param gold         the gold of the player
+   * @param score        the score of the player
+   * @param itemCount    the number of items in the inventory of the player
+   * @param status       where the game is
+   * @param savedAt      when the game was saved
+   */
+  public record SlotInfo(String slot, String playerName, String storyTitle, String passageTitle,
+                         int health, int gold, int score, int itemCount, Session.Status status,
+                         Instant savedAt) {
+
+  }
+
+  private final Path directory;
+  private final Map<String, byte[]> pending = new ConcurrentHashMap<>();
+  private ExecutorService writer;
+  private IOException writeFailure;
+
+  /**
+   * Instantiates new Save slots in a directory, which is made when the first slot is saved.
+   *
+   * @param directory the directory
+   */
+  public SaveSlots(Path directory) {
+    this.directory = directory;
+  }
+
+  /**
+   * Gets the directory of the slots.
+   *
+   * @return the directory
+   */
+  public Path getDirectory() {
+    return directory;
+  }
+
+  /**
+   * Saves a session in a slot, replacing what the slot held.
+   *
+   * @param slot    the name of the slot, of letters, digits, '_' and '-'
+   * @param session the session
+   * @throws IOException              if the save can not be written
+   * @throws IllegalArgumentException if the slot name is invalid
+   */
+  public void save(String slot, Session session) throws IOException {
+    write(slot, encode(session));
+  }
+
+  /**
+   * Saves a session in a slot in the background. The session is encoded at once, so it may go on
+   * right away, and the save is written by a background thread. A save that fails is reported by
+   * {@link #flush()}.
+   *
+   * @param slot    the name of the slot, of letters, digits, '_' and '-'
+   * @param session the session
+   * @throws IllegalArgumentException if the slot name is invalid
+   */
+  public void saveLater(String slot, Session session) {
+    checkSlotName(slot);
+    byte[] save = encode(session);
+    if (pending.put(slot, save) == null) {
+      writer().execute(() -> {
+        byte[] latest = pending.remove(slot);
+        try {
+          write(slot, latest);
+        } catch (IOException e) {
+          logger.log(Level.WARNING, "Slot " + slot + " could not be saved", e);
+          synchronized (this) {
+            if (writeFailure == null) {
+              writeFailure = e;
+            }
+          }
+        }
+      });
+    }
+  }
+
+  /**
+   * Waits for the saves written in the background.
+   *
+   * @throws IOException if a save written in the background since the last flush failed
+   */
+  public void flush() throws IOException {
+    ExecutorService current;
+    synchronized (this) {
+      current = writer;
+    }
+    if (current != null) {
+      try {
+        current.submit(() -> { }).get();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new IOException("Interrupted while waiting for saves", e);
+      } catch (ExecutionException e) {
+        throw new IOException(e.getCause());
+      }
+    }
+    IOException failure;
+    synchronized (this) {
+      failure = writeFailure;
+      writeFailure = null;
+    }
+    if (failure != null) {
+      throw failure;
+    }
+  }
+
+  /**
+   * Lists the slots, most recently saved first, reading only the header of every save. Files that
+   * are not saves are left out.
+   *
+   * @return the slots
+   * @throws IOException if the directory can not be listed
+   */
+  public List<SlotInfo> list() throws IOException {
+    List<SlotInfo> slots = new ArrayList<>();
+    if (!Files.isDirectory(directory)) {
+      return slots;
+    }
+    ByteBuffer header = ByteBuffer.allocate(HEADER_LENGTH);
+    try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, "*" + EXTENSION)) {
+      for (Path file : stream) {
+        SlotInfo info = readInfo(file, header);
+        if (info != null) {
+          slots.add(info);
+        }
+      }
+    }
+    slots.sort(Comparator.comparing(SlotInfo::savedAt).reversed()
+        .thenComparing(SlotInfo::slot));
+    return slots;
+  }
+
+  /**
+   * Gets what the header of a save tells of it.
+   *
+   * @param slot the name of the slot
+   * @return the header, or null if the slot is empty or does not hold a save
+   * @throws IOException if the save can not be read
+   */
+  public SlotInfo getInfo(String slot) throws IOException {
+    checkSlotName(slot);
+    return readInfo(fileOf(slot), ByteBuffer.allocate(HEADER_LENGTH));
+  }
+
+  /**
+   * Loads the session saved in a slot.
+   *
+   * @param slot  the name of the slot
+   * @param story the story the game was saved in
+   * @param goals the goals of the game
+   * @return the session, with a new id
+   * @throws IOException              if the slot is empty or its save can not be read
+   * @throws IllegalArgumentException if the save is of another story
+   */
+  public Session load(String slot, Story story, List<Goal<?>> goals) throws IOException {
+    return load(slot, story, goals, UUID.randomUUID().toString());
+  }
+
+  Session load(String slot, Story story, List<Goal<?>> goals, String id) throws IOException {
+    DataInputStream body = readBody(slot);
+    String storyTitle = body.readUTF();
+    if (!storyTitle.equals(story.getTitle())) {
+      throw new IllegalArgumentException(
+          "Slot " + slot + " is a save of " + storyTitle + ", not of " + story.getTitle());
+    }
+    return SessionState.decode(id, story, goals, body.readAllBytes());
+  }
+
+  /**
+   * Gets the whole title of the story a slot holds a save of.
+   *
+   * @param slot the name of the slot
+   * @return the title of the story
+   * @throws IOException if the slot is empty or its save can not be read
+   */
+  String readStoryTitle(String slot) throws IOException {
+    return readBody(slot).readUTF();
+  }
+
+  private DataInputStream readBody(String slot) throws IOException {
+    checkSlotName(slot);
+    ByteBuffer save = ByteBuffer.wrap(Files.readAllBytes(fileOf(slot)));
+    if (save.remaining() < HEADER_LENGTH || !validHeader(save)) {
+      throw new IOException("Slot " + slot + " does not hold a save");
+    }
+    int bodyLength = save.getInt(16);
+    if (save.capacity() != HEADER_LENGTH + bodyLength
+        || crc(save.array(), HEADER_LENGTH, bodyLength) != save.getInt(20)) {
+      throw new IOException("Save in slot " + slot + " is corrupt");
+    }
+    return new DataInputStream(new ByteArrayInputStream(save.array(), HEADER_LENGTH, bodyLength));
+  }
+
+  /**
+   * Empties a slot.
+   *
+   * @param slot the name of the slot
+   * @return true if the slot held a save
+   * @throws IOException if the save can not be deleted
+   */
+  public boolean delete(String slot) throws IOException {
+    checkSlotName(slot);
+    return Files.deleteIfExists(fileOf(slot));
+  }
+
+  /**
+   * Waits for the saves written in the background and stops the background thread.
+   *
+   * @throws IOException if a save written in the background failed
+   */
+  @Override
+  public void close() throws IOException {
+    try {
+      flush();
+    } finally {
+      synchronized (this) {
+        if (writer != null) {
+          writer.shutdown();
+          writer = null;
+        }
+      }
+    }
+  }
+
+  private synchronized ExecutorService writer() {
+    if (writer == null) {
+      writer = Executors.newSingleThreadExecutor(task -> {
+        Thread thread = new Thread(task, "paths-save-writer");
+        thread.setDaemon(true);
+        return thread;
+      });
+    }
+    return writer;
+  }
+
+  private static byte[] encode(Session session) {
+    ByteArrayOutputStream body = new ByteArrayOutputStream(256);
+    String storyTitle = session.getGame().getStory().getTitle();
+    String passageTitle;
+    Player player = session.getGame().getPlayer();
+    int health;
+    int gold;
+    int score;
+    int itemCount;
+    Session.Status status;
+    try {
+      synchronized (session) {
+        new DataOutputStream(body).writeUTF(storyTitle);
+        body.write(SessionState.encode(session));
+        passageTitle = session.getPassage().getTitle();
+        health = player.getHealth();
+        gold = player.getGold();
+        score = player.getScore();
+        itemCount = player.getInventory().size();
+        status = session.getStatus();
+      }
+    } catch (IOException e) {
+      throw new IllegalArgumentException("Story title is too long to be saved", e);
+    }
+    ByteBuffer save = ByteBuffer.allocate(HEADER_LENGTH + body.size());
+    save.putInt(MAGIC);
+    save.putShort(VERSION);
+    save.put((byte) status.ordinal());
+    save.put((byte) 0);
+    save.putLong(System.currentTimeMillis());
+    save.putInt(body.size());
+    save.putInt(0);
+    save.putInt(health);
+    save.putInt(gold);
+    save.putInt(score);
+    save.putShort((short) Math.min(itemCount, Short.MAX_VALUE));
+    putText(save, NAME_OFFSET, NAME_FIELD, player.getName());
+    putText(save, STORY_OFFSET, TITLE_FIELD, storyTitle);
+    putText(save, PASSAGE_OFFSET, TITLE_FIELD, passageTitle);
+    save.position(HEADER_LENGTH);
+    save.put(body.toByteArray());
+    save.putInt(20, crc(save.array(), HEADER_LENGTH, body.size()));
+    save.putInt(HEADER_LENGTH - 4, crc(save.array(), 0, HEADER_LENGTH - 4));
+    return save.array();
+  }
+
+  private void write(String slot, byte[] save) throws IOException {
+    checkSlotName(slot);
+    Files.createDirectories(directory);
+    Path file = fileOf(slot);
+    Path temporary = directory.resolve(slot + EXTENSION + ".tmp");
+    try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE,
+        StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+      ByteBuffer buffer = ByteBuffer.wrap(save);
+      while (buffer.hasRemaining()) {
+        channel.write(buffer);
+      }
+    }
+    Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING,
+        StandardCopyOption.ATOMIC_MOVE);
+  }
+
+  private static SlotInfo readInfo(Path file, ByteBuffer header) throws IOException {
+    header.clear();
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+      while (header.hasRemaining() && channel.read(header) >= 0) {
+        // Reads until the header is full or the file ends
+      }
+    } catch (NoSuchFileException e) {
+      return null;
+    }
+    if (header.hasRemaining() || !validHeader(header)) {
+      logger.warning(file + " is not a save");
+      return null;
+    }
+    String name = file.getFileName().toString();
+    return new SlotInfo(name.substring(0, name.length() - EXTENSION.length()),
+        getText(header, NAME_OFFSET), getText(header, STORY_OFFSET),
+        getText(header, PASSAGE_OFFSET), header.getInt(24), header.getInt(28),
+        header.getInt(32), header.getShort(36), Session.Status.values()[header.get(6)],
+        Instant.ofEpochMilli(header.getLong(8)));
+  }
+
+  private static boolean validHeader(ByteBuffer save) {
+    return save.getInt(0) == MAGIC && save.getShort(4) == VERSION
+        && save.get(6) >= 0 && save.get(6) < Session.Status.values().length
+        && crc(save.array(), 0, HEADER_LENGTH - 4) == save.getInt(HEADER_LENGTH - 4);
+  }
+
+  /**
+   * Puts a text in a field of the header, cut at a whole character to fit the field.
+   */
+  private static void putText(ByteBuffer header, int offset, int field, String text) {
+    byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+    int length = Math.min(bytes.length, field - 1);
+    while (length < bytes.length && length > 0 && (bytes[length] & 0xC0) == 0x80) {
+      length--;
+    }
+    header.put(offset, (byte) length);
+    header.put(offset + 1, bytes, 0, length);
+  }
+
+  private static String getText(ByteBuffer header, int offset) {
+    return new String(header.array(), offset + 1, header.get(offset) & 0xFF,
+        StandardCharsets.UTF_8);
+  }
+
+  private static int crc(byte[] bytes, int offset, int length) {
+    CRC32 crc = new CRC32();
+    crc.update(bytes, offset, length);
+    return (int) crc.getValue();
+  }
+
+  private Path fileOf(String slot) {
+    return directory.resolve(slot + EXTENSION);
+  }
+
+  private static void checkSlotName(String slot) {
+    if (slot == null || !SLOT_NAME.matcher(slot).matches()) {
+      throw new IllegalArgumentException(
+          "Slot name must be 1 to 64 letters, digits, '_' or '-'");
+    }
+  }
+}
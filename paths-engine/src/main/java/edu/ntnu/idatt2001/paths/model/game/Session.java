@@ -0,0 +1,194 @@
+package edu.ntnu.idatt2001.paths.model.game;
+
+import edu.ntnu.idatt2001.paths.model.Link;
+import edu.ntnu.idatt2001.paths.model.Passage;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.List;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * One game hosted by a {@link SessionManager}: a game and the passage the player is at. A session
+ * follows links by the rules of the game, performing the actions of a link the first time it is
+ * followed, and ends when the player dies or reaches the goals.
+ *
+ * <p>A session may be used by several threads, one at a time. Its methods lock the session, and
+ * callers that read the player of the game should hold the lock of the session too.
+ */
+public final class Session {
+
+  /**
+   * Where a session is in its game.
+   */
+  public enum Status {
+    /**
+     * The player can follow links.
+     */
+    PLAYING,
+    /**
+     * The player reached the goals.
+     */
+    WON,
+    /**
+     * The player died.
+     */
+    DEAD
+  }
+
+  private static final Logger logger = Logger.getLogger(Session.class.getName());
+
+  private final String id;
+  private final Game game;
+  private Passage passage;
+  private Status status = Status.PLAYING;
+  private volatile long lastUsed;
+  private PlaythroughLog log;
+
+  /**
+   * Instantiates a new Session at the opening passage of the story of a game.
+   *
+   * @param id   the id of the session
+   * @param game the game
+   */
+  Session(String id, Game game) {
+    this.id = id;
+    this.game = game;
+    this.passage = game.begin();
+    this.lastUsed = System.nanoTime();
+  }
+
+  /**
+   * Instantiates a new Session that goes on from where a game was left.
+   *
+   * @param id      the id of the session
+   * @param game    the game
+   * @param passage the passage the player is at
+   * @param status  where the session is in its game
+   */
+  Session(String id, Game game, Passage passage, Status status) {
+    this.id = id;
+    this.game = game;
+    this.passage = passage;
+    this.status = status;
+    this.lastUsed = System.nanoTime();
+  }
+
+  /**
+   * Gets the id the session is found by in its manager.
+   *
+   * @return the id
+   */
+  public String getId() {
+    return id;
+  }
+
+  /**
+   * Gets the game of the session.
+   *
+   * @return the game
+   */
+  public Game getGame() {
+    return game;
+  }
+
+  /**
+   * Gets the passage the player is at.
+   *
+   * @return the passage
+   */
+  public synchronized Passage getPassage() {
+    lastUsed = System.nanoTime();
+    return passage;
+  }
+
+  /**
+   * Gets where the session is in its game.
+   *
+   * @return the status
+   */
+  public synchronized Status getStatus() {
+    return status;
+  }
+
+  /**
+   * Follows a link of the passage the player is at. The first time a link is followed, the player
+   * must have the item it requires, and its actions are performed. The step is appended to the log
+   * of the session, if it has one.
+   *
+   * @param linkIndex the position of the link in the passage
+   * @return the passage the link leads to
+   * @throws IllegalArgumentException if the passage has no link at the position
+   * @throws IllegalStateException    if the game is over, or the player does not have the item the
+   *                                  link requires
+   * @throws UncheckedIOException     if the step can not be appended to the log
+   */
+  public synchronized Passage follow(int linkIndex) {
+    lastUsed = System.nanoTime();
+    if (status != Status.PLAYING) {
+      throw new IllegalStateException("The game is over");
+    }
+    List<Link> links = passage.getLinks();
+    if (linkIndex < 0 || linkIndex >= links.size()) {
+      throw new IllegalArgumentException("Passage " + passage.getTitle() + " has no link "
+          + linkIndex);
+    }
+    Link link = links.get(linkIndex);
+    PlaythroughState playthroughState = game.getPlaythroughState();
+    if (!playthroughState.hasPerformedAction(passage, link)) {
+      if (!game.canFollowLink(link)) {
+        throw new IllegalStateException(
+            "You need to obtain " + link.getRequiredItem().getValue());
+      }
+      boolean won = game.progressGame(link);
+      playthroughState.markActionAsPerformed(passage, link);
+      if (!game.getPlayer().isAlive()) {
+        status = Status.DEAD;
+      } else if (won) {
+        status = Status.WON;
+      }
+    }
+    passage = game.go(link);
+    if (log != null) {
+      log.append(linkIndex, this);
+    }
+    return passage;
+  }
+
+  /**
+   * Gets the log the steps of the session are recorded in.
+   *
+   * @return the log, or null if the steps are not recorded
+   */
+  public synchronized PlaythroughLog getLog() {
+    return log;
+  }
+
+  synchronized void setLog(PlaythroughLog log) {
+    this.log = log;
+  }
+
+  /**
+   * Stops appending the steps of the session to its log, and closes the log.
+   */
+  synchronized void closeLog() {
+    if (log == null) {
+      return;
+    }
+    try {
+      log.close();
+    } catch (IOException e) {
+      logger.log(Level.WARNING, "Log of session " + id + " could not be closed", e);
+    }
+    log = null;
+  }
+
+  /**
+   * Gets when the session was last used, as a {@link System#nanoTime()}.
+   *
+   * @return the time
+   */
+  long getLastUsed() {
+    return lastUsed;
+  }
+}
@@ -0,0 +1,263 @@
+package edu.ntnu.idatt2001.paths.model.game;
+
+import edu.ntnu.idatt2001.paths.model.Story;
+import edu.ntnu.idatt2001.paths.model.goals.Goal;
+import edu.ntnu.idatt2001.paths.model.goals.GoalsEnum;
+import edu.ntnu.idatt2001.paths.model.player.Player;
+import edu.ntnu.idatt2001.paths.model.player.PlayerBuilder;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Logger;
+
+/**
+ * Hosts many games at once, each in its own {@link Session}, over stories that are shared by the
+ * games. A story is frozen when it is added, so any number of sessions can read it from any number
+ * of threads, and every session keeps its own player and playthrough state.
+ *
+ * <p>The manager can be used by several threads at the same time.
+ */
+public final class SessionManager {
+
+  /**
+   * The most sessions of a manager made without a limit.
+   */
+  public static final int DEFAULT_MAX_SESSIONS = 100_000;
+
+  private static final Logger logger = Logger.getLogger(SessionManager.class.getName());
+
+  private final int maxSessions;
+  private final Map<String, Story> stories = new ConcurrentHashMap<>();
+  private final Map<String, Session> sessions = new ConcurrentHashMap<>();
+  private final AtomicInteger sessionCount = new AtomicInteger();
+
+  /**
+   * Instantiates a new Session manager with the default limit of sessions.
+   */
+  public SessionManager() {
+    this(DEFAULT_MAX_SESSIONS);
+  }
+
+  /**
+   * Instantiates a new Session manager.
+   *
+   * @param maxSessions the most sessions the manager hosts at once
+   */
+  public SessionManager(int maxSessions) {
+    if (maxSessions <= 0) {
+      throw new IllegalArgumentException("Max sessions must be positive");
+    }
+    this.maxSessions = maxSessions;
+  }
+
+  /**
+   * Adds a story that sessions can be started for, replacing the story with the same title.
+   *
+   * @param story the story
+   * @return the frozen story the sessions share
+   */
+  public Story addStory(Story story) {
+    if (story == null) {
+      throw new IllegalArgumentException("Story can not be null");
+    }
+    Story frozen = story.freeze();
+    stories.put(frozen.getTitle(), frozen);
+    logger.info("Story " + frozen.getTitle() + " added to the sessions");
+    return frozen;
+  }
+
+  /**
+   * Gets a story that sessions can be started for.
+   *
+   * @param title the title of the story
+   * @return the frozen story, or null if there is no story with the title
+   */
+  public Story getStory(String title) {
+    return stories.get(title);
+  }
+
+  /**
+   * Gets the titles of the stories that sessions can be started for.
+   *
+   * @return the titles
+   */
+  public Set<String> getStoryTitles() {
+    return Set.copyOf(stories.keySet());
+  }
+
+  /**
+   * Starts a session for a new player at a difficulty, with the default goals.
+   *
+   * @param storyTitle the title of the story
+   * @param playerName the name of the player
+   * @param difficulty the difficulty the player starts at
+   * @return the session
+   * @throws IllegalArgumentException if there is no story with the title or the player is invalid
+   * @throws IllegalStateException    if the manager hosts as many sessions as it can
+   */
+  public Session startSession(String storyTitle, String playerName,
+      GameDifficultyEnum difficulty) {
+    Player player = new PlayerBuilder(difficulty).setName(playerName).build();
+    return startSession(storyTitle, player, GoalsEnum.getDefaultGoals());
+  }
+
+  /**
+   * Starts a session for a player.
+   *
+   * @param storyTitle the title of the story
+   * @param player     the player, which must not be used by another session
+   * @param goals      the goals of the game
+   * @return the session
+   * @throws IllegalArgumentException if there is no story with the title
+   * @throws IllegalStateException    if the manager hosts as many sessions as it can
+   */
+  public Session startSession(String storyTitle, Player player, List<Goal<?>> goals) {
+    Story story = stories.get(storyTitle);
+    if (story == null) {
+      throw new IllegalArgumentException("No story titled " + storyTitle);
+    }
+    Game game = new Game(player, story, goals);
+    reserveSession();
+    Session session = new Session(UUID.randomUUID().toString(), game);
+    sessions.put(session.getId(), session);
+    return session;
+  }
+
+  /**
+   * Resumes the session of a playthrough log with the default goals. The steps of the session are
+   * appended to the log from then on.
+   *
+   * @param logFile the log file
+   * @return the session
+   * @throws IOException              if the log can not be read
+   * @throws IllegalArgumentException if there is no story with the title of the log
+   * @throws IllegalStateException    if the manager hosts as many sessions as it can
+   * @see PlaythroughLog#resume(Path, Story, List)
+   */
+  public Session resumeSession(Path logFile) throws IOException {
+    return resumeSession(logFile, GoalsEnum.getDefaultGoals());
+  }
+
+  /**
+   * Resumes the session of a playthrough log. The steps of the session are appended to the log
+   * from then on.
+   *
+   * @param logFile the log file
+   * @param goals   the goals of the game
+   * @return the session
+   * @throws IOException              if the log can not be read
+   * @throws IllegalArgumentException if there is no story with the title of the log
+   * @throws IllegalStateException    if the manager hosts as many sessions as it can
+   */
+  public Session resumeSession(Path logFile, List<Goal<?>> goals) throws IOException {
+    String storyTitle = PlaythroughLog.readStoryTitle(logFile);
+    Story story = stories.get(storyTitle);
+    if (story == null) {
+      throw new IllegalArgumentException("No story titled " + storyTitle);
+    }
+    reserveSession();
+    Session session;
+    try {
+      session = PlaythroughLog.resume(logFile, story, goals, UUID.randomUUID().toString());
+    } catch (IOException | RuntimeException e) {
+      sessionCount.decrementAndGet();
+      throw e;
+    }
+    sessions.put(session.getId(), session);
+    return session;
+  }
+
+  /**
+   * Loads the session saved in a slot, with the default goals.
+   *
+   * @param slots the save slots
+   * @param slot  the name of the slot
+   * @return the session
+   * @throws IOException              if the slot is empty or its save can not be read
+   * @throws IllegalArgumentException if there is no story with the title of the save
+   * @throws IllegalStateException    if the manager hosts as many sessions as it can
+   */
+  public Session loadSession(SaveSlots slots, String slot) throws IOException {
+    String storyTitle = slots.readStoryTitle(slot);
+    Story story = stories.get(storyTitle);
+    if (story == null) {
+      throw new IllegalArgumentException("No story titled " + storyTitle);
+    }
+    reserveSession();
+    Session session;
+    try {
+      session = slots.load(slot, story, GoalsEnum.getDefaultGoals(),
+          UUID.randomUUID().toString());
+    } catch (IOException | RuntimeException e) {
+      sessionCount.decrementAndGet();
+      throw e;
+    }
+    sessions.put(session.getId(), session);
+    return session;
+  }
+
+  /**
+   * Gets a session.
+   *
+   * @param id the id of the session
+   * @return the session, or null if there is no session with the id
+   */
+  public Session getSession(String id) {
+    return id != null ? sessions.get(id) : null;
+  }
+
+  /**
+   * Ends a session.
+   *
+   * @param id the id of the session
+   * @return true if the session was ended, false if there was no session with the id
+   */
+  public boolean endSession(String id) {
+    Session session = id != null ? sessions.remove(id) : null;
+    if (session == null) {
+      return false;
+    }
+    session.closeLog();
+    sessionCount.decrementAndGet();
+    return true;
+  }
+
+  /**
+   * Ends the sessions that have not been used for a while.
+   *
+   * @param maxIdle how long a session may go unused
+   * @return the number of sessions ended
+   */
+  public int endIdleSessions(Duration maxIdle) {
+    long now = System.nanoTime();
+    int ended = 0;
+    for (Session session : sessions.values()) {
+      if (now - session.getLastUsed() > maxIdle.toNanos() && endSession(session.getId())) {
+        ended++;
+      }
+    }
+    return ended;
+  }
+
+  private void reserveSession() {
+    if (sessionCount.incrementAndGet() > maxSessions) {
+      sessionCount.decrementAndGet();
+      throw new IllegalStateException("At most " + maxSessions + " sessions can be hosted");
+    }
+  }
+
+  /**
+   * Gets the number of sessions.
+   *
+   * @return the number of sessions
+   */
+  public int getSessionCount() {
+    return sessionCount.get();
+  }
+}
@@ -0,0 +1,122 @@
+package edu.ntnu.idatt2001.paths.model.game;
+
+import edu.ntnu.idatt2001.paths.model.Passage;
+import edu.ntnu.idatt2001.paths.model.PassageImage;
+import edu.ntnu.idatt2001.paths.model.Story;
+import edu.ntnu.idatt2001.paths.model.goals.Goal;
+import edu.ntnu.idatt2001.paths.model.player.Player;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Encodes the state of a {@link Session} for {@link PlaythroughLog} snapshots and save slots: the
+ * status, the passage the player is at, the player, and the links whose actions are performed by
+ * the title of their passage. Equal states are encoded to equal bytes.
+ *
+ * <pre>
+ * status (byte), passage title (UTF), player name (UTF), health, score, gold (int),
+ * inventory size (int) and items (UTF), has image (boolean) and image path (UTF),
+ * performed passage count (int), then per passage: title (UTF), word count (int) and the words of
+ * the bit set of link positions (long)
+ * </pre>
+ */
+final class SessionState {
+
+  private SessionState() {
+  }
+
+  /**
+   * Encodes the state of a session. The session should be locked, so it does not change while it
+   * is encoded.
+   *
+   * @param session the session
+   * @return the state
+   */
+  static byte[] encode(Session session) {
+    try {
+      ByteArrayOutputStream bytes = new ByteArrayOutputStream(128);
+      DataOutputStream out = new DataOutputStream(bytes);
+      Player player = session.getGame().getPlayer();
+      out.writeByte(session.getStatus().ordinal());
+      out.writeUTF(session.getPassage().getTitle());
+      out.writeUTF(player.getName());
+      out.writeInt(player.getHealth());
+      out.writeInt(player.getScore());
+      out.writeInt(player.getGold());
+      out.writeInt(player.getInventory().size());
+      for (String item : player.getInventory()) {
+        out.writeUTF(item);
+      }
+      String image = player.getImage() != null ? player.getImage().getPath() : null;
+      out.writeBoolean(image != null);
+      if (image != null) {
+        out.writeUTF(image);
+      }
+      Map<String, BitSet> performedLinks =
+          session.getGame().getPlaythroughState().getPerformedLinks();
+      out.writeInt(performedLinks.size());
+      for (Map.Entry<String, BitSet> entry : performedLinks.entrySet()) {
+        out.writeUTF(entry.getKey());
+        long[] words = entry.getValue().toLongArray();
+        out.writeInt(words.length);
+        for (long word : words) {
+          out.writeLong(word);
+        }
+      }
+      return bytes.toByteArray();
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  /**
+   * Decodes the state of a session into a new session.
+   *
+   * @param id    the id of the new session
+   * @param story the story of the session
+   * @param goals the goals of the game
+   * @param state the state
+   * @return the session
+   * @throws IOException              if the state is cut short
+   * @throws IllegalArgumentException if the story has no passage with the title in the state, or
+   *                                  the player in the state is invalid
+   */
+  static Session decode(String id, Story story, List<Goal<?>> goals, byte[] state)
+      throws IOException {
+    DataInputStream in = new DataInputStream(new ByteArrayInputStream(state));
+    Session.Status status = Session.Status.values()[in.readByte()];
+    String title = in.readUTF();
+    Passage passage = story.getPassage(title);
+    if (passage == null) {
+      throw new IllegalArgumentException("Story " + story.getTitle() + " has no passage " + title);
+    }
+    String name = in.readUTF();
+    int health = in.readInt();
+    int score = in.readInt();
+    int gold = in.readInt();
+    List<String> inventory = new ArrayList<>();
+    for (int items = in.readInt(); items > 0; items--) {
+      inventory.add(in.readUTF());
+    }
+    PassageImage image = in.readBoolean() ? PassageImage.fromPath(in.readUTF()) : null;
+    Game game = new Game(Player.restore(name, health, score, gold, inventory, image), story,
+        goals);
+    for (int passages = in.readInt(); passages > 0; passages--) {
+      String performedTitle = in.readUTF();
+      long[] words = new long[in.readInt()];
+      for (int i = 0; i < words.length; i++) {
+        words[i] = in.readLong();
+      }
+      game.getPlaythroughState().restorePerformedLinks(performedTitle, BitSet.valueOf(words));
+    }
+    return new Session(id, game, passage, status);
+  }
+}
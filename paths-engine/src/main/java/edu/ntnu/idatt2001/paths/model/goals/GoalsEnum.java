@@ -1,5 +1,8 @@
 package edu.ntnu.idatt2001.paths.model.goals;
 
+import java.util.ArrayList;
+import java.util.List;
+
 /**
  * The enum Goals enum. This is just default values for Gold these wll be used in this version of
  * the application a further improvement of the application will have more options
@@ -32,4 +35,19 @@ public enum GoalsEnum {
   public Goal<Integer> getGoal() {
     return this.goal;
   }
+
+  /**
+   * Gets the goals of a game in this version of the application: the gold, score and health goals
+   * and finding a gem.
+   *
+   * @return a new list of the goals
+   */
+  public static List<Goal<?>> getDefaultGoals() {
+    List<Goal<?>> goals = new ArrayList<>();
+    goals.add(GOLD.getGoal());
+    goals.add(SCORE.getGoal());
+    goals.add(HEALTH.getGoal());
+    goals.add(new InventoryGoal("gem"));
+    return goals;
+  }
 }
@@ -0,0 +1,120 @@
+package edu.ntnu.idatt2001.paths.model.graph;
+
+import edu.ntnu.idatt2001.paths.model.game.GameDifficultyEnum;
+import java.util.List;
+
+/**
+ * What an exhaustive search of the states of a game found: how many distinct states the game can
+ * be in, which combinations of goals can never be reached together, and the states where the
+ * player is trapped. Made by a {@link ModelChecker}.
+ *
+ * <p>A state is trapped when the player is alive and has not won, and no way of playing on from it
+ * reaches the goals. A stuck state, where no link can be followed, is always trapped.
+ */
+public final class ModelCheckReport {
+
+  private final GameDifficultyEnum difficulty;
+  private final boolean complete;
+  private final long states;
+  private final long winningStates;
+  private final long stuckStates;
+  private final long trappedStates;
+  private final List<String> trappedExamples;
+  private final List<List<String>> unreachableGoalCombinations;
+
+  ModelCheckReport(GameDifficultyEnum difficulty, boolean complete, long states,
+      long winningStates, long stuckStates, long trappedStates, List<String> trappedExamples,
+      List<List<String>> unreachableGoalCombinations) {
+    this.difficulty = difficulty;
+    this.complete = complete;
+    this.states = states;
+    this.winningStates = winningStates;
+    this.stuckStates = stuckStates;
+    this.trappedStates = trappedStates;
+    this.trappedExamples = List.copyOf(trappedExamples);
+    this.unreachableGoalCombinations = List.copyOf(unreachableGoalCombinations);
+  }
+
+  /**
+   * Gets the difficulty the game was played at.
+   *
+   * @return the difficulty
+   */
+  public GameDifficultyEnum getDifficulty() {
+    return difficulty;
+  }
+
+  /**
+   * Checks if every state was visited. A search that ran out of memory or time only counts the
+   * states it visited, and does not know which states are trapped.
+   *
+   * @return true if the search visited every state
+   */
+  public boolean isComplete() {
+    return complete;
+  }
+
+  /**
+   * Gets the number of distinct states the game can be in.
+   *
+   * @return the number of states
+   */
+  public long getStates() {
+    return states;
+  }
+
+  /**
+   * Gets the number of states where the goals are reached and the game is won.
+   *
+   * @return the number of winning states
+   */
+  public long getWinningStates() {
+    return winningStates;
+  }
+
+  /**
+   * Gets the number of states where no link can be followed.
+   *
+   * @return the number of stuck states
+   */
+  public long getStuckStates() {
+    return stuckStates;
+  }
+
+  /**
+   * Gets the number of states where the player can no longer win.
+   *
+   * @return the number of trapped states, or -1 if the search was not complete
+   */
+  public long getTrappedStates() {
+    return trappedStates;
+  }
+
+  /**
+   * Gets descriptions of some of the trapped states, in the order they were found.
+   *
+   * @return the descriptions
+   */
+  public List<String> getTrappedExamples() {
+    return trappedExamples;
+  }
+
+  /**
+   * Gets the smallest combinations of goals that are never reached together. Every goal of a
+   * combination can be reached on its own, or together with all but one of the others.
+   *
+   * @return the combinations, as descriptions of their goals, or none if the search was not
+   *     complete
+   */
+  public List<List<String>> getUnreachableGoalCombinations() {
+    return unreachableGoalCombinations;
+  }
+
+  @Override
+  public String toString() {
+    return difficulty + ": " + states + " states" + (complete ? "" : " (incomplete)") + ", "
+        + winningStates + " winning, " + stuckStates + " stuck, "
+        + (complete ? trappedStates + " trapped" : "trapped unknown") + ", "
+        + unreachableGoalCombinations.size() + " unreachable goal combinations";
+  }
+}
@@ -0,0 +1,229 @@
+package edu.ntnu.idatt2001.paths.model.graph;
+
+import edu.ntnu.idatt2001.paths.model.game.GameDifficultyEnum;
+import edu.ntnu.idatt2001.paths.model.goals.Goal;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.logging.Logger;
+
+/**
+ * Visits every state a game of a story can be in, to prove things about all playthroughs instead
+ * of the ones that happen to be played: how many distinct states there are, which goals can never
+ * be reached together, and where the player can get trapped.
+ *
+ * <p>The states are found with a breadth-first search from the start of the game. A state that
+ * wins the game, or where the player dies, is not played on from. The visited states are kept in
+ * an {@link OffHeapStateTable} outside the Java heap, in direct memory or, with a spill directory,
+ * in a file mapped into memory. When every state has been visited, the states the goals can be
+ * reached from are flagged by going over the states backwards until no more flags change, and
+ * the states left without a flag are the trapped ones.
+ */
+public final class ModelChecker {
+
+  /**
+   * The memory budget of a model checker made without one, in bytes.
+   */
+  public static final long DEFAULT_MEMORY_BUDGET = 512L * 1024 * 1024;
+
+  /**
+   * The time budget of a model checker made without one.
+   */
+  public static final Duration DEFAULT_TIME_BUDGET = Duration.ofMinutes(1);
+
+  /**
+   * The most goals whose combinations are checked.
+   */
+  public static final int MAX_GOALS = 20;
+
+  private static final int MAX_TRAPPED_EXAMPLES = 10;
+
+  private static final Logger logger = Logger.getLogger(ModelChecker.class.getName());
+
+  private final long memoryBudget;
+  private final Duration timeBudget;
+  private final Path spillDirectory;
+
+  /**
+   * Instantiates a new Model checker with the default budgets, which keeps the states in direct
+   * memory.
+   */
+  public ModelChecker() {
+    this(DEFAULT_MEMORY_BUDGET, DEFAULT_TIME_BUDGET, null);
+  }
+
+  /**
+   * Instantiates a new Model checker.
+   *
+   * @param memoryBudget   the most bytes the table of states may take
+   * @param timeBudget     the longest time a check may take
+   * @param spillDirectory the directory to keep the table of states in memory-mapped files in, or
+   *                       null to keep it in direct memory
+   */
+  public ModelChecker(long memoryBudget, Duration timeBudget, Path spillDirectory) {
+    if (memoryBudget <= 0) {
+      throw new IllegalArgumentException("Memory budget must be positive");
+    }
+    if (timeBudget == null || timeBudget.isNegative() || timeBudget.isZero()) {
+      throw new IllegalArgumentException("Time budget must be positive");
+    }
+    this.memoryBudget = memoryBudget;
+    this.timeBudget = timeBudget;
+    this.spillDirectory = spillDirectory;
+  }
+
+  /**
+   * Visits every state of a game at a difficulty.
+   *
+   * @param graph      the graph of the story
+   * @param goals      the goals of the game
+   * @param difficulty the difficulty the player starts at
+   * @return the report of the check
+   * @throws IllegalArgumentException if a goal is of an unknown kind, there are more than
+   *                                  {@link #MAX_GOALS} goals, or the memory budget can not hold
+   *                                  a table
+   */
+  public ModelCheckReport check(StoryGraph graph, List<Goal<?>> goals,
+      GameDifficultyEnum difficulty) {
+    if (difficulty == null) {
+      throw new IllegalArgumentException("Difficulty can not be null");
+    }
+    StateSpace space = new StateSpace(graph, goals);
+    if (space.getGoalCount() > MAX_GOALS) {
+      throw new IllegalArgumentException("At most " + MAX_GOALS + " goals can be checked");
+    }
+    long maxStates = OffHeapStateTable.maxStatesFor(space.getWidth(), memoryBudget);
+    if (maxStates == 0) {
+      throw new IllegalArgumentException("Memory budget is too small for a table of states");
+    }
+    if (graph.getOpeningPassage() == StoryGraph.NO_PASSAGE) {
+      return new ModelCheckReport(difficulty, true, 0, 0, 0, 0, List.of(), List.of());
+    }
+    long start = System.nanoTime();
+    try (OffHeapStateTable table =
+        new OffHeapStateTable(space.getWidth(), maxStates, spillDirectory)) {
+      ModelCheckReport report = check(space, table, difficulty, start + timeBudget.toNanos());
+      logger.fine(() -> report + " in " + (System.nanoTime() - start) / 1_000_000 + " ms");
+      return report;
+    }
+  }
+
+  private ModelCheckReport check(StateSpace space, OffHeapStateTable table,
+      GameDifficultyEnum difficulty, long deadline) {
+    StoryGraph graph = space.getGraph();
+    long[] state = new long[space.getWidth()];
+    long[] next = new long[space.getWidth()];
+    BitSet reachedGoals = new BitSet(1 << space.getGoalCount());
+    long winning = 0;
+    long stuck = 0;
+    boolean complete = true;
+
+    space.start(difficulty, state);
+    table.add(state);
+    search:
+    for (long index = 0; index < table.size(); index++) {
+      if ((index & 0xFFF) == 0 && System.nanoTime() - deadline > 0) {
+        complete = false;
+        break;
+      }
+      table.get(index, state);
+      reachedGoals.set((int) space.goalMask(state));
+      if (index > 0 && space.isWon(state)) {
+        winning++;
+        table.flag(index);
+        continue;
+      }
+      int passage = StateSpace.passage(state);
+      boolean canMove = false;
+      for (int edge = graph.offsets[passage]; edge < graph.offsets[passage + 1]; edge++) {
+        int outcome = space.follow(state, edge, next);
+        canMove |= outcome != StateSpace.BLOCKED;
+        if (outcome == StateSpace.MOVED && table.add(next) == OffHeapStateTable.FULL) {
+          complete = false;
+          break search;
+        }
+      }
+      if (!canMove) {
+        stuck++;
+      }
+    }
+    if (!complete) {
+      return new ModelCheckReport(difficulty, false, table.size(), winning, stuck, -1, List.of(),
+          List.of());
+    }
+
+    // Flag the states a flagged state can be reached from, until no more flags change
+    boolean changed = true;
+    while (changed) {
+      changed = false;
+      for (long index = table.size() - 1; index >= 0; index--) {
+        if (table.isFlagged(index)) {
+          continue;
+        }
+        table.get(index, state);
+        int passage = StateSpace.passage(state);
+        for (int edge = graph.offsets[passage]; edge < graph.offsets[passage + 1]; edge++) {
+          if (space.follow(state, edge, next) == StateSpace.MOVED
+              && table.isFlagged(table.indexOf(next))) {
+            table.flag(index);
+            changed = true;
+            break;
+          }
+        }
+      }
+    }
+    long trapped = 0;
+    List<String> examples = new ArrayList<>();
+    for (long index = 0; index < table.size(); index++) {
+      if (!table.isFlagged(index)) {
+        trapped++;
+        if (examples.size() < MAX_TRAPPED_EXAMPLES) {
+          table.get(index, state);
+          examples.add(space.describe(state));
+        }
+      }
+    }
+    return new ModelCheckReport(difficulty, true, table.size(), winning, stuck, trapped, examples,
+        unreachableCombinations(space, reachedGoals));
+  }
+
+  /**
+   * Finds the smallest combinations of goals no state reaches together. A combination is reached
+   * when a state reaches it or more, which is found for all combinations at once by passing every
+   * reached combination on to the combinations with one goal less.
+   */
+  private static List<List<String>> unreachableCombinations(StateSpace space, BitSet reached) {
+    int goalCount = space.getGoalCount();
+    int combinations = 1 << goalCount;
+    BitSet reachable = (BitSet) reached.clone();
+    for (int goal = 0; goal < goalCount; goal++) {
+      for (int mask = 0; mask < combinations; mask++) {
+        if ((mask & 1 << goal) == 0 && reachable.get(mask | 1 << goal)) {
+          reachable.set(mask);
+        }
+      }
+    }
+    List<List<String>> unreachable = new ArrayList<>();
+    for (int mask = 1; mask < combinations; mask++) {
+      if (reachable.get(mask)) {
+        continue;
+      }
+      boolean smallest = true;
+      for (int goal = 0; goal < goalCount && smallest; goal++) {
+        smallest = (mask & 1 << goal) == 0 || reachable.get(mask & ~(1 << goal));
+      }
+      if (smallest) {
+        List<String> goals = new ArrayList<>();
+        for (int goal = 0; goal < goalCount; goal++) {
+          if ((mask & 1 << goal) != 0) {
+            goals.add(space.describeGoal(goal));
+          }
+        }
+        unreachable.add(goals);
+      }
+    }
+    return unreachable;
+  }
+}
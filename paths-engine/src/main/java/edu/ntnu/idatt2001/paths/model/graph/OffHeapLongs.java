@@ -0,0 +1,125 @@
+package edu.ntnu.idatt2001.paths.model.graph;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.LongBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * A fixed length array of longs outside the Java heap, in direct byte buffers or in a file mapped
+ * into memory. A buffer holds at most 2 GB, so the array is split into chunks of buffers and can
+ * be longer than any single buffer. The longs start out as 0.
+ *
+ * <p>A mapped array lives in a temporary file that is deleted when the array is closed, and the
+ * operating system writes its pages out to the file when memory runs short, so the array can be
+ * larger than the memory of the machine.
+ */
+final class OffHeapLongs implements AutoCloseable {
+
+  private static final int CHUNK_SHIFT = 27;
+  private static final long CHUNK_LENGTH = 1L << CHUNK_SHIFT;
+  private static final long CHUNK_MASK = CHUNK_LENGTH - 1;
+
+  private final long length;
+  private final LongBuffer[] chunks;
+  private final Path file;
+
+  private OffHeapLongs(long length, LongBuffer[] chunks, Path file) {
+    this.length = length;
+    this.chunks = chunks;
+    this.file = file;
+  }
+
+  /**
+   * Allocates an array in direct byte buffers.
+   *
+   * @param length the number of longs
+   * @return the array
+   */
+  static OffHeapLongs allocate(long length) {
+    LongBuffer[] chunks = new LongBuffer[chunkCount(length)];
+    for (int c = 0; c < chunks.length; c++) {
+      chunks[c] = ByteBuffer.allocateDirect(Math.toIntExact(chunkLength(length, c) * Long.BYTES))
+          .order(ByteOrder.nativeOrder()).asLongBuffer();
+    }
+    return new OffHeapLongs(length, chunks, null);
+  }
+
+  /**
+   * Maps an array into memory from a new temporary file.
+   *
+   * @param directory the directory to make the file in
+   * @param length    the number of longs
+   * @return the array
+   * @throws UncheckedIOException if the file can not be made or mapped
+   */
+  static OffHeapLongs map(Path directory, long length) {
+    try {
+      Path file = Files.createTempFile(directory, "states", ".bin");
+      try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ,
+          StandardOpenOption.WRITE)) {
+        LongBuffer[] chunks = new LongBuffer[chunkCount(length)];
+        for (int c = 0; c < chunks.length; c++) {
+          // A mapping stays valid after its channel is closed
+          chunks[c] = channel.map(FileChannel.MapMode.READ_WRITE, c * CHUNK_LENGTH * Long.BYTES,
+              chunkLength(length, c) * Long.BYTES).order(ByteOrder.nativeOrder()).asLongBuffer();
+        }
+        return new OffHeapLongs(length, chunks, file);
+      } catch (IOException | RuntimeException e) {
+        Files.deleteIfExists(file);
+        throw e;
+      }
+    } catch (IOException e) {
+      throw new UncheckedIOException("Could not map states to a file in " + directory, e);
+    }
+  }
+
+  private static int chunkCount(long length) {
+    if (length <= 0) {
+      throw new IllegalArgumentException("Length must be positive");
+    }
+    return Math.toIntExact((length + CHUNK_LENGTH - 1) >>> CHUNK_SHIFT);
+  }
+
+  private static long chunkLength(long length, int chunk) {
+    return Math.min(CHUNK_LENGTH, length - chunk * CHUNK_LENGTH);
+  }
+
+  /**
+   * Gets the number of longs.
+   *
+   * @return the length
+   */
+  long length() {
+    return length;
+  }
+
+  long get(long index) {
+    return chunks[(int) (index >>> CHUNK_SHIFT)].get((int) (index & CHUNK_MASK));
+  }
+
+  void set(long index, long value) {
+    chunks[(int) (index >>> CHUNK_SHIFT)].put((int) (index & CHUNK_MASK), value);
+  }
+
+  /**
+   * Deletes the file of a mapped array. The memory of the buffers is freed when they are garbage
+   * collected.
+   */
+  @Override
+  public void close() {
+    if (file != null) {
+      try {
+        Files.deleteIfExists(file);
+      } catch (IOException e) {
+        // Mapped files can not be deleted on some systems until they are unmapped
+        file.toFile().deleteOnExit();
+      }
+    }
+  }
+}
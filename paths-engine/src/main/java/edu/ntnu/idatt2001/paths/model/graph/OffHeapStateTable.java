@@ -0,0 +1,234 @@
+package edu.ntnu.idatt2001.paths.model.graph;
+
+import java.nio.file.Path;
+
+/**
+ * A hash set of states packed into a fixed number of longs, like {@link StateTable}, kept outside
+ * the Java heap in {@link OffHeapLongs} so it can hold far more states than the heap could.
+ *
+ * <p>The states are stored in the slots of an open-addressing table, each slot holding the
+ * number of its state plus one, or 0 when it is empty, followed by the longs of the state. A
+ * second array lists the slot of every state in the order the states were added, so a
+ * breadth-first search can use it as its queue, and keeps one flag for every state. The table
+ * doubles, up to a given number of states, when it is 70% full; while it doubles, the old table is
+ * kept until the states are moved.
+ */
+final class OffHeapStateTable implements AutoCloseable {
+
+  /**
+   * What {@link #add(long[])} returns when a new state does not fit in the table.
+   */
+  static final long FULL = Long.MIN_VALUE;
+
+  private static final long INITIAL_SLOTS = 1024;
+  private static final long FLAG = 1L << 62;
+  private static final long SLOT_MASK = FLAG - 1;
+
+  private final int width;
+  private final int recordLength;
+  private final long maxStates;
+  private final Path spillDirectory;
+  private OffHeapLongs slots;
+  private OffHeapLongs order;
+  private long slotCount;
+  private long size;
+
+  /**
+   * Instantiates a new Off heap state table.
+   *
+   * @param width          the number of longs in a state
+   * @param maxStates      the most states the table can hold
+   * @param spillDirectory the directory to map the table from files in, or null to keep it in
+   *                       direct memory
+   */
+  OffHeapStateTable(int width, long maxStates, Path spillDirectory) {
+    if (width <= 0 || maxStates <= 0) {
+      throw new IllegalArgumentException("Width and capacity must be positive");
+    }
+    this.width = width;
+    this.recordLength = width + 1;
+    this.maxStates = maxStates;
+    this.spillDirectory = spillDirectory;
+    slotCount = INITIAL_SLOTS;
+    slots = newArray(slotCount * recordLength);
+    order = newArray(capacity(slotCount));
+  }
+
+  /**
+   * Gets the most states a table can hold within a number of bytes, not counting the old table
+   * kept while it doubles.
+   *
+   * @param width  the number of longs in a state
+   * @param budget the number of bytes
+   * @return the number of states, 0 if not even an empty table fits
+   */
+  static long maxStatesFor(int width, long budget) {
+    long slots = INITIAL_SLOTS;
+    if (bytes(width, slots) > budget) {
+      return 0;
+    }
+    while (bytes(width, slots * 2) <= budget) {
+      slots *= 2;
+    }
+    return capacity(slots);
+  }
+
+  private static long bytes(int width, long slots) {
+    return (slots * (width + 1) + capacity(slots)) * Long.BYTES;
+  }
+
+  private static long capacity(long slots) {
+    return slots / 10 * 7;
+  }
+
+  private OffHeapLongs newArray(long length) {
+    return spillDirectory == null
+        ? OffHeapLongs.allocate(length) : OffHeapLongs.map(spillDirectory, length);
+  }
+
+  /**
+   * Gets the number of states in the table.
+   *
+   * @return the number of states
+   */
+  long size() {
+    return size;
+  }
+
+  /**
+   * Adds a state unless it is already in the table.
+   *
+   * @param state the state
+   * @return the number of the added state, or {@code -1 - n} if the state is already in the table
+   *     with the number {@code n}, or {@link #FULL} if the state is new and the table is full
+   */
+  long add(long[] state) {
+    long hash = hash(state);
+    long mask = slotCount - 1;
+    long slot = hash & mask;
+    for (long entry; (entry = slots.get(slot * recordLength)) != 0; slot = slot + 1 & mask) {
+      if (matches(slot, state)) {
+        return -entry;
+      }
+    }
+    if (size == maxStates) {
+      return FULL;
+    }
+    if (size == capacity(slotCount)) {
+      grow();
+      return add(state);
+    }
+    put(slot, size, state);
+    order.set(size, slot);
+    return size++;
+  }
+
+  /**
+   * Finds the number of a state.
+   *
+   * @param state the state
+   * @return the number of the state, or -1 if it is not in the table
+   */
+  long indexOf(long[] state) {
+    long mask = slotCount - 1;
+    long slot = hash(state) & mask;
+    for (long entry; (entry = slots.get(slot * recordLength)) != 0; slot = slot + 1 & mask) {
+      if (matches(slot, state)) {
+        return entry - 1;
+      }
+    }
+    return -1;
+  }
+
+  /**
+   * Copies a state out of the table.
+   *
+   * @param index the number of the state
+   * @param into  the array to copy the state into
+   */
+  void get(long index, long[] into) {
+    long offset = (order.get(index) & SLOT_MASK) * recordLength + 1;
+    for (int i = 0; i < width; i++) {
+      into[i] = slots.get(offset + i);
+    }
+  }
+
+  /**
+   * Checks the flag of a state.
+   *
+   * @param index the number of the state
+   * @return true if the flag is set
+   */
+  boolean isFlagged(long index) {
+    return (order.get(index) & FLAG) != 0;
+  }
+
+  /**
+   * Sets the flag of a state.
+   *
+   * @param index the number of the state
+   */
+  void flag(long index) {
+    order.set(index, order.get(index) | FLAG);
+  }
+
+  @Override
+  public void close() {
+    slots.close();
+    order.close();
+  }
+
+  private boolean matches(long slot, long[] state) {
+    long offset = slot * recordLength + 1;
+    for (int i = 0; i < width; i++) {
+      if (slots.get(offset + i) != state[i]) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private void put(long slot, long index, long[] state) {
+    long offset = slot * recordLength;
+    slots.set(offset, index + 1);
+    for (int i = 0; i < width; i++) {
+      slots.set(offset + 1 + i, state[i]);
+    }
+  }
+
+  private void grow() {
+    OffHeapLongs oldSlots = slots;
+    OffHeapLongs oldOrder = order;
+    slotCount *= 2;
+    slots = newArray(slotCount * recordLength);
+    order = newArray(capacity(slotCount));
+    long mask = slotCount - 1;
+    long[] state = new long[width];
+    for (long index = 0; index < size; index++) {
+      long entry = oldOrder.get(index);
+      long offset = (entry & SLOT_MASK) * recordLength + 1;
+      for (int i = 0; i < width; i++) {
+        state[i] = oldSlots.get(offset + i);
+      }
+      long slot = hash(state) & mask;
+      while (slots.get(slot * recordLength) != 0) {
+        slot = slot + 1 & mask;
+      }
+      put(slot, index, state);
+      order.set(index, slot | entry & FLAG);
+    }
+    oldSlots.close();
+    oldOrder.close();
+  }
+
+  private long hash(long[] state) {
+    long h = 0;
+    for (int i = 0; i < width; i++) {
+      h = (h ^ state[i]) * 0x9E3779B97F4A7C15L;
+    }
+    h ^= h >>> 32;
+    h *= 0xD6E8FEB86659FD93L;
+    h ^= h >>> 32;
+    return h & Long.MAX_VALUE;
+  }
+}
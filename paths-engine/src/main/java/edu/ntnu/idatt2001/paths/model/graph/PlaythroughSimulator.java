@@ -0,0 +1,253 @@
+package edu.ntnu.idatt2001.paths.model.graph;
+
+import edu.ntnu.idatt2001.paths.model.game.GameDifficultyEnum;
+import edu.ntnu.idatt2001.paths.model.goals.Goal;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.logging.Logger;
+
+/**
+ * Plays a story many times with a player who follows a random link in every passage, to see how
+ * often the story is won, ends in death or gets stuck, and which passages are visited. The games
+ * are played on a {@link StateSpace} of the story, which follows the rules of {@code Game} without
+ * making objects or logging, so millions of playthroughs take seconds.
+ *
+ * <p>The playthroughs are split into tasks on a {@link ForkJoinPool}, which idle threads steal.
+ * Every task has its own {@link SplittableRandom}, split from the random of the task it was split
+ * from, and counts into its own tally, which is added to the tally of its parent when it is joined.
+ * The tasks share nothing that changes, and the same seed gives the same statistics on any number
+ * of threads.
+ */
+public final class PlaythroughSimulator {
+
+  /**
+   * The most links a playthrough follows before it is given up, for a simulator made without one.
+   */
+  public static final int DEFAULT_MAX_LENGTH = 10_000;
+
+  private static final Logger logger = Logger.getLogger(PlaythroughSimulator.class.getName());
+
+  // The playthroughs are split into this many tasks, whatever the number of threads, so the tasks
+  // and their randoms are the same on any pool
+  private static final long TASK_COUNT = 128;
+
+  // Fewer playthroughs than this are played in one task
+  private static final long MIN_TASK_SIZE = 256;
+
+  private final ForkJoinPool pool;
+  private final int maxLength;
+
+  /**
+   * Instantiates a new Playthrough simulator that runs on the common pool.
+   */
+  public PlaythroughSimulator() {
+    this(ForkJoinPool.commonPool(), DEFAULT_MAX_LENGTH);
+  }
+
+  /**
+   * Instantiates a new Playthrough simulator.
+   *
+   * @param pool      the pool to play on
+   * @param maxLength the most links a playthrough follows before it is given up
+   */
+  public PlaythroughSimulator(ForkJoinPool pool, int maxLength) {
+    if (pool == null) {
+      throw new IllegalArgumentException("Pool can not be null");
+    }
+    if (maxLength <= 0) {
+      throw new IllegalArgumentException("Max length must be positive");
+    }
+    this.pool = pool;
+    this.maxLength = maxLength;
+  }
+
+  /**
+   * Plays a story a number of times at a difficulty.
+   *
+   * @param graph        the graph of the story
+   * @param goals        the goals of the game
+   * @param difficulty   the difficulty the player starts at
+   * @param playthroughs the number of playthroughs
+   * @param seed         the seed of the random choices
+   * @return the statistics of the playthroughs
+   * @throws IllegalArgumentException if a goal is of an unknown kind
+   */
+  public PlaythroughStatistics simulate(StoryGraph graph, List<Goal<?>> goals,
+      GameDifficultyEnum difficulty, long playthroughs, long seed) {
+    if (difficulty == null) {
+      throw new IllegalArgumentException("Difficulty can not be null");
+    }
+    return simulate(new StateSpace(graph, goals), difficulty, playthroughs,
+        new SplittableRandom(seed));
+  }
+
+  /**
+   * Plays a story a number of times at every difficulty.
+   *
+   * @param graph        the graph of the story
+   * @param goals        the goals of the game
+   * @param playthroughs the number of playthroughs at every difficulty
+   * @param seed         the seed of the random choices
+   * @return the statistics of the playthroughs at every difficulty
+   * @throws IllegalArgumentException if a goal is of an unknown kind
+   */
+  public Map<GameDifficultyEnum, PlaythroughStatistics> simulateAll(StoryGraph graph,
+      List<Goal<?>> goals, long playthroughs, long seed) {
+    StateSpace space = new StateSpace(graph, goals);
+    SplittableRandom random = new SplittableRandom(seed);
+    Map<GameDifficultyEnum, PlaythroughStatistics> statistics =
+        new EnumMap<>(GameDifficultyEnum.class);
+    for (GameDifficultyEnum difficulty : GameDifficultyEnum.values()) {
+      statistics.put(difficulty, simulate(space, difficulty, playthroughs, random.split()));
+    }
+    return statistics;
+  }
+
+  private PlaythroughStatistics simulate(StateSpace space, GameDifficultyEnum difficulty,
+      long playthroughs, SplittableRandom random) {
+    if (playthroughs < 0) {
+      throw new IllegalArgumentException("Number of playthroughs can not be negative");
+    }
+    long start = System.nanoTime();
+    long taskSize = Math.max(MIN_TASK_SIZE, (playthroughs + TASK_COUNT - 1) / TASK_COUNT);
+    Tally tally = pool.invoke(new Playthroughs(space, difficulty, playthroughs, taskSize, random));
+    logger.fine(() -> playthroughs + " playthroughs at " + difficulty + " simulated in "
+        + (System.nanoTime() - start) / 1_000_000 + " ms");
+    return new PlaythroughStatistics(space.getGraph(), difficulty, tally.wins, tally.deaths,
+        tally.stuck, tally.givenUp, tally.links, tally.winningLinks, tally.visits);
+  }
+
+  /**
+   * The counts of the playthroughs of one task.
+   */
+  private static final class Tally {
+
+    private final long[] visits;
+    private long wins;
+    private long deaths;
+    private long stuck;
+    private long givenUp;
+    private long links;
+    private long winningLinks;
+
+    Tally(int passageCount) {
+      visits = new long[passageCount];
+    }
+
+    void add(Tally other) {
+      wins += other.wins;
+      deaths += other.deaths;
+      stuck += other.stuck;
+      givenUp += other.givenUp;
+      links += other.links;
+      winningLinks += other.winningLinks;
+      for (int p = 0; p < visits.length; p++) {
+        visits[p] += other.visits[p];
+      }
+    }
+  }
+
+  /**
+   * Plays a number of playthroughs, split in two halves while there are too many for one task.
+   */
+  private final class Playthroughs extends RecursiveTask<Tally> {
+
+    private static final long serialVersionUID = 1L;
+
+    private final StateSpace space;
+    private final GameDifficultyEnum difficulty;
+    private final long count;
+    private final long taskSize;
+    private final SplittableRandom random;
+
+    Playthroughs(StateSpace space, GameDifficultyEnum difficulty, long count, long taskSize,
+        SplittableRandom random) {
+      this.space = space;
+      this.difficulty = difficulty;
+      this.count = count;
+      this.taskSize = taskSize;
+      this.random = random;
+    }
+
+    @Override
+    protected Tally compute() {
+      if (count > taskSize) {
+        Playthroughs first =
+            new Playthroughs(space, difficulty, count / 2, taskSize, random.split());
+        first.fork();
+        Tally tally =
+            new Playthroughs(space, difficulty, count - count / 2, taskSize, random).compute();
+        tally.add(first.join());
+        return tally;
+      }
+      StoryGraph graph = space.getGraph();
+      Tally tally = new Tally(graph.getPassageCount());
+      long[] state = new long[space.getWidth()];
+      space.start(difficulty, state);
+      long startPassageAndHealth = state[0];
+      long startGoldAndScore = state[1];
+      int[] path = new int[maxLength];
+      for (long i = 0; i < count; i++) {
+        int length = play(graph, state, path, tally);
+        // Reset the state by undoing the playthrough, which is cheaper than clearing all of it
+        for (int step = 0; step < length; step++) {
+          space.forget(state, path[step]);
+        }
+        state[0] = startPassageAndHealth;
+        state[1] = startGoldAndScore;
+        state[2] = 0;
+      }
+      return tally;
+    }
+
+    private int play(StoryGraph graph, long[] state, int[] path, Tally tally) {
+      int passage = StateSpace.passage(state);
+      if (passage == StoryGraph.NO_PASSAGE) {
+        tally.stuck++;
+        return 0;
+      }
+      tally.visits[passage]++;
+      for (int length = 0; length < maxLength; length++) {
+        int first = graph.offsets[passage];
+        int end = graph.offsets[passage + 1];
+        int choices = 0;
+        for (int edge = first; edge < end; edge++) {
+          if (space.canFollow(state, edge)) {
+            choices++;
+          }
+        }
+        if (choices == 0) {
+          tally.stuck++;
+          tally.links += length;
+          return length;
+        }
+        int choice = random.nextInt(choices);
+        int edge = first;
+        while (!space.canFollow(state, edge) || choice-- > 0) {
+          edge++;
+        }
+        path[length] = edge;
+        if (space.follow(state, edge, state) == StateSpace.DIED) {
+          tally.deaths++;
+          tally.links += length + 1;
+          return length + 1;
+        }
+        passage = StateSpace.passage(state);
+        tally.visits[passage]++;
+        if (space.isWon(state)) {
+          tally.wins++;
+          tally.links += length + 1;
+          tally.winningLinks += length + 1;
+          return length + 1;
+        }
+      }
+      tally.givenUp++;
+      tally.links += maxLength;
+      return maxLength;
+    }
+  }
+}
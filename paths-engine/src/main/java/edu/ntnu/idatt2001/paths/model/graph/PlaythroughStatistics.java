@@ -0,0 +1,169 @@
+package edu.ntnu.idatt2001.paths.model.graph;
+
+import edu.ntnu.idatt2001.paths.model.game.GameDifficultyEnum;
+
+/**
+ * How a number of random playthroughs of a story at a difficulty ended, and how often each
+ * passage was visited. Made by a {@link PlaythroughSimulator}.
+ *
+ * <p>A playthrough is won when the goals are reached, ends in death when the health of the player
+ * reaches 0, is stuck when no link of the passage can be followed, and is given up when it has
+ * followed the most links a playthrough may follow.
+ */
+public final class PlaythroughStatistics {
+
+  private final StoryGraph graph;
+  private final GameDifficultyEnum difficulty;
+  private final long playthroughs;
+  private final long wins;
+  private final long deaths;
+  private final long stuck;
+  private final long givenUp;
+  private final long links;
+  private final long winningLinks;
+  private final long[] visits;
+
+  PlaythroughStatistics(StoryGraph graph, GameDifficultyEnum difficulty, long wins, long deaths,
+      long stuck, long givenUp, long links, long winningLinks, long[] visits) {
+    this.graph = graph;
+    this.difficulty = difficulty;
+    this.playthroughs = wins + deaths + stuck + givenUp;
+    this.wins = wins;
+    this.deaths = deaths;
+    this.stuck = stuck;
+    this.givenUp = givenUp;
+    this.links = links;
+    this.winningLinks = winningLinks;
+    this.visits = visits;
+  }
+
+  /**
+   * Gets the graph that was played.
+   *
+   * @return the graph
+   */
+  public StoryGraph getGraph() {
+    return graph;
+  }
+
+  /**
+   * Gets the difficulty the playthroughs were played at.
+   *
+   * @return the difficulty
+   */
+  public GameDifficultyEnum getDifficulty() {
+    return difficulty;
+  }
+
+  /**
+   * Gets the number of playthroughs.
+   *
+   * @return the number of playthroughs
+   */
+  public long getPlaythroughs() {
+    return playthroughs;
+  }
+
+  /**
+   * Gets the number of playthroughs that reached the goals.
+   *
+   * @return the number of wins
+   */
+  public long getWins() {
+    return wins;
+  }
+
+  /**
+   * Gets the number of playthroughs where the player died.
+   *
+   * @return the number of deaths
+   */
+  public long getDeaths() {
+    return deaths;
+  }
+
+  /**
+   * Gets the number of playthroughs that reached a passage without a link that could be followed.
+   *
+   * @return the number of stuck playthroughs
+   */
+  public long getStuck() {
+    return stuck;
+  }
+
+  /**
+   * Gets the number of playthroughs that followed the most links allowed without ending.
+   *
+   * @return the number of given up playthroughs
+   */
+  public long getGivenUp() {
+    return givenUp;
+  }
+
+  /**
+   * Gets the share of playthroughs that reached the goals.
+   *
+   * @return the win rate, from 0 to 1
+   */
+  public double getWinRate() {
+    return rate(wins);
+  }
+
+  /**
+   * Gets the share of playthroughs where the player died.
+   *
+   * @return the death rate, from 0 to 1
+   */
+  public double getDeathRate() {
+    return rate(deaths);
+  }
+
+  /**
+   * Gets the share of playthroughs that got stuck.
+   *
+   * @return the stuck rate, from 0 to 1
+   */
+  public double getStuckRate() {
+    return rate(stuck);
+  }
+
+  /**
+   * Gets the average number of links followed in a playthrough.
+   *
+   * @return the average length, or 0 if there were no playthroughs
+   */
+  public double getAverageLength() {
+    return playthroughs == 0 ? 0 : (double) links / playthroughs;
+  }
+
+  /**
+   * Gets the average number of links followed in a playthrough that reached the goals.
+   *
+   * @return the average length, or 0 if no playthrough was won
+   */
+  public double getAverageWinningLength() {
+    return wins == 0 ? 0 : (double) winningLinks / wins;
+  }
+
+  /**
+   * Gets the number of times a passage was visited, the opening passage included.
+   *
+   * @param passage the number of the passage
+   * @return the number of visits
+   */
+  public long getVisits(int passage) {
+    return visits[passage];
+  }
+
+  private double rate(long count) {
+    return playthroughs == 0 ? 0 : (double) count / playthroughs;
+  }
+
+  @Override
+  public String toString() {
+    return String.format("%s: %d playthroughs, %.1f%% won, %.1f%% died, %.1f%% stuck, "
+            + "%.1f%% given up, %.1f links on average", difficulty, playthroughs,
+        100 * getWinRate(), 100 * getDeathRate(), 100 * getStuckRate(), 100 * rate(givenUp),
+        getAverageLength());
+  }
+}
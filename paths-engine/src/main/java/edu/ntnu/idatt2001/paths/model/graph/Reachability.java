@@ -0,0 +1,152 @@
+package edu.ntnu.idatt2001.paths.model.graph;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Which passages of a story can be reached from the opening passage, and which of them can still
+ * lead to an ending. Made by a {@link ReachabilityAnalyzer}.
+ *
+ * <p>The endings of a story are the passages without links. Most stories are won by reaching the
+ * goals of the game instead, and have no such passages. In a story without endings a reachable
+ * passage is a dead end when none of its links lead to a passage, since the player is stuck there.
+ */
+public final class Reachability {
+
+  /**
+   * The depth of a passage that can not be reached.
+   */
+  public static final int UNREACHABLE = -1;
+
+  private final StoryGraph graph;
+  private final int[] depths;
+  private final int[] distancesToEnding;
+  private final boolean hasEndings;
+  private final int maxDepth;
+
+  Reachability(StoryGraph graph, int[] depths, int[] distancesToEnding, boolean hasEndings) {
+    this.graph = graph;
+    this.depths = depths;
+    this.distancesToEnding = distancesToEnding;
+    this.hasEndings = hasEndings;
+    int deepest = UNREACHABLE;
+    for (int depth : depths) {
+      deepest = Math.max(deepest, depth);
+    }
+    this.maxDepth = deepest;
+  }
+
+  /**
+   * Gets the graph that was analyzed.
+   *
+   * @return the graph
+   */
+  public StoryGraph getGraph() {
+    return graph;
+  }
+
+  /**
+   * Gets the least number of links to follow from the opening passage to a passage.
+   *
+   * @param passage the number of the passage
+   * @return the depth, or {@link #UNREACHABLE}
+   */
+  public int getDepth(int passage) {
+    return depths[passage];
+  }
+
+  /**
+   * Gets the depth of the deepest reachable passage.
+   *
+   * @return the greatest depth, or {@link #UNREACHABLE} if the story has no opening passage
+   */
+  public int getMaxDepth() {
+    return maxDepth;
+  }
+
+  /**
+   * Checks if a passage can be reached from the opening passage.
+   *
+   * @param passage the number of the passage
+   * @return true if the passage can be reached
+   */
+  public boolean isReachable(int passage) {
+    return depths[passage] != UNREACHABLE;
+  }
+
+  /**
+   * Checks if the story has passages without links.
+   *
+   * @return true if the story has endings
+   */
+  public boolean hasEndings() {
+    return hasEndings;
+  }
+
+  /**
+   * Checks if a reachable passage is a dead end, from which the player can not reach an ending,
+   * or in a story without endings, can not go anywhere.
+   *
+   * @param passage the number of the passage
+   * @return true if the passage is a dead end
+   */
+  public boolean isDeadEnd(int passage) {
+    if (!isReachable(passage)) {
+      return false;
+    }
+    if (hasEndings) {
+      return distancesToEnding[passage] == UNREACHABLE;
+    }
+    for (int edge = graph.offsets[passage]; edge < graph.offsets[passage + 1]; edge++) {
+      if (graph.targets[edge] != StoryGraph.NO_PASSAGE) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Gets the number of passages that can be reached from the opening passage.
+   *
+   * @return the number of reachable passages
+   */
+  public int getReachableCount() {
+    int count = 0;
+    for (int depth : depths) {
+      if (depth != UNREACHABLE) {
+        count++;
+      }
+    }
+    return count;
+  }
+
+  /**
+   * Gets the titles of the passages that can not be reached from the opening passage.
+   *
+   * @return the titles, in story order
+   */
+  public List<String> getUnreachablePassages() {
+    List<String> titles = new ArrayList<>();
+    for (int p = 0; p < depths.length; p++) {
+      if (!isReachable(p)) {
+        titles.add(graph.getTitle(p));
+      }
+    }
+    return titles;
+  }
+
+  /**
+   * Gets the titles of the reachable passages that are dead ends.
+   *
+   * @return the titles, in story order
+   */
+  public List<String> getDeadEnds() {
+    List<String> titles = new ArrayList<>();
+    for (int p = 0; p < depths.length; p++) {
+      if (isDeadEnd(p)) {
+        titles.add(graph.getTitle(p));
+      }
+    }
+    return titles;
+  }
+}
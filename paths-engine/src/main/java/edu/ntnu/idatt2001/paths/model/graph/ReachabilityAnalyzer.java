@@ -0,0 +1,163 @@
+package edu.ntnu.idatt2001.paths.model.graph;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.logging.Logger;
+
+/**
+ * Finds the passages of a story that can be reached from the opening passage, and the passages
+ * that can reach an ending, by breadth-first searches over a {@link StoryGraph}. The endings are
+ * searched from backwards over the reverse links.
+ *
+ * <p>The searches go one level at a time. A level with a large frontier is split into chunks that
+ * are expanded on a {@link ForkJoinPool}, and a passage is claimed for the next level with a
+ * compare-and-set of its depth, so every passage is visited once. Small levels are expanded on the
+ * calling thread, where splitting would cost more than it saves.
+ */
+public final class ReachabilityAnalyzer {
+
+  /**
+   * The smallest frontier that is expanded in parallel.
+   */
+  public static final int DEFAULT_PARALLEL_THRESHOLD = 4096;
+
+  private static final Logger logger = Logger.getLogger(ReachabilityAnalyzer.class.getName());
+
+  private final ForkJoinPool pool;
+  private final int parallelThreshold;
+
+  /**
+   * Instantiates a new Reachability analyzer that runs on the common pool.
+   */
+  public ReachabilityAnalyzer() {
+    this(ForkJoinPool.commonPool(), DEFAULT_PARALLEL_THRESHOLD);
+  }
+
+  /**
+   * Instantiates a new Reachability analyzer.
+   *
+   * @param pool              the pool to expand large frontiers on
+   * @param parallelThreshold the smallest frontier that is expanded in parallel
+   */
+  public ReachabilityAnalyzer(ForkJoinPool pool, int parallelThreshold) {
+    if (pool == null) {
+      throw new IllegalArgumentException("Pool can not be null");
+    }
+    if (parallelThreshold <= 0) {
+      throw new IllegalArgumentException("Parallel threshold must be positive");
+    }
+    this.pool = pool;
+    this.parallelThreshold = parallelThreshold;
+  }
+
+  /**
+   * Analyzes a story graph.
+   *
+   * @param graph the graph
+   * @return the reachability of the passages
+   */
+  public Reachability analyze(StoryGraph graph) {
+    long start = System.nanoTime();
+    int passageCount = graph.getPassageCount();
+    int[] opening = graph.getOpeningPassage() != StoryGraph.NO_PASSAGE
+        ? new int[] {graph.getOpeningPassage()} : new int[0];
+    int[] depths = search(passageCount, graph.offsets, graph.targets, opening);
+
+    int[] endings = new int[passageCount];
+    int endingCount = 0;
+    for (int p = 0; p < passageCount; p++) {
+      if (graph.getOutDegree(p) == 0) {
+        endings[endingCount++] = p;
+      }
+    }
+    int[] distancesToEnding = search(passageCount, graph.reverseOffsets, graph.sources,
+        Arrays.copyOf(endings, endingCount));
+    logger.fine(() -> "Reachability of " + passageCount + " passages analyzed in "
+        + (System.nanoTime() - start) / 1_000_000 + " ms");
+    return new Reachability(graph, depths, distancesToEnding, endingCount > 0);
+  }
+
+  /**
+   * Breadth-first search from the start passages.
+   *
+   * @return the depth of every passage, or {@link Reachability#UNREACHABLE}
+   */
+  private int[] search(int passageCount, int[] offsets, int[] adjacency, int[] starts) {
+    AtomicIntegerArray depths = new AtomicIntegerArray(passageCount);
+    for (int p = 0; p < passageCount; p++) {
+      depths.set(p, Reachability.UNREACHABLE);
+    }
+    int[] frontier = new int[starts.length];
+    int frontierSize = 0;
+    for (int start : starts) {
+      if (depths.compareAndSet(start, Reachability.UNREACHABLE, 0)) {
+        frontier[frontierSize++] = start;
+      }
+    }
+    frontier = Arrays.copyOf(frontier, frontierSize);
+
+    for (int depth = 1; frontier.length > 0; depth++) {
+      frontier = frontier.length < parallelThreshold
+          ? expand(frontier, 0, frontier.length, depth, offsets, adjacency, depths)
+          : expandInParallel(frontier, depth, offsets, adjacency, depths);
+    }
+
+    int[] result = new int[passageCount];
+    for (int p = 0; p < passageCount; p++) {
+      result[p] = depths.get(p);
+    }
+    return result;
+  }
+
+  private int[] expandInParallel(int[] frontier, int depth, int[] offsets, int[] adjacency,
+      AtomicIntegerArray depths) {
+    int chunks = Math.max(1, Math.min(pool.getParallelism() * 4,
+        frontier.length / (parallelThreshold / 4 + 1)));
+    int chunkSize = (frontier.length + chunks - 1) / chunks;
+    List<ForkJoinTask<int[]>> tasks = new ArrayList<>(chunks);
+    for (int from = 0; from < frontier.length; from += chunkSize) {
+      int start = from;
+      int end = Math.min(frontier.length, from + chunkSize);
+      tasks.add(pool.submit(() -> expand(frontier, start, end, depth, offsets, adjacency,
+          depths)));
+    }
+    int[][] parts = new int[tasks.size()][];
+    int size = 0;
+    for (int i = 0; i < parts.length; i++) {
+      parts[i] = tasks.get(i).join();
+      size += parts[i].length;
+    }
+    int[] next = new int[size];
+    int position = 0;
+    for (int[] part : parts) {
+      System.arraycopy(part, 0, next, position, part.length);
+      position += part.length;
+    }
+    return next;
+  }
+
+  private static int[] expand(int[] frontier, int from, int to, int depth, int[] offsets,
+      int[] adjacency, AtomicIntegerArray depths) {
+    int[] next = new int[Math.max(16, to - from)];
+    int size = 0;
+    for (int i = from; i < to; i++) {
+      int passage = frontier[i];
+      for (int edge = offsets[passage]; edge < offsets[passage + 1]; edge++) {
+        int target = adjacency[edge];
+        if (target != StoryGraph.NO_PASSAGE
+            && depths.get(target) == Reachability.UNREACHABLE
+            && depths.compareAndSet(target, Reachability.UNREACHABLE, depth)) {
+          if (size == next.length) {
+            next = Arrays.copyOf(next, size * 2);
+          }
+          next[size++] = target;
+        }
+      }
+    }
+    return Arrays.copyOf(next, size);
+  }
+}
@@ -0,0 +1,434 @@
+package edu.ntnu.idatt2001.paths.model.graph;
+
+import edu.ntnu.idatt2001.paths.model.game.GameDifficultyEnum;
+import edu.ntnu.idatt2001.paths.model.goals.Goal;
+import edu.ntnu.idatt2001.paths.model.goals.GoldGoal;
+import edu.ntnu.idatt2001.paths.model.goals.HealthGoal;
+import edu.ntnu.idatt2001.paths.model.goals.InventoryGoal;
+import edu.ntnu.idatt2001.paths.model.goals.ScoreGoal;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * The states a game of a story can be in, packed into a fixed number of longs, and the moves
+ * between them. It follows the rules of {@code Game} and {@code GameController}: the actions of a
+ * link are performed, and its required item checked, only the first time the link is followed in
+ * a playthrough, health and gold do not go below 0, and a player whose health reaches 0 is dead.
+ * The goals are checked after every move.
+ *
+ * <p>A state is laid out as:
+ * <ol>
+ *   <li>the passage in the high half and the health in the low half,</li>
+ *   <li>the gold in the high half and the score in the low half,</li>
+ *   <li>the inventory, one bit for every item of the graph,</li>
+ *   <li>one bit for every link with actions, set when its actions have been performed.</li>
+ * </ol>
+ *
+ * <p>Links without actions are not recorded, since following them again does the same thing. The
+ * actions of a link are applied as one change per stat, with the floors of the graph standing in
+ * for the clamp at zero after every action. Duplicate items and the size limit of the inventory
+ * are not modelled, since the player can drop items.
+ */
+final class StateSpace {
+
+  /**
+   * The player followed the link.
+   */
+  static final int MOVED = 0;
+
+  /**
+   * The link leads nowhere, or the player does not have its required item.
+   */
+  static final int BLOCKED = 1;
+
+  /**
+   * The player followed the link and died.
+   */
+  static final int DIED = 2;
+
+  private static final int PERFORMED_WORD = 3;
+
+  private static final int HEALTH_GOAL = 0;
+  private static final int GOLD_GOAL = 1;
+  private static final int SCORE_GOAL = 2;
+  private static final int ITEM_GOAL = 3;
+
+  private final StoryGraph graph;
+  private final int width;
+  private final int[] performedBits;
+  private final long[] grantedMasks;
+  private final int minHealth;
+  private final int minGold;
+  private final int minScore;
+  private final long goalItems;
+  private final boolean goalItemMissing;
+  private final int[] goalKinds;
+  private final int[] goalValues;
+  private final int[] healthDistances;
+  private final int[] goldDistances;
+  private final int[] scoreDistances;
+  private final int[][] itemDistances;
+
+  /**
+   * Instantiates a new State space.
+   *
+   * @param graph the graph of the story
+   * @param goals the goals of the game
+   * @throws IllegalArgumentException if a goal is of an unknown kind, or the story has more than
+   *                                  64 items
+   */
+  StateSpace(StoryGraph graph, List<Goal<?>> goals) {
+    if (graph == null || goals == null) {
+      throw new IllegalArgumentException("Graph and goals can not be null");
+    }
+    if (graph.getItemCount() > Long.SIZE) {
+      throw new IllegalArgumentException("A story can have at most " + Long.SIZE + " items");
+    }
+    this.graph = graph;
+    int edgeCount = graph.getEdgeCount();
+    performedBits = new int[edgeCount];
+    grantedMasks = new long[edgeCount];
+    int bits = 0;
+    for (int edge = 0; edge < edgeCount; edge++) {
+      for (int item : graph.getGrantedItems(edge)) {
+        grantedMasks[edge] |= 1L << item;
+      }
+      // Changes that add up to nothing still count, since health or gold can be clamped on the way
+      boolean hasActions = graph.healthDeltas[edge] != 0 || graph.goldDeltas[edge] != 0
+          || graph.healthFloors[edge] != 0 || graph.goldFloors[edge] != 0
+          || graph.scoreDeltas[edge] != 0 || grantedMasks[edge] != 0;
+      performedBits[edge] = hasActions ? bits++ : -1;
+    }
+    width = PERFORMED_WORD + (bits + Long.SIZE - 1) / Long.SIZE;
+
+    int health = Integer.MIN_VALUE;
+    int gold = Integer.MIN_VALUE;
+    int score = Integer.MIN_VALUE;
+    long items = 0;
+    boolean missing = false;
+    goalKinds = new int[goals.size()];
+    goalValues = new int[goals.size()];
+    for (int g = 0; g < goals.size(); g++) {
+      Goal<?> goal = goals.get(g);
+      if (goal instanceof HealthGoal healthGoal) {
+        health = Math.max(health, healthGoal.getValue());
+        goalKinds[g] = HEALTH_GOAL;
+        goalValues[g] = healthGoal.getValue();
+      } else if (goal instanceof GoldGoal goldGoal) {
+        gold = Math.max(gold, goldGoal.getValue());
+        goalKinds[g] = GOLD_GOAL;
+        goalValues[g] = goldGoal.getValue();
+      } else if (goal instanceof ScoreGoal scoreGoal) {
+        score = Math.max(score, scoreGoal.getValue());
+        goalKinds[g] = SCORE_GOAL;
+        goalValues[g] = scoreGoal.getValue();
+      } else if (goal instanceof InventoryGoal inventoryGoal) {
+        int item = graph.indexOfItem(inventoryGoal.getValue().trim().toLowerCase());
+        if (item == StoryGraph.NO_ITEM) {
+          missing = true;
+        } else {
+          items |= 1L << item;
+        }
+        goalKinds[g] = ITEM_GOAL;
+        goalValues[g] = item;
+      } else {
+        throw new IllegalArgumentException("Goal " + goal + " can not be analyzed");
+      }
+    }
+    minHealth = health;
+    minGold = gold;
+    minScore = score;
+    goalItems = items;
+    goalItemMissing = missing;
+
+    healthDistances = distancesTo(graph.healthDeltas, graph.healthFloors, 0);
+    goldDistances = distancesTo(graph.goldDeltas, graph.goldFloors, 0);
+    scoreDistances = distancesTo(graph.scoreDeltas, null, 0);
+    itemDistances = new int[graph.getItemCount()][];
+    for (int item = 0; item < itemDistances.length; item++) {
+      if ((goalItems & 1L << item) != 0) {
+        itemDistances[item] = distancesTo(null, null, 1L << item);
+      }
+    }
+  }
+
+  /**
+   * Gets the graph the states are of.
+   *
+   * @return the graph
+   */
+  StoryGraph getGraph() {
+    return graph;
+  }
+
+  /**
+   * Gets the number of longs a state is packed into.
+   *
+   * @return the width of a state
+   */
+  int getWidth() {
+    return width;
+  }
+
+  /**
+   * Checks if some goal can never be reached, because it needs an item no link gives.
+   *
+   * @return true if the goals can not be reached
+   */
+  boolean isGoalItemMissing() {
+    return goalItemMissing;
+  }
+
+  /**
+   * Writes the state a game starts in.
+   *
+   * @param difficulty the difficulty of the game
+   * @param state      the state to write to
+   */
+  void start(GameDifficultyEnum difficulty, long[] state) {
+    Arrays.fill(state, 0, width, 0L);
+    state[0] = pack(graph.getOpeningPassage(), difficulty.getDefaultHealth());
+    state[1] = pack(difficulty.getDefaultGold(), difficulty.getDefaultScore());
+  }
+
+  /**
+   * Checks if a link can be followed from a state.
+   *
+   * @param state the state
+   * @param edge  the number of the link, which must leave the passage of the state
+   * @return true if the link leads to a passage and the player has its required item, or has
+   *     followed it before
+   */
+  boolean canFollow(long[] state, int edge) {
+    if (graph.targets[edge] == StoryGraph.NO_PASSAGE) {
+      return false;
+    }
+    int required = graph.requiredItems[edge];
+    return required == StoryGraph.NO_ITEM || (state[2] & 1L << required) != 0
+        || isPerformed(state, edge);
+  }
+
+  /**
+   * Forgets that the actions of a link have been performed, so a state can be used for a new
+   * playthrough by forgetting the links that were followed instead of clearing all of it.
+   *
+   * @param state the state
+   * @param edge  the number of the link
+   */
+  void forget(long[] state, int edge) {
+    int bit = performedBits[edge];
+    if (bit >= 0) {
+      state[PERFORMED_WORD + (bit >>> 6)] &= ~(1L << bit);
+    }
+  }
+
+  private boolean isPerformed(long[] state, int edge) {
+    int bit = performedBits[edge];
+    return bit >= 0 && (state[PERFORMED_WORD + (bit >>> 6)] & 1L << bit) != 0;
+  }
+
+  /**
+   * Follows a link from a state.
+   *
+   * @param from the state to follow the link from
+   * @param edge the number of the link, which must leave the passage of the state
+   * @param to   the state to write the result to, which may be the same array as {@code from}
+   * @return {@link #MOVED}, {@link #BLOCKED} or {@link #DIED}
+   */
+  int follow(long[] from, int edge, long[] to) {
+    int target = graph.targets[edge];
+    if (target == StoryGraph.NO_PASSAGE) {
+      return BLOCKED;
+    }
+    int bit = performedBits[edge];
+    boolean performed = isPerformed(from, edge);
+    int health = health(from);
+    if (!performed) {
+      int required = graph.requiredItems[edge];
+      if (required != StoryGraph.NO_ITEM && (from[2] & 1L << required) == 0) {
+        return BLOCKED;
+      }
+    }
+    if (from != to) {
+      System.arraycopy(from, 0, to, 0, width);
+    }
+    if (performed || bit < 0) {
+      to[0] = pack(target, health);
+      return MOVED;
+    }
+    health = graph.healthAfter(edge, health);
+    int gold = graph.goldAfter(edge, gold(from));
+    int score = score(from) + graph.scoreDeltas[edge];
+    to[0] = pack(target, health);
+    to[1] = pack(gold, score);
+    to[2] |= grantedMasks[edge];
+    to[PERFORMED_WORD + (bit >>> 6)] |= 1L << bit;
+    return health > 0 ? MOVED : DIED;
+  }
+
+  /**
+   * Checks if a state reaches all goals.
+   *
+   * @param state the state
+   * @return true if all goals are reached
+   */
+  boolean isWon(long[] state) {
+    return !goalItemMissing && health(state) >= minHealth && gold(state) >= minGold
+        && score(state) >= minScore && (state[2] & goalItems) == goalItems;
+  }
+
+  /**
+   * Gets the number of goals.
+   *
+   * @return the number of goals
+   */
+  int getGoalCount() {
+    return goalKinds.length;
+  }
+
+  /**
+   * Checks which of the goals a state reaches.
+   *
+   * @param state the state
+   * @return a bit for every goal, in the order of the goals, set when the goal is reached
+   */
+  long goalMask(long[] state) {
+    long mask = 0;
+    for (int g = 0; g < goalKinds.length; g++) {
+      boolean reached = switch (goalKinds[g]) {
+        case HEALTH_GOAL -> health(state) >= goalValues[g];
+        case GOLD_GOAL -> gold(state) >= goalValues[g];
+        case SCORE_GOAL -> score(state) >= goalValues[g];
+        default -> goalValues[g] != StoryGraph.NO_ITEM && (state[2] & 1L << goalValues[g]) != 0;
+      };
+      if (reached) {
+        mask |= 1L << g;
+      }
+    }
+    return mask;
+  }
+
+  /**
+   * Describes a goal.
+   *
+   * @param goal the number of the goal
+   * @return the description, such as "gold 100" or "item gem"
+   */
+  String describeGoal(int goal) {
+    return switch (goalKinds[goal]) {
+      case HEALTH_GOAL -> "health " + goalValues[goal];
+      case GOLD_GOAL -> "gold " + goalValues[goal];
+      case SCORE_GOAL -> "score " + goalValues[goal];
+      default -> "item " + (goalValues[goal] != StoryGraph.NO_ITEM
+          ? graph.getItem(goalValues[goal]) : "that no link gives");
+    };
+  }
+
+  /**
+   * Describes a state: the passage and the stats and items of the player.
+   *
+   * @param state the state
+   * @return the description
+   */
+  String describe(long[] state) {
+    StringBuilder items = new StringBuilder();
+    for (long mask = state[2]; mask != 0; mask &= mask - 1) {
+      items.append(items.length() == 0 ? "" : ", ")
+          .append(graph.getItem(Long.numberOfTrailingZeros(mask)));
+    }
+    return graph.getTitle(passage(state)) + " (health " + health(state) + ", gold "
+        + gold(state) + ", score " + score(state) + ", items [" + items + "])";
+  }
+
+  /**
+   * Gets a lower bound on the number of links to follow from a state before all goals are
+   * reached. Every goal that is not reached needs a link that raises its stat or gives its item,
+   * so the bound is the distance to the nearest such link for the goal furthest away.
+   *
+   * @param state the state
+   * @return the bound, or {@link Integer#MAX_VALUE} if a goal can not be reached from the state
+   */
+  int estimate(long[] state) {
+    if (goalItemMissing) {
+      return Integer.MAX_VALUE;
+    }
+    int passage = passage(state);
+    int bound = 0;
+    if (health(state) < minHealth) {
+      bound = Math.max(bound, healthDistances[passage]);
+    }
+    if (gold(state) < minGold) {
+      bound = Math.max(bound, goldDistances[passage]);
+    }
+    if (score(state) < minScore) {
+      bound = Math.max(bound, scoreDistances[passage]);
+    }
+    long missingItems = goalItems & ~state[2];
+    while (missingItems != 0) {
+      int item = Long.numberOfTrailingZeros(missingItems);
+      bound = Math.max(bound, itemDistances[item][passage]);
+      missingItems &= missingItems - 1;
+    }
+    return bound;
+  }
+
+  static int passage(long[] state) {
+    return (int) (state[0] >> 32);
+  }
+
+  static int health(long[] state) {
+    return (int) state[0];
+  }
+
+  static int gold(long[] state) {
+    return (int) (state[1] >> 32);
+  }
+
+  static int score(long[] state) {
+    return (int) state[1];
+  }
+
+  static long inventory(long[] state) {
+    return state[2];
+  }
+
+  private static long pack(int high, int low) {
+    return (long) high << 32 | low & 0xFFFFFFFFL;
+  }
+
+  /**
+   * Finds how many links must be followed from every passage to follow a link that can raise a
+   * stat, or gives an item, with a breadth-first search backwards from those links. A link with a
+   * floor above zero can raise the stat even if its changes add up to a loss.
+   */
+  private int[] distancesTo(int[] deltas, int[] floors, long itemMask) {
+    int passageCount = graph.getPassageCount();
+    int[] distances = new int[passageCount];
+    Arrays.fill(distances, Integer.MAX_VALUE);
+    ArrayDeque<Integer> queue = new ArrayDeque<>();
+    for (int p = 0; p < passageCount; p++) {
+      for (int edge = graph.offsets[p]; edge < graph.offsets[p + 1]; edge++) {
+        boolean helps = deltas != null
+            ? deltas[edge] > 0 || floors != null && floors[edge] > 0
+            : (grantedMasks[edge] & itemMask) != 0;
+        if (helps && graph.targets[edge] != StoryGraph.NO_PASSAGE) {
+          distances[p] = 1;
+          queue.add(p);
+          break;
+        }
+      }
+    }
+    while (!queue.isEmpty()) {
+      int passage = queue.poll();
+      for (int i = graph.reverseOffsets[passage]; i < graph.reverseOffsets[passage + 1]; i++) {
+        int source = graph.sources[i];
+        if (distances[source] == Integer.MAX_VALUE) {
+          distances[source] = distances[passage] + 1;
+          queue.add(source);
+        }
+      }
+    }
+    return distances;
+  }
+}
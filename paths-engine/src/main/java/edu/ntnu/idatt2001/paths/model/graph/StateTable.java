@@ -0,0 +1,147 @@
+package edu.ntnu.idatt2001.paths.model.graph;
+
+import java.util.Arrays;
+
+/**
+ * A hash set of states packed into a fixed number of longs, numbering the states in the order
+ * they are added. The states are stored one after another in a single array, and an
+ * open-addressing table of state numbers finds them, so a state costs its longs and a few ints
+ * instead of an object with an array.
+ *
+ * <p>The table holds at most a given number of states, so a search can stay within a memory
+ * budget and report when it runs out.
+ */
+final class StateTable {
+
+  /**
+   * What {@link #add(long[])} returns when a new state does not fit in the table.
+   */
+  static final int FULL = Integer.MIN_VALUE;
+
+  private static final int INITIAL_CAPACITY = 1024;
+
+  private final int width;
+  private final int maxStates;
+  private long[] states;
+  private int[] slots;
+  private int size;
+
+  /**
+   * Instantiates a new State table.
+   *
+   * @param width     the number of longs in a state
+   * @param maxStates the most states the table can hold
+   */
+  StateTable(int width, int maxStates) {
+    if (width <= 0 || maxStates <= 0) {
+      throw new IllegalArgumentException("Width and capacity must be positive");
+    }
+    this.width = width;
+    this.maxStates = maxStates;
+    int capacity = Math.min(INITIAL_CAPACITY, maxStates);
+    states = new long[capacity * width];
+    slots = new int[Integer.highestOneBit(capacity * 2 - 1) * 2];
+  }
+
+  /**
+   * Gets the number of states in the table.
+   *
+   * @return the number of states
+   */
+  int size() {
+    return size;
+  }
+
+  /**
+   * Checks if the table can not hold another state.
+   *
+   * @return true if the table is full
+   */
+  boolean isFull() {
+    return size == maxStates;
+  }
+
+  /**
+   * Adds a state unless it is already in the table.
+   *
+   * @param state the state
+   * @return the number of the added state, or {@code -1 - n} if the state is already in the table
+   *     with the number {@code n}, or {@link #FULL} if the state is new and the table is full
+   */
+  int add(long[] state) {
+    int hash = hash(state);
+    int mask = slots.length - 1;
+    for (int slot = hash & mask; ; slot = slot + 1 & mask) {
+      int entry = slots[slot];
+      if (entry == 0) {
+        break;
+      }
+      if (matches(entry - 1, state)) {
+        return -entry;
+      }
+    }
+    if (isFull()) {
+      return FULL;
+    }
+    if (size * width == states.length) {
+      states = Arrays.copyOf(states, (int) Math.min((long) maxStates, size * 2L) * width);
+    }
+    System.arraycopy(state, 0, states, size * width, width);
+    if ((size + 1) * 2 > slots.length) {
+      rehash(slots.length * 2);
+      mask = slots.length - 1;
+    }
+    int slot = hash & mask;
+    while (slots[slot] != 0) {
+      slot = slot + 1 & mask;
+    }
+    slots[slot] = ++size;
+    return size - 1;
+  }
+
+  /**
+   * Copies a state out of the table.
+   *
+   * @param index the number of the state
+   * @param into  the array to copy the state into
+   */
+  void get(int index, long[] into) {
+    System.arraycopy(states, index * width, into, 0, width);
+  }
+
+  private boolean matches(int index, long[] state) {
+    int offset = index * width;
+    for (int i = 0; i < width; i++) {
+      if (states[offset + i] != state[i]) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private void rehash(int slotCount) {
+    slots = new int[slotCount];
+    int mask = slotCount - 1;
+    long[] state = new long[width];
+    for (int index = 0; index < size; index++) {
+      get(index, state);
+      int slot = hash(state) & mask;
+      while (slots[slot] != 0) {
+        slot = slot + 1 & mask;
+      }
+      slots[slot] = index + 1;
+    }
+  }
+
+  private int hash(long[] state) {
+    long h = 0;
+    for (int i = 0; i < width; i++) {
+      h = (h ^ state[i]) * 0x9E3779B97F4A7C15L;
+    }
+    // Mix the high bits into the low bits the table is indexed with
+    h ^= h >>> 32;
+    h *= 0xD6E8FEB86659FD93L;
+    h ^= h >>> 32;
+    return (int) h;
+  }
+}
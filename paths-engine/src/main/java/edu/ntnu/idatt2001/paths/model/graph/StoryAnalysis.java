@@ -0,0 +1,78 @@
+package edu.ntnu.idatt2001.paths.model.graph;
+
+import edu.ntnu.idatt2001.paths.model.Story;
+
+/**
+ * The analyses of a story, kept until the passages or links of the story change. Each analysis is
+ * made the first time it is asked for, and asking again is free as long as the
+ * {@link Story#getStructureVersion() structure version} of the story is the same, so an editor can
+ * query the analyses after every change without redoing them.
+ *
+ * <p>Changes to the text and actions of links do not change the structure version, so the link
+ * texts and action deltas of the kept graph are those of when it was made. Analyses that use them
+ * should take a new {@link StoryGraph}.
+ */
+public final class StoryAnalysis {
+
+  private final Story story;
+  private final ReachabilityAnalyzer reachabilityAnalyzer;
+  private int version;
+  private StoryGraph graph;
+  private Reachability reachability;
+  private StronglyConnectedComponents components;
+
+  /**
+   * Instantiates a new Story analysis.
+   *
+   * @param story                the story to analyze
+   * @param reachabilityAnalyzer the analyzer to find the reachable passages with
+   */
+  public StoryAnalysis(Story story, ReachabilityAnalyzer reachabilityAnalyzer) {
+    if (story == null || reachabilityAnalyzer == null) {
+      throw new IllegalArgumentException("Story and analyzer can not be null");
+    }
+    this.story = story;
+    this.reachabilityAnalyzer = reachabilityAnalyzer;
+  }
+
+  /**
+   * Gets the graph of the story as it is now.
+   *
+   * @return the graph
+   */
+  public synchronized StoryGraph getGraph() {
+    if (graph == null || version != story.getStructureVersion()) {
+      version = story.getStructureVersion();
+      graph = StoryGraph.of(story);
+      reachability = null;
+      components = null;
+    }
+    return graph;
+  }
+
+  /**
+   * Gets which passages of the story can be reached and which are dead ends.
+   *
+   * @return the reachability
+   */
+  public synchronized Reachability getReachability() {
+    StoryGraph current = getGraph();
+    if (reachability == null) {
+      reachability = reachabilityAnalyzer.analyze(current);
+    }
+    return reachability;
+  }
+
+  /**
+   * Gets the loops of the story and their exits.
+   *
+   * @return the strongly connected components
+   */
+  public synchronized StronglyConnectedComponents getComponents() {
+    StoryGraph current = getGraph();
+    if (components == null) {
+      components = StronglyConnectedComponents.of(current);
+    }
+    return components;
+  }
+}
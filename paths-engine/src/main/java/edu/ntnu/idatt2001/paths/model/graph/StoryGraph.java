@@ -0,0 +1,455 @@
+package edu.ntnu.idatt2001.paths.model.graph;
+
+import edu.ntnu.idatt2001.paths.model.Link;
+import edu.ntnu.idatt2001.paths.model.Passage;
+import edu.ntnu.idatt2001.paths.model.Story;
+import edu.ntnu.idatt2001.paths.model.actions.Action;
+import edu.ntnu.idatt2001.paths.model.actions.LinkEffect;
+import edu.ntnu.idatt2001.paths.model.exceptions.StoryValidationException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * An immutable snapshot of the passages and links of a story as numbers, for analyses that walk
+ * the whole story. Passages are numbered 0 to n - 1 in the order of the story, and the links
+ * leaving passage {@code p} are the edges {@code offsets[p]} to {@code offsets[p + 1] - 1}, stored
+ * in compressed sparse row form. The actions of every edge are kept in arrays parallel to the
+ * edges: the sum of the changes to each stat, and for health and gold the floor worked out by
+ * {@link LinkEffect}, since the player clamps those at zero after every action. Inventory items are
+ * numbered as well.
+ *
+ * <p>A link to a passage that does not exist has the target {@link #NO_PASSAGE}. The snapshot does
+ * not change when the story does.
+ */
+public final class StoryGraph {
+
+  /**
+   * The target of a link to a passage that does not exist, and the opening passage of a story
+   * without one.
+   */
+  public static final int NO_PASSAGE = -1;
+
+  /**
+   * The required item of a link that needs no item.
+   */
+  public static final int NO_ITEM = -1;
+
+  final String[] titles;
+  final Map<String, Integer> passageIds;
+  final int openingPassage;
+
+  final int[] offsets;
+  final int[] targets;
+  final String[] linkTexts;
+  final int[] healthDeltas;
+  final int[] goldDeltas;
+  final int[] healthFloors;
+  final int[] goldFloors;
+  final int[] scoreDeltas;
+  final int[] requiredItems;
+  final int[] itemOffsets;
+  final int[] grantedItems;
+
+  final int[] reverseOffsets;
+  final int[] sources;
+
+  final String[] items;
+  final Map<String, Integer> itemIds;
+
+  private StoryGraph(Builder builder) {
+    this.titles = builder.titles;
+    this.passageIds = builder.passageIds;
+    this.openingPassage = builder.openingPassage;
+    this.offsets = builder.offsets;
+    this.targets = builder.targets.toArray();
+    this.linkTexts = builder.linkTexts.toArray(new String[0]);
+    this.healthDeltas = builder.healthDeltas.toArray();
+    this.goldDeltas = builder.goldDeltas.toArray();
+    this.healthFloors = builder.healthFloors.toArray();
+    this.goldFloors = builder.goldFloors.toArray();
+    this.scoreDeltas = builder.scoreDeltas.toArray();
+    this.requiredItems = builder.requiredItems.toArray();
+    this.itemOffsets = builder.itemOffsets.toArray();
+    this.grantedItems = builder.grantedItems.toArray();
+    this.items = builder.items.toArray(new String[0]);
+    this.itemIds = builder.itemIds;
+
+    // Edges into every passage, so analyses can also walk the links backwards
+    int passageCount = titles.length;
+    reverseOffsets = new int[passageCount + 1];
+    for (int target : targets) {
+      if (target != NO_PASSAGE) {
+        reverseOffsets[target + 1]++;
+      }
+    }
+    for (int p = 0; p < passageCount; p++) {
+      reverseOffsets[p + 1] += reverseOffsets[p];
+    }
+    sources = new int[reverseOffsets[passageCount]];
+    int[] next = Arrays.copyOf(reverseOffsets, passageCount);
+    for (int p = 0; p < passageCount; p++) {
+      for (int edge = offsets[p]; edge < offsets[p + 1]; edge++) {
+        if (targets[edge] != NO_PASSAGE) {
+          sources[next[targets[edge]]++] = p;
+        }
+      }
+    }
+  }
+
+  /**
+   * Takes a snapshot of a story.
+   *
+   * @param story the story
+   * @return the graph of the story
+   * @throws StoryValidationException if a link has an action with a value that is not a number
+   */
+  public static StoryGraph of(Story story) {
+    if (story == null) {
+      throw new IllegalArgumentException("Story can not be null");
+    }
+    List<Passage> numbered = new ArrayList<>(story.getPassages());
+    Builder builder = new Builder(numbered.size());
+    for (int p = 0; p < numbered.size(); p++) {
+      builder.titles[p] = numbered.get(p).getTitle();
+      builder.passageIds.put(builder.titles[p], p);
+    }
+    Passage opening = story.getOpeningPassage();
+    builder.openingPassage = opening != null
+        ? builder.passageIds.getOrDefault(opening.getTitle(), NO_PASSAGE) : NO_PASSAGE;
+    for (int p = 0; p < numbered.size(); p++) {
+      for (Link link : numbered.get(p).getLinks()) {
+        builder.addEdge(link);
+      }
+      builder.offsets[p + 1] = builder.targets.size();
+    }
+    return new StoryGraph(builder);
+  }
+
+  /**
+   * Gets the number of passages.
+   *
+   * @return the number of passages
+   */
+  public int getPassageCount() {
+    return titles.length;
+  }
+
+  /**
+   * Gets the number of links.
+   *
+   * @return the number of links
+   */
+  public int getEdgeCount() {
+    return targets.length;
+  }
+
+  /**
+   * Gets the opening passage.
+   *
+   * @return the number of the opening passage, or {@link #NO_PASSAGE}
+   */
+  public int getOpeningPassage() {
+    return openingPassage;
+  }
+
+  /**
+   * Gets the title of a passage.
+   *
+   * @param passage the number of the passage
+   * @return the title
+   */
+  public String getTitle(int passage) {
+    return titles[passage];
+  }
+
+  /**
+   * Gets the number of the passage with the given title.
+   *
+   * @param title the title
+   * @return the number of the passage, or {@link #NO_PASSAGE}
+   */
+  public int indexOf(String title) {
+    return passageIds.getOrDefault(title, NO_PASSAGE);
+  }
+
+  /**
+   * Gets the first link leaving a passage.
+   *
+   * @param passage the number of the passage
+   * @return the number of the first edge
+   */
+  public int getFirstEdge(int passage) {
+    return offsets[passage];
+  }
+
+  /**
+   * Gets the end of the links leaving a passage.
+   *
+   * @param passage the number of the passage
+   * @return the number of the edge after the last edge of the passage
+   */
+  public int getEndEdge(int passage) {
+    return offsets[passage + 1];
+  }
+
+  /**
+   * Gets the number of links leaving a passage.
+   *
+   * @param passage the number of the passage
+   * @return the number of links
+   */
+  public int getOutDegree(int passage) {
+    return offsets[passage + 1] - offsets[passage];
+  }
+
+  /**
+   * Gets the passage a link leads to.
+   *
+   * @param edge the number of the edge
+   * @return the number of the passage, or {@link #NO_PASSAGE} for a broken link
+   */
+  public int getTarget(int edge) {
+    return targets[edge];
+  }
+
+  /**
+   * Gets the text of a link.
+   *
+   * @param edge the number of the edge
+   * @return the text
+   */
+  public String getLinkText(int edge) {
+    return linkTexts[edge];
+  }
+
+  /**
+   * Gets the change in health when a link is followed.
+   *
+   * @param edge the number of the edge
+   * @return the sum of the health actions of the link
+   */
+  public int getHealthDelta(int edge) {
+    return healthDeltas[edge];
+  }
+
+  /**
+   * Gets the change in gold when a link is followed.
+   *
+   * @param edge the number of the edge
+   * @return the sum of the gold actions of the link
+   */
+  public int getGoldDelta(int edge) {
+    return goldDeltas[edge];
+  }
+
+  /**
+   * Gets the least health a player has after following a link the first time. Health is clamped
+   * at zero after every action, so a link that lowers health and then raises it leaves at least
+   * this much, whatever the health was before.
+   *
+   * @param edge the number of the edge
+   * @return the health floor, zero or more
+   */
+  public int getHealthFloor(int edge) {
+    return healthFloors[edge];
+  }
+
+  /**
+   * Gets the least gold a player has after following a link the first time. Gold is clamped at
+   * zero after every action, like health.
+   *
+   * @param edge the number of the edge
+   * @return the gold floor, zero or more
+   */
+  public int getGoldFloor(int edge) {
+    return goldFloors[edge];
+  }
+
+  /**
+   * Gets the health of a player after following a link the first time, clamping at zero after
+   * every action like the player does.
+   *
+   * @param edge   the number of the edge
+   * @param health the health before, zero or more
+   * @return the health after
+   */
+  public int healthAfter(int edge, int health) {
+    return Math.max(health + healthDeltas[edge], healthFloors[edge]);
+  }
+
+  /**
+   * Gets the gold of a player after following a link the first time, clamping at zero after every
+   * action like the player does.
+   *
+   * @param edge the number of the edge
+   * @param gold the gold before, zero or more
+   * @return the gold after
+   */
+  public int goldAfter(int edge, int gold) {
+    return Math.max(gold + goldDeltas[edge], goldFloors[edge]);
+  }
+
+  /**
+   * Gets the change in score when a link is followed.
+   *
+   * @param edge the number of the edge
+   * @return the sum of the score actions of the link
+   */
+  public int getScoreDelta(int edge) {
+    return scoreDeltas[edge];
+  }
+
+  /**
+   * Gets the item needed to follow a link.
+   *
+   * @param edge the number of the edge
+   * @return the number of the item, or {@link #NO_ITEM}
+   */
+  public int getRequiredItem(int edge) {
+    return requiredItems[edge];
+  }
+
+  /**
+   * Gets the items given by a link.
+   *
+   * @param edge the number of the edge
+   * @return the numbers of the items, in the order of the actions
+   */
+  public int[] getGrantedItems(int edge) {
+    return Arrays.copyOfRange(grantedItems, itemOffsets[edge], itemOffsets[edge + 1]);
+  }
+
+  /**
+   * Gets the passages with a link to a passage. A passage with several links to the passage is
+   * listed once for every link.
+   *
+   * @param passage the number of the passage
+   * @return the numbers of the passages
+   */
+  public int[] getSources(int passage) {
+    return Arrays.copyOfRange(sources, reverseOffsets[passage], reverseOffsets[passage + 1]);
+  }
+
+  /**
+   * Gets the number of different inventory items required or given by the links.
+   *
+   * @return the number of items
+   */
+  public int getItemCount() {
+    return items.length;
+  }
+
+  /**
+   * Gets the name of an item.
+   *
+   * @param item the number of the item
+   * @return the name, as the value of the inventory action
+   */
+  public String getItem(int item) {
+    return items[item];
+  }
+
+  /**
+   * Gets the number of an item.
+   *
+   * @param name the name of the item
+   * @return the number of the item, or {@link #NO_ITEM}
+   */
+  public int indexOfItem(String name) {
+    return itemIds.getOrDefault(name, NO_ITEM);
+  }
+
+  /**
+   * Collects the edges while a graph is built.
+   */
+  private static final class Builder {
+
+    private final String[] titles;
+    private final Map<String, Integer> passageIds;
+    private int openingPassage;
+    private final int[] offsets;
+    private final IntList targets = new IntList();
+    private final List<String> linkTexts = new ArrayList<>();
+    private final IntList healthDeltas = new IntList();
+    private final IntList goldDeltas = new IntList();
+    private final IntList healthFloors = new IntList();
+    private final IntList goldFloors = new IntList();
+    private final IntList scoreDeltas = new IntList();
+    private final IntList requiredItems = new IntList();
+    private final IntList itemOffsets = new IntList();
+    private final IntList grantedItems = new IntList();
+    private final List<String> items = new ArrayList<>();
+    private final Map<String, Integer> itemIds = new HashMap<>();
+
+    Builder(int passageCount) {
+      titles = new String[passageCount];
+      passageIds = new HashMap<>(passageCount * 2);
+      offsets = new int[passageCount + 1];
+      itemOffsets.add(0);
+    }
+
+    void addEdge(Link link) {
+      targets.add(passageIds.getOrDefault(link.getReference(), NO_PASSAGE));
+      linkTexts.add(link.getText());
+      for (Action<?> action : link.getActions()) {
+        switch (action.getType()) {
+          case HEALTHACTION, GOLDACTION, SCOREACTION -> number(action);
+          case INVENTORYACTION -> grantedItems.add(item(action.getValue().toString()));
+          default -> throw new IllegalStateException("Unknown action type " + action.getType());
+        }
+      }
+      // The order of the actions matters to health and gold, which the effect keeps as floors
+      LinkEffect effect = LinkEffect.compile(link.getActions());
+      healthDeltas.add(effect.getHealth());
+      goldDeltas.add(effect.getGold());
+      healthFloors.add(effect.getHealthFloor());
+      goldFloors.add(effect.getGoldFloor());
+      scoreDeltas.add(effect.getScore());
+      requiredItems.add(link.getRequiredItem() != null
+          ? item(link.getRequiredItem().getValue()) : NO_ITEM);
+      itemOffsets.add(grantedItems.size());
+    }
+
+    private int item(String name) {
+      return itemIds.computeIfAbsent(name, key -> {
+        items.add(key);
+        return items.size() - 1;
+      });
+    }
+
+    private static int number(Action<?> action) {
+      if (!(action.getValue() instanceof Integer value)) {
+        throw new StoryValidationException(
+            "Action " + action.getType() + " has a value that is not a number");
+      }
+      return value;
+    }
+  }
+
+  /**
+   * A growable array of ints.
+   */
+  private static final class IntList {
+
+    private int[] values = new int[16];
+    private int size;
+
+    void add(int value) {
+      if (size == values.length) {
+        values = Arrays.copyOf(values, size * 2);
+      }
+      values[size++] = value;
+    }
+
+    int size() {
+      return size;
+    }
+
+    int[] toArray() {
+      return Arrays.copyOf(values, size);
+    }
+  }
+}
@@ -0,0 +1,258 @@
+package edu.ntnu.idatt2001.paths.model.graph;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * The strongly connected components of a story graph: groups of passages where every passage can
+ * be reached from every other, which are the loops of the story. A component without exit edges
+ * is closed, and a player who enters it can never leave it.
+ *
+ * <p>The components are found with Tarjan's algorithm, written with explicit stacks instead of
+ * recursion so stories with hundreds of thousands of passages do not overflow the call stack.
+ * Components are numbered in the order Tarjan's algorithm completes them, so a component is
+ * numbered before every component that has an edge into it.
+ */
+public final class StronglyConnectedComponents {
+
+  private final StoryGraph graph;
+  private final int[] componentOf;
+  private final int componentCount;
+  private final int[] memberOffsets;
+  private final int[] members;
+  private final int[] exitOffsets;
+  private final int[] exitEdges;
+  private final boolean hasEndings;
+
+  private StronglyConnectedComponents(StoryGraph graph, int[] componentOf, int componentCount) {
+    this.graph = graph;
+    this.componentOf = componentOf;
+    this.componentCount = componentCount;
+    int passageCount = componentOf.length;
+    boolean endings = false;
+    for (int p = 0; p < passageCount && !endings; p++) {
+      endings = graph.getOutDegree(p) == 0;
+    }
+    this.hasEndings = endings;
+
+    // The passages of every component, grouped in the same way as the edges of a passage
+    memberOffsets = new int[componentCount + 1];
+    for (int component : componentOf) {
+      memberOffsets[component + 1]++;
+    }
+    for (int c = 0; c < componentCount; c++) {
+      memberOffsets[c + 1] += memberOffsets[c];
+    }
+    members = new int[passageCount];
+    int[] nextMember = Arrays.copyOf(memberOffsets, componentCount);
+    for (int p = 0; p < passageCount; p++) {
+      members[nextMember[componentOf[p]]++] = p;
+    }
+
+    // The edges that leave every component
+    exitOffsets = new int[componentCount + 1];
+    for (int p = 0; p < passageCount; p++) {
+      for (int edge = graph.offsets[p]; edge < graph.offsets[p + 1]; edge++) {
+        if (isExit(p, edge)) {
+          exitOffsets[componentOf[p] + 1]++;
+        }
+      }
+    }
+    for (int c = 0; c < componentCount; c++) {
+      exitOffsets[c + 1] += exitOffsets[c];
+    }
+    exitEdges = new int[exitOffsets[componentCount]];
+    int[] nextExit = Arrays.copyOf(exitOffsets, componentCount);
+    for (int p = 0; p < passageCount; p++) {
+      for (int edge = graph.offsets[p]; edge < graph.offsets[p + 1]; edge++) {
+        if (isExit(p, edge)) {
+          exitEdges[nextExit[componentOf[p]]++] = edge;
+        }
+      }
+    }
+  }
+
+  private boolean isExit(int passage, int edge) {
+    int target = graph.targets[edge];
+    return target != StoryGraph.NO_PASSAGE && componentOf[target] != componentOf[passage];
+  }
+
+  /**
+   * Finds the strongly connected components of a graph.
+   *
+   * @param graph the graph
+   * @return the components
+   */
+  public static StronglyConnectedComponents of(StoryGraph graph) {
+    int passageCount = graph.getPassageCount();
+    int[] offsets = graph.offsets;
+    int[] targets = graph.targets;
+    int[] index = new int[passageCount];
+    int[] lowLink = new int[passageCount];
+    int[] nextEdge = new int[passageCount];
+    boolean[] onStack = new boolean[passageCount];
+    int[] stack = new int[passageCount];
+    int[] calls = new int[passageCount];
+    int[] componentOf = new int[passageCount];
+    Arrays.fill(index, -1);
+    int stackSize = 0;
+    int counter = 0;
+    int componentCount = 0;
+
+    for (int root = 0; root < passageCount; root++) {
+      if (index[root] != -1) {
+        continue;
+      }
+      int depth = 0;
+      calls[depth++] = root;
+      index[root] = lowLink[root] = counter++;
+      nextEdge[root] = offsets[root];
+      stack[stackSize++] = root;
+      onStack[root] = true;
+
+      while (depth > 0) {
+        int passage = calls[depth - 1];
+        if (nextEdge[passage] < offsets[passage + 1]) {
+          int target = targets[nextEdge[passage]++];
+          if (target == StoryGraph.NO_PASSAGE) {
+            continue;
+          }
+          if (index[target] == -1) {
+            // Descend into the target, as the recursive algorithm would
+            calls[depth++] = target;
+            index[target] = lowLink[target] = counter++;
+            nextEdge[target] = offsets[target];
+            stack[stackSize++] = target;
+            onStack[target] = true;
+          } else if (onStack[target]) {
+            lowLink[passage] = Math.min(lowLink[passage], index[target]);
+          }
+          continue;
+        }
+
+        // All edges of the passage are done, return to the passage it was reached from
+        depth--;
+        if (depth > 0) {
+          int caller = calls[depth - 1];
+          lowLink[caller] = Math.min(lowLink[caller], lowLink[passage]);
+        }
+        if (lowLink[passage] == index[passage]) {
+          int member;
+          do {
+            member = stack[--stackSize];
+            onStack[member] = false;
+            componentOf[member] = componentCount;
+          } while (member != passage);
+          componentCount++;
+        }
+      }
+    }
+    return new StronglyConnectedComponents(graph, componentOf, componentCount);
+  }
+
+  /**
+   * Gets the graph the components are of.
+   *
+   * @return the graph
+   */
+  public StoryGraph getGraph() {
+    return graph;
+  }
+
+  /**
+   * Gets the number of components.
+   *
+   * @return the number of components
+   */
+  public int getComponentCount() {
+    return componentCount;
+  }
+
+  /**
+   * Gets the component a passage is in.
+   *
+   * @param passage the number of the passage
+   * @return the number of the component
+   */
+  public int getComponent(int passage) {
+    return componentOf[passage];
+  }
+
+  /**
+   * Gets the number of passages in a component.
+   *
+   * @param component the number of the component
+   * @return the number of passages
+   */
+  public int getSize(int component) {
+    return memberOffsets[component + 1] - memberOffsets[component];
+  }
+
+  /**
+   * Gets the passages in a component.
+   *
+   * @param component the number of the component
+   * @return the numbers of the passages, in story order
+   */
+  public int[] getMembers(int component) {
+    return Arrays.copyOfRange(members, memberOffsets[component], memberOffsets[component + 1]);
+  }
+
+  /**
+   * Gets the edges that lead out of a component.
+   *
+   * @param component the number of the component
+   * @return the numbers of the edges
+   */
+  public int[] getExitEdges(int component) {
+    return Arrays.copyOfRange(exitEdges, exitOffsets[component], exitOffsets[component + 1]);
+  }
+
+  /**
+   * Checks if a component has no edges leading out of it.
+   *
+   * @param component the number of the component
+   * @return true if the component is closed
+   */
+  public boolean isClosed(int component) {
+    return exitOffsets[component] == exitOffsets[component + 1];
+  }
+
+  /**
+   * Checks if a component is a loop a player can get stuck in: a closed component of more than
+   * one passage. When the story has no passages without links, it is won through the goals of
+   * the game, and the closed component of the opening passage is the story itself, not a trap.
+   *
+   * @param component the number of the component
+   * @return true if the component is a trap
+   */
+  public boolean isTrap(int component) {
+    if (getSize(component) < 2 || !isClosed(component)) {
+      return false;
+    }
+    int opening = graph.getOpeningPassage();
+    return opening == StoryGraph.NO_PASSAGE || componentOf[opening] != component
+        || hasEndings;
+  }
+
+  /**
+   * Gets the titles of the passages of every trap loop.
+   *
+   * @return one list of titles for every trap, in story order
+   * @see #isTrap(int)
+   */
+  public List<List<String>> getTrapLoops() {
+    List<List<String>> traps = new ArrayList<>();
+    for (int c = 0; c < componentCount; c++) {
+      if (isTrap(c)) {
+        List<String> titles = new ArrayList<>(getSize(c));
+        for (int p : getMembers(c)) {
+          titles.add(graph.getTitle(p));
+        }
+        traps.add(titles);
+      }
+    }
+    return traps;
+  }
+}
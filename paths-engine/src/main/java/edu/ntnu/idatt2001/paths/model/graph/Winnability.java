@@ -0,0 +1,112 @@
+package edu.ntnu.idatt2001.paths.model.graph;
+
+import edu.ntnu.idatt2001.paths.model.game.GameDifficultyEnum;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Whether the goals of a game can be reached in a story at a difficulty, and the shortest way to
+ * reach them. Made by a {@link WinnabilitySolver}.
+ */
+public final class Winnability {
+
+  /**
+   * The answer of a search.
+   */
+  public enum Verdict {
+    /**
+     * The goals can be reached.
+     */
+    WINNABLE,
+    /**
+     * The goals can not be reached, whatever links the player follows.
+     */
+    UNWINNABLE,
+    /**
+     * The search ran out of memory or time before it found an answer.
+     */
+    UNKNOWN
+  }
+
+  private final StoryGraph graph;
+  private final GameDifficultyEnum difficulty;
+  private final Verdict verdict;
+  private final int[] edges;
+  private final int exploredStates;
+
+  Winnability(StoryGraph graph, GameDifficultyEnum difficulty, Verdict verdict, int[] edges,
+      int exploredStates) {
+    this.graph = graph;
+    this.difficulty = difficulty;
+    this.verdict = verdict;
+    this.edges = edges;
+    this.exploredStates = exploredStates;
+  }
+
+  /**
+   * Gets the difficulty the game was played at.
+   *
+   * @return the difficulty
+   */
+  public GameDifficultyEnum getDifficulty() {
+    return difficulty;
+  }
+
+  /**
+   * Gets the answer of the search.
+   *
+   * @return the verdict
+   */
+  public Verdict getVerdict() {
+    return verdict;
+  }
+
+  /**
+   * Checks if the goals can be reached.
+   *
+   * @return true if the verdict is {@link Verdict#WINNABLE}
+   */
+  public boolean isWinnable() {
+    return verdict == Verdict.WINNABLE;
+  }
+
+  /**
+   * Gets the links of the shortest way to reach the goals, as edges of the graph.
+   *
+   * @return the numbers of the edges in the order they are followed, empty unless winnable
+   */
+  public int[] getEdges() {
+    return edges.clone();
+  }
+
+  /**
+   * Gets the texts of the links of the shortest way to reach the goals.
+   *
+   * @return the link texts in the order they are followed, empty unless winnable
+   */
+  public List<String> getChoices() {
+    List<String> choices = new ArrayList<>(edges.length);
+    for (int edge : edges) {
+      choices.add(graph.getLinkText(edge));
+    }
+    return choices;
+  }
+
+  /**
+   * Gets the number of distinct states the search visited.
+   *
+   * @return the number of states
+   */
+  public int getExploredStates() {
+    return exploredStates;
+  }
+
+  @Override
+  public String toString() {
+    return switch (verdict) {
+      case WINNABLE -> difficulty + ": winnable in " + edges.length + " choices";
+      case UNWINNABLE -> difficulty + ": not winnable";
+      case UNKNOWN -> difficulty + ": unknown after " + exploredStates + " states";
+    };
+  }
+}
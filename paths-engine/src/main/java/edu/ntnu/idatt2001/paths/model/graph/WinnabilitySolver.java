@@ -0,0 +1,264 @@
+package edu.ntnu.idatt2001.paths.model.graph;
+
+import edu.ntnu.idatt2001.paths.model.game.GameDifficultyEnum;
+import edu.ntnu.idatt2001.paths.model.goals.Goal;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.logging.Logger;
+
+/**
+ * Finds out whether the goals of a game can be reached in a story, before anyone plays it, by
+ * searching the states the game can be in: the passage, the health, gold and score of the player,
+ * the items in the inventory and which links have had their actions performed. The search is an
+ * A* search, where a state is expanded in the order of the links followed to reach it plus a lower
+ * bound on the links still to follow, so the first winning state found is reached with the fewest
+ * choices.
+ *
+ * <p>Visited states are kept packed in a {@link StateTable}. The search gives up with the verdict
+ * {@link Winnability.Verdict#UNKNOWN} when the table outgrows the memory budget or the search
+ * outlasts the time budget.
+ */
+public final class WinnabilitySolver {
+
+  /**
+   * The memory budget of a solver made without one, in bytes.
+   */
+  public static final long DEFAULT_MEMORY_BUDGET = 256L * 1024 * 1024;
+
+  /**
+   * The time budget of a solver made without one.
+   */
+  public static final Duration DEFAULT_TIME_BUDGET = Duration.ofSeconds(10);
+
+  private static final Logger logger = Logger.getLogger(WinnabilitySolver.class.getName());
+
+  // The most states a table may hold, so its arrays can be indexed with ints
+  private static final int MAX_STATES = 1 << 28;
+
+  // Ints of bookkeeping for every state: parent, edge and depth, table slots and queue entries
+  private static final int BYTES_PER_STATE_OVERHEAD = 3 * 4 + 4 * 4 + 2 * 8;
+
+  private final long memoryBudget;
+  private final Duration timeBudget;
+
+  /**
+   * Instantiates a new Winnability solver with the default budgets.
+   */
+  public WinnabilitySolver() {
+    this(DEFAULT_MEMORY_BUDGET, DEFAULT_TIME_BUDGET);
+  }
+
+  /**
+   * Instantiates a new Winnability solver.
+   *
+   * @param memoryBudget the most memory a search may use for its states, in bytes
+   * @param timeBudget   the longest time a search may take
+   */
+  public WinnabilitySolver(long memoryBudget, Duration timeBudget) {
+    if (memoryBudget <= 0) {
+      throw new IllegalArgumentException("Memory budget must be positive");
+    }
+    if (timeBudget == null || timeBudget.isNegative() || timeBudget.isZero()) {
+      throw new IllegalArgumentException("Time budget must be positive");
+    }
+    this.memoryBudget = memoryBudget;
+    this.timeBudget = timeBudget;
+  }
+
+  /**
+   * Finds out whether the goals can be reached at a difficulty.
+   *
+   * @param graph      the graph of the story
+   * @param goals      the goals of the game
+   * @param difficulty the difficulty the player starts at
+   * @return the answer, with the shortest winning choices if there are any
+   * @throws IllegalArgumentException if a goal is of an unknown kind
+   */
+  public Winnability solve(StoryGraph graph, List<Goal<?>> goals, GameDifficultyEnum difficulty) {
+    if (difficulty == null) {
+      throw new IllegalArgumentException("Difficulty can not be null");
+    }
+    return solve(new StateSpace(graph, goals), difficulty);
+  }
+
+  /**
+   * Finds out whether the goals can be reached at every difficulty.
+   *
+   * @param graph the graph of the story
+   * @param goals the goals of the game
+   * @return the answer for every difficulty
+   * @throws IllegalArgumentException if a goal is of an unknown kind
+   */
+  public Map<GameDifficultyEnum, Winnability> solveAll(StoryGraph graph, List<Goal<?>> goals) {
+    StateSpace space = new StateSpace(graph, goals);
+    Map<GameDifficultyEnum, Winnability> answers = new EnumMap<>(GameDifficultyEnum.class);
+    for (GameDifficultyEnum difficulty : GameDifficultyEnum.values()) {
+      Winnability same = null;
+      for (Winnability answer : answers.values()) {
+        if (sameStart(answer.getDifficulty(), difficulty)) {
+          same = answer;
+        }
+      }
+      answers.put(difficulty, same == null ? solve(space, difficulty)
+          : new Winnability(graph, difficulty, same.getVerdict(), same.getEdges(),
+              same.getExploredStates()));
+    }
+    return answers;
+  }
+
+  private static boolean sameStart(GameDifficultyEnum a, GameDifficultyEnum b) {
+    return a.getDefaultHealth() == b.getDefaultHealth() && a.getDefaultGold() == b.getDefaultGold()
+        && a.getDefaultScore() == b.getDefaultScore();
+  }
+
+  private Winnability solve(StateSpace space, GameDifficultyEnum difficulty) {
+    StoryGraph graph = space.getGraph();
+    if (graph.getOpeningPassage() == StoryGraph.NO_PASSAGE || space.isGoalItemMissing()) {
+      return new Winnability(graph, difficulty, Winnability.Verdict.UNWINNABLE, new int[0], 0);
+    }
+    long start = System.nanoTime();
+    long deadline = start + timeBudget.toNanos();
+    int width = space.getWidth();
+    long maxStates = memoryBudget / (width * 8L + BYTES_PER_STATE_OVERHEAD);
+    StateTable table = new StateTable(width,
+        (int) Math.max(1, Math.min(maxStates, Math.min(MAX_STATES, Integer.MAX_VALUE / width))));
+    Search search = new Search();
+    long[] state = new long[width];
+    long[] next = new long[width];
+
+    space.start(difficulty, state);
+    int estimate = space.estimate(state);
+    if (estimate != Integer.MAX_VALUE) {
+      search.add(table.add(state), -1, -1, 0, estimate);
+    }
+    Winnability.Verdict verdict = Winnability.Verdict.UNWINNABLE;
+    int[] edges = new int[0];
+    int expanded = 0;
+    search:
+    while (!search.isEmpty()) {
+      int index = search.poll();
+      if (search.closed.get(index)) {
+        continue;
+      }
+      search.closed.set(index);
+      table.get(index, state);
+      int depth = search.depths[index];
+      if (depth > 0 && space.isWon(state)) {
+        verdict = Winnability.Verdict.WINNABLE;
+        edges = search.path(index);
+        break;
+      }
+      if ((++expanded & 0xFFF) == 0 && System.nanoTime() - deadline > 0) {
+        verdict = Winnability.Verdict.UNKNOWN;
+        break;
+      }
+      int passage = StateSpace.passage(state);
+      for (int edge = graph.offsets[passage]; edge < graph.offsets[passage + 1]; edge++) {
+        if (space.follow(state, edge, next) != StateSpace.MOVED) {
+          continue;
+        }
+        estimate = space.estimate(next);
+        if (estimate == Integer.MAX_VALUE) {
+          continue;
+        }
+        int child = table.add(next);
+        if (child == StateTable.FULL) {
+          verdict = Winnability.Verdict.UNKNOWN;
+          break search;
+        }
+        if (child >= 0) {
+          search.add(child, index, edge, depth + 1, estimate);
+        } else if (depth + 1 < search.depths[-1 - child] && !search.closed.get(-1 - child)) {
+          search.improve(-1 - child, index, edge, depth + 1, estimate);
+        }
+      }
+    }
+    int explored = table.size();
+    Winnability.Verdict answer = verdict;
+    logger.fine(() -> "Winnability at " + difficulty + " is " + answer + " after " + explored
+        + " states in " + (System.nanoTime() - start) / 1_000_000 + " ms");
+    return new Winnability(graph, difficulty, verdict, edges, explored);
+  }
+
+  /**
+   * How every state was reached, and the queue of states to expand. Queue entries are the number
+   * of links to follow to a win, as estimated, in the high half of a long and the number of the
+   * state in the low half, kept in a binary heap.
+   */
+  private static final class Search {
+
+    private final BitSet closed = new BitSet();
+    private int[] parents = new int[1024];
+    private int[] edges = new int[1024];
+    private int[] depths = new int[1024];
+    private long[] heap = new long[1024];
+    private int heapSize;
+
+    void add(int index, int parent, int edge, int depth, int estimate) {
+      if (index == parents.length) {
+        parents = Arrays.copyOf(parents, index * 2);
+        edges = Arrays.copyOf(edges, index * 2);
+        depths = Arrays.copyOf(depths, index * 2);
+      }
+      improve(index, parent, edge, depth, estimate);
+    }
+
+    void improve(int index, int parent, int edge, int depth, int estimate) {
+      parents[index] = parent;
+      edges[index] = edge;
+      depths[index] = depth;
+      push((long) (depth + estimate) << 32 | index);
+    }
+
+    boolean isEmpty() {
+      return heapSize == 0;
+    }
+
+    int[] path(int index) {
+      int[] path = new int[depths[index]];
+      for (int i = path.length - 1; i >= 0; i--) {
+        path[i] = edges[index];
+        index = parents[index];
+      }
+      return path;
+    }
+
+    private void push(long entry) {
+      if (heapSize == heap.length) {
+        heap = Arrays.copyOf(heap, heapSize * 2);
+      }
+      int i = heapSize++;
+      while (i > 0 && heap[(i - 1) >>> 1] > entry) {
+        heap[i] = heap[(i - 1) >>> 1];
+        i = (i - 1) >>> 1;
+      }
+      heap[i] = entry;
+    }
+
+    int poll() {
+      long top = heap[0];
+      long last = heap[--heapSize];
+      int i = 0;
+      while (true) {
+        int child = 2 * i + 1;
+        if (child >= heapSize) {
+          break;
+        }
+        if (child + 1 < heapSize && heap[child + 1] < heap[child]) {
+          child++;
+        }
+        if (heap[child] >= last) {
+          break;
+        }
+        heap[i] = heap[child];
+        i = child;
+      }
+      heap[i] = last;
+      return (int) top;
+    }
+  }
+}
@@ -1,11 +1,13 @@
 package edu.ntnu.idatt2001.paths.model.player;
 
+import edu.ntnu.idatt2001.paths.model.PassageImage;
+import edu.ntnu.idatt2001.paths.model.actions.LinkEffect;
 import edu.ntnu.idatt2001.paths.model.exceptions.PlayerValidationException;
 import edu.ntnu.idatt2001.paths.model.validations.PlayerValidator;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.logging.Level;
 import java.util.logging.Logger;
-import javafx.scene.image.Image;
 
 /**
  * The Player class. Represents who is playing the game and what they own. The player has a name,
@@ -20,7 +22,7 @@ public class Player {
   private int health;
   private int score;
   private int gold;
-  private Image image;
+  private PassageImage image;
 
   /**
    * The builder constructor for the Player class.
@@ -45,11 +47,13 @@ public class Player {
    * @param score     int - number representing the player's starting score
    * @param gold      int - positive number representing the player's amount of starting gold
    * @param inventory List - list of starting items the player has represented by strings
+   * @param image     PassageImage - reference to the image of the player, may be null
    * @throws NullPointerException     thrown if name or inventory is null or contains null values
    * @throws IllegalArgumentException thrown if name is blank, health is zero or lower, gold is
    *                                  negative
    */
-  public Player(String name, int health, int score, int gold, List<String> inventory, Image image) {
+  public Player(String name, int health, int score, int gold, List<String> inventory,
+      PassageImage image) {
 
     PlayerValidator.validatePlayer(name, health, score, gold, inventory);
     (this.inventory = new ArrayList<>()).addAll(
@@ -72,7 +76,7 @@ public class Player {
    * @throws PlayerValidationException thrown if name is blank, or if Image is Null health is zero
    *                                   or lower or if gold is negative or if name is null
    */
-  public Player(String name, int health, int score, int gold, Image image) {
+  public Player(String name, int health, int score, int gold, PassageImage image) {
     this(name, health, score, gold, new ArrayList<>(), image);
   }
 
@@ -113,6 +117,32 @@ public class Player {
     );
   }
 
+  /**
+   * Restores a player as it was during a game, which may be dead or have a negative score. The
+   * name and inventory are validated as for a new player.
+   *
+   * @param name      String - name of the player
+   * @param health    int - health of the player, zero if the player is dead
+   * @param score     int - score of the player
+   * @param gold      int - gold of the player
+   * @param inventory List - items the player has
+   * @param image     PassageImage - reference to the image of the player, may be null
+   * @return the player
+   * @throws IllegalArgumentException thrown if the name or inventory is invalid, or health or gold
+   *                                  is negative
+   */
+  public static Player restore(String name, int health, int score, int gold,
+      List<String> inventory, PassageImage image) {
+    if (health < 0 || gold < 0) {
+      throw new PlayerValidationException("Health and gold can not be negative");
+    }
+    Player player = new Player(name, 1, 0, 0, inventory, image);
+    player.health = health;
+    player.score = score;
+    player.gold = gold;
+    return player;
+  }
+
   /**
    * Retrieves the name of the player
    *
@@ -205,6 +235,24 @@ public class Player {
     LOGGER.info("Gold adjusted. Current gold: " + this.gold);
   }
 
+  /**
+   * Applies the fused actions of a link, which changes the player just like executing the actions
+   * one after another.
+   *
+   * @param effect LinkEffect - the fused actions
+   */
+  public void apply(LinkEffect effect) {
+    health = effect.health(health);
+    gold = effect.gold(gold);
+    score += effect.getScore();
+    for (int i = 0; i < effect.getItemCount(); i++) {
+      inventory.add(effect.getItem(i));
+    }
+    if (LOGGER.isLoggable(Level.FINE)) {
+      LOGGER.fine("Link effect applied. " + this);
+    }
+  }
+
   /**
    * Retrieves the inventory of the player by aggregation
    *
@@ -229,9 +277,9 @@ public class Player {
   /**
    * Method to get the image of a player
    *
-   * @return the inventory of the player
+   * @return the reference to the image of the player
    */
-  public Image getImage() {
+  public PassageImage getImage() {
     return image;
   }
 
@@ -240,7 +288,7 @@ public class Player {
    *
    * @param image the new image
    */
-  public void setImage(Image image) {
+  public void setImage(PassageImage image) {
     this.image = image;
   }
 
@@ -1,8 +1,8 @@
 package edu.ntnu.idatt2001.paths.model.player;
 
+import edu.ntnu.idatt2001.paths.model.PassageImage;
 import edu.ntnu.idatt2001.paths.model.game.GameDifficultyEnum;
 import java.util.List;
-import javafx.scene.image.Image;
 
 /**
  * The class Player builder. This class is used to build a player object with the builder pattern.
@@ -15,7 +15,7 @@ public class PlayerBuilder {
   private int gold;
   private List<String> inventory;
 
-  private Image image;
+  private PassageImage image;
 
   /**
    * Instantiates a new Player builder. Sets the default values for the player.
@@ -153,7 +153,7 @@ public class PlayerBuilder {
    *
    * @return the inventory of the player
    */
-  public Image getImage() {
+  public PassageImage getImage() {
     return image;
   }
 
@@ -163,7 +163,7 @@ public class PlayerBuilder {
    * @param image image to the player
    * @return the image of the player
    */
-  public PlayerBuilder setImage(Image image) {
+  public PlayerBuilder setImage(PassageImage image) {
     this.image = image;
     return this;
   }
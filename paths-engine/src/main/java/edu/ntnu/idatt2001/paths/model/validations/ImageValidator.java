@@ -4,18 +4,25 @@ import edu.ntnu.idatt2001.paths.model.exceptions.ImageValidationException;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileNotFoundException;
+import java.io.IOException;
 import java.io.InputStream;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.Arrays;
 import java.util.List;
-import javafx.scene.image.Image;
 
 public class ImageValidator {
 
   private static final List<String> VALID_EXTENSIONS = Arrays.asList("jpg", "jpeg", "png", "gif",
       "bmp");
   private static final long MAX_FILE_SIZE = 1024 * 1024 * 5; // 5 MB
+  private static final int HEADER_LENGTH = 8;
+  private static final byte[] PNG_SIGNATURE = {(byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1A,
+      '\n'};
+  private static final byte[] JPEG_SIGNATURE = {(byte) 0xFF, (byte) 0xD8, (byte) 0xFF};
+  private static final byte[] GIF87_SIGNATURE = {'G', 'I', 'F', '8', '7', 'a'};
+  private static final byte[] GIF89_SIGNATURE = {'G', 'I', 'F', '8', '9', 'a'};
+  private static final byte[] BMP_SIGNATURE = {'B', 'M'};
 
   public static void validateImage(File imageFile) throws ImageValidationException {
     if (imageFile == null) {
@@ -33,6 +40,14 @@ public class ImageValidator {
     if (!isValidFileSize(imageFile)) {
       throw new ImageValidationException("Image file size exceeds the limit");
     }
+
+    try (InputStream imageStream = new FileInputStream(imageFile)) {
+      if (!hasImageHeader(imageStream)) {
+        throw new ImageValidationException("Invalid image: " + imageFile.getName());
+      }
+    } catch (IOException e) {
+      throw new ImageValidationException("Image file could not be read");
+    }
   }
 
   private static boolean isValidImageExtension(String fileName) {
@@ -52,6 +67,14 @@ public class ImageValidator {
     return imageFile.length() <= MAX_FILE_SIZE;
   }
 
+  /**
+   * Validates an image path as written in a story file. The image is looked up on the classpath
+   * and then in the uploaded images' directory, and only its header is read, the image is not
+   * decoded.
+   *
+   * @param imagePath the path of the image
+   * @throws ImageValidationException if the image can not be found or is not a supported image
+   */
   public static void validateImage(String imagePath) throws ImageValidationException {
     InputStream imageStream = ImageValidator.class.getResourceAsStream(imagePath);
     if (imageStream == null) {
@@ -69,11 +92,38 @@ public class ImageValidator {
       }
     }
 
-    Image image = new Image(imageStream);
-    if (image.isError()) {
-      throw new ImageValidationException("Invalid image: " + imagePath);
+    try (InputStream stream = imageStream) {
+      if (!hasImageHeader(stream)) {
+        throw new ImageValidationException("Invalid image: " + imagePath);
+      }
+    } catch (IOException e) {
+      throw new ImageValidationException("Image could not be read: " + imagePath);
     }
   }
 
+  /**
+   * Checks if a stream starts with the signature of a PNG, JPEG, GIF or BMP image.
+   *
+   * @param imageStream the stream to read the header from
+   * @return true if the stream starts with a supported image signature
+   * @throws IOException if the stream can not be read
+   */
+  static boolean hasImageHeader(InputStream imageStream) throws IOException {
+    byte[] header = imageStream.readNBytes(HEADER_LENGTH);
+    return startsWith(header, PNG_SIGNATURE) || startsWith(header, JPEG_SIGNATURE)
+        || startsWith(header, GIF87_SIGNATURE) || startsWith(header, GIF89_SIGNATURE)
+        || startsWith(header, BMP_SIGNATURE);
+  }
 
+  private static boolean startsWith(byte[] header, byte[] signature) {
+    if (header.length < signature.length) {
+      return false;
+    }
+    for (int i = 0; i < signature.length; i++) {
+      if (header[i] != signature[i]) {
+        return false;
+      }
+    }
+    return true;
+  }
 }
@@ -2,6 +2,7 @@ package edu.ntnu.idatt2001.paths.model.validations;
 
 import edu.ntnu.idatt2001.paths.model.Link;
 import edu.ntnu.idatt2001.paths.model.exceptions.PassageValidationException;
+import edu.ntnu.idatt2001.paths.model.file.Utf8Slice;
 import java.util.List;
 
 /**
@@ -16,7 +17,7 @@ public class PassageValidator {
    * @param content the content
    * @throws PassageValidationException the passage validation exception
    */
-  public static void validatePassage(String title, String content, List<Link> links)
+  public static void validatePassage(String title, CharSequence content, List<Link> links)
       throws PassageValidationException {
     validateTitleAndContent(title, content);
     for (Link link : links) {
@@ -47,22 +48,40 @@ public class PassageValidator {
     }
   }
 
-  public static void validatePassageWithOutLinks(String title, String content)
+  public static void validatePassageWithOutLinks(String title, CharSequence content)
       throws PassageValidationException {
     validateTitleAndContent(title, content);
   }
 
-  private static void validateTitleAndContent(String title, String content) {
+  private static void validateTitleAndContent(String title, CharSequence content) {
     if (title == null || title.trim().isEmpty()) {
       throw new PassageValidationException("Title cannot be null or blank");
     }
-    if (content == null || content.trim().isEmpty()) {
+    if (content == null || isBlank(content)) {
       throw new PassageValidationException("Content cannot be null or blank");
     }
-    if (content.startsWith("|") || content.startsWith("::") || content.startsWith("^")
-        || content.startsWith("[") || content.startsWith("{")) {
+    if (startsWith(content, "|") || startsWith(content, "::") || startsWith(content, "^")
+        || startsWith(content, "[") || startsWith(content, "{")) {
       throw new PassageValidationException(
           "Content can not start with symbols '|', '::', '^', '[', or '{'");
     }
   }
+
+  /**
+   * Checks if the content is blank. Contents that have not been decoded yet are checked without
+   * decoding them.
+   */
+  private static boolean isBlank(CharSequence content) {
+    if (content instanceof Utf8Slice slice) {
+      return slice.isBlank();
+    }
+    return content.toString().trim().isEmpty();
+  }
+
+  private static boolean startsWith(CharSequence content, String prefix) {
+    if (content instanceof Utf8Slice slice) {
+      return slice.startsWith(prefix);
+    }
+    return content.toString().startsWith(prefix);
+  }
 }
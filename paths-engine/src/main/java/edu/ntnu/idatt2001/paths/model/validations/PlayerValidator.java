@@ -1,9 +1,11 @@
 package edu.ntnu.idatt2001.paths.model.validations;
 
 import edu.ntnu.idatt2001.paths.model.exceptions.PlayerValidationException;
+import java.io.BufferedReader;
 import java.io.IOException;
-import java.nio.file.Files;
-import java.nio.file.Paths;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
 
 /**
@@ -12,8 +14,9 @@ import java.util.List;
 public class PlayerValidator {
 
   // These could be placed in a configuration file or a constants class.
-  private static final String BAD_ENGLISH_USER_NAMES_PATH = "src/main/resources/badUserNames/badEnglishUserNames";
-  private static final String BAD_NORWEGIAN_USER_NAMES_PATH = "src/main/resources/badUserNames/badNorwegianUserNames";
+  // Read from the classpath, so they are found wherever the engine is run from
+  private static final String BAD_ENGLISH_USER_NAMES_PATH = "/badUserNames/badEnglishUserNames";
+  private static final String BAD_NORWEGIAN_USER_NAMES_PATH = "/badUserNames/badNorwegianUserNames";
   private static final int MAX_INVENTORY_SIZE = 100;
 
   private static final List<String> badEnglishUserNames;
@@ -21,13 +24,24 @@ public class PlayerValidator {
 
   static {
     try {
-      badEnglishUserNames = Files.readAllLines(Paths.get(BAD_ENGLISH_USER_NAMES_PATH));
-      badNorwegianUserNames = Files.readAllLines(Paths.get(BAD_NORWEGIAN_USER_NAMES_PATH));
+      badEnglishUserNames = readLines(BAD_ENGLISH_USER_NAMES_PATH);
+      badNorwegianUserNames = readLines(BAD_NORWEGIAN_USER_NAMES_PATH);
     } catch (IOException e) {
       throw new ExceptionInInitializerError("Error reading username files");
     }
   }
 
+  private static List<String> readLines(String resource) throws IOException {
+    InputStream stream = PlayerValidator.class.getResourceAsStream(resource);
+    if (stream == null) {
+      throw new IOException("Username file not found: " + resource);
+    }
+    try (BufferedReader reader = new BufferedReader(
+        new InputStreamReader(stream, StandardCharsets.UTF_8))) {
+      return reader.lines().toList();
+    }
+  }
+
   /**
    * Validate player.
    *
@@ -50,11 +50,10 @@ public class StoryValidator {
   }
 
   public static void validateGetPassage(Link link, Map<Link, Passage> passages) {
-    String reference = link.getReference();
-    boolean exists = passages.values().stream()
-        .anyMatch(p -> p.getTitle().equals(reference));
-    if (!exists) {
-      throw new StoryValidationException("No passage exists for the given link: " + reference);
+    // Links are equal when they have the same reference, so the link finds the passage's key
+    if (!passages.containsKey(link)) {
+      throw new StoryValidationException(
+          "No passage exists for the given link: " + link.getReference());
     }
   }
 
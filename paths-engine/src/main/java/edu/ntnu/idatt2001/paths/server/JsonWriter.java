@@ -0,0 +1,104 @@
+package edu.ntnu.idatt2001.paths.server;
+
+/**
+ * Writes the JSON documents the play server answers with. Values are written in the order they
+ * are given, and the writer puts the commas between them.
+ */
+final class JsonWriter {
+
+  private final StringBuilder json = new StringBuilder(256);
+  private boolean first = true;
+
+  JsonWriter beginObject() {
+    separate();
+    json.append('{');
+    first = true;
+    return this;
+  }
+
+  JsonWriter endObject() {
+    json.append('}');
+    first = false;
+    return this;
+  }
+
+  JsonWriter beginArray() {
+    separate();
+    json.append('[');
+    first = true;
+    return this;
+  }
+
+  JsonWriter endArray() {
+    json.append(']');
+    first = false;
+    return this;
+  }
+
+  JsonWriter name(String name) {
+    separate();
+    appendString(name);
+    json.append(':');
+    first = true;
+    return this;
+  }
+
+  JsonWriter value(String value) {
+    separate();
+    if (value == null) {
+      json.append("null");
+    } else {
+      appendString(value);
+    }
+    first = false;
+    return this;
+  }
+
+  JsonWriter value(long value) {
+    separate();
+    json.append(value);
+    first = false;
+    return this;
+  }
+
+  JsonWriter field(String name, String value) {
+    return name(name).value(value);
+  }
+
+  JsonWriter field(String name, long value) {
+    return name(name).value(value);
+  }
+
+  private void separate() {
+    if (!first) {
+      json.append(',');
+    }
+  }
+
+  private void appendString(String value) {
+    json.append('"');
+    for (int i = 0; i < value.length(); i++) {
+      char c = value.charAt(i);
+      switch (c) {
+        case '"' -> json.append("\\\"");
+        case '\\' -> json.append("\\\\");
+        case '\n' -> json.append("\\n");
+        case '\r' -> json.append("\\r");
+        case '\t' -> json.append("\\t");
+        default -> {
+          if (c < 0x20) {
+            json.append(String.format("\\u%04x", (int) c));
+          } else {
+            json.append(c);
+          }
+        }
+      }
+    }
+    json.append('"');
+  }
+
+  @Override
+  public String toString() {
+    return json.toString();
+  }
+}
@@ -0,0 +1,410 @@
+package edu.ntnu.idatt2001.paths.server;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import edu.ntnu.idatt2001.paths.model.Link;
+import edu.ntnu.idatt2001.paths.model.Passage;
+import edu.ntnu.idatt2001.paths.model.StoryFileManager;
+import edu.ntnu.idatt2001.paths.model.game.GameDifficultyEnum;
+import edu.ntnu.idatt2001.paths.model.game.Session;
+import edu.ntnu.idatt2001.paths.model.game.SessionManager;
+import edu.ntnu.idatt2001.paths.model.player.Player;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.LogManager;
+import java.util.logging.Logger;
+
+/**
+ * Serves the games of a {@link SessionManager} over HTTP, answering with JSON. Every request is
+ * handled on its own virtual thread when the JVM has them, and on a thread of a pool otherwise.
+ *
+ * <pre>
+ * GET    /stories                        the titles of the stories
+ * POST   /sessions?story=&amp;player=&amp;difficulty=  starts a session, answers with its passage
+ * GET    /sessions/{id}                  the passage the player is at
+ * POST   /sessions/{id}/links/{index}    follows a link of the passage
+ * GET    /sessions/{id}/player           the stats and inventory of the player
+ * DELETE /sessions/{id}                  ends the session
+ * </pre>
+ *
+ * <p>Parameters are read from the query, or from a form in the body of a POST. A request that is
+ * wrong is answered with 400, one for a story or session that does not exist with 404, one that
+ * breaks the rules of the game with 409, and one for a session when the manager is full with 503.
+ * Sessions that are not used for a while are ended.
+ */
+public final class PlayServer {
+
+  /**
+   * The number of threads that handle requests when the JVM has no virtual threads.
+   */
+  public static final int FALLBACK_THREADS = 64;
+
+  /**
+   * How long a session may go unused before it is ended, unless told otherwise.
+   */
+  public static final Duration DEFAULT_MAX_IDLE = Duration.ofMinutes(30);
+
+  private static final Logger logger = Logger.getLogger(PlayServer.class.getName());
+  private static final int BACKLOG = 4096;
+
+  static {
+    // The server writes the headers and the body of an answer apart, and with Nagle's algorithm
+    // the body waits for the client to acknowledge the headers, which it may delay by 40 ms
+    if (System.getProperty("sun.net.httpserver.nodelay") == null) {
+      System.setProperty("sun.net.httpserver.nodelay", "true");
+    }
+  }
+
+  private final SessionManager sessionManager;
+  private final HttpServer server;
+  private final ExecutorService executor;
+  private final ScheduledExecutorService reaper;
+
+  /**
+   * Instantiates a new Play server that ends sessions after the default idle time.
+   *
+   * @param sessionManager the sessions to serve
+   * @param address        the address to listen on, with port 0 for any free port
+   * @throws IOException if the server can not listen on the address
+   */
+  public PlayServer(SessionManager sessionManager, InetSocketAddress address)
+      throws IOException {
+    this(sessionManager, address, DEFAULT_MAX_IDLE);
+  }
+
+  /**
+   * Instantiates a new Play server.
+   *
+   * @param sessionManager the sessions to serve
+   * @param address        the address to listen on, with port 0 for any free port
+   * @param maxIdle        how long a session may go unused before it is ended
+   * @throws IOException if the server can not listen on the address
+   */
+  public PlayServer(SessionManager sessionManager, InetSocketAddress address, Duration maxIdle)
+      throws IOException {
+    if (sessionManager == null) {
+      throw new IllegalArgumentException("Session manager can not be null");
+    }
+    this.sessionManager = sessionManager;
+    this.server = HttpServer.create(address, BACKLOG);
+    this.executor = newThreadPerTaskExecutor(FALLBACK_THREADS);
+    this.server.setExecutor(executor);
+    this.server.createContext("/", this::handle);
+    this.reaper = Executors.newSingleThreadScheduledExecutor(task -> {
+      Thread thread = new Thread(task, "paths-session-reaper");
+      thread.setDaemon(true);
+      return thread;
+    });
+    long period = Math.max(1, maxIdle.toMillis() / 2);
+    reaper.scheduleAtFixedRate(() -> {
+      int ended = sessionManager.endIdleSessions(maxIdle);
+      if (ended > 0) {
+        logger.info(ended + " idle sessions ended");
+      }
+    }, period, period, TimeUnit.MILLISECONDS);
+  }
+
+  /**
+   * Makes an executor that runs every task on a new virtual thread. Virtual threads are looked up
+   * at runtime, so the engine builds on Java 17, and on a JVM without them the tasks are run by a
+   * pool of platform threads.
+   *
+   * @param fallbackThreads the number of threads in the pool used without virtual threads
+   * @return the executor
+   */
+  public static ExecutorService newThreadPerTaskExecutor(int fallbackThreads) {
+    try {
+      return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor")
+          .invoke(null);
+    } catch (ReflectiveOperationException | UnsupportedOperationException e) {
+      logger.info("Virtual threads are not available, using " + fallbackThreads + " threads");
+      return Executors.newFixedThreadPool(fallbackThreads);
+    }
+  }
+
+  /**
+   * Starts serving requests.
+   */
+  public void start() {
+    server.start();
+    logger.info("Play server listening on port " + getPort());
+  }
+
+  /**
+   * Stops serving requests, and waits at most a second for the requests being handled.
+   */
+  public void stop() {
+    server.stop(1);
+    reaper.shutdownNow();
+    executor.shutdown();
+  }
+
+  /**
+   * Gets the port the server listens on.
+   *
+   * @return the port
+   */
+  public int getPort() {
+    return server.getAddress().getPort();
+  }
+
+  /**
+   * Gets the sessions the server serves.
+   *
+   * @return the session manager
+   */
+  public SessionManager getSessionManager() {
+    return sessionManager;
+  }
+
+  /**
+   * Runs a play server for story files.
+   *
+   * <pre>
+   * java edu.ntnu.idatt2001.paths.server.PlayServer [--port=N] [--max-sessions=N] story-file...
+   * </pre>
+   *
+   * @param args the options and the story files to serve
+   * @throws IOException if a story can not be loaded or the server can not listen on the port
+   */
+  public static void main(String[] args) throws IOException {
+    // The model logs every object it creates, which would slow every request down
+    LogManager.getLogManager().reset();
+    int port = 8080;
+    int maxSessions = SessionManager.DEFAULT_MAX_SESSIONS;
+    List<Path> files = new ArrayList<>();
+    for (String arg : args) {
+      if (arg.startsWith("--port=")) {
+        port = Integer.parseInt(arg.substring("--port=".length()));
+      } else if (arg.startsWith("--max-sessions=")) {
+        maxSessions = Integer.parseInt(arg.substring("--max-sessions=".length()));
+      } else {
+        files.add(Path.of(arg));
+      }
+    }
+    if (files.isEmpty()) {
+      System.err.println("Usage: PlayServer [--port=N] [--max-sessions=N] story-file...");
+      System.exit(2);
+    }
+    SessionManager sessionManager = new SessionManager(maxSessions);
+    StoryFileManager fileManager = new StoryFileManager();
+    for (Path file : files) {
+      sessionManager.addStory(fileManager.loadStoryFromFile(file));
+    }
+    new PlayServer(sessionManager, new InetSocketAddress(port)).start();
+    System.out.println("Serving " + sessionManager.getStoryTitles() + " on port " + port);
+  }
+
+  private void handle(HttpExchange exchange) throws IOException {
+    try (exchange) {
+      String method = exchange.getRequestMethod();
+      String[] path = exchange.getRequestURI().getPath().substring(1).split("/");
+      try {
+        if (path.length == 1 && path[0].equals("stories")) {
+          expect(method, "GET");
+          send(exchange, 200, stories());
+        } else if (path.length == 1 && path[0].equals("sessions")) {
+          expect(method, "POST");
+          send(exchange, 201, startSession(parameters(exchange)));
+        } else if (path.length == 2 && path[0].equals("sessions")) {
+          if (method.equals("DELETE")) {
+            if (!sessionManager.endSession(path[1])) {
+              throw new HttpException(404, "No session " + path[1]);
+            }
+            send(exchange, 204, null);
+          } else {
+            expect(method, "GET");
+            send(exchange, 200, passage(session(path[1])));
+          }
+        } else if (path.length == 3 && path[0].equals("sessions") && path[2].equals("player")) {
+          expect(method, "GET");
+          send(exchange, 200, player(session(path[1])));
+        } else if (path.length == 4 && path[0].equals("sessions") && path[2].equals("links")) {
+          expect(method, "POST");
+          send(exchange, 200, follow(session(path[1]), linkIndex(path[3])));
+        } else {
+          throw new HttpException(404, "No such resource");
+        }
+      } catch (HttpException e) {
+        send(exchange, e.status, error(e.getMessage()));
+      } catch (IllegalStateException e) {
+        send(exchange, 409, error(e.getMessage()));
+      } catch (IllegalArgumentException e) {
+        send(exchange, 400, error(e.getMessage()));
+      } catch (RuntimeException e) {
+        logger.log(Level.WARNING, "Request " + method + " " + exchange.getRequestURI()
+            + " failed", e);
+        send(exchange, 500, error("Internal error"));
+      }
+    }
+  }
+
+  private String stories() {
+    JsonWriter json = new JsonWriter().beginObject().name("stories").beginArray();
+    for (String title : sessionManager.getStoryTitles()) {
+      json.value(title);
+    }
+    return json.endArray().endObject().toString();
+  }
+
+  private String startSession(Map<String, String> parameters) {
+    String story = parameters.get("story");
+    if (story == null || sessionManager.getStory(story) == null) {
+      throw new HttpException(404, "No story " + story);
+    }
+    String difficulty = parameters.getOrDefault("difficulty", GameDifficultyEnum.MEDIUM.name());
+    Session session;
+    try {
+      session = sessionManager.startSession(story, parameters.get("player"),
+          GameDifficultyEnum.valueOf(difficulty.toUpperCase(Locale.ROOT)));
+    } catch (IllegalStateException e) {
+      throw new HttpException(503, e.getMessage());
+    }
+    return passage(session);
+  }
+
+  private Session session(String id) {
+    Session session = sessionManager.getSession(id);
+    if (session == null) {
+      throw new HttpException(404, "No session " + id);
+    }
+    return session;
+  }
+
+  private static int linkIndex(String index) {
+    try {
+      return Integer.parseInt(index);
+    } catch (NumberFormatException e) {
+      throw new IllegalArgumentException("Link index must be a number");
+    }
+  }
+
+  private static String follow(Session session, int linkIndex) {
+    synchronized (session) {
+      session.follow(linkIndex);
+      return passage(session);
+    }
+  }
+
+  private static String passage(Session session) {
+    synchronized (session) {
+      Passage passage = session.getPassage();
+      JsonWriter json = new JsonWriter().beginObject()
+          .field("session", session.getId())
+          .field("status", session.getStatus().name())
+          .name("passage").beginObject()
+          .field("title", passage.getTitle())
+          .field("content", passage.getContent())
+          .field("linkCount", passage.getLinks().size())
+          .name("links").beginArray();
+      int index = 0;
+      for (Link link : passage.getLinks()) {
+        json.beginObject()
+            .field("index", index++)
+            .field("text", link.getText())
+            .field("reference", link.getReference())
+            .field("requiredItem",
+                link.getRequiredItem() != null ? link.getRequiredItem().getValue() : null)
+            .endObject();
+      }
+      return json.endArray().endObject().endObject().toString();
+    }
+  }
+
+  private static String player(Session session) {
+    synchronized (session) {
+      Player player = session.getGame().getPlayer();
+      JsonWriter json = new JsonWriter().beginObject()
+          .field("name", player.getName())
+          .field("health", player.getHealth())
+          .field("gold", player.getGold())
+          .field("score", player.getScore())
+          .name("inventory").beginArray();
+      for (String item : player.getInventory()) {
+        json.value(item);
+      }
+      return json.endArray().endObject().toString();
+    }
+  }
+
+  private static String error(String message) {
+    return new JsonWriter().beginObject().field("error", message).endObject().toString();
+  }
+
+  private static void expect(String method, String expected) {
+    if (!method.equals(expected)) {
+      throw new HttpException(405, "Method " + method + " is not allowed");
+    }
+  }
+
+  private static Map<String, String> parameters(HttpExchange exchange) throws IOException {
+    Map<String, String> parameters = new HashMap<>();
+    parseForm(exchange.getRequestURI().getRawQuery(), parameters);
+    String contentType = exchange.getRequestHeaders().getFirst("Content-Type");
+    if (contentType != null && contentType.startsWith("application/x-www-form-urlencoded")) {
+      try (InputStream body = exchange.getRequestBody()) {
+        parseForm(new String(body.readAllBytes(), StandardCharsets.UTF_8), parameters);
+      }
+    }
+    return parameters;
+  }
+
+  private static void parseForm(String form, Map<String, String> parameters) {
+    if (form == null || form.isEmpty()) {
+      return;
+    }
+    for (String pair : form.split("&")) {
+      int equals = pair.indexOf('=');
+      String name = equals < 0 ? pair : pair.substring(0, equals);
+      String value = equals < 0 ? "" : pair.substring(equals + 1);
+      parameters.put(URLDecoder.decode(name, StandardCharsets.UTF_8),
+          URLDecoder.decode(value, StandardCharsets.UTF_8));
+    }
+  }
+
+  private static void send(HttpExchange exchange, int status, String json) throws IOException {
+    if (json == null) {
+      exchange.sendResponseHeaders(status, -1);
+      // The server closes the connection of an exchange whose body was never asked for
+      exchange.getResponseBody().close();
+      return;
+    }
+    byte[] body = json.getBytes(StandardCharsets.UTF_8);
+    exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+    exchange.sendResponseHeaders(status, body.length);
+    try (OutputStream out = exchange.getResponseBody()) {
+      out.write(body);
+    }
+  }
+
+  /**
+   * A request that is answered with an error status.
+   */
+  private static final class HttpException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    private final int status;
+
+    HttpException(int status, String message) {
+      super(message);
+      this.status = status;
+    }
+  }
+}
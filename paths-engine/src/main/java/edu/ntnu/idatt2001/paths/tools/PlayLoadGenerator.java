@@ -0,0 +1,334 @@
+package edu.ntnu.idatt2001.paths.tools;
+
+import edu.ntnu.idatt2001.paths.model.Story;
+import edu.ntnu.idatt2001.paths.model.StoryFileManager;
+import edu.ntnu.idatt2001.paths.model.game.SessionManager;
+import edu.ntnu.idatt2001.paths.server.PlayServer;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.logging.LogManager;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Command line tool that puts load on a {@link PlayServer}. It starts a number of sessions, and
+ * then plays them for a while from a number of clients, each client playing its own share of the
+ * sessions one request at a time. A session is played by following random links and now and then
+ * reading the player, and is started over when its game is over. It prints the throughput and the
+ * latencies of starting and of playing sessions.
+ *
+ * <pre>
+ * java edu.ntnu.idatt2001.paths.tools.PlayLoadGenerator (--url=URL | --serve=story-file)
+ *     [--story=title] [--sessions=N] [--clients=N] [--seconds=N] [--difficulty=D]
+ * </pre>
+ *
+ * <p>With {@code --serve} a server for the story file is started in the same JVM.
+ */
+public final class PlayLoadGenerator {
+
+  private static final Pattern SESSION = Pattern.compile("\"session\":\"([^\"]+)\"");
+  private static final Pattern STATUS = Pattern.compile("\"status\":\"(\\w+)\"");
+  private static final Pattern LINK_COUNT = Pattern.compile("\"linkCount\":(\\d+)");
+  private static final Pattern FIRST_STORY = Pattern.compile("\"stories\":\\[\"([^\"]+)\"");
+
+  private final HttpClient client = HttpClient.newBuilder()
+      .version(HttpClient.Version.HTTP_1_1).build();
+  private final PrintStream out;
+  private final URI server;
+  private final String storyTitle;
+  private final String difficulty;
+
+  /**
+   * The latencies of one kind of request, in nanoseconds, and how many of the requests failed.
+   */
+  private static final class Latencies {
+
+    private long[] samples = new long[1024];
+    private int count;
+    private long errors;
+
+    void add(long nanos) {
+      if (count == samples.length) {
+        samples = Arrays.copyOf(samples, count * 2);
+      }
+      samples[count++] = nanos;
+    }
+
+    void addAll(Latencies other) {
+      for (int i = 0; i < other.count; i++) {
+        add(other.samples[i]);
+      }
+      errors += other.errors;
+    }
+
+    String summary(double seconds) {
+      long[] sorted = Arrays.copyOf(samples, count);
+      Arrays.sort(sorted);
+      return String.format("%d requests, %.0f/s, %d errors, latency p50 %.2f ms, p90 %.2f ms, "
+              + "p99 %.2f ms, max %.2f ms", count, count / seconds, errors,
+          percentile(sorted, 0.50), percentile(sorted, 0.90), percentile(sorted, 0.99),
+          percentile(sorted, 1.0));
+    }
+
+    private static double percentile(long[] sorted, double fraction) {
+      if (sorted.length == 0) {
+        return 0;
+      }
+      int index = (int) Math.ceil(fraction * sorted.length) - 1;
+      return sorted[Math.max(0, index)] / 1e6;
+    }
+  }
+
+  /**
+   * The sessions a client plays, and what it knows of them.
+   */
+  private final class Client {
+
+    private final SplittableRandom random;
+    private final List<String> ids = new ArrayList<>();
+    private final List<Integer> linkCounts = new ArrayList<>();
+    private final Latencies starts = new Latencies();
+    private final Latencies plays = new Latencies();
+    private int started;
+
+    Client(long seed) {
+      random = new SplittableRandom(seed);
+    }
+
+    void start(int sessions, int firstPlayer) throws IOException, InterruptedException {
+      for (int i = 0; i < sessions; i++) {
+        started = firstPlayer + i;
+        String body = startSession(started, starts);
+        ids.add(body != null ? find(SESSION, body) : null);
+        linkCounts.add(body != null ? linkCount(body) : 0);
+      }
+    }
+
+    void play(long until) throws IOException, InterruptedException {
+      int step = 0;
+      while (System.nanoTime() < until && !ids.isEmpty()) {
+        int session = step++ % ids.size();
+        String id = ids.get(session);
+        int links = linkCounts.get(session);
+        if (id == null || links == 0) {
+          if (id != null) {
+            send(HttpRequest.newBuilder(server.resolve("sessions/" + id)).DELETE(), plays);
+          }
+          String body = startSession(started++, plays);
+          ids.set(session, body != null ? find(SESSION, body) : null);
+          linkCounts.set(session, body != null ? linkCount(body) : 0);
+        } else if (step % 8 == 0) {
+          send(HttpRequest.newBuilder(server.resolve("sessions/" + id + "/player")).GET(), plays);
+        } else {
+          String body = send(HttpRequest.newBuilder(
+                  server.resolve("sessions/" + id + "/links/" + random.nextInt(links)))
+              .POST(HttpRequest.BodyPublishers.noBody()), plays);
+          if (body != null) {
+            linkCounts.set(session, linkCount(body));
+          }
+        }
+      }
+    }
+
+    private String startSession(int player, Latencies latencies)
+        throws IOException, InterruptedException {
+      String form = "story=" + URLEncoder.encode(storyTitle, StandardCharsets.UTF_8)
+          + "&player=Player" + player + "&difficulty=" + difficulty;
+      return send(HttpRequest.newBuilder(server.resolve("sessions"))
+          .header("Content-Type", "application/x-www-form-urlencoded")
+          .POST(HttpRequest.BodyPublishers.ofString(form)), latencies);
+    }
+  }
+
+  /**
+   * Instantiates a new Play load generator.
+   *
+   * @param out        where the report is printed
+   * @param server     the URL of the server
+   * @param storyTitle the title of the story to play
+   * @param difficulty the difficulty the players start at
+   */
+  public PlayLoadGenerator(PrintStream out, URI server, String storyTitle, String difficulty) {
+    this.out = out;
+    this.server = server.toString().endsWith("/") ? server : URI.create(server + "/");
+    this.storyTitle = storyTitle;
+    this.difficulty = difficulty;
+  }
+
+  /**
+   * Runs the tool.
+   *
+   * @param args the options
+   * @throws Exception if the load can not be generated
+   */
+  public static void main(String[] args) throws Exception {
+    // The model logs every object it creates, which would slow every request down
+    LogManager.getLogManager().reset();
+    String url = null;
+    Path serve = null;
+    String storyTitle = null;
+    int sessions = 1000;
+    int clients = 64;
+    int seconds = 10;
+    String difficulty = "MEDIUM";
+    for (String arg : args) {
+      String value = arg.substring(arg.indexOf('=') + 1);
+      if (arg.startsWith("--url=")) {
+        url = value;
+      } else if (arg.startsWith("--serve=")) {
+        serve = Path.of(value);
+      } else if (arg.startsWith("--story=")) {
+        storyTitle = value;
+      } else if (arg.startsWith("--sessions=")) {
+        sessions = Integer.parseInt(value);
+      } else if (arg.startsWith("--clients=")) {
+        clients = Integer.parseInt(value);
+      } else if (arg.startsWith("--seconds=")) {
+        seconds = Integer.parseInt(value);
+      } else if (arg.startsWith("--difficulty=")) {
+        difficulty = value;
+      }
+    }
+    if ((url == null) == (serve == null)) {
+      System.err.println("Usage: PlayLoadGenerator (--url=URL | --serve=story-file) "
+          + "[--story=title] [--sessions=N] [--clients=N] [--seconds=N] [--difficulty=D]");
+      System.exit(2);
+    }
+    PlayServer playServer = null;
+    if (serve != null) {
+      SessionManager sessionManager = new SessionManager(sessions + clients);
+      Story story = sessionManager.addStory(new StoryFileManager().loadStoryFromFile(serve));
+      storyTitle = storyTitle != null ? storyTitle : story.getTitle();
+      playServer = new PlayServer(sessionManager, new InetSocketAddress("localhost", 0));
+      playServer.start();
+      url = "http://localhost:" + playServer.getPort() + "/";
+    }
+    try {
+      URI server = URI.create(url.endsWith("/") ? url : url + "/");
+      if (storyTitle == null) {
+        storyTitle = firstStory(server);
+      }
+      new PlayLoadGenerator(System.out, server, storyTitle, difficulty)
+          .run(sessions, clients, seconds);
+    } finally {
+      if (playServer != null) {
+        playServer.stop();
+      }
+    }
+  }
+
+  /**
+   * Starts the sessions, plays them for a while, and prints the throughput and latencies.
+   *
+   * @param sessions the number of sessions to start and play
+   * @param clients  the number of clients that play the sessions at the same time
+   * @param seconds  how long to play the sessions
+   * @throws Exception if a client fails
+   */
+  public void run(int sessions, int clients, int seconds) throws Exception {
+    List<Client> players = new ArrayList<>();
+    for (int i = 0; i < clients; i++) {
+      players.add(new Client(i));
+    }
+    ExecutorService executor = PlayServer.newThreadPerTaskExecutor(clients);
+    try {
+      long start = System.nanoTime();
+      List<Future<?>> done = new ArrayList<>();
+      for (int i = 0; i < clients; i++) {
+        Client client = players.get(i);
+        int share = sessions / clients + (i < sessions % clients ? 1 : 0);
+        int firstPlayer = i * (sessions / clients + 1);
+        done.add(executor.submit(() -> {
+          client.start(share, firstPlayer);
+          return null;
+        }));
+      }
+      await(done);
+      long started = System.nanoTime();
+      long until = started + seconds * 1_000_000_000L;
+      done.clear();
+      for (Client client : players) {
+        done.add(executor.submit(() -> {
+          client.play(until);
+          return null;
+        }));
+      }
+      await(done);
+      long played = System.nanoTime();
+
+      Latencies starts = new Latencies();
+      Latencies plays = new Latencies();
+      for (Client client : players) {
+        starts.addAll(client.starts);
+        plays.addAll(client.plays);
+      }
+      Runtime runtime = Runtime.getRuntime();
+      out.printf("%d sessions, %d clients, story %s%n", sessions, clients, storyTitle);
+      out.println("  start: " + starts.summary((started - start) / 1e9));
+      out.println("  play:  " + plays.summary((played - started) / 1e9));
+      out.printf("  heap used in this JVM: %d MB%n",
+          (runtime.totalMemory() - runtime.freeMemory()) >> 20);
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  private String send(HttpRequest.Builder request, Latencies latencies)
+      throws IOException, InterruptedException {
+    long start = System.nanoTime();
+    HttpResponse<String> response = client.send(request.build(),
+        HttpResponse.BodyHandlers.ofString());
+    latencies.add(System.nanoTime() - start);
+    int status = response.statusCode();
+    if (status == 409) {
+      // The link needs an item the player does not have, which is part of playing
+      return null;
+    }
+    if (status >= 300) {
+      latencies.errors++;
+      return null;
+    }
+    return response.body();
+  }
+
+  private static int linkCount(String body) {
+    String status = find(STATUS, body);
+    return "PLAYING".equals(status) ? Integer.parseInt(find(LINK_COUNT, body)) : 0;
+  }
+
+  private static String find(Pattern pattern, String body) {
+    Matcher matcher = pattern.matcher(body);
+    return matcher.find() ? matcher.group(1) : null;
+  }
+
+  private static String firstStory(URI server) throws IOException, InterruptedException {
+    HttpResponse<String> response = HttpClient.newHttpClient().send(
+        HttpRequest.newBuilder(server.resolve("stories")).GET().build(),
+        HttpResponse.BodyHandlers.ofString());
+    String title = find(FIRST_STORY, response.body());
+    if (title == null) {
+      throw new IllegalStateException("The server has no stories");
+    }
+    return title;
+  }
+
+  private static void await(List<Future<?>> futures) throws Exception {
+    for (Future<?> future : futures) {
+      future.get();
+    }
+  }
+}
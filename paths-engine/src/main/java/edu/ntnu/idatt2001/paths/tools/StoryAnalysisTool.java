@@ -0,0 +1,238 @@
+package edu.ntnu.idatt2001.paths.tools;
+
+import edu.ntnu.idatt2001.paths.model.Story;
+import edu.ntnu.idatt2001.paths.model.StoryFileManager;
+import edu.ntnu.idatt2001.paths.model.game.GameDifficultyEnum;
+import edu.ntnu.idatt2001.paths.model.goals.GoalsEnum;
+import edu.ntnu.idatt2001.paths.model.graph.ModelCheckReport;
+import edu.ntnu.idatt2001.paths.model.graph.ModelChecker;
+import edu.ntnu.idatt2001.paths.model.graph.PlaythroughSimulator;
+import edu.ntnu.idatt2001.paths.model.graph.PlaythroughStatistics;
+import edu.ntnu.idatt2001.paths.model.graph.Reachability;
+import edu.ntnu.idatt2001.paths.model.graph.ReachabilityAnalyzer;
+import edu.ntnu.idatt2001.paths.model.graph.StoryGraph;
+import edu.ntnu.idatt2001.paths.model.graph.StronglyConnectedComponents;
+import edu.ntnu.idatt2001.paths.model.graph.Winnability;
+import edu.ntnu.idatt2001.paths.model.graph.WinnabilitySolver;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.logging.LogManager;
+import java.util.stream.Stream;
+
+/**
+ * Command line tool that analyzes story files in batch. For every .paths and .pathsc file given,
+ * or found in a given directory, it prints the number of passages and links, how many passages can
+ * be reached from the opening passage, and the passages that can not be reached, are dead ends or
+ * are in a loop without a way out. With {@code --winnable} it also finds out whether the default
+ * goals of the game can be reached at every difficulty, and the fewest choices to reach them. With
+ * {@code --simulate=N} it plays the story N times at every difficulty with random choices, and
+ * prints how often the playthroughs were won, ended in death or got stuck. With
+ * {@code --model-check} it visits every state of the game at every difficulty, and prints how many
+ * there are, how many of them trap the player and which goals can never be reached together.
+ *
+ * <pre>
+ * java edu.ntnu.idatt2001.paths.tools.StoryAnalysisTool [--verbose] [--winnable] [--simulate=N]
+ *     [--model-check] path...
+ * </pre>
+ *
+ * <p>The exit status is 0 when every story can be played through, 1 when a story has unreachable
+ * passages, dead ends or trap loops, or can not be won at a difficulty, and 2 when a story can not
+ * be loaded.
+ */
+public final class StoryAnalysisTool {
+
+  private final StoryFileManager fileManager = new StoryFileManager();
+  private final ReachabilityAnalyzer analyzer = new ReachabilityAnalyzer();
+  private final WinnabilitySolver solver = new WinnabilitySolver();
+  private final PlaythroughSimulator simulator = new PlaythroughSimulator();
+  private final ModelChecker modelChecker = new ModelChecker();
+  private final PrintStream out;
+  private final boolean verbose;
+  private final boolean winnable;
+  private final long playthroughs;
+  private final boolean modelCheck;
+
+  /**
+   * Instantiates a new Story analysis tool.
+   *
+   * @param out     where the report is printed
+   * @param verbose true to list the titles of the passages that can not be played
+   */
+  public StoryAnalysisTool(PrintStream out, boolean verbose) {
+    this(out, verbose, false);
+  }
+
+  /**
+   * Instantiates a new Story analysis tool.
+   *
+   * @param out      where the report is printed
+   * @param verbose  true to list the titles of the passages that can not be played
+   * @param winnable true to find out whether the default goals can be reached
+   */
+  public StoryAnalysisTool(PrintStream out, boolean verbose, boolean winnable) {
+    this(out, verbose, winnable, 0);
+  }
+
+  /**
+   * Instantiates a new Story analysis tool.
+   *
+   * @param out          where the report is printed
+   * @param verbose      true to list the titles of the passages that can not be played
+   * @param winnable     true to find out whether the default goals can be reached
+   * @param playthroughs the number of random playthroughs to simulate at every difficulty
+   */
+  public StoryAnalysisTool(PrintStream out, boolean verbose, boolean winnable,
+      long playthroughs) {
+    this(out, verbose, winnable, playthroughs, false);
+  }
+
+  /**
+   * Instantiates a new Story analysis tool.
+   *
+   * @param out          where the report is printed
+   * @param verbose      true to list the titles of the passages that can not be played
+   * @param winnable     true to find out whether the default goals can be reached
+   * @param playthroughs the number of random playthroughs to simulate at every difficulty
+   * @param modelCheck   true to visit every state of the game at every difficulty
+   */
+  public StoryAnalysisTool(PrintStream out, boolean verbose, boolean winnable,
+      long playthroughs, boolean modelCheck) {
+    this.out = out;
+    this.verbose = verbose;
+    this.winnable = winnable;
+    this.playthroughs = playthroughs;
+    this.modelCheck = modelCheck;
+  }
+
+  /**
+   * Runs the tool.
+   *
+   * @param args the options and the files or directories to analyze
+   */
+  public static void main(String[] args) {
+    // The model logs every object it creates, which would drown the report
+    LogManager.getLogManager().reset();
+    boolean verbose = false;
+    boolean winnable = false;
+    long playthroughs = 0;
+    boolean modelCheck = false;
+    List<Path> paths = new ArrayList<>();
+    for (String arg : args) {
+      if (arg.equals("--verbose")) {
+        verbose = true;
+      } else if (arg.equals("--winnable")) {
+        winnable = true;
+      } else if (arg.equals("--model-check")) {
+        modelCheck = true;
+      } else if (arg.startsWith("--simulate=")) {
+        playthroughs = Long.parseLong(arg.substring("--simulate=".length()));
+      } else {
+        paths.add(Path.of(arg));
+      }
+    }
+    if (paths.isEmpty()) {
+      System.err.println("Usage: StoryAnalysisTool [--verbose] [--winnable] [--simulate=N] "
+          + "[--model-check] file-or-directory...");
+      System.exit(2);
+    }
+    System.exit(new StoryAnalysisTool(System.out, verbose, winnable, playthroughs, modelCheck)
+        .run(paths));
+  }
+
+  /**
+   * Analyzes the story files.
+   *
+   * @param paths the story files, and directories to analyze the story files in
+   * @return the exit status
+   */
+  public int run(List<Path> paths) {
+    int status = 0;
+    for (Path file : storyFiles(paths)) {
+      status = Math.max(status, analyze(file));
+    }
+    return status;
+  }
+
+  private int analyze(Path file) {
+    long start = System.nanoTime();
+    Story story;
+    try {
+      story = fileManager.loadStoryFromFile(file);
+    } catch (IOException | IllegalArgumentException e) {
+      out.printf("%s: can not be loaded: %s%n", file, e.getMessage());
+      return 2;
+    }
+    long loaded = System.nanoTime();
+    StoryGraph graph = StoryGraph.of(story);
+    Reachability reachability = analyzer.analyze(graph);
+    StronglyConnectedComponents components = StronglyConnectedComponents.of(graph);
+    long analyzed = System.nanoTime();
+
+    List<String> unreachable = reachability.getUnreachablePassages();
+    List<String> deadEnds = reachability.getDeadEnds();
+    List<List<String>> trapLoops = components.getTrapLoops();
+    out.printf("%s: %d passages, %d links, %d reachable, %d unreachable, %d dead ends, "
+            + "%d components, %d trap loops, depth %d (load %.1f ms, analysis %.1f ms)%n",
+        file, graph.getPassageCount(), graph.getEdgeCount(), reachability.getReachableCount(),
+        unreachable.size(), deadEnds.size(), components.getComponentCount(), trapLoops.size(),
+        reachability.getMaxDepth(), (loaded - start) / 1e6, (analyzed - loaded) / 1e6);
+    if (verbose) {
+      unreachable.forEach(title -> out.println("  unreachable: " + title));
+      deadEnds.forEach(title -> out.println("  dead end: " + title));
+      trapLoops.forEach(loop -> out.println("  trap loop: " + String.join(", ", loop)));
+    }
+    boolean won = true;
+    if (winnable) {
+      for (Winnability answer : solver.solveAll(graph, GoalsEnum.getDefaultGoals()).values()) {
+        out.println("  " + answer);
+        if (verbose && answer.isWinnable()) {
+          out.println("    choices: " + String.join(" > ", answer.getChoices()));
+        }
+        won &= answer.getVerdict() != Winnability.Verdict.UNWINNABLE;
+      }
+    }
+    if (playthroughs > 0) {
+      for (PlaythroughStatistics statistics : simulator.simulateAll(graph,
+          GoalsEnum.getDefaultGoals(), playthroughs, file.toString().hashCode()).values()) {
+        out.println("  " + statistics);
+      }
+    }
+    if (modelCheck) {
+      for (GameDifficultyEnum difficulty : GameDifficultyEnum.values()) {
+        ModelCheckReport report =
+            modelChecker.check(graph, GoalsEnum.getDefaultGoals(), difficulty);
+        out.println("  " + report);
+        report.getUnreachableGoalCombinations().forEach(goals ->
+            out.println("    unreachable: " + String.join(" + ", goals)));
+        if (verbose) {
+          report.getTrappedExamples().forEach(state -> out.println("    trapped: " + state));
+        }
+      }
+    }
+    return unreachable.isEmpty() && deadEnds.isEmpty() && trapLoops.isEmpty() && won ? 0 : 1;
+  }
+
+  private List<Path> storyFiles(List<Path> paths) {
+    List<Path> files = new ArrayList<>();
+    for (Path path : paths) {
+      if (!Files.isDirectory(path)) {
+        files.add(path);
+        continue;
+      }
+      try (Stream<Path> children = Files.list(path)) {
+        children.filter(child -> {
+          String name = child.getFileName().toString();
+          return name.endsWith(StoryFileManager.TEXT_EXTENSION)
+              || name.endsWith(StoryFileManager.COMPILED_EXTENSION);
+        }).sorted().forEach(files::add);
+      } catch (IOException e) {
+        out.printf("%s: can not be listed: %s%n", path, e.getMessage());
+      }
+    }
+    return files;
+  }
+}
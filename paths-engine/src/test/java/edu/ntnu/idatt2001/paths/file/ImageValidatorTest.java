@@ -6,8 +6,12 @@ import static org.junit.jupiter.api.Assertions.assertThrows;
 import edu.ntnu.idatt2001.paths.model.exceptions.ImageValidationException;
 import edu.ntnu.idatt2001.paths.model.validations.ImageValidator;
 import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
 public class ImageValidatorTest {
 
@@ -47,5 +51,17 @@ public class ImageValidatorTest {
     assertThrows(ImageValidationException.class,
         () -> ImageValidator.validateImage(nonExistentImagePath));
   }
-}
 
+  @Test
+  public void validateImageFile_withTextFileNamedAsImage_throwsImageValidationException(
+      @TempDir Path directory) throws IOException {
+    File fakeImage = Files.writeString(directory.resolve("fake.png"), "not an image").toFile();
+    assertThrows(ImageValidationException.class, () -> ImageValidator.validateImage(fakeImage));
+  }
+
+  @Test
+  public void validateImagePath_withClasspathImage_noExceptionThrown() {
+    assertDoesNotThrow(() -> ImageValidator.validateImage(
+        "/images/passageImages/passageBackgroundImages/pond.png"));
+  }
+}
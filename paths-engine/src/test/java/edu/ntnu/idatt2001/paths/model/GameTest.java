@@ -220,4 +220,116 @@ public class GameTest {
       }
     }
   }
+
+  @Nested
+  public class PlaythroughStateTest {
+
+    @Test
+    public void performed_action_is_only_recorded_in_its_own_game() {
+      Passage passage = new Passage("passage", "content");
+      Link link = new Link("link", "Passage name");
+      passage.addLink(link);
+      story.addPassage(passage);
+      Game game = new Game(player, story, goals);
+      Game replay = new Game(player, story, goals);
+
+      game.getPlaythroughState().markActionAsPerformed(passage, link);
+
+      assertTrue(game.getPlaythroughState().hasPerformedAction(passage, link));
+      assertFalse(replay.getPlaythroughState().hasPerformedAction(passage, link));
+    }
+
+    @Test
+    public void links_to_the_same_passage_are_recorded_separately() {
+      Passage passage = new Passage("passage", "content");
+      Link first = new Link("first", "Passage name");
+      Link second = new Link("second", "Passage name");
+      passage.addLink(first);
+      passage.addLink(second);
+      Game game = new Game(player, story, goals);
+
+      game.getPlaythroughState().markActionAsPerformed(passage, first);
+
+      assertTrue(game.getPlaythroughState().hasPerformedAction(passage, first));
+      assertFalse(game.getPlaythroughState().hasPerformedAction(passage, second));
+    }
+
+    @Test
+    public void state_is_kept_for_a_passage_that_is_read_again() {
+      Passage passage = new Passage("passage", "content");
+      passage.addLink(new Link("link", "Passage name"));
+      Passage readAgain = new Passage("passage", "content");
+      readAgain.addLink(new Link("link", "Passage name"));
+      Game game = new Game(player, story, goals);
+
+      game.getPlaythroughState().markActionAsPerformed(passage, passage.getLastLink());
+
+      assertTrue(game.getPlaythroughState().hasPerformedAction(readAgain,
+          readAgain.getLastLink()));
+    }
+
+    @Test
+    public void reset_forgets_the_performed_actions() {
+      Passage passage = new Passage("passage", "content");
+      passage.addLink(new Link("link", "Passage name"));
+      Game game = new Game(player, story, goals);
+      game.getPlaythroughState().markActionAsPerformed(passage, passage.getLastLink());
+
+      game.getPlaythroughState().reset();
+
+      assertFalse(game.getPlaythroughState().hasPerformedAction(passage, passage.getLastLink()));
+      game.getPlaythroughState().markActionAsPerformed(passage, passage.getLastLink());
+      assertTrue(game.getPlaythroughState().hasPerformedAction(passage, passage.getLastLink()));
+    }
+
+    @Test
+    public void state_is_kept_when_a_passage_gets_more_links() {
+      Passage passage = new Passage("passage", "content");
+      Link first = new Link("first", "Passage name");
+      passage.addLink(first);
+      Passage other = new Passage("other", "content");
+      other.addLink(new Link("link", "Passage name"));
+      Game game = new Game(player, story, goals);
+      game.getPlaythroughState().markActionAsPerformed(passage, first);
+      game.getPlaythroughState().markActionAsPerformed(other, other.getLastLink());
+
+      Link second = new Link("second", "Passage name");
+      passage.addLink(second);
+      game.getPlaythroughState().markActionAsPerformed(passage, second);
+
+      assertTrue(game.getPlaythroughState().hasPerformedAction(passage, first));
+      assertTrue(game.getPlaythroughState().hasPerformedAction(passage, second));
+      assertTrue(game.getPlaythroughState().hasPerformedAction(other, other.getLastLink()));
+    }
+
+    @Test
+    public void links_of_a_frozen_story_are_recorded_by_their_number() {
+      Passage passage = new Passage("passage", "content");
+      passage.addLink(new Link("first", "Passage name"));
+      passage.addLink(new Link("second", "Passage name"));
+      story.addPassage(passage);
+      Story snapshot = story.freeze();
+      Passage frozen = snapshot.getPassage("passage");
+      Game game = new Game(player, snapshot, goals);
+
+      game.getPlaythroughState().markActionAsPerformed(frozen, frozen.getLinks().get(1));
+
+      assertFalse(game.getPlaythroughState().hasPerformedAction(frozen,
+          frozen.getLinks().get(0)));
+      assertTrue(game.getPlaythroughState().hasPerformedAction(frozen,
+          frozen.getLinks().get(1)));
+      game.getPlaythroughState().reset();
+      assertFalse(game.getPlaythroughState().hasPerformedAction(frozen,
+          frozen.getLinks().get(1)));
+    }
+
+    @Test
+    public void link_outside_the_passage_can_not_be_marked() {
+      Passage passage = new Passage("passage", "content");
+      Game game = new Game(player, story, goals);
+
+      assertThrows(IllegalArgumentException.class, () -> game.getPlaythroughState()
+          .markActionAsPerformed(passage, new Link("link", "Passage name")));
+    }
+  }
 }
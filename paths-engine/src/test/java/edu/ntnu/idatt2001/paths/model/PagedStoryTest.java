@@ -0,0 +1,115 @@
+package edu.ntnu.idatt2001.paths.model;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import edu.ntnu.idatt2001.paths.model.exceptions.StoryValidationException;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayNameGeneration;
+import org.junit.jupiter.api.DisplayNameGenerator;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+@DisplayNameGeneration(DisplayNameGenerator.ReplaceUnderscores.class)
+class PagedStoryTest {
+
+  private static final int PASSAGES = 50;
+  private static final int CACHE_SIZE = 4;
+
+  @TempDir
+  Path directory;
+  private PagedStory story;
+
+  @BeforeEach
+  void setUp() throws IOException {
+    StringBuilder sb = new StringBuilder("Paged Story\n\n");
+    for (int i = 0; i < PASSAGES; i++) {
+      sb.append("::Room ").append(i).append('\n');
+      sb.append("You are in room ").append(i).append(".\n");
+      sb.append("[Next](Room ").append((i + 1) % PASSAGES).append(")\n");
+      sb.append("{GoldAction:1}\n\n");
+    }
+    Path file = Files.writeString(directory.resolve("paged.paths"), sb.toString());
+    story = new StoryFileManager().loadPagedStory(file, CACHE_SIZE);
+  }
+
+  @AfterEach
+  void tearDown() throws IOException {
+    story.close();
+  }
+
+  @Test
+  void no_passage_is_read_before_it_is_asked_for() {
+    assertEquals("Paged Story", story.getTitle());
+    assertEquals(0, story.getPassageReads());
+    assertEquals("Room 0", story.getOpeningPassage().getTitle());
+    assertEquals(1, story.getPassageReads());
+  }
+
+  @Test
+  void following_links_reads_passages_on_demand() {
+    Passage passage = story.getOpeningPassage();
+    for (int i = 0; i < 10; i++) {
+      passage = story.getPassage(passage.getLinks().get(0));
+    }
+    assertEquals("Room 10", passage.getTitle());
+    assertEquals("You are in room 10.", passage.getContent());
+    assertEquals(1, passage.getLinks().get(0).getActions().size());
+    assertEquals(11, story.getPassageReads());
+  }
+
+  @Test
+  void cache_is_bounded_and_keeps_recent_passages() {
+    for (Passage passage : story.getPassages()) {
+      assertTrue(story.getCachedPassageCount() <= CACHE_SIZE);
+    }
+    assertEquals(PASSAGES, story.getPassageReads());
+    Passage recent = story.getPassage(new Link("Room 49", "Room 49"));
+    assertSame(recent, story.getPassage(new Link("Room 49", "Room 49")));
+    assertEquals(PASSAGES, story.getPassageReads());
+  }
+
+  @Test
+  void links_are_found_from_the_index_without_reading_every_passage() {
+    assertTrue(story.getBrokenLinks().isEmpty());
+    assertEquals(0, story.getPassageReads());
+
+    List<Link> incoming = story.getIncomingLinks("Room 7");
+    assertEquals(1, incoming.size());
+    assertSame(story.getPassage("Room 6").getLinks().get(0), incoming.get(0));
+    assertEquals(1, story.getPassageReads());
+  }
+
+  @Test
+  void passage_read_again_has_links_with_the_same_numbers() {
+    Link first = story.getPassage("Room 3").getLinks().get(0);
+    for (int i = 10; i < 10 + CACHE_SIZE; i++) {
+      story.getPassage("Room " + i);
+    }
+    Link again = story.getPassage("Room 3").getLinks().get(0);
+
+    assertTrue(first != again && again.isFrozen());
+    assertEquals(3, again.getId());
+    assertEquals(PASSAGES, story.getLinkCount());
+  }
+
+  @Test
+  void link_to_missing_passage_throws() {
+    assertThrows(StoryValidationException.class,
+        () -> story.getPassage(new Link("Nowhere", "Nowhere")));
+  }
+
+  @Test
+  void paged_story_is_read_only() {
+    assertThrows(UnsupportedOperationException.class,
+        () -> story.addPassage(new Passage("New", "Content")));
+    assertThrows(UnsupportedOperationException.class, story::getPassagesMap);
+  }
+}
@@ -0,0 +1,81 @@
+package edu.ntnu.idatt2001.paths.model;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import edu.ntnu.idatt2001.paths.model.exceptions.ImageValidationException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import org.junit.jupiter.api.DisplayNameGeneration;
+import org.junit.jupiter.api.DisplayNameGenerator;
+import org.junit.jupiter.api.Test;
+
+@DisplayNameGeneration(DisplayNameGenerator.ReplaceUnderscores.class)
+class PassageImageTest {
+
+  private static final String CLASSPATH_IMAGE = "/images/passageImages/passageContentImages/gem.png";
+
+  /**
+   * Decodes an image into the bytes of its file, as a client without images would.
+   */
+  static byte[] readBytes(PassageImage image) {
+    try (InputStream stream = image.openStream()) {
+      return stream.readAllBytes();
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  @Test
+  void path_reference_is_not_decoded_before_it_is_used() {
+    PassageImage image = PassageImage.fromPath(CLASSPATH_IMAGE);
+    assertEquals(PassageImage.Source.CLASSPATH, image.getSource());
+    assertEquals(CLASSPATH_IMAGE, image.getPath());
+    assertFalse(image.isLoaded());
+  }
+
+  @Test
+  void image_is_decoded_once() {
+    PassageImage image = PassageImage.fromPath(CLASSPATH_IMAGE);
+    byte[] decoded = image.getImage(PassageImageTest::readBytes);
+    assertTrue(image.isLoaded());
+    assertTrue(decoded.length > 0);
+    assertSame(decoded, image.getImage(PassageImageTest::readBytes));
+  }
+
+  @Test
+  void uploaded_image_path_is_read_from_the_uploaded_images_directory() {
+    PassageImage image = PassageImage.fromPath("uploadedImages/picture.png");
+    assertEquals(PassageImage.Source.UPLOADED_IMAGES, image.getSource());
+  }
+
+  @Test
+  void missing_classpath_image_throws_when_used() {
+    PassageImage image = PassageImage.fromPath("/images/doesNotExist.png");
+    assertThrows(ImageValidationException.class,
+        () -> image.getImage(PassageImageTest::readBytes));
+  }
+
+  @Test
+  void blank_path_throws() {
+    assertThrows(ImageValidationException.class, () -> PassageImage.fromPath(" "));
+  }
+
+  @Test
+  void of_null_image_is_null() {
+    assertNull(PassageImage.of(null, null));
+  }
+
+  @Test
+  void decoded_image_is_kept_as_it_is() {
+    Object handle = new Object();
+    PassageImage image = PassageImage.of(handle, null);
+    assertEquals(PassageImage.Source.IN_MEMORY, image.getSource());
+    assertSame(handle, image.getImage(PassageImageTest::readBytes));
+  }
+}
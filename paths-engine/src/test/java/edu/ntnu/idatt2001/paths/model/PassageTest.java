@@ -135,34 +135,4 @@ public class PassageTest {
       assertThrows(PassageValidationException.class, () -> passage1.addLink(link));
     }
   }
-
-  @Nested
-  class MarkedActionAsPerformed {
-
-    @Test
-    public void test_marked_link_as_performed() {
-      // Given
-      Story story = new Story("title", passage1);
-      story.addPassage(passage3);
-
-      // Mark action as performed
-      Link lastLink = passage1.getLastLink();
-      passage1.markActionAsPerformed(lastLink);
-
-      // Then
-      assertTrue(passage1.hasPerformedAction(lastLink));
-    }
-
-    @Test
-    public void test_not_marked_link_as_not_performed() {
-      // Given
-      Story story = new Story("title", passage1);
-      story.addPassage(passage3);
-
-      // Then
-      assertFalse(passage2.hasPerformedAction(passage2.getLastLink()));
-    }
-
-  }
-
-}
\ No newline at end of file
+}
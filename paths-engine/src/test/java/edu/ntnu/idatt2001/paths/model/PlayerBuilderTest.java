@@ -10,7 +10,6 @@ import edu.ntnu.idatt2001.paths.model.player.PlayerBuilder;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
-import javafx.scene.image.Image;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayNameGeneration;
 import org.junit.jupiter.api.DisplayNameGenerator;
@@ -25,7 +24,7 @@ public class PlayerBuilderTest {
   private int score;
   private int gold;
   private List<String> inventory;
-  private Image image;
+  private PassageImage image;
 
   @BeforeEach
   public void setUp() {
@@ -34,7 +33,7 @@ public class PlayerBuilderTest {
     score = 200;
     gold = 300;
     inventory = Arrays.asList("item1", "item2", "item3");
-    image = null;  // Set your image here
+    image = PassageImage.fromPath("/images/playerImages/human.png");
 
     playerBuilder = new PlayerBuilder(GameDifficultyEnum.DEFAULT)
         .setName(name)
@@ -10,8 +10,6 @@ import edu.ntnu.idatt2001.paths.model.exceptions.PlayerValidationException;
 import edu.ntnu.idatt2001.paths.model.player.Player;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Objects;
-import javafx.scene.image.Image;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayNameGeneration;
 import org.junit.jupiter.api.DisplayNameGenerator;
@@ -24,8 +22,8 @@ public class PlayerTest {
   @Test
   public void can_instantiate_player_with_image_and_inventory() {
     List<String> inventory = List.of("Sword", "Potion");
-    Image image = new Image(Objects.requireNonNull(getClass().getResourceAsStream(
-        "/images/passageImages/passageContentImages/chest.png"))); // create an Image
+    PassageImage image = PassageImage.fromPath(
+        "/images/passageImages/passageContentImages/chest.png");
     Player player = new Player("Player", 100, 0, 0, inventory, image);
     assertEquals(2, player.getInventory().size());
     assertEquals(image, player.getImage());
@@ -104,8 +102,8 @@ public class PlayerTest {
     @Test
     public void can_set_and_get_image() {
       Player player = new Player("Player");
-      Image image = new Image(Objects.requireNonNull(getClass().getResourceAsStream(
-          "/images/passageImages/passageContentImages/chest.png"))); // create an Image
+      PassageImage image = PassageImage.fromPath(
+          "/images/passageImages/passageContentImages/chest.png");
       player.setImage(image);
       assertEquals(image, player.getImage());
     }
@@ -139,6 +137,29 @@ public class PlayerTest {
 
   }
 
+  @Nested
+  public class PlayerRestoreTest {
+
+    @Test
+    public void dead_player_with_negative_score_can_be_restored() {
+      Player player = Player.restore("Player", 0, -5, 10, List.of("Key"), null);
+      assertFalse(player.isAlive());
+      assertEquals(-5, player.getScore());
+      assertEquals(10, player.getGold());
+      assertTrue(player.isInInventory("key"));
+    }
+
+    @Test
+    public void restored_player_cannot_have_negative_health_or_gold() {
+      assertThrows(PlayerValidationException.class,
+          () -> Player.restore("Player", -1, 0, 0, List.of(), null));
+      assertThrows(PlayerValidationException.class,
+          () -> Player.restore("Player", 1, 0, -1, List.of(), null));
+      assertThrows(PlayerValidationException.class,
+          () -> Player.restore("", 1, 0, 0, List.of(), null));
+    }
+  }
+
   @Nested
   public class PlayerEqualityTest {
 
@@ -0,0 +1,195 @@
+package edu.ntnu.idatt2001.paths.model;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayNameGeneration;
+import org.junit.jupiter.api.DisplayNameGenerator;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+@DisplayNameGeneration(DisplayNameGenerator.ReplaceUnderscores.class)
+class StoryCacheTest {
+
+  private static final String STORY = """
+      Cached Story
+
+      ::Start
+      The beginning.
+      [Go on](End)
+
+      ::End
+      The end.
+      [Start over](Start)
+      """;
+
+  @TempDir
+  Path directory;
+
+  private StoryFileManager fileManager;
+  private int loads;
+
+  @BeforeEach
+  void setUp() {
+    fileManager = new StoryFileManager();
+    loads = 0;
+  }
+
+  private Story load(Path path) throws IOException {
+    loads++;
+    return fileManager.loadStoryFromFile(path);
+  }
+
+  private Path write(String name, String text) throws IOException {
+    return Files.writeString(directory.resolve(name), text, StandardCharsets.UTF_8);
+  }
+
+  @Test
+  void second_get_is_a_hit_that_shares_the_story() throws IOException {
+    StoryCache cache = new StoryCache(StoryCache.DEFAULT_MEMORY_BUDGET);
+    Path file = write("story.paths", STORY);
+
+    Story first = cache.get(file, this::load);
+    Story second = cache.get(directory.resolve(".").resolve("story.paths"), this::load);
+
+    assertSame(first, second);
+    assertTrue(first.isFrozen());
+    assertEquals(1, loads);
+    StoryCache.Statistics statistics = cache.getStatistics();
+    assertEquals(1, statistics.hits());
+    assertEquals(1, statistics.misses());
+    assertEquals(1, statistics.stories());
+  }
+
+  @Test
+  void changed_file_is_loaded_again() throws IOException {
+    StoryCache cache = new StoryCache(StoryCache.DEFAULT_MEMORY_BUDGET);
+    Path file = write("story.paths", STORY);
+    FileTime modified = Files.getLastModifiedTime(file);
+    Story first = cache.get(file, this::load);
+
+    // Same size, only the modification time tells the files apart
+    write("story.paths", STORY.replace("The end.", "The END."));
+    Files.setLastModifiedTime(file, FileTime.fromMillis(modified.toMillis() + 1000));
+    Story second = cache.get(file, this::load);
+
+    assertNotSame(first, second);
+    assertEquals("The END.", second.getPassage("End").getContent());
+    assertEquals(2, loads);
+    StoryCache.Statistics statistics = cache.getStatistics();
+    assertEquals(2, statistics.misses());
+    assertEquals(1, statistics.stories());
+    assertEquals(StoryCache.estimateWeight(second, Files.size(file)), statistics.weight());
+  }
+
+  @Test
+  void same_size_edit_that_keeps_the_modification_time_is_loaded_again() throws IOException {
+    StoryCache cache = new StoryCache(StoryCache.DEFAULT_MEMORY_BUDGET);
+    Path file = write("story.paths", STORY);
+    FileTime modified = Files.getLastModifiedTime(file);
+    cache.get(file, this::load);
+
+    // An edit within the granularity of the file system leaves the stamp as it was
+    write("story.paths", STORY.replace("The end.", "The END."));
+    Files.setLastModifiedTime(file, modified);
+    Story second = cache.get(file, this::load);
+    Story third = cache.get(file, this::load);
+
+    assertEquals("The END.", second.getPassage("End").getContent());
+    assertSame(second, third);
+    assertEquals(2, loads);
+  }
+
+  @Test
+  void file_older_than_the_granularity_is_a_hit_on_its_stamp_alone() throws IOException {
+    StoryCache cache = new StoryCache(StoryCache.DEFAULT_MEMORY_BUDGET);
+    Path file = write("story.paths", STORY);
+    long old = System.currentTimeMillis() - 10 * StoryCache.RACY_MILLIS;
+    Files.setLastModifiedTime(file, FileTime.fromMillis(old));
+
+    Story first = cache.get(file, this::load);
+    Story second = cache.get(file, this::load);
+
+    assertSame(first, second);
+    assertEquals(1, loads);
+    assertEquals(1, cache.getStatistics().hits());
+  }
+
+  @Test
+  void new_compiled_file_next_to_the_story_makes_it_load_again() throws IOException {
+    StoryCache cache = new StoryCache(StoryCache.DEFAULT_MEMORY_BUDGET);
+    Path file = write("story.paths", STORY);
+    StoryCache.StoryLoader loader = path -> {
+      loads++;
+      return fileManager.loadStoryFromMappedFile(path);
+    };
+    cache.get(file, loader);
+
+    write("story" + StoryFileManager.COMPILED_EXTENSION, "compiled");
+    cache.get(file, loader);
+    cache.get(file, loader);
+
+    assertEquals(2, loads);
+    assertEquals(1, cache.getStatistics().stories());
+  }
+
+  @Test
+  void least_recently_used_story_is_evicted_to_stay_within_budget() throws IOException {
+    Path first = write("first.paths", STORY);
+    Path second = write("second.paths", STORY.replace("Cached", "Second"));
+    Path third = write("third.paths", STORY.replace("Cached", "Third"));
+    long weight = StoryCache.estimateWeight(fileManager.loadStoryFromFile(first),
+        Files.size(first));
+    StoryCache cache = new StoryCache(2 * weight + 10);
+
+    cache.get(first, this::load);
+    cache.get(second, this::load);
+    cache.get(first, this::load);
+    cache.get(third, this::load);
+
+    StoryCache.Statistics statistics = cache.getStatistics();
+    assertEquals(1, statistics.evictions());
+    assertEquals(2, statistics.stories());
+    cache.get(first, this::load);
+    assertEquals(3, loads);
+    cache.get(second, this::load);
+    assertEquals(4, loads);
+  }
+
+  @Test
+  void story_larger_than_the_budget_is_not_cached() throws IOException {
+    StoryCache cache = new StoryCache(16);
+    Path file = write("story.paths", STORY);
+
+    cache.get(file, this::load);
+    cache.get(file, this::load);
+
+    assertEquals(2, loads);
+    assertEquals(0, cache.getStatistics().stories());
+  }
+
+  @Test
+  void failed_load_is_not_cached() throws IOException {
+    StoryCache cache = new StoryCache(StoryCache.DEFAULT_MEMORY_BUDGET);
+    Path file = write("broken.paths", STORY.replace("(End)", "(Nowhere)"));
+
+    assertThrows(IllegalArgumentException.class, () -> cache.get(file, this::load));
+    assertThrows(IllegalArgumentException.class, () -> cache.get(file, this::load));
+    assertEquals(2, loads);
+    assertEquals(0, cache.getStatistics().stories());
+  }
+
+  @Test
+  void budget_must_be_positive() {
+    assertThrows(IllegalArgumentException.class, () -> new StoryCache(0));
+  }
+}
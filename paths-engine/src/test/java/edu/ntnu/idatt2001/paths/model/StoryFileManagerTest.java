@@ -0,0 +1,616 @@
+package edu.ntnu.idatt2001.paths.model;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import edu.ntnu.idatt2001.paths.model.actions.GoldAction;
+import edu.ntnu.idatt2001.paths.model.actions.inventory.InventoryAction;
+import edu.ntnu.idatt2001.paths.model.exceptions.PassageValidationException;
+import edu.ntnu.idatt2001.paths.model.exceptions.StoryValidationException;
+import edu.ntnu.idatt2001.paths.model.file.Utf8Slice;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URISyntaxException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ForkJoinPool;
+import org.junit.jupiter.api.DisplayNameGeneration;
+import org.junit.jupiter.api.DisplayNameGenerator;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+@DisplayNameGeneration(DisplayNameGenerator.ReplaceUnderscores.class)
+class StoryFileManagerTest {
+
+  @Test
+  void test_load_story_with_circular_link_throws() {
+    String selectedStoryFilePath = "/testStories/storyWithCircularLink.paths";
+    InputStream inputStream = getClass().getResourceAsStream(selectedStoryFilePath);
+    StoryFileManager fileManager = new StoryFileManager();
+    assertThrows(PassageValidationException.class,
+        () -> fileManager.loadStoryFromFile(inputStream));
+  }
+
+  @Test
+  void test_load_story_with_duplicate_passage_throws() {
+    String selectedStoryFilePath = "/testStories/storyWithDuplicatePassages.paths";
+    InputStream inputStream = getClass().getResourceAsStream(selectedStoryFilePath);
+    StoryFileManager fileManager = new StoryFileManager();
+    assertThrows(StoryValidationException.class, () -> fileManager.loadStoryFromFile(inputStream));
+  }
+
+  @Test
+  void test_load_story_with_non_existent_link_throws() {
+    String selectedStoryFilePath = "/testStories/storyWithNonExistentLink.paths";
+    InputStream inputStream = getClass().getResourceAsStream(selectedStoryFilePath);
+    StoryFileManager fileManager = new StoryFileManager();
+    assertThrows(StoryValidationException.class, () -> fileManager.loadStoryFromFile(inputStream));
+  }
+
+  @Test
+  void test_load_story_with_no_links_throws() {
+    String selectedStoryFilePath = "/testStories/storyWithNoLinks.paths";
+    InputStream inputStream = getClass().getResourceAsStream(selectedStoryFilePath);
+    StoryFileManager fileManager = new StoryFileManager();
+    assertThrows(PassageValidationException.class,
+        () -> fileManager.loadStoryFromFile(inputStream));
+  }
+
+  @Nested
+  class LoadStoryFromFileTest {
+
+    @Test
+    void testLoadStoryFromFile() {
+      String selectedStoryFilePath = "/testStories/storyWithCorrectFormat.paths";
+      InputStream inputStream = getClass().getResourceAsStream(selectedStoryFilePath);
+
+      StoryFileManager fileManager = new StoryFileManager();
+      Story story = fileManager.loadStoryFromFile(inputStream);
+
+      assertEquals("Mysterious Forest", story.getTitle());
+      assertEquals(8, story.getPassagesMap().size());
+      assertNotNull(story.getOpeningPassage());
+      assertNotNull(story.getOpeningPassage().getBackgroundImageReference());
+      assertNotNull(story.getOpeningPassage().getContentImageReference());
+      assertEquals("Entrance", story.getOpeningPassage().getTitle());
+      List<Link> links = story.getOpeningPassage().getLinks();
+      assertEquals(2, links.size());
+      assertEquals("Take the left path", links.get(0).getText());
+
+      for (Passage passage : story.getPassages()) {
+        assertTrue(passage.hasLinks());
+        for (Link link : passage.getLinks()) {
+          if (link.linkHasItemRequirement()) {
+            assertNotNull(link.getRequiredItem());
+          }
+        }
+      }
+      assertTrue(links.get(0).getActions().get(0) instanceof InventoryAction);
+    }
+
+    @Test
+    void testLoadStoryFromFileWithPlaneStory() {
+      String selectedStoryFilePath = "/testStories/storyWithoutImagesActionsAndRequiredItems.paths";
+      InputStream inputStream = getClass().getResourceAsStream(selectedStoryFilePath);
+
+      StoryFileManager fileManager = new StoryFileManager();
+      Story story = fileManager.loadStoryFromFile(inputStream);
+
+      assertEquals("Mysterious Forest", story.getTitle());
+      assertEquals(8, story.getPassagesMap().size());
+      assertNotNull(story.getOpeningPassage());
+      assertEquals("Entrance", story.getOpeningPassage().getTitle());
+      List<Link> links = story.getOpeningPassage().getLinks();
+      assertEquals(2, links.size());
+      assertEquals("Take the left path", links.get(0).getText());
+      for (Passage passage : story.getPassages()) {
+        assertTrue(passage.hasLinks());
+        for (Link link : passage.getLinks()) {
+          assertNotNull(link.getReference());
+          assertNotNull(link.getText());
+        }
+      }
+    }
+  }
+
+  @Nested
+  class LoadStoryFromMappedFileTest {
+
+    private Path resourcePath(String name) throws URISyntaxException {
+      return Path.of(getClass().getResource(name).toURI());
+    }
+
+    @Test
+    void mapped_load_gives_the_same_story_as_stream_load() throws Exception {
+      String selectedStoryFilePath = "/testStories/storyWithCorrectFormat.paths";
+      StoryFileManager fileManager = new StoryFileManager();
+      Story streamed = fileManager.loadStoryFromFile(
+          getClass().getResourceAsStream(selectedStoryFilePath));
+      Story mapped = fileManager.loadStoryFromMappedFile(resourcePath(selectedStoryFilePath));
+
+      assertEquals(streamed.getTitle(), mapped.getTitle());
+      assertEquals(streamed.getPassagesMap().size(), mapped.getPassagesMap().size());
+      for (Passage passage : streamed.getPassages()) {
+        Passage mappedPassage = mapped.getPassage(new Link(passage.getTitle(), passage.getTitle()));
+        assertEquals(passage.getContent(), mappedPassage.getContent());
+        assertEquals(passage.getLinks().size(), mappedPassage.getLinks().size());
+      }
+    }
+
+    @Test
+    void mapped_load_validates_like_stream_load() throws URISyntaxException {
+      StoryFileManager fileManager = new StoryFileManager();
+      Path noLinks = resourcePath("/testStories/storyWithNoLinks.paths");
+      Path duplicates = resourcePath("/testStories/storyWithDuplicatePassages.paths");
+      assertThrows(PassageValidationException.class,
+          () -> fileManager.loadStoryFromMappedFile(noLinks));
+      assertThrows(StoryValidationException.class,
+          () -> fileManager.loadStoryFromMappedFile(duplicates));
+    }
+
+    @Test
+    void path_load_of_small_file_is_not_mapped() throws URISyntaxException, IOException {
+      StoryFileManager fileManager = new StoryFileManager();
+      Story story = fileManager.loadStoryFromFile(
+          resourcePath("/testStories/storyWithCorrectFormat.paths"));
+      assertEquals("Mysterious Forest", story.getTitle());
+    }
+
+    @Test
+    void utf8_slice_is_validated_without_being_decoded() {
+      byte[] bytes = "  \u00e6\u00f8\u00e5 content".getBytes(StandardCharsets.UTF_8);
+      Utf8Slice slice = new Utf8Slice(ByteBuffer.wrap(bytes), 0, bytes.length);
+      assertFalse(slice.startsWith("["));
+      assertFalse(slice.isDecoded());
+      assertEquals("  \u00e6\u00f8\u00e5 content", slice.toString());
+      assertTrue(slice.isDecoded());
+    }
+  }
+
+  @Nested
+  class LazyImageTest {
+
+    private Story loadCorrectFormatStory() {
+      return new StoryFileManager().loadStoryFromFile(
+          getClass().getResourceAsStream("/testStories/storyWithCorrectFormat.paths"));
+    }
+
+    @Test
+    void images_are_not_decoded_when_the_story_is_loaded() {
+      Story story = loadCorrectFormatStory();
+      for (Passage passage : story.getPassages()) {
+        if (passage.getBackgroundImageReference() != null) {
+          assertFalse(passage.getBackgroundImageReference().isLoaded());
+        }
+        if (passage.getContentImageReference() != null) {
+          assertFalse(passage.getContentImageReference().isLoaded());
+        }
+      }
+    }
+
+    @Test
+    void image_is_decoded_when_it_is_asked_for() {
+      Passage opening = loadCorrectFormatStory().getOpeningPassage();
+      assertNotNull(opening.getBackgroundImageReference().getImage(PassageImageTest::readBytes));
+      assertTrue(opening.getBackgroundImageReference().isLoaded());
+      assertFalse(opening.getContentImageReference().isLoaded());
+    }
+
+    @Test
+    void saved_story_keeps_the_image_paths(@TempDir Path directory) throws IOException {
+      Story story = loadCorrectFormatStory();
+      new StoryFileManager().saveStoryToFile(story, directory.toString());
+      String saved = Files.readString(directory.resolve("Mysterious_Forest.paths"));
+      assertTrue(saved.contains(
+          "^/images/passageImages/passageBackgroundImages/magicalForest.png^"));
+      assertTrue(saved.contains("|/images/passageImages/passageContentImages/crackleClaw.png|"));
+      assertFalse(story.getOpeningPassage().getBackgroundImageReference().isLoaded());
+    }
+  }
+
+  @Nested
+  class ParallelLoadTest {
+
+    private static String generateStory(int passages) {
+      StringBuilder sb = new StringBuilder("Generated Story\n\n");
+      for (int i = 0; i < passages; i++) {
+        sb.append("::Passage ").append(i).append('\n');
+        sb.append("You are in room number ").append(i).append(" of a long corridor.\n");
+        sb.append("|/images/passageImages/passageContentImages/gem.png|\n");
+        sb.append("[Walk further down](Passage ").append((i + 1) % passages).append(")\n");
+        sb.append("{GoldAction:5}{ScoreAction:2}\n");
+        sb.append("[Turn around](Passage ").append((i + passages - 1) % passages).append(")\n");
+        sb.append("[key}\n\n");
+      }
+      return sb.toString();
+    }
+
+    private Story load(StoryLoadMode mode, Path file) throws IOException {
+      ForkJoinPool pool = new ForkJoinPool(4);
+      try {
+        return new StoryFileManager(mode, pool).loadStoryFromFile(file);
+      } finally {
+        pool.shutdown();
+      }
+    }
+
+    private void assertSameOutcome(Path file) throws IOException {
+      Story sequential;
+      try {
+        sequential = load(StoryLoadMode.SEQUENTIAL, file);
+      } catch (IllegalArgumentException expected) {
+        IllegalArgumentException actual = assertThrows(IllegalArgumentException.class,
+            () -> load(StoryLoadMode.PARALLEL, file));
+        assertEquals(expected.getClass(), actual.getClass());
+        assertEquals(expected.getMessage(), actual.getMessage());
+        return;
+      }
+      Story parallel = load(StoryLoadMode.PARALLEL, file);
+      assertEquals(sequential.getTitle(), parallel.getTitle());
+      assertEquals(sequential.getOpeningPassage().getTitle(),
+          parallel.getOpeningPassage().getTitle());
+      assertEquals(List.copyOf(sequential.getPassagesMap().keySet()).toString(),
+          List.copyOf(parallel.getPassagesMap().keySet()).toString());
+      for (Passage passage : sequential.getPassages()) {
+        Passage parallelPassage = parallel.getPassage(
+            new Link(passage.getTitle(), passage.getTitle()));
+        assertEquals(passage.getContent(), parallelPassage.getContent());
+        assertEquals(passage.getLinks().toString(), parallelPassage.getLinks().toString());
+        for (int i = 0; i < passage.getLinks().size(); i++) {
+          assertEquals(passage.getLinks().get(i).getActions().size(),
+              parallelPassage.getLinks().get(i).getActions().size());
+        }
+      }
+    }
+
+    @Test
+    void parallel_load_of_a_large_story_is_identical(@TempDir Path directory)
+        throws IOException {
+      Path file = Files.writeString(directory.resolve("large.paths"), generateStory(1500));
+      assertTrue(Files.size(file) > 4 * 64 * 1024);
+      assertSameOutcome(file);
+    }
+
+    @Test
+    void parallel_load_fails_like_sequential_load(@TempDir Path directory)
+        throws IOException {
+      String story = generateStory(1500);
+      Path duplicate = Files.writeString(directory.resolve("duplicate.paths"),
+          story + "::Passage 1200\nAgain\n[Back](Passage 0)\n\n");
+      Path brokenLink = Files.writeString(directory.resolve("broken.paths"),
+          story.replace("(Passage 1400)", "(Nowhere)"));
+      Path invalidPassage = Files.writeString(directory.resolve("invalid.paths"),
+          story.replace("You are in room number 1300 ", "{You are in room number 1300 "));
+      assertSameOutcome(duplicate);
+      assertSameOutcome(brokenLink);
+      assertSameOutcome(invalidPassage);
+    }
+
+    @Test
+    void parallel_load_of_test_stories_is_identical() throws Exception {
+      for (String name : List.of("storyWithCorrectFormat", "storyWithNoLinks",
+          "storyWithDuplicatePassages", "storyWithNonExistentLink", "storyWithCircularLink",
+          "storyWithNoPassages", "storyWithoutImagesActionsAndRequiredItems")) {
+        assertSameOutcome(Path.of(getClass().getResource(
+            "/testStories/" + name + ".paths").toURI()));
+      }
+    }
+  }
+
+  @Nested
+  class LoadListenerTest {
+
+    @Test
+    void listener_is_told_about_every_passage(@TempDir Path directory) throws IOException {
+      Path file = Files.writeString(directory.resolve("story.paths"),
+          ParallelLoadTest.generateStory(300));
+      for (StoryLoadMode mode : StoryLoadMode.values()) {
+        List<Integer> progress = new ArrayList<>();
+        Story story = new StoryFileManager(mode).loadStoryFromFile(file, progress::add);
+        assertEquals(300, story.getPassages().size());
+        assertEquals(300, progress.size());
+        for (int i = 0; i < progress.size(); i++) {
+          assertEquals(i + 1, progress.get(i));
+        }
+      }
+    }
+
+    @Test
+    void interrupted_load_is_cancelled(@TempDir Path directory) throws IOException {
+      Path file = Files.writeString(directory.resolve("story.paths"),
+          ParallelLoadTest.generateStory(300));
+      List<Integer> progress = new ArrayList<>();
+      try {
+        assertThrows(CancellationException.class,
+            () -> new StoryFileManager().loadStoryFromFile(file, passagesLoaded -> {
+              progress.add(passagesLoaded);
+              if (passagesLoaded == 10) {
+                Thread.currentThread().interrupt();
+              }
+            }));
+      } finally {
+        Thread.interrupted();
+      }
+      assertEquals(10, progress.size());
+    }
+
+    @Test
+    void compiled_story_is_reported_when_it_is_loaded(@TempDir Path directory)
+        throws IOException {
+      StoryFileManager fileManager = new StoryFileManager();
+      Story story = fileManager.loadStoryFromFile(
+          getClass().getResourceAsStream("/testStories/storyWithCorrectFormat.paths"));
+      fileManager.compileStoryToFile(story, directory.toString());
+      List<Integer> progress = new ArrayList<>();
+      fileManager.loadStoryFromFile(directory.resolve("Mysterious_Forest.pathsc"), progress::add);
+      assertEquals(List.of(story.getPassages().size()), progress);
+    }
+  }
+
+  @Nested
+  class IncrementalSaveTest {
+
+    private static final String STORY = """
+        Edited Story
+
+        ::Start
+        The beginning of a rather long passage.
+        [Go on](Middle)
+
+        ::Middle
+        The middle.
+        [Go on](End)
+
+        ::End
+        The end.
+        [Start over](Start)
+        """;
+
+    private final StoryFileManager fileManager = new StoryFileManager();
+
+    /**
+     * Passage content that counts how many times it is turned into a string.
+     */
+    private static final class CountingText implements CharSequence {
+
+      private final String text;
+      private int reads;
+
+      CountingText(String text) {
+        this.text = text;
+      }
+
+      @Override
+      public int length() {
+        return text.length();
+      }
+
+      @Override
+      public char charAt(int index) {
+        return text.charAt(index);
+      }
+
+      @Override
+      public CharSequence subSequence(int start, int end) {
+        return text.subSequence(start, end);
+      }
+
+      @Override
+      public String toString() {
+        reads++;
+        return text;
+      }
+    }
+
+    private Story saveAndLoad(Path directory) throws IOException {
+      Path file = Files.writeString(directory.resolve("source.paths"), STORY);
+      Story story = fileManager.loadStoryFromFile(file);
+      fileManager.saveStoryToFile(story, directory.toString());
+      return story;
+    }
+
+    private Path fileOf(Path directory) {
+      return directory.resolve("Edited_Story.paths");
+    }
+
+    private Passage passage(Story story, String title) {
+      return story.getPassage(new Link(title, title));
+    }
+
+    private void assertReloads(Story expected, Path directory) throws IOException {
+      Story actual = fileManager.loadStoryFromFile(fileOf(directory));
+      assertEquals(expected.getOpeningPassage().getTitle(),
+          actual.getOpeningPassage().getTitle());
+      assertEquals(expected.getPassages().size(), actual.getPassages().size());
+      for (Passage passage : expected.getPassages()) {
+        Passage reloaded = passage(actual, passage.getTitle());
+        assertNotNull(reloaded, passage.getTitle());
+        assertEquals(passage.getContent(), reloaded.getContent());
+        assertEquals(passage.getLinks().size(), reloaded.getLinks().size());
+        for (int i = 0; i < passage.getLinks().size(); i++) {
+          assertEquals(passage.getLinks().get(i).getText(),
+              reloaded.getLinks().get(i).getText());
+        }
+      }
+    }
+
+    @Test
+    void opening_passage_is_written_first(@TempDir Path directory) throws IOException {
+      saveAndLoad(directory);
+      String text = Files.readString(fileOf(directory));
+      assertTrue(text.startsWith("Edited Story\n\n::Start\n"));
+    }
+
+    @Test
+    void unchanged_story_is_not_written(@TempDir Path directory) throws IOException {
+      Story story = saveAndLoad(directory);
+      Files.setLastModifiedTime(fileOf(directory),
+          Files.getLastModifiedTime(fileOf(directory)));
+      byte[] before = Files.readAllBytes(fileOf(directory));
+      fileManager.saveStoryToFile(story, directory.toString());
+      assertEquals(new String(before, StandardCharsets.UTF_8),
+          Files.readString(fileOf(directory)));
+    }
+
+    @Test
+    void shorter_passage_is_written_in_place(@TempDir Path directory) throws IOException {
+      Story story = saveAndLoad(directory);
+      long size = Files.size(fileOf(directory));
+      passage(story, "Middle").setContent("Mid.");
+      fileManager.saveStoryToFile(story, directory.toString());
+
+      assertEquals(size, Files.size(fileOf(directory)));
+      assertReloads(story, directory);
+    }
+
+    @Test
+    void longer_passage_is_appended(@TempDir Path directory) throws IOException {
+      Story story = saveAndLoad(directory);
+      long size = Files.size(fileOf(directory));
+      passage(story, "Middle").setContent("The middle, which has become a lot longer.");
+      fileManager.saveStoryToFile(story, directory.toString());
+
+      String text = Files.readString(fileOf(directory));
+      assertTrue(Files.size(fileOf(directory)) > size);
+      assertTrue(text.indexOf("::Middle") > text.indexOf("::End"));
+      assertReloads(story, directory);
+    }
+
+    @Test
+    void added_and_removed_passages_are_saved(@TempDir Path directory) throws IOException {
+      Story story = saveAndLoad(directory);
+      Passage extra = new Passage("Extra", "An extra passage.");
+      extra.addLink(new Link("Back", "Start"));
+      story.addPassage(extra);
+      passage(story, "Start").addLink(new Link("Extra", "Extra"));
+      fileManager.saveStoryToFile(story, directory.toString());
+      assertReloads(story, directory);
+
+      passage(story, "Start").getLinks().removeIf(link -> link.getReference().equals("Extra"));
+      story.removePassageUsingPassage(extra);
+      fileManager.saveStoryToFile(story, directory.toString());
+      assertFalse(Files.readString(fileOf(directory)).contains("::Extra"));
+      assertReloads(story, directory);
+    }
+
+    @Test
+    void link_and_action_changes_are_saved(@TempDir Path directory) throws IOException {
+      Story story = saveAndLoad(directory);
+      Link link = passage(story, "Middle").getLinks().get(0);
+      link.addAction(new GoldAction(10));
+      fileManager.saveStoryToFile(story, directory.toString());
+      assertTrue(Files.readString(fileOf(directory)).contains("{GoldAction:10}"));
+
+      link.getActions().get(0).setValue("25");
+      fileManager.saveStoryToFile(story, directory.toString());
+      assertTrue(Files.readString(fileOf(directory)).contains("{GoldAction:25}"));
+
+      link.setText("Walk on");
+      link.setRequiredItem(new InventoryAction("sword"));
+      fileManager.saveStoryToFile(story, directory.toString());
+      assertTrue(Files.readString(fileOf(directory)).contains("[sword}"));
+      assertReloads(story, directory);
+
+      link.getActions().clear();
+      fileManager.saveStoryToFile(story, directory.toString());
+      assertFalse(Files.readString(fileOf(directory)).contains("GoldAction"));
+    }
+
+    @Test
+    void unchanged_passages_are_not_read_when_saved(@TempDir Path directory)
+        throws IOException {
+      CountingText content = new CountingText("The beginning, read only when it is written.");
+      Passage start = new Passage("Start", content, null, null);
+      start.addLink(new Link("Go on", "End"));
+      Passage end = new Passage("End", "The end.");
+      end.addLink(new Link("Start over", "Start"));
+      Story story = new Story("Edited Story", start);
+      story.addPassage(end);
+      fileManager.saveStoryToFile(story, directory.toString());
+      int reads = content.reads;
+
+      end.setContent("The new end.");
+      end.getLinks().get(0).setText("Once more");
+      fileManager.saveStoryToFile(story, directory.toString());
+
+      assertEquals(reads, content.reads);
+      assertReloads(story, directory);
+    }
+
+    @Test
+    void action_values_set_outside_the_story_do_not_make_it_read_its_passages(
+        @TempDir Path directory) throws IOException {
+      CountingText content = new CountingText("The beginning, read only when it is written.");
+      Passage start = new Passage("Start", content, null, null);
+      Link link = new Link("Go on", "End");
+      GoldAction removed = new GoldAction(5);
+      link.addAction(removed);
+      link.addAction(new GoldAction(10));
+      start.addLink(link);
+      Passage end = new Passage("End", "The end.");
+      end.addLink(new Link("Start over", "Start"));
+      Story story = new Story("Edited Story", start);
+      story.addPassage(end);
+      link.getActions().remove(removed);
+      fileManager.saveStoryToFile(story, directory.toString());
+      int reads = content.reads;
+
+      new GoldAction(1).setValue("2");
+      removed.setValue("50");
+      fileManager.saveStoryToFile(story, directory.toString());
+      assertEquals(reads, content.reads);
+
+      link.getActions().get(0).setValue("25");
+      fileManager.saveStoryToFile(story, directory.toString());
+      assertTrue(content.reads > reads);
+      assertTrue(Files.readString(fileOf(directory)).contains("{GoldAction:25}"));
+    }
+
+    @Test
+    void story_loaded_from_a_mapped_file_is_saved_over_it(@TempDir Path directory)
+        throws IOException {
+      Files.writeString(fileOf(directory), STORY);
+      Story story = fileManager.loadStoryFromMappedFile(fileOf(directory));
+      passage(story, "Start").setContent("A short beginning.");
+      fileManager.saveStoryToFile(story, directory.toString());
+
+      assertEquals("The middle.", passage(story, "Middle").getContent());
+      assertReloads(story, directory);
+      try (var files = Files.list(directory)) {
+        assertEquals(1, files.count());
+      }
+    }
+
+    @Test
+    void file_changed_by_someone_else_is_written_again(@TempDir Path directory)
+        throws IOException {
+      Story story = saveAndLoad(directory);
+      Files.writeString(fileOf(directory), "Something else entirely\n");
+      passage(story, "End").setContent("The new end.");
+      fileManager.saveStoryToFile(story, directory.toString());
+      assertReloads(story, directory);
+    }
+
+    @Test
+    void file_with_many_blank_lines_is_compacted(@TempDir Path directory) throws IOException {
+      Story story = saveAndLoad(directory);
+      for (int i = 0; i < 10; i++) {
+        passage(story, "End").setContent("The end, version " + i + " of many.".repeat(i));
+        fileManager.saveStoryToFile(story, directory.toString());
+        assertReloads(story, directory);
+      }
+      String text = Files.readString(fileOf(directory));
+      assertFalse(text.contains("\n".repeat(64)));
+      assertTrue(Files.size(fileOf(directory)) < 1000);
+    }
+  }
+}
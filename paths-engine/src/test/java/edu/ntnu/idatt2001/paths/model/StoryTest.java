@@ -4,14 +4,22 @@ import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import edu.ntnu.idatt2001.paths.model.actions.GoldAction;
+import edu.ntnu.idatt2001.paths.model.actions.inventory.InventoryAction;
 import edu.ntnu.idatt2001.paths.model.exceptions.StoryValidationException;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayNameGeneration;
 import org.junit.jupiter.api.DisplayNameGenerator;
@@ -333,5 +341,298 @@ public class StoryTest {
     }
   }
 
+  @Nested
+  public class TitleLookupTest {
+
+    @Test
+    public void passage_is_found_by_title() {
+      Passage passage = new Passage("new valid passage", "content");
+      Story story = new Story("new story", passage);
+      assertEquals(passage, story.getPassage("new valid passage"));
+      assertTrue(story.hasPassage("new valid passage"));
+      assertNull(story.getPassage("missing passage"));
+      assertFalse(story.hasPassage("missing passage"));
+    }
+
+    @Test
+    public void passages_are_kept_in_the_order_they_were_added() {
+      Story story = new Story("new story", new Passage("passage 0", "content"));
+      for (int i = 1; i < 100; i++) {
+        story.addPassage(new Passage("passage " + i, "content"));
+      }
+      int i = 0;
+      for (Passage passage : story.getPassages()) {
+        assertEquals("passage " + i++, passage.getTitle());
+      }
+    }
+
+    @Test
+    public void removed_passage_is_no_longer_found() {
+      Passage opening = new Passage("opening passage", "content");
+      Passage passage = new Passage("new valid passage", "content");
+      Story story = new Story("new story", opening);
+      story.addPassage(passage);
+      story.removePassageUsingPassage(passage);
+      assertFalse(story.hasPassage("new valid passage"));
+      assertEquals(1, story.getPassagesMap().size());
+    }
+
+    @Test
+    public void broken_links_are_found_by_title() {
+      Passage opening = new Passage("opening passage", "content");
+      opening.addLink(new Link("Go on", "new valid passage"));
+      opening.addLink(new Link("Nowhere", "missing passage"));
+      Story story = new Story("new story", opening);
+      story.addPassage(new Passage("new valid passage", "content"));
+      assertEquals(1, story.getBrokenLinks().size());
+      assertEquals("missing passage", story.getBrokenLinks().get(0).getReference());
+    }
+
+    @Test
+    public void passages_map_can_not_be_changed() {
+      Passage passage = new Passage("new valid passage", "content");
+      Story story = new Story("new story", passage);
+      assertThrows(UnsupportedOperationException.class,
+          () -> story.getPassagesMap().clear());
+    }
+  }
+
+  @Nested
+  public class ReferenceIndexTest {
+
+    private Passage opening;
+    private Link toMiddle;
+    private Link toEnd;
+    private Story story;
+
+    @BeforeEach
+    public void setUp() {
+      opening = new Passage("opening passage", "content");
+      toMiddle = new Link("Go to middle", "middle passage");
+      toEnd = new Link("Go to end", "end passage");
+      opening.addLink(toMiddle);
+      opening.addLink(toEnd);
+      story = new Story("new story", opening);
+      story.addPassage(new Passage("middle passage", "content"));
+    }
+
+    @Test
+    public void link_to_missing_passage_is_broken_until_the_passage_is_added() {
+      assertEquals(List.of(toEnd), story.getBrokenLinks());
+      story.addPassage(new Passage("end passage", "content"));
+      assertTrue(story.getBrokenLinks().isEmpty());
+    }
+
+    @Test
+    public void changed_reference_is_tracked() {
+      toEnd.setReference("middle passage");
+      assertTrue(story.getBrokenLinks().isEmpty());
+      assertEquals(2, story.getIncomingLinks("middle passage").size());
+      toMiddle.setReference("nowhere");
+      assertEquals(List.of(toMiddle), story.getBrokenLinks());
+    }
 
+    @Test
+    public void changed_title_is_tracked() {
+      Passage middle = story.getPassage("middle passage");
+      middle.setTitle("end passage");
+      assertEquals(middle, story.getPassage("end passage"));
+      assertFalse(story.hasPassage("middle passage"));
+      assertEquals(List.of(toMiddle), story.getBrokenLinks());
+    }
+
+    @Test
+    public void title_of_another_passage_can_not_be_taken() {
+      Passage middle = story.getPassage("middle passage");
+      assertThrows(StoryValidationException.class, () -> middle.setTitle("opening passage"));
+      assertEquals("middle passage", middle.getTitle());
+    }
+
+    @Test
+    public void links_removed_through_the_list_are_tracked() {
+      opening.getLinks().removeIf(link -> link == toEnd);
+      assertTrue(story.getBrokenLinks().isEmpty());
+      opening.getLinks().add(new Link("Again", "end passage"));
+      assertEquals(1, story.getBrokenLinks().size());
+      opening.removeLink(toMiddle);
+      assertTrue(story.getIncomingLinks("middle passage").isEmpty());
+    }
+
+    @Test
+    public void removed_passage_takes_the_links_to_it_along() {
+      story.removePassageUsingPassage(story.getPassage("middle passage"));
+      assertEquals(List.of(toEnd), opening.getLinks());
+      assertTrue(story.getIncomingLinks("middle passage").isEmpty());
+    }
+  }
+  @Nested
+  public class FreezeTest {
+
+    private Passage opening;
+    private Link toMiddle;
+    private Story story;
+
+    @BeforeEach
+    public void setUp() {
+      opening = new Passage("opening passage", "content");
+      toMiddle = new Link("Go to middle", "middle passage");
+      toMiddle.addAction(new GoldAction(10));
+      toMiddle.setRequiredItem(new InventoryAction("key"));
+      opening.addLink(toMiddle);
+      opening.addLink(new Link("Go to end", "end passage"));
+      story = new Story("new story", opening);
+      Passage middle = new Passage("middle passage", "content");
+      middle.addLink(new Link("Go back", "opening passage"));
+      story.addPassage(middle);
+    }
+
+    @Test
+    public void action_summary_of_a_link_is_the_same_in_the_snapshot() {
+      InventoryAction sword = new InventoryAction("sword");
+      sword.setValue("Sword");
+      toMiddle.addAction(sword);
+      toMiddle.getRequiredItem().setValue("Key");
+
+      Link frozen = story.freeze().getOpeningPassage().getLinks().get(0);
+
+      assertTrue(toMiddle.getActionSummary().endsWith("You obtained Sword item\n"));
+      assertEquals(toMiddle.getActionSummary(), frozen.getActionSummary());
+      assertEquals(toMiddle.getRequiredItem().getDescription(),
+          frozen.getRequiredItem().getDescription());
+      assertEquals("sword", frozen.getActions().get(1).getValue());
+    }
+
+    @Test
+    public void snapshot_is_equal_to_the_story() {
+      Story snapshot = story.freeze();
+
+      assertTrue(snapshot.isFrozen());
+      assertFalse(story.isFrozen());
+      assertEquals(story, snapshot);
+      assertEquals(story.hashCode(), snapshot.hashCode());
+      assertEquals("opening passage", snapshot.getOpeningPassage().getTitle());
+      assertSame(snapshot.getOpeningPassage(), snapshot.getPassage("opening passage"));
+      assertEquals(List.of("Go to middle", "Go to end"),
+          snapshot.getOpeningPassage().getLinks().stream().map(Link::getText).toList());
+      assertEquals(1, snapshot.getBrokenLinks().size());
+      assertSame(snapshot, snapshot.freeze());
+    }
+
+    @Test
+    public void changes_to_the_story_do_not_show_in_the_snapshot() {
+      Story snapshot = story.freeze();
+
+      toMiddle.setText("Walk to middle");
+      toMiddle.getActions().get(0).setValue("20");
+      opening.setContent("new content");
+      story.getPassage("middle passage").setTitle("renamed passage");
+      story.addPassage(new Passage("end passage", "content"));
+
+      Passage frozenOpening = snapshot.getPassage("opening passage");
+      Link frozenLink = frozenOpening.getLinks().get(0);
+      assertEquals("content", frozenOpening.getContent());
+      assertEquals("Go to middle", frozenLink.getText());
+      assertEquals(10, frozenLink.getActions().get(0).getValue());
+      assertEquals("key", frozenLink.getRequiredItem().getValue());
+      assertTrue(snapshot.hasPassage("middle passage"));
+      assertFalse(snapshot.hasPassage("end passage"));
+      assertEquals(1, snapshot.getBrokenLinks().size());
+    }
+
+    @Test
+    public void snapshot_can_not_be_changed() {
+      Story snapshot = story.freeze();
+      Passage passage = snapshot.getOpeningPassage();
+      Link link = passage.getLinks().get(0);
+
+      assertThrows(UnsupportedOperationException.class,
+          () -> snapshot.addPassage(new Passage("end passage", "content")));
+      assertThrows(UnsupportedOperationException.class,
+          () -> snapshot.removePassageUsingPassage(passage));
+      assertThrows(UnsupportedOperationException.class, () -> passage.setTitle("new title"));
+      assertThrows(UnsupportedOperationException.class, () -> passage.setContent("new content"));
+      assertThrows(UnsupportedOperationException.class,
+          () -> passage.addLink(new Link("Go to end", "end passage")));
+      assertThrows(UnsupportedOperationException.class, () -> passage.getLinks().remove(0));
+      assertThrows(UnsupportedOperationException.class, () -> link.setReference("nowhere"));
+      assertThrows(UnsupportedOperationException.class, () -> link.addAction(new GoldAction(5)));
+      assertThrows(UnsupportedOperationException.class, () -> link.getActions().clear());
+      assertThrows(UnsupportedOperationException.class,
+          () -> link.getActions().get(0).setValue("20"));
+      assertThrows(UnsupportedOperationException.class,
+          () -> link.getRequiredItem().setValue("sword"));
+      assertTrue(passage.isFrozen() && link.isFrozen());
+    }
+
+    @Test
+    public void links_of_the_snapshot_are_numbered_from_zero() {
+      Story snapshot = story.freeze();
+
+      assertEquals(3, snapshot.getLinkCount());
+      assertEquals(List.of(0, 1), snapshot.getOpeningPassage().getLinks().stream()
+          .map(Link::getId).toList());
+      assertEquals(2, snapshot.getPassage("middle passage").getLinks().get(0).getId());
+      assertEquals(-1, toMiddle.getId());
+      assertEquals(0, story.getLinkCount());
+    }
+
+    @Test
+    public void frozen_passage_is_numbered_again_in_another_snapshot() {
+      Passage frozen = story.freeze().getPassage("middle passage");
+      Story other = new Story("other story", new Passage("opening passage", "content"));
+      other.getOpeningPassage().addLink(new Link("Go to middle", "middle passage"));
+      other.addPassage(frozen);
+
+      Story snapshot = other.freeze();
+
+      assertEquals(2, snapshot.getLinkCount());
+      assertEquals(1, snapshot.getPassage("middle passage").getLinks().get(0).getId());
+      assertEquals(2, frozen.getLinks().get(0).getId());
+    }
+
+    @Test
+    public void frozen_passage_can_be_added_to_another_story() {
+      Passage frozen = story.freeze().getPassage("middle passage");
+      Story other = new Story("other story", new Passage("opening passage", "content"));
+
+      other.addPassage(frozen);
+
+      assertSame(frozen, other.getPassage("middle passage"));
+      assertEquals(1, other.getIncomingLinks("opening passage").size());
+    }
+
+    @Test
+    public void snapshot_is_read_by_many_threads_while_the_story_is_changed() throws Exception {
+      Story snapshot = story.freeze();
+      int expected = snapshot.hashCode();
+      ExecutorService executor = Executors.newFixedThreadPool(4);
+      try {
+        List<Future<Integer>> readers = new ArrayList<>();
+        for (int reader = 0; reader < 4; reader++) {
+          readers.add(executor.submit(() -> {
+            int hash = 0;
+            for (int round = 0; round < 1000; round++) {
+              Passage passage = snapshot.getOpeningPassage();
+              for (Link link : passage.getLinks()) {
+                hash += link.getActions().size();
+                if (snapshot.hasPassage(link.getReference())) {
+                  hash += snapshot.getPassage(link.getReference()).getLinks().size();
+                }
+              }
+            }
+            return hash + snapshot.hashCode();
+          }));
+        }
+        for (int i = 0; i < 1000; i++) {
+          opening.addLink(new Link("Go again", "middle passage"));
+          opening.removeLink(opening.getLastLink());
+        }
+        for (Future<Integer> reader : readers) {
+          assertEquals(1000 * 2 + expected, reader.get());
+        }
+      } finally {
+        executor.shutdown();
+      }
+    }
+  }
 }
@@ -0,0 +1,207 @@
+package edu.ntnu.idatt2001.paths.model.actions;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import edu.ntnu.idatt2001.paths.model.Link;
+import edu.ntnu.idatt2001.paths.model.Passage;
+import edu.ntnu.idatt2001.paths.model.Story;
+import edu.ntnu.idatt2001.paths.model.actions.inventory.InventoryAction;
+import edu.ntnu.idatt2001.paths.model.actions.inventory.InventoryItemEnum;
+import edu.ntnu.idatt2001.paths.model.game.Game;
+import edu.ntnu.idatt2001.paths.model.goals.GoalsEnum;
+import edu.ntnu.idatt2001.paths.model.player.Player;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import org.junit.jupiter.api.DisplayNameGeneration;
+import org.junit.jupiter.api.DisplayNameGenerator;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+@DisplayNameGeneration(DisplayNameGenerator.ReplaceUnderscores.class)
+public class LinkEffectTest {
+
+  private static Player player(int health, int score, int gold) {
+    return Player.restore("Player", health, score, gold, List.of("sword"), null);
+  }
+
+  private static Player executed(Player player, List<Action<?>> actions) {
+    for (Action<?> action : actions) {
+      action.execute(player);
+    }
+    return player;
+  }
+
+  private static Player applied(Player player, List<Action<?>> actions) {
+    LinkEffect.compile(actions).applyTo(player);
+    return player;
+  }
+
+  private static void assertSamePlayer(Player expected, Player actual) {
+    assertEquals(expected.getHealth(), actual.getHealth(), "health");
+    assertEquals(expected.getGold(), actual.getGold(), "gold");
+    assertEquals(expected.getScore(), actual.getScore(), "score");
+    assertEquals(expected.getInventory(), actual.getInventory(), "inventory");
+  }
+
+  private static void assertSameAsExecuted(int health, int score, int gold,
+      List<Action<?>> actions) {
+    assertSamePlayer(executed(player(health, score, gold), actions),
+        applied(player(health, score, gold), actions));
+  }
+
+  @Nested
+  public class Equivalence {
+
+    @Test
+    public void loss_then_gain_keeps_the_gain_after_health_and_gold_drop_to_zero() {
+      List<Action<?>> actions = List.of(new HealthAction(-50), new GoldAction(-50),
+          new HealthAction(30), new GoldAction(30));
+
+      Player player = applied(player(10, 0, 10), actions);
+
+      assertEquals(30, player.getHealth());
+      assertEquals(30, player.getGold());
+      assertSameAsExecuted(10, 0, 10, actions);
+    }
+
+    @Test
+    public void gain_then_loss_ends_at_zero() {
+      List<Action<?>> actions = List.of(new HealthAction(30), new HealthAction(-50),
+          new GoldAction(30), new GoldAction(-50));
+
+      Player player = applied(player(10, 0, 10), actions);
+
+      assertEquals(0, player.getHealth());
+      assertEquals(0, player.getGold());
+      assertSameAsExecuted(10, 0, 10, actions);
+    }
+
+    @Test
+    public void only_the_changes_after_the_last_drop_to_zero_count() {
+      List<Action<?>> actions = List.of(new HealthAction(-100), new HealthAction(40),
+          new HealthAction(-100), new HealthAction(20), new HealthAction(-5));
+
+      assertEquals(15, applied(player(50, 0, 0), actions).getHealth());
+      assertSameAsExecuted(50, 0, 0, actions);
+    }
+
+    @Test
+    public void score_is_not_held_at_zero() {
+      List<Action<?>> actions = List.of(new ScoreAction(-100), new ScoreAction(30));
+
+      assertEquals(-60, applied(player(1, 10, 0), actions).getScore());
+      assertSameAsExecuted(1, 10, 0, actions);
+    }
+
+    @Test
+    public void dead_player_can_gain_health_again() {
+      assertSameAsExecuted(0, 0, 0, List.of(new HealthAction(-10), new HealthAction(10)));
+    }
+
+    @Test
+    public void items_are_added_in_order_with_duplicates() {
+      List<Action<?>> actions = List.of(new InventoryAction("key"), new GoldAction(5),
+          new InventoryAction("sword"), new InventoryAction("key"));
+
+      assertEquals(List.of("sword", "key", "sword", "key"),
+          applied(player(1, 0, 0), actions).getInventory());
+      assertSameAsExecuted(1, 0, 0, actions);
+    }
+
+    @Test
+    public void no_actions_change_nothing() {
+      assertSameAsExecuted(7, 3, 5, List.of());
+    }
+
+    @Test
+    public void random_links_do_the_same_as_their_actions_one_by_one() {
+      Random random = new Random(2001);
+      InventoryItemEnum[] items = InventoryItemEnum.values();
+      for (int run = 0; run < 20_000; run++) {
+        List<Action<?>> actions = new ArrayList<>();
+        int count = random.nextInt(9);
+        for (int i = 0; i < count; i++) {
+          int value = random.nextInt(201) - 100;
+          actions.add(switch (random.nextInt(4)) {
+            case 0 -> new HealthAction(value);
+            case 1 -> new GoldAction(value);
+            case 2 -> new ScoreAction(value);
+            default -> new InventoryAction(items[random.nextInt(items.length)].getName());
+          });
+        }
+        int health = random.nextInt(4) == 0 ? 0 : random.nextInt(300);
+        int gold = random.nextInt(4) == 0 ? 0 : random.nextInt(300);
+        int score = random.nextInt(401) - 200;
+
+        assertSameAsExecuted(health, score, gold, actions);
+      }
+    }
+  }
+
+  @Nested
+  public class Compile {
+
+    @Test
+    public void changes_are_summed() {
+      LinkEffect effect = LinkEffect.compile(List.of(new GoldAction(10), new ScoreAction(5),
+          new GoldAction(-3), new HealthAction(7), new ScoreAction(-1)));
+
+      assertEquals(7, effect.getGold());
+      assertEquals(7, effect.getHealth());
+      assertEquals(4, effect.getScore());
+      assertEquals(0, effect.getItemCount());
+      assertTrue(effect.clamps());
+    }
+
+    @Test
+    public void gains_only_do_not_clamp() {
+      assertFalse(LinkEffect.compile(List.of(new GoldAction(10), new HealthAction(5),
+          new ScoreAction(-5))).clamps());
+    }
+  }
+
+  @Nested
+  public class FrozenLinks {
+
+    private Story story() {
+      Passage start = new Passage("Start", "Content of Start");
+      Link link = new Link("Take the treasure", "End");
+      link.addAction(new HealthAction(-40));
+      link.addAction(new GoldAction(60));
+      link.addAction(new InventoryAction("crown"));
+      link.addAction(new HealthAction(25));
+      start.addLink(link);
+      Story story = new Story("Treasure", start);
+      story.addPassage(new Passage("End", "Content of End"));
+      return story;
+    }
+
+    @Test
+    public void only_frozen_links_are_fused() {
+      Story story = story();
+
+      assertNull(story.getOpeningPassage().getLinks().get(0).getEffect());
+      LinkEffect effect = story.freeze().getOpeningPassage().getLinks().get(0).getEffect();
+      assertEquals(-15, effect.getHealth());
+      assertEquals("crown", effect.getItem(0));
+    }
+
+    @Test
+    public void game_applies_the_effect_of_a_frozen_link_like_its_actions() {
+      Story story = story();
+      Story frozen = story.freeze();
+      Game game = new Game(player(30, 0, 0), story, GoalsEnum.getDefaultGoals());
+      Game frozenGame = new Game(player(30, 0, 0), frozen, GoalsEnum.getDefaultGoals());
+
+      game.executeAction(story.getOpeningPassage().getLinks().get(0));
+      frozenGame.executeAction(frozen.getOpeningPassage().getLinks().get(0));
+
+      assertEquals(25, frozenGame.getPlayer().getHealth());
+      assertSamePlayer(game.getPlayer(), frozenGame.getPlayer());
+    }
+  }
+}
@@ -0,0 +1,215 @@
+package edu.ntnu.idatt2001.paths.model.file;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import edu.ntnu.idatt2001.paths.model.Link;
+import edu.ntnu.idatt2001.paths.model.Passage;
+import edu.ntnu.idatt2001.paths.model.PassageImage;
+import edu.ntnu.idatt2001.paths.model.Story;
+import edu.ntnu.idatt2001.paths.model.StoryFileManager;
+import edu.ntnu.idatt2001.paths.model.actions.Action;
+import edu.ntnu.idatt2001.paths.model.exceptions.ImageValidationException;
+import edu.ntnu.idatt2001.paths.model.exceptions.StoryValidationException;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32;
+import java.nio.file.attribute.FileTime;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayNameGeneration;
+import org.junit.jupiter.api.DisplayNameGenerator;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+@DisplayNameGeneration(DisplayNameGenerator.ReplaceUnderscores.class)
+class CompiledStoryReaderTest {
+
+  private Story story;
+  private byte[] compiled;
+
+  @BeforeEach
+  void setUp() throws IOException {
+    story = new StoryFileManager().loadStoryFromFile(
+        getClass().getResourceAsStream("/testStories/storyWithCorrectFormat.paths"));
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    new CompiledStoryWriter().write(story, out);
+    compiled = out.toByteArray();
+  }
+
+  @Nested
+  class RoundTripTest {
+
+    @Test
+    void compiled_story_has_the_same_passages_links_and_actions() {
+      Story loaded = new CompiledStoryReader().read(ByteBuffer.wrap(compiled));
+
+      assertEquals(story.getTitle(), loaded.getTitle());
+      assertEquals(story.getOpeningPassage().getTitle(), loaded.getOpeningPassage().getTitle());
+      assertEquals(story.getPassages().size(), loaded.getPassages().size());
+      for (Passage passage : story.getPassages()) {
+        Passage loadedPassage = loaded.getPassage(new Link(passage.getTitle(), passage.getTitle()));
+        assertEquals(passage.getContent(), loadedPassage.getContent());
+        assertEquals(imagePath(passage.getBackgroundImageReference()),
+            imagePath(loadedPassage.getBackgroundImageReference()));
+        assertEquals(imagePath(passage.getContentImageReference()),
+            imagePath(loadedPassage.getContentImageReference()));
+        assertEquals(passage.getLinks().size(), loadedPassage.getLinks().size());
+        for (int i = 0; i < passage.getLinks().size(); i++) {
+          Link link = passage.getLinks().get(i);
+          Link loadedLink = loadedPassage.getLinks().get(i);
+          assertEquals(link.getText(), loadedLink.getText());
+          assertEquals(link.getReference(), loadedLink.getReference());
+          assertEquals(link.linkHasItemRequirement(), loadedLink.linkHasItemRequirement());
+          assertEquals(link.getActions().size(), loadedLink.getActions().size());
+          for (int j = 0; j < link.getActions().size(); j++) {
+            Action<?> action = link.getActions().get(j);
+            Action<?> loadedAction = loadedLink.getActions().get(j);
+            assertEquals(action.getType(), loadedAction.getType());
+            assertEquals(action.getValue(), loadedAction.getValue());
+          }
+        }
+      }
+    }
+
+    @Test
+    void compiled_story_images_are_not_decoded() {
+      Story loaded = new CompiledStoryReader().read(ByteBuffer.wrap(compiled));
+      assertFalse(loaded.getOpeningPassage().getBackgroundImageReference().isLoaded());
+    }
+
+    @Test
+    void path_load_uses_a_compiled_file_only_while_it_matches_the_text(@TempDir Path directory)
+        throws IOException {
+      StoryFileManager fileManager = new StoryFileManager();
+      fileManager.saveStoryToFile(story, directory.toString());
+      Path text = directory.resolve("Mysterious_Forest.paths");
+      Path compiledFile = fileManager.compileStoryFile(text);
+      assertEquals(directory.resolve("Mysterious_Forest.pathsc"), compiledFile);
+      assertEquals(SourceStamp.of(ByteBuffer.wrap(Files.readAllBytes(text))),
+          CompiledStoryReader.readSourceStamp(compiledFile));
+
+      // A compiled file that matches the text is loaded in its place
+      byte[] bytes = Files.readAllBytes(compiledFile);
+      bytes[bytes.length - 1] ^= 1;
+      Files.write(compiledFile, bytes);
+      assertThrows(StoryValidationException.class, () -> fileManager.loadStoryFromFile(text));
+
+      // The text is changed without changing its size, and looks older than the compiled file
+      byte[] source = Files.readAllBytes(text);
+      source[0] = 'X';
+      Files.write(text, source);
+      Files.setLastModifiedTime(text, FileTime.fromMillis(0));
+      assertEquals("Xysterious Forest", fileManager.loadStoryFromFile(text).getTitle());
+    }
+
+    @Test
+    void compiled_file_without_a_source_is_not_loaded_in_place_of_the_text(
+        @TempDir Path directory) throws IOException {
+      StoryFileManager fileManager = new StoryFileManager();
+      fileManager.saveStoryToFile(story, directory.toString());
+      fileManager.compileStoryToFile(story, directory.toString());
+      Path text = directory.resolve("Mysterious_Forest.paths");
+      Path compiledFile = directory.resolve("Mysterious_Forest.pathsc");
+      Files.write(compiledFile, new byte[]{1, 2, 3}, StandardOpenOption.APPEND);
+
+      assertNull(CompiledStoryReader.readSourceStamp(compiledFile));
+      assertEquals(story.getTitle(), fileManager.loadStoryFromFile(text).getTitle());
+    }
+  }
+
+  @Nested
+  class CorruptFileTest {
+
+    @Test
+    void changed_byte_fails_the_checksum() {
+      compiled[compiled.length - 1] ^= 1;
+      assertThrows(StoryValidationException.class,
+          () -> new CompiledStoryReader().read(ByteBuffer.wrap(compiled)));
+    }
+
+    @Test
+    void wrong_magic_is_rejected() {
+      compiled[0] = 'X';
+      assertThrows(StoryValidationException.class,
+          () -> new CompiledStoryReader().read(ByteBuffer.wrap(compiled)));
+    }
+
+    @Test
+    void unknown_version_is_rejected() {
+      compiled[5] = 99;
+      assertThrows(StoryValidationException.class,
+          () -> new CompiledStoryReader().read(ByteBuffer.wrap(compiled)));
+    }
+
+    @Test
+    void truncated_file_is_rejected() {
+      assertThrows(StoryValidationException.class, () -> new CompiledStoryReader().read(
+          ByteBuffer.wrap(compiled, 0, compiled.length / 2)));
+    }
+
+    @Test
+    void negative_or_too_large_link_count_is_rejected() {
+      int linkCount = passagesStart(compiled) + 6 * Integer.BYTES;
+      for (int count : new int[]{-1, Integer.MAX_VALUE}) {
+        ByteBuffer.wrap(compiled).putInt(linkCount, count);
+        updateChecksum(compiled);
+
+        assertThrows(StoryValidationException.class,
+            () -> new CompiledStoryReader().read(ByteBuffer.wrap(compiled)));
+      }
+    }
+
+    @Test
+    void missing_image_is_rejected_like_in_a_text_file() throws IOException {
+      Passage start = new Passage("Start", "Content of Start",
+          PassageImage.fromPath("/images/missing.png"), null);
+      start.addLink(new Link("Go on", "End"));
+      Story withImage = new Story("Missing image", start);
+      withImage.addPassage(new Passage("End", "Content of End"));
+      ByteArrayOutputStream out = new ByteArrayOutputStream();
+      new CompiledStoryWriter().write(withImage, out);
+
+      assertThrows(ImageValidationException.class,
+          () -> new CompiledStoryReader().read(ByteBuffer.wrap(out.toByteArray())));
+    }
+
+    /**
+     * Finds where the passages start, after the string table and the story title.
+     */
+    private int passagesStart(byte[] bytes) {
+      ByteBuffer buffer = ByteBuffer.wrap(bytes);
+      int position = CompiledStoryFormat.HEADER_LENGTH;
+      int count = buffer.getInt(position);
+      position += Integer.BYTES;
+      for (int i = 0; i < count; i++) {
+        position += Integer.BYTES + buffer.getInt(position);
+      }
+      return position + 2 * Integer.BYTES;
+    }
+
+    private void updateChecksum(byte[] bytes) {
+      CRC32 checksum = new CRC32();
+      checksum.update(bytes, CompiledStoryFormat.HEADER_LENGTH,
+          bytes.length - CompiledStoryFormat.HEADER_LENGTH);
+      ByteBuffer.wrap(bytes).putInt(CompiledStoryFormat.HEADER_LENGTH - Integer.BYTES,
+          (int) checksum.getValue());
+    }
+  }
+
+  @Test
+  void story_without_opening_passage_can_not_be_compiled() {
+    assertThrows(StoryValidationException.class,
+        () -> new CompiledStoryWriter().write(new Story("No opening"), new ByteArrayOutputStream()));
+  }
+
+  private static String imagePath(PassageImage image) {
+    return image != null ? image.getPath() : null;
+  }
+}
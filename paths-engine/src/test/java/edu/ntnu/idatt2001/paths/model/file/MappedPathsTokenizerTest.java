@@ -0,0 +1,54 @@
+package edu.ntnu.idatt2001.paths.model.file;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import org.junit.jupiter.api.DisplayNameGeneration;
+import org.junit.jupiter.api.DisplayNameGenerator;
+import org.junit.jupiter.api.Test;
+
+@DisplayNameGeneration(DisplayNameGenerator.ReplaceUnderscores.class)
+class MappedPathsTokenizerTest {
+
+  private static ByteBuffer bytes(String text) {
+    return ByteBuffer.wrap(text.getBytes(StandardCharsets.UTF_8));
+  }
+
+  @Test
+  void parts_start_at_headers_after_a_blank_line() {
+    String passages = "::A\nContent\n[x](B)\n\n::B\nContent\n[x](A)\n\n::C\nContent\n[x](A)\n";
+    ByteBuffer buffer = bytes(passages);
+    int[] boundaries = MappedPathsTokenizer.splitAtPassages(buffer, 0, buffer.limit(), 3);
+    assertArrayEquals(new int[]{0, passages.indexOf("::B"), passages.indexOf("::C"),
+        buffer.limit()}, boundaries);
+  }
+
+  @Test
+  void header_right_after_a_link_is_not_a_boundary() {
+    String passages = "::A\nContent\n[x](B)\n::B\nContent\n[x](A)\n";
+    ByteBuffer buffer = bytes(passages);
+    assertArrayEquals(new int[]{0, buffer.limit()},
+        MappedPathsTokenizer.splitAtPassages(buffer, 0, buffer.limit(), 4));
+  }
+
+  @Test
+  void windows_line_endings_are_split() {
+    String passages = "::A\r\nContent\r\n[x](B)\r\n\r\n::B\r\nContent\r\n[x](A)\r\n";
+    ByteBuffer buffer = bytes(passages);
+    assertArrayEquals(new int[]{0, passages.indexOf("::B"), buffer.limit()},
+        MappedPathsTokenizer.splitAtPassages(buffer, 0, buffer.limit(), 2));
+  }
+
+  @Test
+  void tokenizer_started_at_passages_has_no_title() throws IOException {
+    ByteBuffer buffer = bytes("::A\nContent\n[x](B)\n");
+    try (MappedPathsTokenizer tokenizer = new MappedPathsTokenizer(buffer)) {
+      tokenizer.startAtPassages();
+      assertEquals(PathsTokenType.PASSAGE_HEADER, tokenizer.next());
+      assertEquals("A", tokenizer.getText());
+    }
+  }
+}
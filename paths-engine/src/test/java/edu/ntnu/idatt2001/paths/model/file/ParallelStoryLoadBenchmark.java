@@ -0,0 +1,68 @@
+package edu.ntnu.idatt2001.paths.model.file;
+
+import edu.ntnu.idatt2001.paths.model.Story;
+import edu.ntnu.idatt2001.paths.model.StoryFileManager;
+import edu.ntnu.idatt2001.paths.model.StoryLoadMode;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.ForkJoinPool;
+import java.util.logging.LogManager;
+
+/**
+ * Benchmark of {@link StoryLoadMode#PARALLEL} loading on pools of 1, 2, 4 and 8 threads, compared
+ * to a sequential load of the same file. Logging is turned off, since the model logs every object
+ * it creates. The speedup is limited by the number of cores of the machine and by the sequential
+ * merge of the passages into the story. Run the main method with a warmed up JVM.
+ */
+public class ParallelStoryLoadBenchmark {
+
+  private static final int ROUNDS = 10;
+
+  private static long measure(StoryFileManager fileManager, Path story, int passages)
+      throws IOException {
+    long best = Long.MAX_VALUE;
+    for (int round = 0; round < ROUNDS; round++) {
+      long start = System.nanoTime();
+      Story loaded = fileManager.loadStoryFromFile(story);
+      best = Math.min(best, System.nanoTime() - start);
+      if (loaded.getPassages().size() != passages) {
+        throw new IllegalStateException("Story was not loaded completely");
+      }
+    }
+    return best;
+  }
+
+  /**
+   * Runs the benchmark on a story with 5 000 passages.
+   *
+   * @param args not used
+   * @throws IOException if reading fails
+   */
+  public static void main(String[] args) throws IOException {
+    LogManager.getLogManager().reset();
+    int passages = 5_000;
+    Path file = Files.createTempFile("benchmark", ".paths");
+    try {
+      Files.writeString(file, StoryParserBenchmark.generateStory(passages),
+          StandardCharsets.UTF_8);
+      System.out.printf("%d cores available%n", Runtime.getRuntime().availableProcessors());
+      long sequential = measure(new StoryFileManager(), file, passages);
+      System.out.printf("%-12s %8.1f ms%n", "sequential", sequential / 1e6);
+      for (int threads : new int[]{1, 2, 4, 8}) {
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        try {
+          long parallel = measure(new StoryFileManager(StoryLoadMode.PARALLEL, pool), file,
+              passages);
+          System.out.printf("%-12s %8.1f ms  %5.2fx%n", "parallel " + threads, parallel / 1e6,
+              (double) sequential / parallel);
+        } finally {
+          pool.shutdown();
+        }
+      }
+    } finally {
+      Files.deleteIfExists(file);
+    }
+  }
+}
@@ -0,0 +1,106 @@
+package edu.ntnu.idatt2001.paths.model.file;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import edu.ntnu.idatt2001.paths.model.exceptions.StoryValidationException;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.List;
+import org.junit.jupiter.api.DisplayNameGeneration;
+import org.junit.jupiter.api.DisplayNameGenerator;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+@DisplayNameGeneration(DisplayNameGenerator.ReplaceUnderscores.class)
+class PassageIndexTest {
+
+  private static final String STORY = """
+      Indexed Story
+
+      ::First
+      The first passage.
+      [Go on](Second)
+
+      ::Second
+      The second passage.
+      [Go back](First)
+      ::Third
+      The third passage.
+      [Go back](First)
+      """;
+
+  @TempDir
+  Path directory;
+
+  private Path writeStory(String text) throws IOException {
+    return Files.writeString(directory.resolve("story.paths"), text, StandardCharsets.UTF_8);
+  }
+
+  @Test
+  void index_records_the_bytes_of_every_passage() throws IOException {
+    Path story = writeStory(STORY);
+    PassageIndex index = PassageIndex.build(story);
+
+    assertEquals("Indexed Story", index.getStoryTitle());
+    assertEquals(List.of("First", "Second", "Third"), index.getTitles());
+    byte[] bytes = Files.readAllBytes(story);
+    PassageIndex.Entry second = index.getEntry("Second");
+    String secondText = new String(bytes, (int) second.offset(), second.length(),
+        StandardCharsets.UTF_8);
+    assertEquals("::Second\nThe second passage.\n[Go back](First)\n", secondText);
+    PassageIndex.Entry third = index.getEntry("Third");
+    assertEquals(bytes.length, third.offset() + third.length());
+  }
+
+  @Test
+  void index_is_written_next_to_the_story_and_read_back() throws IOException {
+    Path story = writeStory(STORY);
+    PassageIndex built = PassageIndex.loadOrBuild(story);
+    assertTrue(Files.exists(PassageIndex.indexFileOf(story)));
+
+    PassageIndex read = PassageIndex.read(PassageIndex.indexFileOf(story));
+    assertEquals(built.getTitles(), read.getTitles());
+    assertEquals(built.getEntry("Third"), read.getEntry("Third"));
+    assertTrue(read.isCurrentFor(story));
+  }
+
+  @Test
+  void changed_story_makes_the_index_stale() throws IOException {
+    Path story = writeStory(STORY);
+    PassageIndex index = PassageIndex.loadOrBuild(story);
+    writeStory(STORY.replace("The first passage.", "The changed first passage."));
+    Files.setLastModifiedTime(story, FileTime.fromMillis(System.currentTimeMillis() + 5000));
+
+    assertFalse(index.isCurrentFor(story));
+    assertFalse(index.getEntry("Second").equals(
+        PassageIndex.loadOrBuild(story).getEntry("Second")));
+  }
+
+  @Test
+  void index_records_where_the_links_lead() throws IOException {
+    Path story = writeStory(STORY + "\n::Fourth\nLost.\n[Go on](Nowhere)\n[Go back](Third)\n");
+    PassageIndex index = PassageIndex.loadOrBuild(story);
+
+    assertEquals(List.of(new PassageIndex.LinkPosition(1, 0), new PassageIndex.LinkPosition(2, 0)),
+        index.getIncomingLinks("First"));
+    assertEquals(List.of(new PassageIndex.LinkPosition(3, 1)), index.getIncomingLinks("Third"));
+    assertEquals(List.of(), index.getIncomingLinks("Fourth"));
+    assertEquals(List.of(), index.getIncomingLinks("Nowhere"));
+    assertEquals(List.of(new PassageIndex.LinkPosition(3, 0)), index.getBrokenLinks());
+    PassageIndex read = PassageIndex.read(PassageIndex.indexFileOf(story));
+    assertEquals(index.getBrokenLinks(), read.getBrokenLinks());
+    assertEquals(index.getIncomingLinks("First"), read.getIncomingLinks("First"));
+  }
+
+  @Test
+  void duplicate_passages_are_rejected() throws IOException {
+    Path story = writeStory(STORY + "\n::First\nAgain.\n[Go on](Second)\n");
+    assertThrows(StoryValidationException.class, () -> PassageIndex.build(story));
+  }
+}
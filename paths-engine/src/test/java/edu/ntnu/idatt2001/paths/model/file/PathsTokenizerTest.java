@@ -0,0 +1,135 @@
+package edu.ntnu.idatt2001.paths.model.file;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.io.IOException;
+import java.io.StringReader;
+import org.junit.jupiter.api.DisplayNameGeneration;
+import org.junit.jupiter.api.DisplayNameGenerator;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+@DisplayNameGeneration(DisplayNameGenerator.ReplaceUnderscores.class)
+class PathsTokenizerTest {
+
+  private static final String STORY = """
+      Mysterious Forest
+
+      ::Entrance
+      You find yourself at the entrance of a mysterious forest.
+      |/images/passageImages/passageContentImages/crackleClaw.png|
+      ^/images/passageImages/passageBackgroundImages/magicalForest.png^
+      [Take the left path](Left Path)
+      {InventoryAction:gem}{GoldAction:50}
+      [Take the right path]( Right Path )
+      [gem}
+
+      ::Left Path
+      You follow the left path.
+      [Go back](Entrance)
+      """;
+
+  private static void assertToken(PathsTokenizer tokenizer, PathsTokenType type, String text,
+      String value) throws IOException {
+    assertEquals(type, tokenizer.next());
+    assertEquals(text, tokenizer.getText());
+    assertEquals(value, tokenizer.getValue());
+  }
+
+  @Test
+  void tokenizer_emits_every_element_of_a_story_in_order() throws IOException {
+    PathsTokenizer tokenizer = new PathsTokenizer(new StringReader(STORY));
+
+    assertToken(tokenizer, PathsTokenType.TITLE, "Mysterious Forest", null);
+    assertToken(tokenizer, PathsTokenType.PASSAGE_HEADER, "Entrance", null);
+    assertToken(tokenizer, PathsTokenType.CONTENT,
+        "You find yourself at the entrance of a mysterious forest.", null);
+    assertToken(tokenizer, PathsTokenType.CONTENT_IMAGE,
+        "/images/passageImages/passageContentImages/crackleClaw.png", null);
+    assertToken(tokenizer, PathsTokenType.BACKGROUND_IMAGE,
+        "/images/passageImages/passageBackgroundImages/magicalForest.png", null);
+    assertToken(tokenizer, PathsTokenType.LINK, "Take the left path", "Left Path");
+    assertToken(tokenizer, PathsTokenType.ACTION, "InventoryAction", "gem");
+    assertToken(tokenizer, PathsTokenType.ACTION, "GoldAction", "50");
+    assertToken(tokenizer, PathsTokenType.LINK, "Take the right path", "Right Path");
+    assertToken(tokenizer, PathsTokenType.REQUIRED_ITEM, "gem", null);
+    assertToken(tokenizer, PathsTokenType.END_OF_PASSAGE, null, null);
+    assertToken(tokenizer, PathsTokenType.PASSAGE_HEADER, "Left Path", null);
+    assertToken(tokenizer, PathsTokenType.CONTENT, "You follow the left path.", null);
+    assertToken(tokenizer, PathsTokenType.LINK, "Go back", "Entrance");
+    assertToken(tokenizer, PathsTokenType.END_OF_PASSAGE, null, null);
+    assertToken(tokenizer, PathsTokenType.END_OF_FILE, null, null);
+  }
+
+  @Test
+  void tokenizer_handles_lines_longer_than_the_buffer() throws IOException {
+    String content = "a".repeat(1000);
+    PathsTokenizer tokenizer = new PathsTokenizer(
+        new StringReader("Title\n::Passage\n" + content + "\n[Go on](Next)\n"), 16);
+
+    assertToken(tokenizer, PathsTokenType.TITLE, "Title", null);
+    assertToken(tokenizer, PathsTokenType.PASSAGE_HEADER, "Passage", null);
+    assertToken(tokenizer, PathsTokenType.CONTENT, content, null);
+    assertToken(tokenizer, PathsTokenType.LINK, "Go on", "Next");
+    assertToken(tokenizer, PathsTokenType.END_OF_PASSAGE, null, null);
+    assertToken(tokenizer, PathsTokenType.END_OF_FILE, null, null);
+  }
+
+  @Nested
+  class LineEndingsTest {
+
+    @Test
+    void windows_line_endings_are_handled() throws IOException {
+      PathsTokenizer tokenizer = new PathsTokenizer(
+          new StringReader("Title\r\n\r\n::Passage\r\nContent\r\n[Go on](Next)\r\n"), 4);
+
+      assertToken(tokenizer, PathsTokenType.TITLE, "Title", null);
+      assertToken(tokenizer, PathsTokenType.PASSAGE_HEADER, "Passage", null);
+      assertToken(tokenizer, PathsTokenType.CONTENT, "Content", null);
+      assertToken(tokenizer, PathsTokenType.LINK, "Go on", "Next");
+      assertToken(tokenizer, PathsTokenType.END_OF_PASSAGE, null, null);
+      assertToken(tokenizer, PathsTokenType.END_OF_FILE, null, null);
+    }
+
+    @Test
+    void header_without_blank_line_in_front_starts_a_new_passage() throws IOException {
+      PathsTokenizer tokenizer = new PathsTokenizer(
+          new StringReader("Title\n::First\nContent\n[Go on](Second)\n::Second\nContent\n"));
+
+      assertToken(tokenizer, PathsTokenType.TITLE, "Title", null);
+      assertToken(tokenizer, PathsTokenType.PASSAGE_HEADER, "First", null);
+      assertToken(tokenizer, PathsTokenType.CONTENT, "Content", null);
+      assertToken(tokenizer, PathsTokenType.LINK, "Go on", "Second");
+      assertToken(tokenizer, PathsTokenType.END_OF_PASSAGE, null, null);
+      assertToken(tokenizer, PathsTokenType.PASSAGE_HEADER, "Second", null);
+      assertEquals(5, tokenizer.getLineNumber());
+    }
+  }
+
+  @Nested
+  class MalformedLinesTest {
+
+    @Test
+    void unrecognized_lines_in_the_link_section_are_skipped() throws IOException {
+      PathsTokenizer tokenizer = new PathsTokenizer(
+          new StringReader("Title\n::Passage\nContent\nnot a link\n{:missing type}\n[Go on](Next)\n"));
+
+      tokenizer.next();
+      tokenizer.next();
+      tokenizer.next();
+      assertToken(tokenizer, PathsTokenType.LINK, "Go on", "Next");
+    }
+
+    @Test
+    void passage_cut_off_after_header_has_no_content() throws IOException {
+      PathsTokenizer tokenizer = new PathsTokenizer(new StringReader("Title\n::Passage"));
+
+      tokenizer.next();
+      tokenizer.next();
+      assertEquals(PathsTokenType.END_OF_PASSAGE, tokenizer.next());
+      assertNull(tokenizer.getText());
+      assertEquals(PathsTokenType.END_OF_FILE, tokenizer.next());
+    }
+  }
+}
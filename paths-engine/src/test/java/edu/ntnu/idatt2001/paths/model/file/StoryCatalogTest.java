@@ -0,0 +1,158 @@
+package edu.ntnu.idatt2001.paths.model.file;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import edu.ntnu.idatt2001.paths.model.Story;
+import edu.ntnu.idatt2001.paths.model.StoryFileManager;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.List;
+import org.junit.jupiter.api.DisplayNameGeneration;
+import org.junit.jupiter.api.DisplayNameGenerator;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+@DisplayNameGeneration(DisplayNameGenerator.ReplaceUnderscores.class)
+class StoryCatalogTest {
+
+  private static final String FOREST = """
+      Forest
+
+      ::Start
+      You are in a forest.
+      [Walk north](North)
+      [Walk south](South)
+
+      ::North
+      A river blocks the way.
+      [Go back](Start)
+
+      ::South
+      A dark cave.
+      [Go back](Start)
+      """;
+
+  private static final String CASTLE = """
+      Castle
+
+      ::Gate
+      The gate is open.
+      [Enter](Hall)
+
+      ::Hall
+      An empty hall.
+      [Leave](Gate)
+      """;
+
+  @TempDir
+  Path directory;
+
+  private Path write(String fileName, String text) throws IOException {
+    return Files.writeString(directory.resolve(fileName), text, StandardCharsets.UTF_8);
+  }
+
+  @Test
+  void catalog_holds_the_metadata_of_every_story() throws IOException {
+    write("forest.paths", FOREST);
+    write("castle.paths", CASTLE);
+    write("notes.txt", "Not a story");
+
+    StoryCatalog catalog = StoryCatalog.open(directory);
+
+    assertEquals(2, catalog.getEntries().size());
+    StoryCatalog.Entry forest = catalog.getEntry("forest.paths");
+    assertEquals("Forest", forest.title());
+    assertEquals(3, forest.passageCount());
+    assertEquals(4, forest.linkCount());
+    assertEquals(Files.size(directory.resolve("forest.paths")), forest.size());
+    assertEquals(directory.resolve("forest.paths"), catalog.resolve(forest));
+    assertEquals(2, catalog.getEntry("castle.paths").passageCount());
+    assertNull(catalog.getEntry("notes.txt"));
+  }
+
+  @Test
+  void catalog_is_read_back_without_reading_the_stories() throws IOException {
+    write("forest.paths", FOREST);
+    write("castle.paths", CASTLE);
+    StoryCatalog.open(directory);
+    assertTrue(Files.exists(directory.resolve(StoryCatalog.FILE_NAME)));
+
+    StoryCatalog reopened = StoryCatalog.open(directory);
+    assertEquals(0, reopened.refresh());
+    assertEquals("Castle", reopened.getEntry("castle.paths").title());
+  }
+
+  @Test
+  void only_changed_stories_are_read_again() throws IOException {
+    Path forest = write("forest.paths", FOREST);
+    write("castle.paths", CASTLE);
+    StoryCatalog catalog = StoryCatalog.open(directory);
+    long checksum = catalog.getEntry("forest.paths").checksum();
+
+    write("forest.paths", FOREST.replace("Forest", "Dark Forest"));
+    Files.setLastModifiedTime(forest, FileTime.fromMillis(System.currentTimeMillis() + 5000));
+
+    assertEquals(1, catalog.refresh());
+    assertEquals("Dark Forest", catalog.getEntry("forest.paths").title());
+    assertNotEquals(checksum, catalog.getEntry("forest.paths").checksum());
+    assertEquals(0, StoryCatalog.open(directory).refresh());
+  }
+
+  @Test
+  void removed_stories_are_dropped() throws IOException {
+    write("forest.paths", FOREST);
+    Path castle = write("castle.paths", CASTLE);
+    StoryCatalog catalog = StoryCatalog.open(directory);
+
+    Files.delete(castle);
+    catalog.refresh();
+
+    assertEquals(List.of("forest.paths"),
+        catalog.getEntries().stream().map(StoryCatalog.Entry::fileName).toList());
+    assertNull(StoryCatalog.open(directory).getEntry("castle.paths"));
+  }
+
+  @Test
+  void compiled_story_is_only_listed_without_its_text_file() throws IOException {
+    StoryFileManager fileManager = new StoryFileManager();
+    Path text = write("Forest.paths", FOREST);
+    Story story = fileManager.loadStoryFromFile(text);
+    fileManager.compileStoryToFile(story, directory.toString());
+
+    assertEquals(1, StoryCatalog.open(directory).getEntries().size());
+
+    Files.delete(text);
+    StoryCatalog.Entry compiled = StoryCatalog.open(directory).getEntry("Forest.pathsc");
+    assertEquals("Forest", compiled.title());
+    assertEquals(3, compiled.passageCount());
+    assertEquals(4, compiled.linkCount());
+  }
+
+  @Test
+  void corrupt_catalog_file_is_rebuilt() throws IOException {
+    write("forest.paths", FOREST);
+    Files.write(directory.resolve(StoryCatalog.FILE_NAME), new byte[]{1, 2, 3});
+
+    StoryCatalog catalog = StoryCatalog.open(directory);
+
+    assertEquals("Forest", catalog.getEntry("forest.paths").title());
+    assertEquals(0, StoryCatalog.open(directory).refresh());
+  }
+
+  @Test
+  void stories_are_found_by_title() throws IOException {
+    write("forest.paths", FOREST);
+    write("castle.paths", CASTLE);
+
+    List<StoryCatalog.Entry> found = StoryCatalog.open(directory).findByTitle("cast");
+
+    assertEquals(1, found.size());
+    assertEquals("castle.paths", found.get(0).fileName());
+  }
+}
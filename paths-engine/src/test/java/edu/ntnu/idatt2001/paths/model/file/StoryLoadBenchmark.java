@@ -0,0 +1,71 @@
+package edu.ntnu.idatt2001.paths.model.file;
+
+import edu.ntnu.idatt2001.paths.model.Story;
+import edu.ntnu.idatt2001.paths.model.StoryFileManager;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.logging.LogManager;
+
+/**
+ * Benchmark comparing a full story load from the .paths text format to a load from the compiled
+ * .pathsc format. Logging is turned off, since the model logs every object it creates. Run the
+ * main method with a warmed up JVM, e.g. from the IDE.
+ */
+public class StoryLoadBenchmark {
+
+  private static final int ROUNDS = 10;
+
+  private interface Load {
+
+    Story load(Path story) throws IOException;
+  }
+
+  private static void measure(String name, Path story, int passages, Load load)
+      throws IOException {
+    long best = Long.MAX_VALUE;
+    for (int round = 0; round < ROUNDS; round++) {
+      long start = System.nanoTime();
+      Story loaded = load.load(story);
+      best = Math.min(best, System.nanoTime() - start);
+      if (loaded.getPassages().size() != passages) {
+        throw new IllegalStateException("Story was not loaded completely");
+      }
+    }
+    System.out.printf("%-10s %7d passages  %8d bytes  %8.1f ms%n", name, passages,
+        Files.size(story), best / 1e6);
+  }
+
+  /**
+   * Runs the benchmark on stories with 1 000 and 5 000 passages.
+   *
+   * @param args not used
+   * @throws IOException if reading fails
+   */
+  public static void main(String[] args) throws IOException {
+    LogManager.getLogManager().reset();
+    StoryFileManager fileManager = new StoryFileManager();
+    for (int passages : new int[]{1_000, 5_000}) {
+      Path directory = Files.createTempDirectory("benchmark");
+      Path text = directory.resolve("story.paths");
+      Path compiled = directory.resolve("story.pathsc");
+      try {
+        Files.writeString(text, StoryParserBenchmark.generateStory(passages),
+            StandardCharsets.UTF_8);
+        Story story = fileManager.loadStoryFromFile(text);
+        fileManager.compileStoryToFile(story, directory.toString());
+        Files.move(directory.resolve("Generated_Story.pathsc"), compiled);
+        // Keep the text load from picking up the compiled file next to it
+        Files.setLastModifiedTime(compiled, FileTime.fromMillis(0));
+        measure("text", text, passages, fileManager::loadStoryFromFile);
+        measure("compiled", compiled, passages, fileManager::loadCompiledStory);
+      } finally {
+        Files.deleteIfExists(text);
+        Files.deleteIfExists(compiled);
+        Files.deleteIfExists(directory);
+      }
+    }
+  }
+}
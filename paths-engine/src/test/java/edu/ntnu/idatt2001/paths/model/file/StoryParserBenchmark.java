@@ -0,0 +1,224 @@
+package edu.ntnu.idatt2001.paths.model.file;
+
+import com.sun.management.ThreadMXBean;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Scanner;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Throughput benchmark comparing the {@link PathsTokenizer} to the Scanner and regex based line
+ * handling the story loader used before, and to the {@link MappedPathsTokenizer} over a
+ * memory-mapped file. Every side reads the same generated file and only tokenizes, so the numbers
+ * are not hidden behind story validation. Run the main method with a warmed up JVM, e.g. from the IDE.
+ */
+public class StoryParserBenchmark {
+
+  private static final String LINK_REGEX = "\\[(.+)]\\((.+)\\)";
+  private static final String ACTION_REGEX = "\\{(\\w+):(.+?)}";
+  private static final String REQUIRED_ITEM_REGEX = "\\[(.+?)}";
+  private static final String BACKGROUND_IMAGE_REGEX = "\\^(.+)\\^";
+  private static final String CONTENT_IMAGE_REGEX = "\\|(.+)\\|";
+  private static final Pattern LINK_PATTERN = Pattern.compile(LINK_REGEX);
+  private static final Pattern ACTION_PATTERN = Pattern.compile(ACTION_REGEX);
+  private static final Pattern REQUIRED_ITEM_PATTERN = Pattern.compile(REQUIRED_ITEM_REGEX);
+  private static final Pattern BACKGROUND_IMAGE_PATTERN = Pattern.compile(BACKGROUND_IMAGE_REGEX);
+  private static final Pattern CONTENT_IMAGE_PATTERN = Pattern.compile(CONTENT_IMAGE_REGEX);
+
+  private static final int ROUNDS = 15;
+
+  /**
+   * Generates a story with the given number of passages. Every passage has a content image, a
+   * background image and two links with an action and a required item.
+   *
+   * @param passages the number of passages
+   * @return the text of the story
+   */
+  static String generateStory(int passages) {
+    StringBuilder sb = new StringBuilder(passages * 400);
+    sb.append("Generated Story\n\n");
+    for (int i = 0; i < passages; i++) {
+      sb.append("::Passage ").append(i).append('\n');
+      sb.append("You are in room number ").append(i)
+          .append(" of a very long corridor. The walls are covered in old writing.\n");
+      sb.append("|/images/passageImages/passageContentImages/gem.png|\n");
+      sb.append("^/images/passageImages/passageBackgroundImages/dungeon.png^\n");
+      sb.append("[Walk further down](Passage ").append((i + 1) % passages).append(")\n");
+      sb.append("{GoldAction:5}\n");
+      sb.append("{ScoreAction:2}\n");
+      sb.append("[Turn around](Passage ").append((i + passages - 1) % passages).append(")\n");
+      sb.append("[key}\n");
+      sb.append('\n');
+    }
+    return sb.toString();
+  }
+
+  /**
+   * Tokenizes a story file the way the old loader did: a Scanner over the input and a set of
+   * regular expressions per line.
+   *
+   * @param story the story file
+   * @return the number of tokens found, so the work can not be optimized away
+   * @throws IOException if reading fails
+   */
+  static long legacyTokenize(Path story) throws IOException {
+    long tokens = 0;
+    try (Scanner scanner = new Scanner(story, StandardCharsets.UTF_8)) {
+      scanner.nextLine();
+      tokens++;
+      while (scanner.hasNextLine()) {
+        String line = scanner.nextLine();
+        if (!line.startsWith("::")) {
+          continue;
+        }
+        tokens += 2;
+        line.substring(2).trim();
+        scanner.nextLine();
+        line = scanner.nextLine();
+        while ((line.matches(CONTENT_IMAGE_REGEX) || line.matches(BACKGROUND_IMAGE_REGEX))
+            && !line.isBlank() && scanner.hasNextLine()) {
+          Matcher backgroundImageMatcher = BACKGROUND_IMAGE_PATTERN.matcher(line);
+          Matcher contentImageMatcher = CONTENT_IMAGE_PATTERN.matcher(line);
+          if (contentImageMatcher.find()) {
+            contentImageMatcher.group(1).trim();
+            tokens++;
+          } else if (backgroundImageMatcher.find()) {
+            backgroundImageMatcher.group(1).trim();
+            tokens++;
+          }
+          line = scanner.nextLine();
+        }
+        while (!line.isBlank()) {
+          if (LINK_PATTERN.matcher(line).find()) {
+            Matcher matcher = LINK_PATTERN.matcher(line);
+            while (matcher.find()) {
+              matcher.group(1);
+              matcher.group(2).trim();
+              tokens++;
+            }
+          } else if (ACTION_PATTERN.matcher(line).find()) {
+            Matcher matcher = ACTION_PATTERN.matcher(line);
+            while (matcher.find()) {
+              matcher.group(1);
+              matcher.group(2);
+              tokens++;
+            }
+          } else if (REQUIRED_ITEM_PATTERN.matcher(line).find()) {
+            Matcher matcher = REQUIRED_ITEM_PATTERN.matcher(line);
+            if (matcher.matches()) {
+              matcher.group(1);
+              tokens++;
+            }
+          }
+          if (!scanner.hasNextLine()) {
+            break;
+          }
+          line = scanner.nextLine();
+        }
+        tokens++;
+      }
+    }
+    return tokens;
+  }
+
+  /**
+   * Reads all tokens and asks for their text the way the story loader does: the content of a
+   * passage as a slice and everything else as strings.
+   *
+   * @param tokenizer the tokenizer to read from
+   * @return the number of tokens found
+   * @throws IOException if reading fails
+   */
+  static long consume(AbstractPathsTokenizer tokenizer) throws IOException {
+    long tokens = 0;
+    PathsTokenType type;
+    while ((type = tokenizer.next()) != PathsTokenType.END_OF_FILE) {
+      if (type == PathsTokenType.CONTENT) {
+        tokenizer.getTextSlice();
+      } else {
+        tokenizer.getText();
+        tokenizer.getValue();
+      }
+      tokens++;
+    }
+    return tokens;
+  }
+
+  /**
+   * Tokenizes a story file with the {@link PathsTokenizer}.
+   *
+   * @param story the story file
+   * @return the number of tokens found
+   * @throws IOException if reading fails
+   */
+  static long tokenize(Path story) throws IOException {
+    try (PathsTokenizer tokenizer = new PathsTokenizer(
+        new InputStreamReader(Files.newInputStream(story), StandardCharsets.UTF_8))) {
+      return consume(tokenizer);
+    }
+  }
+
+  /**
+   * Tokenizes a story file with the {@link MappedPathsTokenizer}.
+   *
+   * @param story the story file
+   * @return the number of tokens found
+   * @throws IOException if reading fails
+   */
+  static long tokenizeMapped(Path story) throws IOException {
+    try (MappedPathsTokenizer tokenizer = new MappedPathsTokenizer(
+        MappedPathsTokenizer.map(story))) {
+      return consume(tokenizer);
+    }
+  }
+
+  private interface Run {
+
+    long run(Path story) throws IOException;
+  }
+
+  private static void measure(String name, Path story, int passages, Run run)
+      throws IOException {
+    ThreadMXBean threads = (ThreadMXBean) ManagementFactory.getThreadMXBean();
+    long tokens = 0;
+    long best = Long.MAX_VALUE;
+    long allocated = 0;
+    for (int round = 0; round < ROUNDS; round++) {
+      long allocatedBefore = threads.getCurrentThreadAllocatedBytes();
+      long start = System.nanoTime();
+      tokens = run.run(story);
+      best = Math.min(best, System.nanoTime() - start);
+      allocated = threads.getCurrentThreadAllocatedBytes() - allocatedBefore;
+    }
+    double seconds = best / 1e9;
+    System.out.printf("%-10s %7d passages  %8d tokens  %8.1f ms  %8.1f MB/s  %10.0f passages/s"
+            + "  %8.1f MB allocated%n",
+        name, passages, tokens, best / 1e6, Files.size(story) / seconds / (1024 * 1024),
+        passages / seconds, allocated / (1024.0 * 1024));
+  }
+
+  /**
+   * Runs the benchmark on stories with 10 000 and 100 000 passages.
+   *
+   * @param args not used
+   * @throws IOException if reading fails
+   */
+  public static void main(String[] args) throws IOException {
+    for (int passages : new int[]{10_000, 100_000}) {
+      Path file = Files.createTempFile("benchmark", ".paths");
+      try {
+        Files.writeString(file, generateStory(passages), StandardCharsets.UTF_8);
+        measure("legacy", file, passages, StoryParserBenchmark::legacyTokenize);
+        measure("tokenizer", file, passages, StoryParserBenchmark::tokenize);
+        measure("mapped", file, passages, StoryParserBenchmark::tokenizeMapped);
+      } finally {
+        Files.deleteIfExists(file);
+      }
+    }
+  }
+}
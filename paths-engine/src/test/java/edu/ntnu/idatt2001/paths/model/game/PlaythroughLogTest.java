@@ -0,0 +1,245 @@
+package edu.ntnu.idatt2001.paths.model.game;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import edu.ntnu.idatt2001.paths.model.Link;
+import edu.ntnu.idatt2001.paths.model.Passage;
+import edu.ntnu.idatt2001.paths.model.Story;
+import edu.ntnu.idatt2001.paths.model.actions.GoldAction;
+import edu.ntnu.idatt2001.paths.model.actions.HealthAction;
+import edu.ntnu.idatt2001.paths.model.actions.inventory.InventoryAction;
+import edu.ntnu.idatt2001.paths.model.goals.GoalsEnum;
+import edu.ntnu.idatt2001.paths.model.player.Player;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayNameGeneration;
+import org.junit.jupiter.api.DisplayNameGenerator;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+@DisplayNameGeneration(DisplayNameGenerator.ReplaceUnderscores.class)
+class PlaythroughLogTest {
+
+  @TempDir
+  Path directory;
+  private Path file;
+  private SessionManager manager;
+  private Story story;
+
+  /**
+   * A story where the mine pays the first time it is entered, the shed holds a key that opens the
+   * vault, and the pit kills.
+   */
+  private static Story mines(int mineGold) {
+    Passage start = new Passage("Start", "Content of Start");
+    Link mine = new Link("Enter the mine", "Mine");
+    mine.addAction(new GoldAction(mineGold));
+    start.addLink(mine);
+    Link shed = new Link("Search the shed", "Shed");
+    shed.addAction(new InventoryAction("key"));
+    start.addLink(shed);
+    Link vault = new Link("Open the vault", "Vault");
+    vault.setRequiredItem(new InventoryAction("key"));
+    vault.addAction(new GoldAction(100));
+    start.addLink(vault);
+    Link pit = new Link("Jump into the pit", "Pit");
+    pit.addAction(new HealthAction(-100));
+    start.addLink(pit);
+    Passage minePassage = new Passage("Mine", "Content of Mine");
+    minePassage.addLink(new Link("Climb out", "Start"));
+    Passage shedPassage = new Passage("Shed", "Content of Shed");
+    shedPassage.addLink(new Link("Go back", "Start"));
+    Passage vaultPassage = new Passage("Vault", "Content of Vault");
+    vaultPassage.addLink(new Link("Leave the vault", "Start"));
+    Story story = new Story("Mines", start);
+    story.addPassage(minePassage);
+    story.addPassage(shedPassage);
+    story.addPassage(vaultPassage);
+    story.addPassage(new Passage("Pit", "Content of Pit"));
+    return story;
+  }
+
+  @BeforeEach
+  void setUp() {
+    file = directory.resolve("miner.log");
+    manager = new SessionManager(10);
+    story = manager.addStory(mines(50));
+  }
+
+  @AfterEach
+  void tearDown() {
+    // Ends every session, closing the logs before the directory is deleted
+    manager.endIdleSessions(Duration.ZERO);
+  }
+
+  private Session playedSession(int snapshotInterval, int rounds) throws IOException {
+    Session session = manager.startSession("Mines", "Miner", GameDifficultyEnum.MEDIUM);
+    PlaythroughLog.create(file, session, snapshotInterval);
+    session.follow(1);
+    session.follow(0);
+    for (int round = 0; round < rounds; round++) {
+      session.follow(0);
+      session.follow(0);
+      session.follow(2);
+      session.follow(0);
+    }
+    return session;
+  }
+
+  private static void assertSameGame(Session expected, Session actual) {
+    Player expectedPlayer = expected.getGame().getPlayer();
+    Player actualPlayer = actual.getGame().getPlayer();
+    assertEquals(expected.getPassage().getTitle(), actual.getPassage().getTitle());
+    assertEquals(expected.getStatus(), actual.getStatus());
+    assertEquals(expectedPlayer.getName(), actualPlayer.getName());
+    assertEquals(expectedPlayer.getHealth(), actualPlayer.getHealth());
+    assertEquals(expectedPlayer.getScore(), actualPlayer.getScore());
+    assertEquals(expectedPlayer.getGold(), actualPlayer.getGold());
+    assertEquals(expectedPlayer.getInventory(), actualPlayer.getInventory());
+    assertEquals(expected.getGame().getPlaythroughState().getPerformedLinks(),
+        actual.getGame().getPlaythroughState().getPerformedLinks());
+  }
+
+  @Nested
+  class Resume {
+
+    @Test
+    void resumed_session_is_where_the_log_left_it() throws IOException {
+      Session played = playedSession(4, 5);
+      assertEquals(22, played.getLog().getStepCount());
+      manager.endSession(played.getId());
+
+      Session resumed = manager.resumeSession(file);
+
+      assertSameGame(played, resumed);
+      assertEquals(22, resumed.getLog().getStepCount());
+      assertEquals(1, manager.getSessionCount());
+    }
+
+    @Test
+    void resumed_session_does_not_perform_actions_again() throws IOException {
+      Session played = playedSession(4, 1);
+      int gold = played.getGame().getPlayer().getGold();
+      manager.endSession(played.getId());
+
+      Session resumed = manager.resumeSession(file);
+      resumed.follow(0);
+      resumed.follow(0);
+      resumed.follow(2);
+
+      assertEquals(gold, resumed.getGame().getPlayer().getGold());
+      assertEquals("Vault", resumed.getPassage().getTitle());
+    }
+
+    @Test
+    void resumed_session_goes_on_appending_to_the_log() throws IOException {
+      Session played = playedSession(3, 2);
+      manager.endSession(played.getId());
+      Session resumed = manager.resumeSession(file);
+      resumed.follow(0);
+      manager.endSession(resumed.getId());
+
+      Session again = manager.resumeSession(file);
+
+      assertSameGame(resumed, again);
+      assertEquals(11, again.getLog().getStepCount());
+    }
+
+    @Test
+    void steps_and_snapshots_cut_short_are_left_out() throws IOException {
+      Session played = playedSession(4, 3);
+      manager.endSession(played.getId());
+      Files.write(file, new byte[] {(byte) 0x80}, StandardOpenOption.APPEND);
+      Files.write(directory.resolve("miner.log.snapshots"), new byte[] {0, 0, 0, 40, 1, 2},
+          StandardOpenOption.APPEND);
+
+      Session resumed = manager.resumeSession(file);
+      resumed.follow(0);
+      manager.endSession(resumed.getId());
+
+      assertEquals("Mine", manager.resumeSession(file).getPassage().getTitle());
+    }
+
+    @Test
+    void dead_player_is_resumed_with_the_game_over() throws IOException {
+      Session session = manager.startSession("Mines", "Jumper", GameDifficultyEnum.MEDIUM);
+      PlaythroughLog.create(file, session);
+      session.follow(3);
+      manager.endSession(session.getId());
+
+      Session resumed = manager.resumeSession(file);
+
+      assertEquals(Session.Status.DEAD, resumed.getStatus());
+      assertFalse(resumed.getGame().getPlayer().isAlive());
+      assertThrows(IllegalStateException.class, () -> resumed.follow(0));
+    }
+
+    @Test
+    void ended_session_closes_its_log() throws IOException {
+      Session played = playedSession(4, 1);
+
+      manager.endSession(played.getId());
+
+      assertNull(played.getLog());
+    }
+
+    @Test
+    void log_of_another_story_is_refused() throws IOException {
+      playedSession(4, 1);
+      Story caves = new Story("Caves", new Passage("Start", "Content of Start"));
+
+      assertThrows(IllegalArgumentException.class,
+          () -> PlaythroughLog.resume(file, caves, GoalsEnum.getDefaultGoals()));
+    }
+
+    @Test
+    void existing_log_is_not_written_over() throws IOException {
+      Session played = playedSession(4, 1);
+
+      assertThrows(IOException.class, () -> PlaythroughLog.create(file, played));
+    }
+  }
+
+  @Nested
+  class Replay {
+
+    @Test
+    void replay_plays_the_run_again() throws IOException {
+      Session played = playedSession(4, 5);
+
+      Session replayed = PlaythroughLog.replay(file, story, GoalsEnum.getDefaultGoals());
+
+      assertSameGame(played, replayed);
+      assertNull(replayed.getLog());
+    }
+
+    @Test
+    void replay_stops_after_the_steps_asked_for() throws IOException {
+      playedSession(4, 5);
+
+      Session replayed = PlaythroughLog.replay(file, story, GoalsEnum.getDefaultGoals(), 3);
+
+      assertEquals("Mine", replayed.getPassage().getTitle());
+      assertTrue(replayed.getGame().getPlayer().isInInventory("key"));
+    }
+
+    @Test
+    void replay_finds_where_a_changed_story_plays_out_differently() throws IOException {
+      playedSession(2, 5);
+
+      IllegalStateException e = assertThrows(IllegalStateException.class,
+          () -> PlaythroughLog.replay(file, mines(60).freeze(), GoalsEnum.getDefaultGoals()));
+      assertEquals("Replay differs from the snapshot at step 4", e.getMessage());
+    }
+  }
+}
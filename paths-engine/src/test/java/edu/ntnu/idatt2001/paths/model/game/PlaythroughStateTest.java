@@ -0,0 +1,206 @@
+package edu.ntnu.idatt2001.paths.model.game;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import edu.ntnu.idatt2001.paths.model.Link;
+import edu.ntnu.idatt2001.paths.model.PagedStory;
+import edu.ntnu.idatt2001.paths.model.Passage;
+import edu.ntnu.idatt2001.paths.model.Story;
+import edu.ntnu.idatt2001.paths.model.StoryFileManager;
+import edu.ntnu.idatt2001.paths.model.goals.GoalsEnum;
+import edu.ntnu.idatt2001.paths.model.player.Player;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayNameGeneration;
+import org.junit.jupiter.api.DisplayNameGenerator;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+@DisplayNameGeneration(DisplayNameGenerator.ReplaceUnderscores.class)
+class PlaythroughStateTest {
+
+  private Story story;
+
+  private static BitSet bits(int... positions) {
+    BitSet bits = new BitSet();
+    for (int position : positions) {
+      bits.set(position);
+    }
+    return bits;
+  }
+
+  @BeforeEach
+  void setUp() {
+    Passage start = new Passage("Start", "Content of Start");
+    start.addLink(new Link("Go to the cave", "Cave"));
+    start.addLink(new Link("Go to the lake", "Lake"));
+    Passage cave = new Passage("Cave", "Content of Cave");
+    cave.addLink(new Link("Go back", "Start"));
+    cave.addLink(new Link("Go to the lake", "Lake"));
+    story = new Story("Caves", start);
+    story.addPassage(cave);
+    story.addPassage(new Passage("Lake", "Content of Lake"));
+  }
+
+  @Nested
+  class FrozenStoryTest {
+
+    private Story frozen;
+    private Passage start;
+    private Passage cave;
+    private PlaythroughState state;
+
+    @BeforeEach
+    void setUp() {
+      frozen = story.freeze();
+      start = frozen.getPassage("Start");
+      cave = frozen.getPassage("Cave");
+      state = new PlaythroughState(frozen);
+    }
+
+    @Test
+    void marked_link_is_performed_and_the_others_are_not() {
+      state.markActionAsPerformed(cave, cave.getLinks().get(1));
+
+      assertTrue(state.hasPerformedAction(cave, cave.getLinks().get(1)));
+      assertFalse(state.hasPerformedAction(cave, cave.getLinks().get(0)));
+      assertFalse(state.hasPerformedAction(start, start.getLinks().get(1)));
+    }
+
+    @Test
+    void reset_forgets_the_performed_links() {
+      state.markActionAsPerformed(start, start.getLinks().get(0));
+      state.markActionAsPerformed(cave, cave.getLinks().get(1));
+
+      state.reset();
+
+      assertFalse(state.hasPerformedAction(start, start.getLinks().get(0)));
+      assertFalse(state.hasPerformedAction(cave, cave.getLinks().get(1)));
+      assertTrue(state.getPerformedLinks().isEmpty());
+    }
+
+    @Test
+    void performed_links_are_given_by_passage_title_and_position() {
+      state.markActionAsPerformed(start, start.getLinks().get(1));
+      state.markActionAsPerformed(cave, cave.getLinks().get(0));
+      state.markActionAsPerformed(cave, cave.getLinks().get(1));
+
+      assertEquals(Map.of("Start", bits(1), "Cave", bits(0, 1)), state.getPerformedLinks());
+    }
+
+    @Test
+    void restored_state_has_the_same_performed_links() {
+      state.markActionAsPerformed(start, start.getLinks().get(1));
+      state.markActionAsPerformed(cave, cave.getLinks().get(0));
+      PlaythroughState restored = new PlaythroughState(frozen);
+
+      state.getPerformedLinks().forEach(restored::restorePerformedLinks);
+
+      assertTrue(restored.hasPerformedAction(start, start.getLinks().get(1)));
+      assertTrue(restored.hasPerformedAction(cave, cave.getLinks().get(0)));
+      assertFalse(restored.hasPerformedAction(cave, cave.getLinks().get(1)));
+      assertEquals(state.getPerformedLinks(), restored.getPerformedLinks());
+    }
+
+    @Test
+    void games_sharing_the_story_do_not_see_each_other() {
+      Game game = new Game(Player.restore("First", 100, 0, 0, List.of(), null), frozen,
+          GoalsEnum.getDefaultGoals());
+      Game other = new Game(Player.restore("Second", 100, 0, 0, List.of(), null), frozen,
+          GoalsEnum.getDefaultGoals());
+      Link link = start.getLinks().get(0);
+
+      game.getPlaythroughState().markActionAsPerformed(start, link);
+
+      assertTrue(game.getPlaythroughState().hasPerformedAction(start, link));
+      assertFalse(other.getPlaythroughState().hasPerformedAction(start, link));
+      other.getPlaythroughState().reset();
+      assertTrue(game.getPlaythroughState().hasPerformedAction(start, link));
+    }
+  }
+
+  @Nested
+  class PagedStoryTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void state_is_kept_for_a_passage_that_is_evicted_and_read_again() throws IOException {
+      // Every third room has one link and the others two, so the passages of links are searched
+      StringBuilder sb = new StringBuilder("Paged Story\n\n");
+      for (int i = 0; i < 12; i++) {
+        sb.append("::Room ").append(i).append("\nYou are in room ").append(i).append(".\n");
+        sb.append("[Next](Room ").append((i + 1) % 12).append(")\n");
+        if (i % 3 != 2) {
+          sb.append("[Back](Room ").append((i + 11) % 12).append(")\n");
+        }
+        sb.append('\n');
+      }
+      Path file = Files.writeString(directory.resolve("paged.paths"), sb.toString());
+      try (PagedStory paged = new StoryFileManager().loadPagedStory(file, 2)) {
+        PlaythroughState state = new PlaythroughState(paged);
+        Passage room = paged.getPassage("Room 4");
+        state.markActionAsPerformed(room, room.getLinks().get(1));
+
+        for (int i = 5; i < 12; i++) {
+          paged.getPassage("Room " + i);
+        }
+        Passage readAgain = paged.getPassage("Room 4");
+
+        assertNotSame(room, readAgain);
+        assertTrue(state.hasPerformedAction(readAgain, readAgain.getLinks().get(1)));
+        assertFalse(state.hasPerformedAction(readAgain, readAgain.getLinks().get(0)));
+        assertEquals(Map.of("Room 4", bits(1)), state.getPerformedLinks());
+        for (int id = 0; id < paged.getLinkCount(); id++) {
+          int number = id;
+          assertTrue(paged.getPassageOfLink(id).getLinks().stream()
+              .anyMatch(link -> link.getId() == number));
+        }
+      }
+    }
+  }
+
+  @Nested
+  class StoryThatIsNotFrozenTest {
+
+    @Test
+    void links_are_kept_by_the_title_and_position_of_their_passage() {
+      PlaythroughState state = new PlaythroughState(story);
+      Passage cave = story.getPassage("Cave");
+      Passage readAgain = new Passage("Cave", "Content of Cave");
+      readAgain.addLink(new Link("Go back", "Start"));
+      readAgain.addLink(new Link("Go to the lake", "Lake"));
+
+      state.markActionAsPerformed(cave, cave.getLinks().get(1));
+
+      assertTrue(state.hasPerformedAction(readAgain, readAgain.getLinks().get(1)));
+      assertEquals(Map.of("Cave", bits(1)), state.getPerformedLinks());
+    }
+
+    @Test
+    void removed_link_moves_the_state_to_the_link_that_takes_its_position() {
+      // The documented restriction of stories that are not frozen
+      PlaythroughState state = new PlaythroughState(story);
+      Passage start = story.getPassage("Start");
+      Link cave = start.getLinks().get(0);
+      Link lake = start.getLinks().get(1);
+      state.markActionAsPerformed(start, cave);
+
+      start.removeLink(cave);
+      start.addLink(cave);
+
+      assertTrue(state.hasPerformedAction(start, lake));
+      assertFalse(state.hasPerformedAction(start, cave));
+    }
+  }
+}
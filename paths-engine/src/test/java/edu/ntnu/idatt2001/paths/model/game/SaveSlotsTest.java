@@ -0,0 +1,182 @@
+package edu.ntnu.idatt2001.paths.model.game;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import edu.ntnu.idatt2001.paths.model.Link;
+import edu.ntnu.idatt2001.paths.model.Passage;
+import edu.ntnu.idatt2001.paths.model.Story;
+import edu.ntnu.idatt2001.paths.model.actions.GoldAction;
+import edu.ntnu.idatt2001.paths.model.actions.inventory.InventoryAction;
+import edu.ntnu.idatt2001.paths.model.goals.GoalsEnum;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayNameGeneration;
+import org.junit.jupiter.api.DisplayNameGenerator;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+@DisplayNameGeneration(DisplayNameGenerator.ReplaceUnderscores.class)
+class SaveSlotsTest {
+
+  @TempDir
+  Path directory;
+  private SaveSlots slots;
+  private SessionManager manager;
+
+  /**
+   * A story where the mine pays and the shed holds a key, each the first time it is entered.
+   */
+  private static Story mines(String title) {
+    Passage start = new Passage("Start", "Content of Start");
+    Link mine = new Link("Enter the mine", "Mine");
+    mine.addAction(new GoldAction(50));
+    start.addLink(mine);
+    Link shed = new Link("Search the shed", "Shed");
+    shed.addAction(new InventoryAction("key"));
+    start.addLink(shed);
+    Passage minePassage = new Passage("Mine", "Content of Mine");
+    minePassage.addLink(new Link("Climb out", "Start"));
+    Passage shedPassage = new Passage("Shed", "Content of Shed");
+    shedPassage.addLink(new Link("Go back", "Start"));
+    Story story = new Story(title, start);
+    story.addPassage(minePassage);
+    story.addPassage(shedPassage);
+    return story;
+  }
+
+  @BeforeEach
+  void setUp() {
+    slots = new SaveSlots(directory.resolve("saves"));
+    manager = new SessionManager(10);
+    manager.addStory(mines("Mines"));
+  }
+
+  private Session playedSession(String name) {
+    Session session = manager.startSession("Mines", name, GameDifficultyEnum.MEDIUM);
+    session.follow(1);
+    session.follow(0);
+    session.follow(0);
+    return session;
+  }
+
+  @Test
+  void loaded_session_goes_on_where_it_was_saved() throws IOException {
+    Session saved = playedSession("Miner");
+    slots.save("first", saved);
+
+    Session loaded = manager.loadSession(slots, "first");
+    assertEquals(saved.getGame().getPlaythroughState().getPerformedLinks(),
+        loaded.getGame().getPlaythroughState().getPerformedLinks());
+    loaded.follow(0);
+    loaded.follow(0);
+
+    assertEquals("Mine", loaded.getPassage().getTitle());
+    assertEquals(saved.getGame().getPlayer().getGold(), loaded.getGame().getPlayer().getGold());
+    assertEquals(List.of("key"), loaded.getGame().getPlayer().getInventory());
+    assertEquals(2, manager.getSessionCount());
+  }
+
+  @Test
+  void slots_are_listed_newest_first_from_their_headers() throws IOException,
+      InterruptedException {
+    slots.save("older", manager.startSession("Mines", "Starter", GameDifficultyEnum.EASY));
+    Thread.sleep(5);
+    slots.save("newer", playedSession("Miner"));
+
+    List<SaveSlots.SlotInfo> list = slots.list();
+
+    assertEquals(2, list.size());
+    SaveSlots.SlotInfo newer = list.get(0);
+    assertEquals("newer", newer.slot());
+    assertEquals("Miner", newer.playerName());
+    assertEquals("Mines", newer.storyTitle());
+    assertEquals("Mine", newer.passageTitle());
+    assertEquals(GameDifficultyEnum.MEDIUM.getDefaultGold() + 50, newer.gold());
+    assertEquals(GameDifficultyEnum.MEDIUM.getDefaultHealth(), newer.health());
+    assertEquals(1, newer.itemCount());
+    assertEquals(Session.Status.PLAYING, newer.status());
+    assertEquals("older", list.get(1).slot());
+    assertTrue(newer.savedAt().isAfter(list.get(1).savedAt()));
+  }
+
+  @Test
+  void listing_reads_only_the_header() throws IOException {
+    slots.save("first", playedSession("Miner"));
+    Path file = slots.getDirectory().resolve("first" + SaveSlots.EXTENSION);
+    byte[] save = Files.readAllBytes(file);
+    save[save.length - 1] ^= 1;
+    Files.write(file, save);
+
+    assertEquals("Miner", slots.list().get(0).playerName());
+    assertThrows(IOException.class, () -> slots.load("first", manager.getStory("Mines"),
+        GoalsEnum.getDefaultGoals()));
+  }
+
+  @Test
+  void long_titles_are_cut_to_whole_characters_in_the_header() throws IOException {
+    String title = "Æ".repeat(40);
+    manager.addStory(mines(title));
+    slots.save("long", manager.startSession(title, "Miner", GameDifficultyEnum.HARD));
+
+    assertEquals("Æ".repeat(31), slots.getInfo("long").storyTitle());
+    assertEquals(title, manager.loadSession(slots, "long").getGame().getStory().getTitle());
+  }
+
+  @Test
+  void saves_in_the_background_keep_the_latest_save() throws IOException {
+    Session session = manager.startSession("Mines", "Miner", GameDifficultyEnum.MEDIUM);
+    for (int i = 0; i < 200; i++) {
+      session.follow(0);
+      slots.saveLater("auto", session);
+    }
+    slots.flush();
+
+    assertEquals("Start", slots.getInfo("auto").passageTitle());
+    assertEquals(GameDifficultyEnum.MEDIUM.getDefaultGold() + 50, slots.getInfo("auto").gold());
+    slots.close();
+  }
+
+  @Test
+  void files_that_are_not_saves_are_left_out() throws IOException {
+    slots.save("first", playedSession("Miner"));
+    Files.write(slots.getDirectory().resolve("notes" + SaveSlots.EXTENSION), new byte[300]);
+    Files.write(slots.getDirectory().resolve("short" + SaveSlots.EXTENSION), new byte[3]);
+
+    assertEquals(1, slots.list().size());
+    assertNull(slots.getInfo("notes"));
+  }
+
+  @Test
+  void empty_slots_and_bad_slot_names() throws IOException {
+    assertTrue(slots.list().isEmpty());
+    assertNull(slots.getInfo("empty"));
+    assertThrows(IOException.class, () -> manager.loadSession(slots, "empty"));
+    assertThrows(IllegalArgumentException.class, () -> slots.getInfo("../escape"));
+    assertThrows(IllegalArgumentException.class,
+        () -> slots.save("", playedSession("Miner")));
+  }
+
+  @Test
+  void deleted_slot_is_empty() throws IOException {
+    slots.save("first", playedSession("Miner"));
+
+    assertTrue(slots.delete("first"));
+    assertFalse(slots.delete("first"));
+    assertNull(slots.getInfo("first"));
+  }
+
+  @Test
+  void save_of_another_story_is_refused() throws IOException {
+    slots.save("first", playedSession("Miner"));
+
+    assertThrows(IllegalArgumentException.class, () -> slots.load("first",
+        mines("Caves").freeze(), GoalsEnum.getDefaultGoals()));
+  }
+}
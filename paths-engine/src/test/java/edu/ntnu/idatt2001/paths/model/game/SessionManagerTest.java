@@ -0,0 +1,185 @@
+package edu.ntnu.idatt2001.paths.model.game;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import edu.ntnu.idatt2001.paths.model.Link;
+import edu.ntnu.idatt2001.paths.model.Passage;
+import edu.ntnu.idatt2001.paths.model.Story;
+import edu.ntnu.idatt2001.paths.model.actions.GoldAction;
+import edu.ntnu.idatt2001.paths.model.actions.HealthAction;
+import edu.ntnu.idatt2001.paths.model.actions.inventory.InventoryAction;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayNameGeneration;
+import org.junit.jupiter.api.DisplayNameGenerator;
+import org.junit.jupiter.api.Test;
+
+@DisplayNameGeneration(DisplayNameGenerator.ReplaceUnderscores.class)
+class SessionManagerTest {
+
+  private SessionManager manager;
+  private Story story;
+
+  /**
+   * A story where the mine pays each time it is first entered from a passage, the pit kills, and
+   * the door needs the key found in the shed.
+   */
+  @BeforeEach
+  void setUp() {
+    Passage start = new Passage("Start", "Content of Start");
+    Link mine = new Link("Enter the mine", "Mine");
+    mine.addAction(new GoldAction(50));
+    start.addLink(mine);
+    Link pit = new Link("Jump into the pit", "Pit");
+    pit.addAction(new HealthAction(-100));
+    start.addLink(pit);
+    Link door = new Link("Open the door", "Shed");
+    door.setRequiredItem(new InventoryAction("key"));
+    start.addLink(door);
+    Passage minePassage = new Passage("Mine", "Content of Mine");
+    minePassage.addLink(new Link("Climb out", "Start"));
+    Passage shed = new Passage("Shed", "Content of Shed");
+    shed.addLink(new Link("Go back", "Start"));
+    story = new Story("Mines", start);
+    story.addPassage(minePassage);
+    story.addPassage(new Passage("Pit", "Content of Pit"));
+    story.addPassage(shed);
+
+    manager = new SessionManager(100);
+    manager.addStory(story);
+  }
+
+  @Test
+  void sessions_share_the_frozen_story_and_keep_their_own_players() {
+    Session first = manager.startSession("Mines", "First", GameDifficultyEnum.MEDIUM);
+    Session second = manager.startSession("Mines", "Second", GameDifficultyEnum.MEDIUM);
+
+    first.follow(0);
+
+    assertSame(first.getGame().getStory(), second.getGame().getStory());
+    assertTrue(first.getGame().getStory().isFrozen());
+    assertEquals("Mine", first.getPassage().getTitle());
+    assertEquals("Start", second.getPassage().getTitle());
+    int startGold = GameDifficultyEnum.MEDIUM.getDefaultGold();
+    assertEquals(startGold + 50, first.getGame().getPlayer().getGold());
+    assertEquals(startGold, second.getGame().getPlayer().getGold());
+  }
+
+  @Test
+  void actions_of_a_link_are_performed_the_first_time_it_is_followed() {
+    Session session = manager.startSession("Mines", "Miner", GameDifficultyEnum.MEDIUM);
+
+    session.follow(0);
+    session.follow(0);
+    session.follow(0);
+
+    assertEquals("Mine", session.getPassage().getTitle());
+    assertEquals(GameDifficultyEnum.MEDIUM.getDefaultGold() + 50,
+        session.getGame().getPlayer().getGold());
+    assertEquals(Session.Status.PLAYING, session.getStatus());
+  }
+
+  @Test
+  void session_ends_when_the_player_dies() {
+    Session session = manager.startSession("Mines", "Jumper", GameDifficultyEnum.MEDIUM);
+
+    session.follow(1);
+
+    assertEquals(Session.Status.DEAD, session.getStatus());
+    assertThrows(IllegalStateException.class, () -> session.follow(0));
+  }
+
+  @Test
+  void link_that_requires_a_missing_item_can_not_be_followed() {
+    Session session = manager.startSession("Mines", "Locked", GameDifficultyEnum.MEDIUM);
+
+    assertThrows(IllegalStateException.class, () -> session.follow(2));
+    assertThrows(IllegalArgumentException.class, () -> session.follow(3));
+    assertEquals("Start", session.getPassage().getTitle());
+  }
+
+  @Test
+  void sessions_are_found_and_ended_by_id() {
+    Session session = manager.startSession("Mines", "Finder", GameDifficultyEnum.EASY);
+
+    assertSame(session, manager.getSession(session.getId()));
+    assertTrue(manager.endSession(session.getId()));
+    assertFalse(manager.endSession(session.getId()));
+    assertNull(manager.getSession(session.getId()));
+    assertEquals(0, manager.getSessionCount());
+  }
+
+  @Test
+  void limit_of_sessions_is_kept() {
+    SessionManager small = new SessionManager(2);
+    small.addStory(story);
+    small.startSession("Mines", "One", GameDifficultyEnum.EASY);
+    Session two = small.startSession("Mines", "Two", GameDifficultyEnum.EASY);
+
+    assertThrows(IllegalStateException.class,
+        () -> small.startSession("Mines", "Three", GameDifficultyEnum.EASY));
+    small.endSession(two.getId());
+    small.startSession("Mines", "Three", GameDifficultyEnum.EASY);
+    assertEquals(2, small.getSessionCount());
+  }
+
+  @Test
+  void idle_sessions_are_ended() throws InterruptedException {
+    manager.startSession("Mines", "Idle", GameDifficultyEnum.EASY);
+    Thread.sleep(5);
+
+    assertEquals(1, manager.endIdleSessions(Duration.ofMillis(1)));
+    assertEquals(0, manager.getSessionCount());
+  }
+
+  @Test
+  void unknown_story_can_not_be_played() {
+    assertThrows(IllegalArgumentException.class,
+        () -> manager.startSession("Caves", "Lost", GameDifficultyEnum.EASY));
+  }
+
+  @Test
+  void changes_to_the_story_do_not_reach_the_sessions() {
+    Session session = manager.startSession("Mines", "Editor", GameDifficultyEnum.EASY);
+
+    story.getOpeningPassage().getLinks().get(0).setReference("Shed");
+
+    assertEquals("Mine", session.follow(0).getTitle());
+  }
+
+  @Test
+  void many_sessions_are_played_at_the_same_time() throws Exception {
+    SessionManager large = new SessionManager(2000);
+    large.addStory(story);
+    ExecutorService executor = Executors.newFixedThreadPool(4);
+    try {
+      List<Future<Integer>> players = new ArrayList<>();
+      for (int i = 0; i < 2000; i++) {
+        players.add(executor.submit(() -> {
+          Session session = large.startSession("Mines", "Player", GameDifficultyEnum.MEDIUM);
+          for (int round = 0; round < 10; round++) {
+            session.follow(0);
+            session.follow(0);
+          }
+          return session.getGame().getPlayer().getGold();
+        }));
+      }
+      for (Future<Integer> player : players) {
+        assertEquals(GameDifficultyEnum.MEDIUM.getDefaultGold() + 50, player.get());
+      }
+      assertEquals(2000, large.getSessionCount());
+    } finally {
+      executor.shutdown();
+    }
+  }
+}
@@ -0,0 +1,184 @@
+package edu.ntnu.idatt2001.paths.model.graph;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import edu.ntnu.idatt2001.paths.model.Link;
+import edu.ntnu.idatt2001.paths.model.Passage;
+import edu.ntnu.idatt2001.paths.model.Story;
+import edu.ntnu.idatt2001.paths.model.actions.GoldAction;
+import edu.ntnu.idatt2001.paths.model.actions.HealthAction;
+import edu.ntnu.idatt2001.paths.model.actions.ScoreAction;
+import edu.ntnu.idatt2001.paths.model.actions.inventory.InventoryAction;
+import edu.ntnu.idatt2001.paths.model.game.Game;
+import edu.ntnu.idatt2001.paths.model.game.GameDifficultyEnum;
+import edu.ntnu.idatt2001.paths.model.goals.Goal;
+import edu.ntnu.idatt2001.paths.model.goals.GoalsEnum;
+import edu.ntnu.idatt2001.paths.model.player.Player;
+import edu.ntnu.idatt2001.paths.model.player.PlayerBuilder;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.DisplayNameGeneration;
+import org.junit.jupiter.api.DisplayNameGenerator;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+@DisplayNameGeneration(DisplayNameGenerator.ReplaceUnderscores.class)
+class ModelCheckerTest {
+
+  private final List<Goal<?>> goals = GoalsEnum.getDefaultGoals();
+
+  private static Story pitStory() {
+    Link fire = new Link("Cross the fire", "Vault");
+    fire.addAction(new HealthAction(-60));
+    Passage start = new Passage("Start", "Fire ahead, a pit to the side.");
+    start.addLink(fire);
+    start.addLink(new Link("Jump into the pit", "Pit"));
+    Link chest = new Link("Open the chest", "Start");
+    chest.addAction(new GoldAction(100));
+    chest.addAction(new ScoreAction(100));
+    chest.addAction(new InventoryAction("gem"));
+    Passage vault = new Passage("Vault", "A chest.");
+    vault.addLink(chest);
+    Story story = new Story("Pit", start);
+    story.addPassage(vault);
+    story.addPassage(new Passage("Pit", "There is no way out."));
+    return story;
+  }
+
+  @Nested
+  class CheckTest {
+
+    @Test
+    void every_state_is_counted_and_traps_are_found() {
+      ModelCheckReport report = new ModelChecker()
+          .check(StoryGraph.of(pitStory()), goals, GameDifficultyEnum.EASY);
+
+      assertTrue(report.isComplete());
+      assertEquals(4, report.getStates());
+      assertEquals(1, report.getWinningStates());
+      assertEquals(1, report.getStuckStates());
+      assertEquals(1, report.getTrappedStates());
+      assertTrue(report.getTrappedExamples().get(0).startsWith("Pit (health 150"));
+      assertEquals(List.of(), report.getUnreachableGoalCombinations());
+    }
+
+    @Test
+    void health_that_drops_to_zero_within_a_link_is_checked_like_the_game() {
+      Link fall = new Link("Fall and get up", "Vault");
+      fall.addAction(new HealthAction(-100));
+      fall.addAction(new HealthAction(50));
+      Story story = pitStory();
+      story.getOpeningPassage().addLink(fall);
+
+      ModelCheckReport report =
+          new ModelChecker().check(StoryGraph.of(story), goals, GameDifficultyEnum.HARD);
+
+      // Start, the pit, the vault after the fall and the start again with the treasure
+      assertEquals(4, report.getStates());
+      assertEquals(1, report.getWinningStates());
+      assertEquals(1, report.getStuckStates());
+      assertEquals(1, report.getTrappedStates());
+      assertTrue(report.getTrappedExamples().get(0).startsWith("Pit (health 50"));
+      Player player = new PlayerBuilder(GameDifficultyEnum.HARD).setName("Tester").build();
+      Game game = new Game(player, story, goals);
+      game.progressGame(fall);
+      assertEquals(50, player.getHealth());
+      assertTrue(game.progressGame(game.go(fall).getLinks().get(0)));
+    }
+
+    @Test
+    void goals_that_are_never_reached_are_reported() {
+      ModelCheckReport report = new ModelChecker()
+          .check(StoryGraph.of(pitStory()), goals, GameDifficultyEnum.HARD);
+
+      assertEquals(2, report.getStates());
+      assertEquals(0, report.getWinningStates());
+      assertEquals(2, report.getTrappedStates());
+      assertEquals(List.of(List.of("gold 100"), List.of("score 100"), List.of("item gem")),
+          report.getUnreachableGoalCombinations());
+    }
+
+    @Test
+    void goals_that_are_only_reached_apart_are_reported_together() {
+      // Taking one of the rewards leads to the pit, so the other can not be taken as well
+      Link gold = new Link("Take the gold", "Pit");
+      gold.addAction(new GoldAction(100));
+      Link score = new Link("Take the glory", "Pit");
+      score.addAction(new ScoreAction(100));
+      Passage crossroads = new Passage("Crossroads", "Choose.");
+      crossroads.addLink(gold);
+      crossroads.addLink(score);
+      Passage start = new Passage("Start", "The beginning.");
+      start.addLink(new Link("Go to the crossroads", "Crossroads"));
+      Story story = new Story("Choice", start);
+      story.addPassage(crossroads);
+      story.addPassage(new Passage("Pit", "The end."));
+
+      ModelCheckReport report = new ModelChecker().check(StoryGraph.of(story),
+          List.of(GoalsEnum.GOLD.getGoal(), GoalsEnum.SCORE.getGoal()), GameDifficultyEnum.EASY);
+
+      assertEquals(List.of(List.of("gold 100", "score 100")),
+          report.getUnreachableGoalCombinations());
+    }
+
+    @Test
+    void states_can_spill_to_a_mapped_file(@TempDir Path directory) throws IOException {
+      ModelChecker checker = new ModelChecker(1 << 20, Duration.ofSeconds(10), directory);
+      ModelCheckReport report =
+          checker.check(StoryGraph.of(pitStory()), goals, GameDifficultyEnum.EASY);
+
+      assertEquals(4, report.getStates());
+      assertEquals(1, report.getTrappedStates());
+      try (Stream<Path> files = Files.list(directory)) {
+        assertEquals(0, files.count());
+      }
+    }
+  }
+
+  @Nested
+  class OffHeapStateTableTest {
+
+    @Test
+    void states_and_flags_survive_the_table_growing() {
+      Random random = new Random(5);
+      long[][] states = new long[20_000][3];
+      try (OffHeapStateTable table = new OffHeapStateTable(3, 100_000, null)) {
+        for (int i = 0; i < states.length; i++) {
+          for (int w = 0; w < 3; w++) {
+            states[i][w] = random.nextInt(1000);
+          }
+          long added = table.add(states[i]);
+          if (added >= 0 && added % 3 == 0) {
+            table.flag(added);
+          }
+        }
+        long[] copy = new long[3];
+        for (long[] state : states) {
+          long index = table.indexOf(state);
+          assertEquals(-1 - index, table.add(state));
+          table.get(index, copy);
+          assertEquals(List.of(state[0], state[1], state[2]), List.of(copy[0], copy[1], copy[2]));
+          assertEquals(index % 3 == 0, table.isFlagged(index));
+        }
+      }
+    }
+
+    @Test
+    void a_full_table_turns_new_states_away() {
+      try (OffHeapStateTable table = new OffHeapStateTable(1, 2, null)) {
+        assertEquals(0, table.add(new long[] {7}));
+        assertEquals(1, table.add(new long[] {8}));
+        assertEquals(OffHeapStateTable.FULL, table.add(new long[] {9}));
+        assertEquals(-1, table.add(new long[] {7}));
+        assertEquals(-1, table.indexOf(new long[] {9}));
+      }
+    }
+  }
+}
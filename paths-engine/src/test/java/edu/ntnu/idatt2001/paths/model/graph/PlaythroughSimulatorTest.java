@@ -0,0 +1,241 @@
+package edu.ntnu.idatt2001.paths.model.graph;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import edu.ntnu.idatt2001.paths.model.Link;
+import edu.ntnu.idatt2001.paths.model.Passage;
+import edu.ntnu.idatt2001.paths.model.Story;
+import edu.ntnu.idatt2001.paths.model.actions.GoldAction;
+import edu.ntnu.idatt2001.paths.model.actions.HealthAction;
+import edu.ntnu.idatt2001.paths.model.actions.ScoreAction;
+import edu.ntnu.idatt2001.paths.model.actions.inventory.InventoryAction;
+import edu.ntnu.idatt2001.paths.model.game.Game;
+import edu.ntnu.idatt2001.paths.model.game.GameDifficultyEnum;
+import edu.ntnu.idatt2001.paths.model.goals.Goal;
+import edu.ntnu.idatt2001.paths.model.goals.GoalsEnum;
+import edu.ntnu.idatt2001.paths.model.goals.HealthGoal;
+import edu.ntnu.idatt2001.paths.model.player.Player;
+import edu.ntnu.idatt2001.paths.model.player.PlayerBuilder;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import org.junit.jupiter.api.DisplayNameGeneration;
+import org.junit.jupiter.api.DisplayNameGenerator;
+import org.junit.jupiter.api.Test;
+
+@DisplayNameGeneration(DisplayNameGenerator.ReplaceUnderscores.class)
+class PlaythroughSimulatorTest {
+
+  private final PlaythroughSimulator simulator = new PlaythroughSimulator();
+  private final List<Goal<?>> goals = GoalsEnum.getDefaultGoals();
+
+  private static Link link(String text, String reference, int health, int gold, int score) {
+    Link link = new Link(text, reference);
+    if (health != 0) {
+      link.addAction(new HealthAction(health));
+    }
+    if (gold != 0) {
+      link.addAction(new GoldAction(gold));
+    }
+    if (score != 0) {
+      link.addAction(new ScoreAction(score));
+    }
+    return link;
+  }
+
+  private static Passage passage(String title, Link... links) {
+    Passage passage = new Passage(title, "Content of " + title);
+    for (Link link : links) {
+      passage.addLink(link);
+    }
+    return passage;
+  }
+
+  private static Story fireStory() {
+    Link chest = link("Open the chest", "Start", 0, 100, 100);
+    chest.addAction(new InventoryAction("gem"));
+    Story story = new Story("Fire", passage("Start", link("Cross the fire", "Vault", -60, 0, 0)));
+    story.addPassage(passage("Vault", chest));
+    return story;
+  }
+
+  /**
+   * A story with loops, items, required items and links that hurt, heal, pay and cost.
+   */
+  private static Story mazeStory() {
+    Link key = link("Search the shed", "Start", 0, 0, 10);
+    key.addAction(new InventoryAction("key"));
+    Link door = link("Open the door", "Vault", 0, 0, 0);
+    door.setRequiredItem(new InventoryAction("key"));
+    Link chest = link("Open the chest", "Start", 0, 60, 50);
+    chest.addAction(new InventoryAction("gem"));
+    Story story = new Story("Maze", passage("Start", link("Walk to the shed", "Shed", 0, 0, 0),
+        link("Walk to the cave", "Cave", 0, 0, 0), door));
+    story.addPassage(passage("Shed", key, link("Trip on a rake", "Cave", -20, -5, 0)));
+    story.addPassage(passage("Cave", link("Fight the bat", "Start", -45, 30, 20),
+        link("Sell the bat wing", "Shed", 0, 25, 0), link("Rest in the cave", "Start", 15, 0, 0)));
+    story.addPassage(passage("Vault", chest, link("Pay the guard", "Cave", 0, -40, 30)));
+    return story;
+  }
+
+  /**
+   * A story whose only link takes all the health of a player and then gives some back.
+   */
+  private static Story fallStory() {
+    Link fall = new Link("Fall and get up", "End");
+    fall.addAction(new HealthAction(-100));
+    fall.addAction(new HealthAction(50));
+    Story story = new Story("Fall", passage("Start", fall));
+    story.addPassage(passage("End"));
+    return story;
+  }
+
+  /**
+   * A story with loops and links that take health or gold down to zero on the way and then give
+   * some back, or give some and then take it all.
+   */
+  private static Story clampStory() {
+    Link fight = link("Fight the troll", "Cave", -100, -100, 20);
+    fight.addAction(new HealthAction(40));
+    fight.addAction(new GoldAction(30));
+    Link gamble = link("Gamble at the inn", "Start", 0, 50, 0);
+    gamble.addAction(new GoldAction(-100));
+    gamble.addAction(new GoldAction(15));
+    Link heal = link("Drink from the spring", "Start", 30, 0, 5);
+    heal.addAction(new HealthAction(-60));
+    heal.addAction(new HealthAction(25));
+    Story story = new Story("Clamps", passage("Start", link("Go to the inn", "Inn", 0, 0, 0),
+        fight));
+    story.addPassage(passage("Inn", gamble, link("Fall in the well", "Cave", -30, 0, 0)));
+    story.addPassage(passage("Cave", heal, link("Walk to the inn", "Inn", -10, 10, 0)));
+    return story;
+  }
+
+  @Test
+  void link_that_hurts_and_then_heals_is_won_like_in_the_game() {
+    Story story = fallStory();
+    List<Goal<?>> healthGoal = List.of(new HealthGoal(1));
+    Player player = new PlayerBuilder(GameDifficultyEnum.HARD).setName("Tester").build();
+    Game game = new Game(player, story, healthGoal);
+
+    assertTrue(game.progressGame(story.getOpeningPassage().getLinks().get(0)));
+    assertEquals(50, player.getHealth());
+
+    PlaythroughStatistics statistics = simulator.simulate(StoryGraph.of(story), healthGoal,
+        GameDifficultyEnum.HARD, 1000, 1);
+    assertEquals(1.0, statistics.getWinRate());
+    assertEquals(0, statistics.getDeaths());
+  }
+
+  @Test
+  void outcomes_follow_the_health_of_the_difficulty() {
+    Map<GameDifficultyEnum, PlaythroughStatistics> statistics =
+        simulator.simulateAll(StoryGraph.of(fireStory()), goals, 1000, 1);
+
+    assertEquals(1.0, statistics.get(GameDifficultyEnum.EASY).getWinRate());
+    assertEquals(2.0, statistics.get(GameDifficultyEnum.EASY).getAverageWinningLength());
+    assertEquals(1.0, statistics.get(GameDifficultyEnum.HARD).getDeathRate());
+    assertEquals(1000, statistics.get(GameDifficultyEnum.HARD).getDeaths());
+  }
+
+  @Test
+  void playthroughs_that_can_not_go_on_are_stuck() {
+    Story story = fireStory();
+    story.getOpeningPassage().addLink(link("Jump into the pit", "Pit", 0, 0, 0));
+    story.addPassage(passage("Pit"));
+    StoryGraph graph = StoryGraph.of(story);
+
+    PlaythroughStatistics statistics =
+        simulator.simulate(graph, goals, GameDifficultyEnum.EASY, 10_000, 7);
+
+    assertEquals(10_000, statistics.getWins() + statistics.getStuck());
+    assertTrue(statistics.getStuckRate() > 0.45 && statistics.getStuckRate() < 0.55);
+    assertEquals(statistics.getStuck(), statistics.getVisits(graph.indexOf("Pit")));
+    assertEquals(10_000, statistics.getVisits(graph.getOpeningPassage())
+        - statistics.getWins());
+  }
+
+  @Test
+  void same_seed_gives_the_same_statistics_on_any_number_of_threads() {
+    StoryGraph graph = StoryGraph.of(mazeStory());
+    ForkJoinPool one = new ForkJoinPool(1);
+    ForkJoinPool four = new ForkJoinPool(4);
+    try {
+      PlaythroughStatistics a = new PlaythroughSimulator(one, 200)
+          .simulate(graph, goals, GameDifficultyEnum.HARD, 20_000, 42);
+      PlaythroughStatistics b = new PlaythroughSimulator(four, 200)
+          .simulate(graph, goals, GameDifficultyEnum.HARD, 20_000, 42);
+
+      assertEquals(a.toString(), b.toString());
+      for (int p = 0; p < graph.getPassageCount(); p++) {
+        assertEquals(a.getVisits(p), b.getVisits(p));
+      }
+      assertTrue(a.getWins() > 0 && a.getDeaths() > 0);
+    } finally {
+      one.shutdown();
+      four.shutdown();
+    }
+  }
+
+  @Test
+  void state_space_plays_like_the_game() {
+    assertPlaysLikeTheGame(mazeStory(), 3);
+  }
+
+  @Test
+  void state_space_clamps_after_every_action_like_the_game() {
+    assertPlaysLikeTheGame(clampStory(), 5);
+  }
+
+  private void assertPlaysLikeTheGame(Story story, long seed) {
+    StoryGraph graph = StoryGraph.of(story);
+    StateSpace space = new StateSpace(graph, goals);
+    Random random = new Random(seed);
+
+    for (int playthrough = 0; playthrough < 50; playthrough++) {
+      Player player = new PlayerBuilder(GameDifficultyEnum.MEDIUM).setName("Tester").build();
+      Game game = new Game(player, story, goals);
+      Passage passage = game.begin();
+      long[] state = new long[space.getWidth()];
+      space.start(GameDifficultyEnum.MEDIUM, state);
+
+      for (int step = 0; step < 30 && player.isAlive(); step++) {
+        List<Link> followable = new ArrayList<>();
+        List<Integer> edges = new ArrayList<>();
+        int first = graph.getFirstEdge(graph.indexOf(passage.getTitle()));
+        for (int i = 0; i < passage.getLinks().size(); i++) {
+          Link link = passage.getLinks().get(i);
+          boolean canFollow = game.getPlaythroughState().hasPerformedAction(passage, link)
+              || game.canFollowLink(link);
+          assertEquals(canFollow, space.canFollow(state, first + i));
+          if (canFollow) {
+            followable.add(link);
+            edges.add(first + i);
+          }
+        }
+        int choice = random.nextInt(followable.size());
+        Link link = followable.get(choice);
+        boolean won = false;
+        if (!game.getPlaythroughState().hasPerformedAction(passage, link)) {
+          won = game.progressGame(link);
+          game.getPlaythroughState().markActionAsPerformed(passage, link);
+        }
+        int outcome = space.follow(state, edges.get(choice), state);
+        passage = game.go(link);
+
+        assertEquals(player.isAlive(), outcome != StateSpace.DIED);
+        assertEquals(player.getHealth(), StateSpace.health(state));
+        assertEquals(player.getGold(), StateSpace.gold(state));
+        assertEquals(player.getScore(), StateSpace.score(state));
+        assertEquals(passage.getTitle(), graph.getTitle(StateSpace.passage(state)));
+        if (won) {
+          assertTrue(space.isWon(state));
+          break;
+        }
+      }
+    }
+  }
+}
@@ -0,0 +1,128 @@
+package edu.ntnu.idatt2001.paths.model.graph;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import edu.ntnu.idatt2001.paths.model.Link;
+import edu.ntnu.idatt2001.paths.model.Passage;
+import edu.ntnu.idatt2001.paths.model.Story;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import org.junit.jupiter.api.DisplayNameGeneration;
+import org.junit.jupiter.api.DisplayNameGenerator;
+import org.junit.jupiter.api.Test;
+
+@DisplayNameGeneration(DisplayNameGenerator.ReplaceUnderscores.class)
+class ReachabilityAnalyzerTest {
+
+  private final ReachabilityAnalyzer analyzer = new ReachabilityAnalyzer();
+
+  private static Passage passage(String title, String... references) {
+    Passage passage = new Passage(title, "Content of " + title);
+    for (String reference : references) {
+      passage.addLink(new Link("Go to " + reference, reference));
+    }
+    return passage;
+  }
+
+  @Test
+  void passages_without_a_way_in_are_unreachable() {
+    Story story = new Story("Reachability", passage("Start", "Hall"));
+    story.addPassage(passage("Hall", "Start"));
+    story.addPassage(passage("Attic", "Hall"));
+
+    Reachability reachability = analyzer.analyze(StoryGraph.of(story));
+
+    assertEquals(List.of("Attic"), reachability.getUnreachablePassages());
+    assertEquals(0, reachability.getDepth(0));
+    assertEquals(1, reachability.getDepth(1));
+    assertEquals(Reachability.UNREACHABLE, reachability.getDepth(2));
+    assertEquals(1, reachability.getMaxDepth());
+    assertEquals(2, reachability.getReachableCount());
+  }
+
+  @Test
+  void passages_that_can_not_reach_an_ending_are_dead_ends() {
+    Story story = new Story("Reachability", passage("Start", "Forest", "Cave"));
+    story.addPassage(passage("Forest", "Ending"));
+    story.addPassage(passage("Ending"));
+    story.addPassage(passage("Cave", "Pit"));
+    story.addPassage(passage("Pit", "Cave"));
+
+    Reachability reachability = analyzer.analyze(StoryGraph.of(story));
+
+    assertTrue(reachability.hasEndings());
+    assertEquals(List.of("Cave", "Pit"), reachability.getDeadEnds());
+    assertTrue(reachability.getUnreachablePassages().isEmpty());
+  }
+
+  @Test
+  void without_endings_only_passages_with_broken_links_are_dead_ends() {
+    Story story = new Story("Reachability", passage("Start", "Hall", "Cellar"));
+    story.addPassage(passage("Hall", "Start"));
+    story.addPassage(passage("Cellar", "Nowhere"));
+
+    Reachability reachability = analyzer.analyze(StoryGraph.of(story));
+
+    assertFalse(reachability.hasEndings());
+    assertEquals(List.of("Cellar"), reachability.getDeadEnds());
+  }
+
+  @Test
+  void story_without_opening_passage_reaches_nothing() {
+    Story story = new Story("Reachability");
+    story.addPassage(passage("Lost", "Found"));
+    story.addPassage(passage("Found", "Lost"));
+
+    Reachability reachability = analyzer.analyze(StoryGraph.of(story));
+
+    assertEquals(List.of("Lost", "Found"), reachability.getUnreachablePassages());
+    assertEquals(Reachability.UNREACHABLE, reachability.getMaxDepth());
+    assertTrue(reachability.getDeadEnds().isEmpty());
+  }
+
+  @Test
+  void parallel_search_gives_the_same_depths_as_sequential_search() {
+    int passages = 3_000;
+    Random random = new Random(7);
+    Story story = new Story("Large story", passage("Passage 0", "Passage 1", "Passage 2"));
+    for (int i = 1; i < passages; i++) {
+      Passage passage = new Passage("Passage " + i, "Content");
+      for (int link = 0; link < 3; link++) {
+        int target = random.nextInt(passages + 50);
+        if (target != i) {
+          passage.addLink(new Link("Link " + link, "Passage " + target));
+        }
+      }
+      story.addPassage(passage);
+    }
+    StoryGraph graph = StoryGraph.of(story);
+
+    Reachability sequential = new ReachabilityAnalyzer(ForkJoinPool.commonPool(),
+        Integer.MAX_VALUE).analyze(graph);
+    ForkJoinPool pool = new ForkJoinPool(4);
+    try {
+      Reachability parallel = new ReachabilityAnalyzer(pool, 1).analyze(graph);
+      int[] sequentialDepths = new int[passages];
+      int[] parallelDepths = new int[passages];
+      for (int p = 0; p < passages; p++) {
+        sequentialDepths[p] = sequential.getDepth(p);
+        parallelDepths[p] = parallel.getDepth(p);
+      }
+      assertArrayEquals(sequentialDepths, parallelDepths);
+      assertEquals(sequential.getDeadEnds(), parallel.getDeadEnds());
+    } finally {
+      pool.shutdown();
+    }
+  }
+
+  @Test
+  void threshold_must_be_positive() {
+    assertThrows(IllegalArgumentException.class,
+        () -> new ReachabilityAnalyzer(ForkJoinPool.commonPool(), 0));
+  }
+}
@@ -0,0 +1,43 @@
+package edu.ntnu.idatt2001.paths.model.graph;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import edu.ntnu.idatt2001.paths.model.Link;
+import edu.ntnu.idatt2001.paths.model.Passage;
+import edu.ntnu.idatt2001.paths.model.Story;
+import java.util.List;
+import org.junit.jupiter.api.DisplayNameGeneration;
+import org.junit.jupiter.api.DisplayNameGenerator;
+import org.junit.jupiter.api.Test;
+
+@DisplayNameGeneration(DisplayNameGenerator.ReplaceUnderscores.class)
+class StoryAnalysisTest {
+
+  @Test
+  void analyses_are_kept_until_the_story_changes() {
+    Passage start = new Passage("Start", "The beginning.");
+    start.addLink(new Link("Go to hall", "Hall"));
+    Passage hall = new Passage("Hall", "A hall.");
+    hall.addLink(new Link("Go back", "Start"));
+    Story story = new Story("Analysis", start);
+    story.addPassage(hall);
+    StoryAnalysis analysis = new StoryAnalysis(story, new ReachabilityAnalyzer());
+
+    StronglyConnectedComponents components = analysis.getComponents();
+    Reachability reachability = analysis.getReachability();
+    hall.getLinks().get(0).setText("Return");
+    assertSame(components, analysis.getComponents());
+    assertSame(reachability, analysis.getReachability());
+
+    story.addPassage(new Passage("Attic", "Dust."));
+    assertNotSame(reachability, analysis.getReachability());
+    assertEquals(List.of("Attic"), analysis.getReachability().getUnreachablePassages());
+
+    StoryGraph graph = analysis.getGraph();
+    hall.getLinks().get(0).setReference("Attic");
+    assertNotSame(graph, analysis.getGraph());
+    assertEquals(List.of(), analysis.getReachability().getUnreachablePassages());
+  }
+}
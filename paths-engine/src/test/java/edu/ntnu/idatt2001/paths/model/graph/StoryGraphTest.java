@@ -0,0 +1,135 @@
+package edu.ntnu.idatt2001.paths.model.graph;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import edu.ntnu.idatt2001.paths.model.Link;
+import edu.ntnu.idatt2001.paths.model.Passage;
+import edu.ntnu.idatt2001.paths.model.Story;
+import edu.ntnu.idatt2001.paths.model.actions.GoldAction;
+import edu.ntnu.idatt2001.paths.model.actions.HealthAction;
+import edu.ntnu.idatt2001.paths.model.actions.ScoreAction;
+import edu.ntnu.idatt2001.paths.model.actions.inventory.InventoryAction;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayNameGeneration;
+import org.junit.jupiter.api.DisplayNameGenerator;
+import org.junit.jupiter.api.Test;
+
+@DisplayNameGeneration(DisplayNameGenerator.ReplaceUnderscores.class)
+class StoryGraphTest {
+
+  private Story story;
+
+  @BeforeEach
+  void setUp() {
+    Passage start = new Passage("Start", "The beginning.");
+    Link toCave = new Link("Enter the cave", "Cave");
+    toCave.addAction(new HealthAction(-10));
+    toCave.addAction(new HealthAction(-5));
+    toCave.addAction(new GoldAction(20));
+    toCave.addAction(new InventoryAction("torch"));
+    start.addLink(toCave);
+    start.addLink(new Link("Walk away", "Nowhere"));
+    Passage cave = new Passage("Cave", "A dark cave.");
+    Link toTreasure = new Link("Light the torch", "Treasure");
+    toTreasure.setRequiredItem(new InventoryAction("torch"));
+    toTreasure.addAction(new ScoreAction(100));
+    cave.addLink(toTreasure);
+    cave.addLink(new Link("Go back", "Start"));
+    Passage treasure = new Passage("Treasure", "Gold everywhere.");
+    treasure.addLink(new Link("Start over", "Start"));
+
+    story = new Story("Graph story", start);
+    story.addPassage(cave);
+    story.addPassage(treasure);
+  }
+
+  @Test
+  void passages_are_numbered_in_story_order() {
+    StoryGraph graph = StoryGraph.of(story);
+    assertEquals(3, graph.getPassageCount());
+    assertEquals(0, graph.getOpeningPassage());
+    assertEquals("Cave", graph.getTitle(1));
+    assertEquals(2, graph.indexOf("Treasure"));
+    assertEquals(StoryGraph.NO_PASSAGE, graph.indexOf("Nowhere"));
+  }
+
+  @Test
+  void links_are_edges_in_passage_order() {
+    StoryGraph graph = StoryGraph.of(story);
+    assertEquals(5, graph.getEdgeCount());
+    assertEquals(0, graph.getFirstEdge(0));
+    assertEquals(2, graph.getEndEdge(0));
+    assertEquals(2, graph.getOutDegree(1));
+    assertEquals(1, graph.getTarget(0));
+    assertEquals(StoryGraph.NO_PASSAGE, graph.getTarget(1));
+    assertEquals("Light the torch", graph.getLinkText(2));
+    assertEquals(0, graph.getTarget(4));
+  }
+
+  @Test
+  void actions_are_summed_per_edge() {
+    StoryGraph graph = StoryGraph.of(story);
+    assertEquals(-15, graph.getHealthDelta(0));
+    assertEquals(20, graph.getGoldDelta(0));
+    assertEquals(100, graph.getScoreDelta(2));
+    assertEquals(0, graph.getScoreDelta(0));
+  }
+
+  @Test
+  void health_and_gold_keep_what_is_left_after_dropping_to_zero() {
+    Passage start = new Passage("Start", "The beginning.");
+    Link fall = new Link("Fall and get up", "End");
+    fall.addAction(new HealthAction(-100));
+    fall.addAction(new HealthAction(50));
+    fall.addAction(new GoldAction(-100));
+    fall.addAction(new GoldAction(30));
+    fall.addAction(new GoldAction(-10));
+    start.addLink(fall);
+    Story fallStory = new Story("Fall story", start);
+    fallStory.addPassage(new Passage("End", "The end."));
+
+    StoryGraph graph = StoryGraph.of(fallStory);
+
+    assertEquals(-50, graph.getHealthDelta(0));
+    assertEquals(50, graph.getHealthFloor(0));
+    assertEquals(50, graph.healthAfter(0, 50));
+    assertEquals(100, graph.healthAfter(0, 150));
+    assertEquals(20, graph.goldAfter(0, 0));
+    assertEquals(0, StoryGraph.of(story).getHealthFloor(0));
+  }
+
+  @Test
+  void items_are_numbered_by_inventory_value() {
+    StoryGraph graph = StoryGraph.of(story);
+    int torch = graph.indexOfItem("torch");
+    assertEquals(1, graph.getItemCount());
+    assertEquals("torch", graph.getItem(torch));
+    assertArrayEquals(new int[] {torch}, graph.getGrantedItems(0));
+    assertArrayEquals(new int[0], graph.getGrantedItems(1));
+    assertEquals(torch, graph.getRequiredItem(2));
+    assertEquals(StoryGraph.NO_ITEM, graph.getRequiredItem(3));
+  }
+
+  @Test
+  void sources_are_the_passages_linking_to_a_passage() {
+    StoryGraph graph = StoryGraph.of(story);
+    assertArrayEquals(new int[] {1, 2}, graph.getSources(0));
+    assertArrayEquals(new int[] {0}, graph.getSources(1));
+    assertArrayEquals(new int[] {1}, graph.getSources(2));
+  }
+
+  @Test
+  void snapshot_does_not_follow_the_story() {
+    StoryGraph graph = StoryGraph.of(story);
+    story.addPassage(new Passage("Nowhere", "Somewhere after all."));
+    assertEquals(3, graph.getPassageCount());
+    assertEquals(StoryGraph.NO_PASSAGE, graph.getTarget(1));
+  }
+
+  @Test
+  void null_story_is_rejected() {
+    assertThrows(IllegalArgumentException.class, () -> StoryGraph.of(null));
+  }
+}
@@ -0,0 +1,109 @@
+package edu.ntnu.idatt2001.paths.model.graph;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import edu.ntnu.idatt2001.paths.model.Link;
+import edu.ntnu.idatt2001.paths.model.Passage;
+import edu.ntnu.idatt2001.paths.model.Story;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+import org.junit.jupiter.api.DisplayNameGeneration;
+import org.junit.jupiter.api.DisplayNameGenerator;
+import org.junit.jupiter.api.Test;
+
+@DisplayNameGeneration(DisplayNameGenerator.ReplaceUnderscores.class)
+class StronglyConnectedComponentsTest {
+
+  private static Passage passage(String title, String... references) {
+    Passage passage = new Passage(title, "Content of " + title);
+    for (String reference : references) {
+      passage.addLink(new Link("Go to " + reference, reference));
+    }
+    return passage;
+  }
+
+  private static Story storyWithTrap() {
+    Story story = new Story("Loops", passage("Start", "Hall", "Cellar"));
+    story.addPassage(passage("Hall", "Start"));
+    story.addPassage(passage("Cellar", "Tunnel"));
+    story.addPassage(passage("Tunnel", "Cellar", "Crypt"));
+    story.addPassage(passage("Crypt", "Tunnel"));
+    return story;
+  }
+
+  @Test
+  void loops_are_grouped_into_components() {
+    StoryGraph graph = StoryGraph.of(storyWithTrap());
+    StronglyConnectedComponents components = StronglyConnectedComponents.of(graph);
+
+    assertEquals(2, components.getComponentCount());
+    int home = components.getComponent(graph.indexOf("Start"));
+    int cellar = components.getComponent(graph.indexOf("Cellar"));
+    assertEquals(home, components.getComponent(graph.indexOf("Hall")));
+    assertEquals(cellar, components.getComponent(graph.indexOf("Crypt")));
+    assertNotEquals(home, cellar);
+    assertEquals(3, components.getSize(cellar));
+    assertArrayEquals(new int[] {2, 3, 4}, components.getMembers(cellar));
+  }
+
+  @Test
+  void exits_of_a_loop_are_the_edges_leaving_it() {
+    StoryGraph graph = StoryGraph.of(storyWithTrap());
+    StronglyConnectedComponents components = StronglyConnectedComponents.of(graph);
+
+    int home = components.getComponent(0);
+    int[] exits = components.getExitEdges(home);
+    assertEquals(1, exits.length);
+    assertEquals(graph.indexOf("Cellar"), graph.getTarget(exits[0]));
+    assertFalse(components.isClosed(home));
+    assertTrue(components.isClosed(components.getComponent(graph.indexOf("Cellar"))));
+  }
+
+  @Test
+  void closed_loop_away_from_the_opening_passage_is_a_trap() {
+    StronglyConnectedComponents components =
+        StronglyConnectedComponents.of(StoryGraph.of(storyWithTrap()));
+    assertEquals(List.of(List.of("Cellar", "Tunnel", "Crypt")), components.getTrapLoops());
+  }
+
+  @Test
+  void story_that_is_one_loop_has_no_trap_unless_it_has_endings() {
+    Story story = new Story("Loops", passage("Start", "Hall"));
+    story.addPassage(passage("Hall", "Start"));
+    assertTrue(StronglyConnectedComponents.of(StoryGraph.of(story)).getTrapLoops().isEmpty());
+
+    story.addPassage(passage("Ending"));
+    assertEquals(List.of(List.of("Start", "Hall")),
+        StronglyConnectedComponents.of(StoryGraph.of(story)).getTrapLoops());
+  }
+
+  @Test
+  void long_chain_does_not_overflow_a_small_stack() throws InterruptedException {
+    int passages = 20_000;
+    Story story = new Story("Long chain", passage("Passage 0", "Passage 1"));
+    for (int i = 1; i < passages; i++) {
+      story.addPassage(passage("Passage " + i, "Passage " + (i + 1) % passages));
+    }
+    StoryGraph graph = StoryGraph.of(story);
+    AtomicReference<StronglyConnectedComponents> result = new AtomicReference<>();
+    AtomicReference<Throwable> failure = new AtomicReference<>();
+    Thread thread = new Thread(null, () -> {
+      try {
+        result.set(StronglyConnectedComponents.of(graph));
+      } catch (Throwable e) {
+        failure.set(e);
+      }
+    }, "small-stack", 64 * 1024);
+    thread.start();
+    thread.join();
+
+    assertNull(failure.get());
+    assertEquals(1, result.get().getComponentCount());
+    assertEquals(passages, result.get().getSize(0));
+  }
+}
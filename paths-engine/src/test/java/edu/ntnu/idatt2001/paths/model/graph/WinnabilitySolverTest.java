@@ -0,0 +1,178 @@
+package edu.ntnu.idatt2001.paths.model.graph;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import edu.ntnu.idatt2001.paths.model.Link;
+import edu.ntnu.idatt2001.paths.model.Passage;
+import edu.ntnu.idatt2001.paths.model.Story;
+import edu.ntnu.idatt2001.paths.model.actions.GoldAction;
+import edu.ntnu.idatt2001.paths.model.actions.HealthAction;
+import edu.ntnu.idatt2001.paths.model.actions.ScoreAction;
+import edu.ntnu.idatt2001.paths.model.actions.inventory.InventoryAction;
+import edu.ntnu.idatt2001.paths.model.game.Game;
+import edu.ntnu.idatt2001.paths.model.game.GameDifficultyEnum;
+import edu.ntnu.idatt2001.paths.model.goals.Goal;
+import edu.ntnu.idatt2001.paths.model.goals.GoalsEnum;
+import edu.ntnu.idatt2001.paths.model.player.Player;
+import edu.ntnu.idatt2001.paths.model.player.PlayerBuilder;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.DisplayNameGeneration;
+import org.junit.jupiter.api.DisplayNameGenerator;
+import org.junit.jupiter.api.Test;
+
+@DisplayNameGeneration(DisplayNameGenerator.ReplaceUnderscores.class)
+class WinnabilitySolverTest {
+
+  private final WinnabilitySolver solver = new WinnabilitySolver();
+  private final List<Goal<?>> goals = GoalsEnum.getDefaultGoals();
+
+  private static Link link(String text, String reference) {
+    return new Link(text, reference);
+  }
+
+  private static Link treasure(String reference) {
+    Link link = new Link("Open the chest", reference);
+    link.addAction(new GoldAction(100));
+    link.addAction(new ScoreAction(100));
+    link.addAction(new InventoryAction("gem"));
+    return link;
+  }
+
+  private static Passage passage(String title, Link... links) {
+    Passage passage = new Passage(title, "Content of " + title);
+    for (Link link : links) {
+      passage.addLink(link);
+    }
+    return passage;
+  }
+
+  @Test
+  void shortest_winning_choices_are_found() {
+    Story story = new Story("Treasure", passage("Start",
+        link("Take the long road", "Road"), link("Take the shortcut", "Vault")));
+    story.addPassage(passage("Road", link("Keep walking", "Vault")));
+    story.addPassage(passage("Vault", treasure("Start")));
+
+    Winnability answer = solver.solve(StoryGraph.of(story), goals, GameDifficultyEnum.DEFAULT);
+
+    assertTrue(answer.isWinnable());
+    assertEquals(List.of("Take the shortcut", "Open the chest"), answer.getChoices());
+  }
+
+  @Test
+  void required_items_must_be_found_first() {
+    Link door = link("Open the door", "Vault");
+    door.setRequiredItem(new InventoryAction("key"));
+    Link search = link("Search the shed", "Start");
+    search.addAction(new InventoryAction("key"));
+    Story story = new Story("Locked", passage("Start", door, link("Walk to the shed", "Shed")));
+    story.addPassage(passage("Shed", search));
+    story.addPassage(passage("Vault", treasure("Start")));
+
+    Winnability answer = solver.solve(StoryGraph.of(story), goals, GameDifficultyEnum.DEFAULT);
+
+    assertEquals(List.of("Walk to the shed", "Search the shed", "Open the door", "Open the chest"),
+        answer.getChoices());
+  }
+
+  @Test
+  void actions_of_a_link_are_performed_once() {
+    Link dig = link("Dig for gold", "Start");
+    dig.addAction(new GoldAction(50));
+    Link gem = link("Pick up the gem", "Start");
+    gem.addAction(new InventoryAction("gem"));
+    gem.addAction(new ScoreAction(100));
+    Passage field = passage("Field", dig, gem);
+    Story story = new Story("Digging", passage("Start", link("Go to the field", "Field")));
+    story.addPassage(field);
+
+    assertEquals(Winnability.Verdict.UNWINNABLE,
+        solver.solve(StoryGraph.of(story), goals, GameDifficultyEnum.DEFAULT).getVerdict());
+
+    Link deeper = link("Dig deeper", "Start");
+    deeper.addAction(new GoldAction(50));
+    field.addLink(deeper);
+    Winnability answer = solver.solve(StoryGraph.of(story), goals, GameDifficultyEnum.DEFAULT);
+    assertTrue(answer.isWinnable());
+    assertEquals(6, answer.getEdges().length);
+  }
+
+  @Test
+  void a_difficulty_with_too_little_health_can_not_win() {
+    Link fire = link("Cross the fire", "Vault");
+    fire.addAction(new HealthAction(-60));
+    Story story = new Story("Fire", passage("Start", fire));
+    story.addPassage(passage("Vault", treasure("Start")));
+
+    Map<GameDifficultyEnum, Winnability> answers = solver.solveAll(StoryGraph.of(story), goals);
+
+    assertTrue(answers.get(GameDifficultyEnum.EASY).isWinnable());
+    assertTrue(answers.get(GameDifficultyEnum.MEDIUM).isWinnable());
+    assertEquals(Winnability.Verdict.UNWINNABLE,
+        answers.get(GameDifficultyEnum.HARD).getVerdict());
+    assertEquals(GameDifficultyEnum.DEFAULT, answers.get(GameDifficultyEnum.DEFAULT)
+        .getDifficulty());
+  }
+
+  @Test
+  void health_that_drops_to_zero_within_a_link_and_comes_back_can_still_win() {
+    Link fall = link("Fall and get up", "Vault");
+    fall.addAction(new HealthAction(-100));
+    fall.addAction(new HealthAction(50));
+    Story story = new Story("Fall", passage("Start", fall));
+    story.addPassage(passage("Vault", treasure("Start")));
+
+    Winnability answer = solver.solve(StoryGraph.of(story), goals, GameDifficultyEnum.HARD);
+
+    assertTrue(answer.isWinnable());
+    assertEquals(List.of("Fall and get up", "Open the chest"), answer.getChoices());
+    Player player = new PlayerBuilder(GameDifficultyEnum.HARD).setName("Tester").build();
+    Game game = new Game(player, story, goals);
+    Passage passage = game.begin();
+    boolean won = false;
+    for (String choice : answer.getChoices()) {
+      Link link = passage.getLinks().stream()
+          .filter(candidate -> candidate.getText().equals(choice)).findFirst().orElseThrow();
+      won = game.progressGame(link);
+      passage = game.go(link);
+    }
+    assertTrue(won);
+    assertEquals(50, player.getHealth());
+  }
+
+  @Test
+  void search_gives_up_when_the_memory_budget_runs_out() {
+    Story story = new Story("Treasure", passage("Start", link("Take the shortcut", "Vault")));
+    story.addPassage(passage("Vault", treasure("Start")));
+    WinnabilitySolver tiny = new WinnabilitySolver(100, Duration.ofSeconds(1));
+
+    Winnability answer = tiny.solve(StoryGraph.of(story), goals, GameDifficultyEnum.DEFAULT);
+
+    assertEquals(Winnability.Verdict.UNKNOWN, answer.getVerdict());
+    assertEquals(0, answer.getChoices().size());
+  }
+
+  @Test
+  void goals_of_unknown_kinds_are_rejected() {
+    Story story = new Story("Hall", passage("Start", link("Go to the hall", "Hall")));
+    story.addPassage(passage("Hall", link("Go back", "Start")));
+    Goal<String> unknown = new Goal<>() {
+      @Override
+      public boolean isFulfilled(Player player) {
+        return true;
+      }
+
+      @Override
+      public String getValue() {
+        return "anything";
+      }
+    };
+
+    assertThrows(IllegalArgumentException.class,
+        () -> solver.solve(StoryGraph.of(story), List.of(unknown), GameDifficultyEnum.DEFAULT));
+  }
+}
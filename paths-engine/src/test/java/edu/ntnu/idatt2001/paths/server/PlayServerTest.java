@@ -0,0 +1,153 @@
+package edu.ntnu.idatt2001.paths.server;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import edu.ntnu.idatt2001.paths.model.Link;
+import edu.ntnu.idatt2001.paths.model.Passage;
+import edu.ntnu.idatt2001.paths.model.Story;
+import edu.ntnu.idatt2001.paths.model.actions.GoldAction;
+import edu.ntnu.idatt2001.paths.model.actions.HealthAction;
+import edu.ntnu.idatt2001.paths.model.game.GameDifficultyEnum;
+import edu.ntnu.idatt2001.paths.model.game.SessionManager;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayNameGeneration;
+import org.junit.jupiter.api.DisplayNameGenerator;
+import org.junit.jupiter.api.Test;
+
+@DisplayNameGeneration(DisplayNameGenerator.ReplaceUnderscores.class)
+class PlayServerTest {
+
+  private final HttpClient client = HttpClient.newHttpClient();
+  private SessionManager sessionManager;
+  private PlayServer server;
+  private URI base;
+
+  @BeforeEach
+  void setUp() throws IOException {
+    Passage start = new Passage("Start", "You stand at the \"gate\"");
+    Link mine = new Link("Enter the mine", "Mine");
+    mine.addAction(new GoldAction(50));
+    start.addLink(mine);
+    Link pit = new Link("Jump into the pit", "Pit");
+    pit.addAction(new HealthAction(-100));
+    start.addLink(pit);
+    Passage minePassage = new Passage("Mine", "Content of Mine");
+    minePassage.addLink(new Link("Climb out", "Start"));
+    Story story = new Story("Mines", start);
+    story.addPassage(minePassage);
+    story.addPassage(new Passage("Pit", "Content of Pit"));
+
+    sessionManager = new SessionManager(10);
+    sessionManager.addStory(story);
+    server = new PlayServer(sessionManager, new InetSocketAddress("localhost", 0));
+    server.start();
+    base = URI.create("http://localhost:" + server.getPort() + "/");
+  }
+
+  @AfterEach
+  void tearDown() {
+    server.stop();
+  }
+
+  @Test
+  void stories_are_listed() throws Exception {
+    HttpResponse<String> response = send("GET", "stories");
+
+    assertEquals(200, response.statusCode());
+    assertEquals("{\"stories\":[\"Mines\"]}", response.body());
+  }
+
+  @Test
+  void session_is_started_at_the_opening_passage() throws Exception {
+    HttpResponse<String> response = send("POST",
+        "sessions?story=Mines&player=Miner&difficulty=easy");
+
+    assertEquals(201, response.statusCode());
+    assertTrue(response.body().contains("\"title\":\"Start\""));
+    assertTrue(response.body().contains("\"content\":\"You stand at the \\\"gate\\\"\""));
+    assertTrue(response.body().contains(
+        "{\"index\":0,\"text\":\"Enter the mine\",\"reference\":\"Mine\",\"requiredItem\":null}"));
+    assertEquals(1, sessionManager.getSessionCount());
+  }
+
+  @Test
+  void following_a_link_changes_the_passage_and_the_player() throws Exception {
+    String id = startSession();
+
+    HttpResponse<String> followed = send("POST", "sessions/" + id + "/links/0");
+    HttpResponse<String> passage = send("GET", "sessions/" + id);
+    HttpResponse<String> player = send("GET", "sessions/" + id + "/player");
+
+    assertEquals(200, followed.statusCode());
+    assertTrue(followed.body().contains("\"title\":\"Mine\""));
+    assertTrue(passage.body().contains("\"title\":\"Mine\""));
+    assertEquals("{\"name\":\"Miner\",\"health\":" + GameDifficultyEnum.MEDIUM.getDefaultHealth()
+        + ",\"gold\":" + (GameDifficultyEnum.MEDIUM.getDefaultGold() + 50) + ",\"score\":"
+        + GameDifficultyEnum.MEDIUM.getDefaultScore() + ",\"inventory\":[]}", player.body());
+  }
+
+  @Test
+  void dead_player_can_not_follow_links() throws Exception {
+    String id = startSession();
+
+    HttpResponse<String> died = send("POST", "sessions/" + id + "/links/1");
+    HttpResponse<String> after = send("POST", "sessions/" + id + "/links/0");
+
+    assertTrue(died.body().contains("\"status\":\"DEAD\""));
+    assertEquals(409, after.statusCode());
+  }
+
+  @Test
+  void wrong_requests_are_answered_with_errors() throws Exception {
+    String id = startSession();
+
+    assertEquals(400, send("POST", "sessions/" + id + "/links/7").statusCode());
+    assertEquals(400, send("POST", "sessions/" + id + "/links/first").statusCode());
+    assertEquals(400, send("POST", "sessions?story=Mines&player=x").statusCode());
+    assertEquals(404, send("POST", "sessions?story=Caves&player=Miner").statusCode());
+    assertEquals(404, send("GET", "sessions/unknown").statusCode());
+    assertEquals(404, send("GET", "passages").statusCode());
+    assertEquals(405, send("DELETE", "stories").statusCode());
+  }
+
+  @Test
+  void ended_session_is_gone() throws Exception {
+    String id = startSession();
+
+    assertEquals(204, send("DELETE", "sessions/" + id).statusCode());
+    assertEquals(404, send("GET", "sessions/" + id).statusCode());
+    assertEquals(0, sessionManager.getSessionCount());
+  }
+
+  @Test
+  void full_server_turns_new_sessions_away() throws Exception {
+    for (int i = 0; i < 10; i++) {
+      startSession();
+    }
+
+    assertEquals(503, send("POST", "sessions?story=Mines&player=Miner").statusCode());
+  }
+
+  private String startSession() throws Exception {
+    HttpResponse<String> response = send("POST", "sessions?story=Mines&player=Miner");
+    Matcher matcher = Pattern.compile("\"session\":\"([^\"]+)\"").matcher(response.body());
+    assertTrue(matcher.find());
+    return matcher.group(1);
+  }
+
+  private HttpResponse<String> send(String method, String path) throws Exception {
+    return client.send(HttpRequest.newBuilder(base.resolve(path))
+            .method(method, HttpRequest.BodyPublishers.noBody()).build(),
+        HttpResponse.BodyHandlers.ofString());
+  }
+}